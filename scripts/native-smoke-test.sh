@@ -0,0 +1,69 @@
+#!/usr/bin/env bash
+#
+# Copyright (c) 2021.
+#
+# This file is part of DiscoAPI.
+#
+#     DiscoAPI is free software: you can redistribute it and/or modify
+#     it under the terms of the GNU General Public License as published by
+#     the Free Software Foundation, either version 2 of the License, or
+#     (at your option) any later version.
+#
+#     DiscoAPI is distributed in the hope that it will be useful,
+#     but WITHOUT ANY WARRANTY; without even the implied warranty of
+#     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+#     GNU General Public License for more details.
+#
+# You should have received a copy of the GNU General Public License
+# along with DiscoAPI.  If not, see <http://www.gnu.org/licenses/>.
+#
+
+# Boots the api against a throwaway local mongodb and reports time to healthy and RSS.
+#   ./gradlew nativeCompile && scripts/native-smoke-test.sh native
+#   ./gradlew shadowJar     && scripts/native-smoke-test.sh jvm
+set -euo pipefail
+
+MODE=${1:-native}
+PORT=${PORT:-8080}
+MONGO_CONTAINER=discoapi-smoke-mongo
+
+cleanup() {
+  [[ -n "${APP_PID:-}" ]] && kill "$APP_PID" 2>/dev/null || true
+  docker rm -f "$MONGO_CONTAINER" >/dev/null 2>&1 || true
+}
+trap cleanup EXIT
+
+docker run -d --rm --name "$MONGO_CONTAINER" -p 27017:27017 \
+       -e MONGO_INITDB_ROOT_USERNAME=smoke -e MONGO_INITDB_ROOT_PASSWORD=smoke -e MONGO_INITDB_DATABASE=admin mongo:6 >/dev/null
+
+export FOOJAY_API_ENVIRONMENT=smoke
+export FOOJAY_API_MONGODB_URL=localhost
+export FOOJAY_API_MONGODB_PORT=27017
+export FOOJAY_API_MONGODB_DATABASE=admin
+export FOOJAY_API_MONGODB_USER=smoke
+export FOOJAY_API_MONGODB_PASSWORD=smoke
+export FOOJAY_SNAPSHOT_PATH=$(mktemp -d)/catalog.snapshot
+
+START=$(date +%s%3N)
+if [[ "$MODE" == "native" ]]; then
+  build/native/nativeCompile/discoapi &
+else
+  java -jar "$(ls build/libs/*-all.jar | head -n 1)" &
+fi
+APP_PID=$!
+
+for _ in $(seq 1 600); do
+  if curl -fs "http://localhost:$PORT/health" >/dev/null; then
+    READY=$(date +%s%3N)
+    RSS_KB=$(ps -o rss= -p "$APP_PID" | tr -d ' ')
+    echo "$MODE: healthy after $((READY - START)) ms, RSS $((RSS_KB / 1024)) MB"
+    exit 0
+  fi
+  if ! kill -0 "$APP_PID" 2>/dev/null; then
+    echo "$MODE: process exited before it was healthy" >&2
+    exit 1
+  fi
+  sleep 0.1
+done
+echo "$MODE: not healthy after 60 s" >&2
+exit 1
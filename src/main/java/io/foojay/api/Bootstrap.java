@@ -0,0 +1,232 @@
+/*
+ * Copyright (c) 2021.
+ *
+ * This file is part of DiscoAPI.
+ *
+ *     DiscoAPI is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 2 of the License, or
+ *     (at your option) any later version.
+ *
+ *     DiscoAPI is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with DiscoAPI.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.foojay.api;
+
+import io.foojay.api.util.Config;
+import io.foojay.api.util.Constants;
+import io.foojay.api.util.Helper;
+import io.foojay.api.util.ReleaseCalendar;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+import static io.foojay.api.util.Constants.COLON;
+import static io.foojay.api.util.Constants.COMMA;
+import static io.foojay.api.util.Constants.CURLY_BRACKET_CLOSE;
+import static io.foojay.api.util.Constants.CURLY_BRACKET_OPEN;
+import static io.foojay.api.util.Constants.QUOTES;
+
+
+/**
+ * Explicit startup phase of the service. All dependencies (mongodb, mqtt broker, github) are
+ * initialized in parallel here instead of on first access of a class. Each step has a fallback
+ * (embedded GA dates, last known maintained versions, catalog snapshot), a failed step will
+ * only degrade the readiness instead of blocking the startup.
+ */
+public enum Bootstrap {
+    INSTANCE;
+
+    public enum Readiness { NOT_STARTED, STARTING, READY, DEGRADED }
+
+    public  static final String                       STEP_MONGODB             = "mongodb";
+    public  static final String                       STEP_MQTT                = "mqtt";
+    public  static final String                       STEP_GA_RELEASE_DATES    = "ga_release_dates";
+    public  static final String                       STEP_MAINTAINED_VERSIONS = "maintained_versions";
+    public  static final String                       STEP_CATALOG             = "catalog";
+    private static final Logger                       LOGGER                   = LoggerFactory.getLogger(Bootstrap.class);
+    private static final List<String>                 STEPS                    = List.of(STEP_MONGODB, STEP_MQTT, STEP_GA_RELEASE_DATES, STEP_MAINTAINED_VERSIONS, STEP_CATALOG);
+    private final        AtomicReference<Readiness>   readiness                = new AtomicReference<>(Readiness.NOT_STARTED);
+    private final        Map<String, Long>            stepTimings              = new ConcurrentHashMap<>();
+    private final        Map<String, Boolean>         stepResults              = new ConcurrentHashMap<>();
+    private              CompletableFuture<Readiness> startup;
+    private              ScheduledExecutorService     refresher;
+    private              long                         startupTime              = -1;
+
+
+    /**
+     * Runs all bootstrap steps in parallel (only once).
+     * @return future that completes with the readiness when all steps are finished
+     */
+    public synchronized CompletableFuture<Readiness> start() {
+        if (null != startup) { return startup; }
+        readiness.set(Readiness.STARTING);
+
+        final long            start    = System.currentTimeMillis();
+        final ExecutorService executor = Executors.newFixedThreadPool(STEPS.size(), runnable -> {
+            final Thread thread = new Thread(runnable, "bootstrap");
+            thread.setDaemon(true);
+            return thread;
+        });
+        final CompletableFuture<Void> mongodb = step(STEP_MONGODB, MongoDbManager.INSTANCE::connect, executor);
+        final CompletableFuture<Void> catalog = step(STEP_CATALOG, () -> loadCatalog(mongodb), executor);
+        startup = CompletableFuture.allOf(mongodb,
+                                          catalog,
+                                          step(STEP_MQTT, CacheManager.INSTANCE::connectMqtt, executor),
+                                          step(STEP_GA_RELEASE_DATES, Helper::updateGaReleaseDates, executor),
+                                          step(STEP_MAINTAINED_VERSIONS, CacheManager.INSTANCE::updateMaintainedMajorVersions, executor))
+                                   .thenApply(v -> {
+                                       startupTime = System.currentTimeMillis() - start;
+                                       readiness.set(stepResults.values().stream().allMatch(Boolean::booleanValue) ? Readiness.READY : Readiness.DEGRADED);
+                                       LOGGER.info("Bootstrap finished in {} ms with readiness {}. {}", startupTime, readiness.get(), this);
+                                       executor.shutdown();
+                                       scheduleRefresh();
+                                       startScraping();
+                                       return readiness.get();
+                                   });
+        return startup;
+    }
+
+    /**
+     * Periodically reloads the GA release dates (which rebuilds the release calendar) and the maintained
+     * major versions from github, so that neither of them has to be fetched on a request path.
+     * Also compacts the downloads per user-agent once the download rollups have been backfilled and
+     * publishes the catalog fingerprint of this node regularly.
+     */
+    private synchronized void scheduleRefresh() {
+        if (null != refresher) { return; }
+        final long hours = Config.INSTANCE.getFoojayCalendarRefreshHours();
+        refresher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "release-calendar-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+        refresher.scheduleAtFixedRate(() -> {
+            try {
+                if (!Helper.updateGaReleaseDates()) { ReleaseCalendar.refresh(); }
+                CacheManager.INSTANCE.updateMaintainedMajorVersions();
+            } catch (Exception e) {
+                LOGGER.error("Error refreshing release calendar. {}", e.getMessage());
+            }
+        }, hours, hours, TimeUnit.HOURS);
+        // Roll up the downloads that were recorded before the rollup collections existed, this needs the pkgs to attribute them
+        refresher.execute(() -> {
+            try {
+                if (Readiness.READY != readiness.get() || CacheManager.INSTANCE.pkgCache.isEmpty()) { return; }
+                if (!MongoDbManager.INSTANCE.isDownloadRollupsBackfilled()) { MongoDbManager.INSTANCE.backfillDownloadRollups(); }
+            } catch (Exception e) {
+                LOGGER.error("Error backfilling download rollups. {}", e.getMessage());
+            }
+        });
+        refresher.scheduleAtFixedRate(() -> {
+            try {
+                MongoDbManager.INSTANCE.compactDownloadsUserAgent();
+            } catch (Exception e) {
+                LOGGER.error("Error compacting downloads per user-agent. {}", e.getMessage());
+            }
+        }, Constants.DOWNLOADS_COMPACTION_IN_HOURS, Constants.DOWNLOADS_COMPACTION_IN_HOURS, TimeUnit.HOURS);
+        // Fingerprints of other nodes expire, so the own fingerprint has to be published regularly
+        refresher.scheduleAtFixedRate(() -> {
+            try {
+                CacheManager.INSTANCE.republishFingerprint();
+            } catch (Exception e) {
+                LOGGER.error("Error publishing catalog fingerprint. {}", e.getMessage());
+            }
+        }, Constants.FINGERPRINT_INTERVAL_IN_MINUTES, Constants.FINGERPRINT_INTERVAL_IN_MINUTES, TimeUnit.MINUTES);
+    }
+
+    /**
+     * Starts scraping the maintained distros through the ScrapePipeline on the node that has FOOJAY_SCRAPE_ENABLED set,
+     * the other nodes receive the changed pkgs as delta. Without a catalog every scraped pkg would be treated as new,
+     * so the pipeline is not started if the catalog step fell back.
+     */
+    private void startScraping() {
+        if (!Config.INSTANCE.getFoojayScrapeEnabled()) { return; }
+        if (!stepResults.getOrDefault(STEP_CATALOG, false)) {
+            LOGGER.error("Scrape pipeline not started because the catalog could not be loaded");
+            return;
+        }
+        try {
+            ScrapePipeline.INSTANCE.start();
+            LOGGER.info("Scrape pipeline started");
+        } catch (Exception e) {
+            LOGGER.error("Error starting scrape pipeline. {}", e.getMessage());
+        }
+    }
+
+    public Readiness getReadiness() { return readiness.get(); }
+
+    public boolean isReady() { return Readiness.READY == readiness.get() || Readiness.DEGRADED == readiness.get(); }
+
+    public Map<String, Long> getStepTimings() { return Map.copyOf(stepTimings); }
+
+    /**
+     * Returns the result of each finished bootstrap step (false if the step fell back)
+     * @return the result of each finished bootstrap step
+     */
+    public Map<String, Boolean> getStepResults() { return Map.copyOf(stepResults); }
+
+    private CompletableFuture<Void> step(final String name, final Supplier<Boolean> step, final ExecutorService executor) {
+        return CompletableFuture.runAsync(() -> {
+            final long start = System.currentTimeMillis();
+            boolean success;
+            try {
+                success = Boolean.TRUE.equals(step.get());
+            } catch (Exception e) {
+                LOGGER.error("Bootstrap step {} failed, using fallback. {}", name, e.getMessage());
+                success = false;
+            }
+            stepTimings.put(name, System.currentTimeMillis() - start);
+            stepResults.put(name, success);
+            LOGGER.debug("Bootstrap step {} {} in {} ms", name, success ? "finished" : "fell back", stepTimings.get(name));
+        }, executor);
+    }
+
+    /**
+     * Fills the caches from the local catalog snapshot, if there is none wait for mongodb and the first sync
+     */
+    private boolean loadCatalog(final CompletableFuture<Void> mongodb) {
+        if (CacheManager.INSTANCE.loadSnapshot()) { return true; }
+        try {
+            mongodb.join();
+            CacheManager.INSTANCE.syncCoordinator.trigger().get(Constants.SYNCHRONIZING_TIMEOUT_IN_MINUTES, TimeUnit.MINUTES);
+        } catch (Exception e) {
+            LOGGER.error("Initial sync of the cache failed. {}", e.getMessage());
+        }
+        return !CacheManager.INSTANCE.pkgCache.isEmpty();
+    }
+
+    @Override public String toString() {
+        final StringBuilder msgBuilder = new StringBuilder().append(CURLY_BRACKET_OPEN)
+                                                            .append(QUOTES).append("readiness").append(QUOTES).append(COLON).append(QUOTES).append(readiness.get().name()).append(QUOTES).append(COMMA)
+                                                            .append(QUOTES).append("startup_ms").append(QUOTES).append(COLON).append(startupTime).append(COMMA)
+                                                            .append(QUOTES).append("steps").append(QUOTES).append(COLON).append(CURLY_BRACKET_OPEN);
+        boolean first = true;
+        for (String name : STEPS) {
+            if (!stepTimings.containsKey(name)) { continue; }
+            if (!first) { msgBuilder.append(COMMA); }
+            msgBuilder.append(QUOTES).append(name).append(QUOTES).append(COLON).append(CURLY_BRACKET_OPEN)
+                      .append(QUOTES).append("ms").append(QUOTES).append(COLON).append(stepTimings.get(name)).append(COMMA)
+                      .append(QUOTES).append("fallback").append(QUOTES).append(COLON).append(!stepResults.getOrDefault(name, false))
+                      .append(CURLY_BRACKET_CLOSE);
+            first = false;
+        }
+        return msgBuilder.append(CURLY_BRACKET_CLOSE).append(CURLY_BRACKET_CLOSE).toString();
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright (c) 2021.
+ *
+ * This file is part of DiscoAPI.
+ *
+ *     DiscoAPI is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 2 of the License, or
+ *     (at your option) any later version.
+ *
+ *     DiscoAPI is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with DiscoAPI.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.foojay.api;
+
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.health.HealthStatus;
+import io.micronaut.management.endpoint.health.HealthEndpoint;
+import io.micronaut.management.health.indicator.AbstractHealthIndicator;
+import io.micronaut.management.health.indicator.annotation.Readiness;
+import jakarta.inject.Singleton;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+
+/**
+ * Exposes the readiness of the bootstrap (incl. the steps that fell back) via /health and /health/readiness
+ */
+@Singleton
+@Readiness
+@Requires(beans = HealthEndpoint.class)
+public class BootstrapHealthIndicator extends AbstractHealthIndicator<Map<String, Object>> {
+    private static final String NAME = "bootstrap";
+
+    @Override protected Map<String, Object> getHealthInformation() {
+        final Bootstrap.Readiness readiness = Bootstrap.INSTANCE.getReadiness();
+        // A degraded node serves the catalog from its fallbacks and is therefore still ready
+        healthStatus = Bootstrap.INSTANCE.isReady() ? HealthStatus.UP : HealthStatus.DOWN;
+
+        final Map<String, Object> details = new LinkedHashMap<>();
+        details.put("readiness", readiness.name());
+        details.put("steps", Bootstrap.INSTANCE.getStepResults());
+        details.put("step_timings_ms", Bootstrap.INSTANCE.getStepTimings());
+        details.put("mqtt_connected", CacheManager.INSTANCE.mqttManager.isConnected());
+        details.put("catalog_generation", CacheManager.INSTANCE.catalogGeneration.get());
+        return details;
+    }
+
+    @Override protected String getName() { return NAME; }
+}
@@ -0,0 +1,39 @@
+/*
+ * Copyright (c) 2021.
+ *
+ * This file is part of DiscoAPI.
+ *
+ *     DiscoAPI is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 2 of the License, or
+ *     (at your option) any later version.
+ *
+ *     DiscoAPI is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with DiscoAPI.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.foojay.api;
+
+import io.micronaut.context.annotation.Requires;
+import io.micronaut.context.env.Environment;
+import io.micronaut.context.event.ApplicationEventListener;
+import io.micronaut.context.event.StartupEvent;
+import jakarta.inject.Singleton;
+
+
+/**
+ * Starts the bootstrap when the application context is up, without blocking the startup
+ */
+@Singleton
+@Requires(notEnv = Environment.TEST) // Don't run in tests
+public class BootstrapListener implements ApplicationEventListener<StartupEvent> {
+
+    @Override public void onApplicationEvent(final StartupEvent event) {
+        Bootstrap.INSTANCE.start();
+    }
+}
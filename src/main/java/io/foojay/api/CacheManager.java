@@ -25,12 +25,21 @@ import eu.hansolo.jdktools.util.OutputFormat;
 import io.foojay.api.mqtt.MqttEvt;
 import io.foojay.api.mqtt.MqttEvtObserver;
 import io.foojay.api.mqtt.MqttManager3;
+import io.foojay.api.pkg.CatalogFingerprint;
+import io.foojay.api.pkg.CatalogHistory;
+import io.foojay.api.pkg.CatalogSnapshot;
 import io.foojay.api.pkg.Distro;
+import io.foojay.api.pkg.DistroCatalog;
 import io.foojay.api.pkg.MajorVersion;
+import io.foojay.api.pkg.MajorVersionCatalog;
 import io.foojay.api.pkg.Pkg;
+import io.foojay.api.pkg.PkgDelta;
+import io.foojay.api.util.AdminCommand;
+import io.foojay.api.util.Config;
 import io.foojay.api.util.Constants;
 import io.foojay.api.util.Helper;
 import io.foojay.api.util.JsonCache;
+import io.foojay.api.util.PersistentHashMap;
 import io.foojay.api.util.PkgCache;
 import io.foojay.api.util.State;
 import io.micronaut.context.annotation.Requires;
@@ -39,10 +48,14 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.StringReader;
 import java.net.http.HttpResponse;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -52,13 +65,19 @@ import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Properties;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 
 import static io.foojay.api.util.Constants.API_VERSION_V3;
 import static io.foojay.api.util.Constants.COMMA_NEW_LINE;
@@ -70,14 +89,14 @@ import static io.foojay.api.util.Constants.SQUARE_BRACKET_OPEN;
 public enum CacheManager {
     INSTANCE;
 
-    private static final Logger                       LOGGER                      = LoggerFactory.getLogger(CacheManager.class);
-    public final         MqttManager3                 mqttManager                 = new MqttManager3();
-    public final         MqttEvtObserver              mqttEvtObserver             = evt -> handleMqttEvt(evt);
-    public final         PkgCache<String, Pkg>        pkgCache                    = new PkgCache<>();
-    public final         JsonCache<String, String>    jsonCacheV2                 = new JsonCache<>();
-    public final         JsonCache<String, String>    jsonCacheV3                 = new JsonCache<>();
-    public final         JsonCache<String, String>    jsonCacheMinimizedV3        = new JsonCache<>();
-    public final         Map<Integer, Boolean>        maintainedMajorVersions     = new ConcurrentHashMap<>() {{
+    private static final Logger                               LOGGER                      = LoggerFactory.getLogger(CacheManager.class);
+    public final         MqttManager3                         mqttManager                 = new MqttManager3();
+    public final         MqttEvtObserver                      mqttEvtObserver             = evt -> handleMqttEvt(evt);
+    public final         PkgCache<String, Pkg>                pkgCache                    = new PkgCache<>();
+    public final         JsonCache<String, String>            jsonCacheV2                 = new JsonCache<>();
+    public final         JsonCache<String, String>            jsonCacheV3                 = new JsonCache<>();
+    public final         JsonCache<String, String>            jsonCacheMinimizedV3        = new JsonCache<>();
+    public final         Map<Integer, Boolean>                maintainedMajorVersions     = new ConcurrentHashMap<>() {{
         put(1, false);
         put(2, false);
         put(3, false);
@@ -101,55 +120,125 @@ public enum CacheManager {
         put(21, true);
         put(22, true);
     }};
-    public final         AtomicBoolean                syncWithDatabaseInProgress  = new AtomicBoolean(false);
-    public final         AtomicLong                   msToFillCacheWithPkgsFromDB = new AtomicLong(-1);
-    public final         AtomicLong                   numberOfPackages            = new AtomicLong(-1);
-    public final         AtomicReference<Instant>     lastSync                    = new AtomicReference<>(Instant.MIN);
-    private final        List<MajorVersion>           majorVersions               = new LinkedList<>();
-    private final        List<MajorVersion>           graalvmMajorVersions        = new LinkedList<>();
+    public final         AtomicBoolean                        syncWithDatabaseInProgress  = new AtomicBoolean(false);
+    public final         AtomicLong                           msToFillCacheWithPkgsFromDB = new AtomicLong(-1);
+    public final         AtomicLong                           numberOfPackages            = new AtomicLong(-1);
+    public final         AtomicReference<Instant>             lastSync                    = new AtomicReference<>(Instant.MIN);
+    public final         AtomicLong                           catalogGeneration           = new AtomicLong(-1);
+    public final         AtomicReference<CatalogFingerprint>  fingerprint                 = new AtomicReference<>();
+    public final         Map<String, CatalogFingerprint>      peerFingerprints            = new ConcurrentHashMap<>();
+    public final         CatalogHistory                       catalogHistory              = new CatalogHistory(Config.INSTANCE.getFoojayCatalogGenerations());
+    public final         AtomicLong                           pinnedGeneration            = new AtomicLong(-1);
+    public final         AtomicBoolean                        forceFullSync               = new AtomicBoolean(false);
+    public final         AtomicReference<MajorVersionCatalog> majorVersionCatalog         = new AtomicReference<>(MajorVersionCatalog.EMPTY);
+    public final         AtomicReference<DistroCatalog>       distroCatalog               = new AtomicReference<>(DistroCatalog.EMPTY);
+    public final         SyncCoordinator                      syncCoordinator             = new SyncCoordinator("cache-sync", Config.INSTANCE.getFoojaySyncDebounceMs(), () -> {
+        // A pinned generation will be served until it is unpinned again
+        if (pinnedGeneration.get() >= 0) {
+            LOGGER.debug("Catalog generation {} is pinned -> skip sync", pinnedGeneration.get());
+            return;
+        }
+
+        // Take the published snapshot of the latest generation if available, otherwise read all pkgs from mongodb
+        if (forceFullSync.getAndSet(false) || !syncCacheWithSnapshotStore()) {
+            // Update cache with pkgs from mongodb
+            syncCacheWithDatabase();
+
+            // Update json cache
+            updateJsonCacheV2();
+            updateJsonCacheV3();
+            updateJsonCacheMinimizedV3();
+
+            publishSnapshotToStore(writeSnapshot());
+        }
+
+        publishFingerprint();
+    });
+    private final        AtomicLong                           lastAdminCommandTimestamp   = new AtomicLong(-1);
+    private final        Set<Distro>                          distrosToResync             = ConcurrentHashMap.newKeySet();
+    public final         SyncCoordinator                      resyncCoordinator           = new SyncCoordinator("distro-resync", Config.INSTANCE.getFoojaySyncDebounceMs(), () -> {
+        final List<Distro> distros = new ArrayList<>(distrosToResync);
+        distrosToResync.removeAll(distros);
+        // A running full sync replaces all distros and publishes a new fingerprint anyway
+        if (distros.isEmpty() || syncCoordinator.isRunning() || pinnedGeneration.get() >= 0) { return; }
+        resyncDistros(distros);
+        publishFingerprint();
+    });
+    private              long                                 pendingDeltaGeneration      = -1;
+    private              int                                  deltaChunksApplied          = 0;
 
 
     CacheManager() {
+        // No network calls in here, the connection to the broker will be established by the bootstrap (see connectMqtt())
+        mqttManager.addMqttObserver(Constants.MQTT_PKG_UPDATE_TOPIC, mqttEvtObserver);
+        mqttManager.addMqttObserver(Constants.MQTT_PKG_DELTA_TOPIC, mqttEvtObserver);
+        mqttManager.addMqttObserver(Constants.MQTT_API_STATE_TOPIC, mqttEvtObserver);
+        final List<MajorVersion> majorVersions = new LinkedList<>();
+        maintainedMajorVersions.entrySet().forEach(entry-> majorVersions.add(new MajorVersion(entry.getKey(), Helper.getTermOfSupport(entry.getKey()), entry.getValue())));
+        majorVersionCatalog.set(MajorVersionCatalog.of(List.of(), majorVersions));
+    }
+
+
+    /**
+     * Connects to the mqtt broker and subscribes to all topics the cache depends on
+     * @return true if the connection to the mqtt broker has been established
+     */
+    public boolean connectMqtt() {
+        boolean connected;
+        try {
+            connected = mqttManager.connect(true).get(Constants.MQTT_CONNECT_TIMEOUT_IN_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            connected = false;
+        } catch (ExecutionException | TimeoutException e) {
+            LOGGER.error("Error connecting to mqtt broker. {}", e.getMessage());
+            connected = false;
+        }
         mqttManager.subscribe(Constants.MQTT_PKG_UPDATE_TOPIC, MqttQos.EXACTLY_ONCE);
         mqttManager.subscribe(Constants.MQTT_EPHEMERAL_ID_UPDATE_TOPIC, MqttQos.EXACTLY_ONCE);
         mqttManager.subscribe(Constants.MQTT_UPDATER_STATE_TOPIC, MqttQos.EXACTLY_ONCE);
-        mqttManager.addMqttObserver(mqttEvtObserver);
-        maintainedMajorVersions.entrySet().forEach(entry-> majorVersions.add(new MajorVersion(entry.getKey(), Helper.getTermOfSupport(entry.getKey()), entry.getValue())));
+        mqttManager.subscribe(Constants.MQTT_PKG_DELTA_TOPIC, MqttQos.EXACTLY_ONCE);
+        mqttManager.subscribe(Constants.MQTT_API_STATE_TOPIC, MqttQos.AT_LEAST_ONCE);
+        return connected && mqttManager.isConnected();
     }
 
-
     public void updateMajorVersions() {
         StateManager.INSTANCE.setState(State.UPDATING, "Updating major versions");
-        List<MajorVersion> majorVersionsFromDb = MongoDbManager.INSTANCE.getMajorVersions();
-        if (null == majorVersionsFromDb || majorVersionsFromDb.isEmpty()) {
+        List<MajorVersion> majorVersions = MongoDbManager.INSTANCE.getMajorVersions();
+        if (null == majorVersions || majorVersions.isEmpty()) {
             LOGGER.error("Error updating major versions from mongodb");
             Set<MajorVersion> mv = new HashSet<>();
             pkgCache.getPkgs().forEach(pkg -> mv.add(pkg.getMajorVersion()));
-            majorVersions.clear();
-            majorVersions.addAll(mv);
+            majorVersions = new ArrayList<>(mv);
         } else {
-        majorVersions.clear();
-            majorVersions.addAll(majorVersionsFromDb);
             LOGGER.debug("Successfully updated major versions");
         }
-        
-        Set<MajorVersion> mvgvm = new HashSet<>();
-        pkgCache.getPkgs().stream().filter(pkg -> Distro.isBasedOnGraalVM(pkg.getDistribution().getDistro())).forEach(pkg -> mvgvm.add(new MajorVersion(pkg.getFeatureVersion().getAsInt())));
-        graalvmMajorVersions.clear();
-        graalvmMajorVersions.addAll(mvgvm);
-        
-        updateMaintainedMajorVersions();
+        // The maintained major versions are refreshed by the bootstrap on a schedule, not in here
+        majorVersionCatalog.set(MajorVersionCatalog.of(pkgCache.getPkgs(), majorVersions));
+        distroCatalog.set(DistroCatalog.of(pkgCache.getPkgs()));
+    }
+
+    /**
+     * Rebuilds the major version catalog (keeps the major versions) and the distro catalog from the packages in the cache
+     */
+    public void updateMajorVersionCatalog() {
+        majorVersionCatalog.set(MajorVersionCatalog.of(pkgCache.getPkgs(), majorVersionCatalog.get().getMajorVersions()));
+        distroCatalog.set(DistroCatalog.of(pkgCache.getPkgs()));
     }
 
-    public void updateMaintainedMajorVersions() {
+    /**
+     * Loads the maintained major versions from github, the last known versions will be kept if that fails
+     * @return true if the maintained major versions have been loaded from github
+     */
+    public boolean updateMaintainedMajorVersions() {
         LOGGER.debug("Updating maintained major versions");
         final Properties            maintainedProperties       = new Properties();
         final Map<Integer, Boolean> tmpMaintainedMajorVersions = new HashMap<>();
         try {
             HttpResponse<String> response = Helper.get(Constants.MAINTAINED_PROPERTIES_URL);
-            if (null == response) { return; }
+            if (null == response) { return false; }
             String maintainedPropertiesText = response.body();
-            if (null == maintainedPropertiesText) { return; }
+            if (null == maintainedPropertiesText) { return false; }
             maintainedProperties.load(new StringReader(maintainedPropertiesText));
             maintainedProperties.entrySet().forEach(entry -> {
                 Integer majorVersion = Integer.valueOf(entry.getKey().toString().replaceAll("jdk-", ""));
@@ -159,8 +248,10 @@ public enum CacheManager {
             maintainedMajorVersions.clear();
             maintainedMajorVersions.putAll(tmpMaintainedMajorVersions);
             LOGGER.debug("Successfully updated maintained major versions");
+            return true;
         } catch (Exception e) {
             LOGGER.error("Error loading maintained version properties from github. {}", e);
+            return false;
         }
     }
 
@@ -187,18 +278,20 @@ public enum CacheManager {
         return getMajorVersions(BuildScope.BUILD_OF_OPEN_JDK);
     }
     public List<MajorVersion> getMajorVersions(final BuildScope scope) {
-        if (majorVersions.isEmpty() || graalvmMajorVersions.isEmpty()) { updateMajorVersions(); }
-        switch(scope) {
-            case BUILD_OF_GRAALVM  : return graalvmMajorVersions;
-            case BUILD_OF_OPEN_JDK :
-            default                : return majorVersions.stream().filter(majorVersion -> majorVersion.getScope() == scope).collect(Collectors.toList());
-        }
+        return majorVersionCatalog.get().getMajorVersions(scope);
     }
 
     public void syncCacheWithDatabase() {
-        if (syncWithDatabaseInProgress.get()) { return; }
+        if (!syncWithDatabaseInProgress.compareAndSet(false, true)) { return; }
+
+        try {
+            syncCacheWithDatabaseNow();
+        } finally {
+            syncWithDatabaseInProgress.set(false);
+        }
+    }
 
-        syncWithDatabaseInProgress.set(true);
+    private void syncCacheWithDatabaseNow() {
         StateManager.INSTANCE.setState(State.SYNCHRONIZING, "Synchronizing cache with db");
 
         final long startSyncronizingCache = System.currentTimeMillis();
@@ -206,23 +299,445 @@ public enum CacheManager {
         Map<Distro, Instant> lastUpdates = MongoDbManager.INSTANCE.getLastUpdatesForDistros();
         Distro.getAsListWithoutNoneAndNotFound().forEach(distro -> distro.lastUpdate.set(lastUpdates.get(distro)));
 
+        // Read the generation before the packages, a delta that arrives during the sync will then be applied again
+        final long generation = MongoDbManager.INSTANCE.getCatalogGeneration();
+
         LOGGER.debug("Fill cache with packages from mongodb");
         final long      startRetrievingPkgFromMongodb = System.currentTimeMillis();
         final List<Pkg> pkgsFromMongoDb               = MongoDbManager.INSTANCE.getPkgs();
         LOGGER.debug("Got all pkgs from mongodb in {} ms", (System.currentTimeMillis() - startRetrievingPkgFromMongodb));
 
         Map<String, Pkg> patch = pkgsFromMongoDb.parallelStream().collect(Collectors.toMap(Pkg::getId, pkg -> pkg));
-        pkgCache.setAll(patch);
+        shareUnchangedPkgs(patch);
+
+        // Swap the packages and the generation under the same lock that applyPkgDelta() holds, so a delta never sees the packages of one generation with the number of another
+        synchronized (this) {
+            pkgCache.setAll(patch);
+            catalogGeneration.set(generation);
+            pendingDeltaGeneration = -1;
+            catalogHistory.record(generation, patch);
+        }
 
         numberOfPackages.set(pkgCache.size());
         msToFillCacheWithPkgsFromDB.set(System.currentTimeMillis() - startSyncronizingCache);
 
         // Update all available major versions and maintained major versions
         updateMajorVersions();
-
         lastSync.set(Instant.now());
-        syncWithDatabaseInProgress.set(false);
+    }
+
+    /**
+     * Applies the given package delta to the package cache and the json caches.
+     * If the delta does not directly follow the current catalog generation (e.g. because
+     * a message was lost) the cache will be synchronized with the database instead.
+     * The packages that are only referenced by id are fetched from the database before
+     * the lock is taken, the lock is only held to swap the cache entries.
+     * @param delta the delta to apply
+     * @return true if the delta has been applied or was already applied
+     */
+    public boolean applyPkgDelta(final PkgDelta delta) {
+        final long generation = delta.getGeneration();
+        if (pinnedGeneration.get() >= 0 || (catalogGeneration.get() >= 0 && generation <= catalogGeneration.get())) { return applyPkgDelta(delta, List.of()); }
+
+        final List<Pkg> pkgsFromMongoDb = delta.getUpsertedIds().isEmpty() ? List.of() : MongoDbManager.INSTANCE.getPkgsByIds(delta.getUpsertedIds());
+        if (pkgsFromMongoDb.size() < delta.getUpsertedIds().size()) {
+            LOGGER.debug("Could not fetch all packages of delta generation {} from mongodb -> syncCacheWithDatabase()", generation);
+            synchronized (this) { pendingDeltaGeneration = -1; }
+            syncCoordinator.trigger();
+            return false;
         }
+        return applyPkgDelta(delta, pkgsFromMongoDb);
+    }
+
+    private boolean applyPkgDelta(final PkgDelta delta, final List<Pkg> pkgsFromMongoDb) {
+        final long    generation = delta.getGeneration();
+        final boolean newMajorVersion;
+        synchronized (this) {
+            if (pinnedGeneration.get() >= 0) {
+                LOGGER.debug("Catalog generation {} is pinned -> ignore package delta of generation {}", pinnedGeneration.get(), generation);
+                return false;
+            }
+            final long current = catalogGeneration.get();
+            if (current >= 0 && generation <= current) {
+                LOGGER.debug("Package delta of generation {} already applied (current generation {})", generation, current);
+                return true;
+            }
+            final boolean inOrder = current >= 0 && generation == current + 1 && (0 == delta.getChunk() || (pendingDeltaGeneration == generation && deltaChunksApplied == delta.getChunk()));
+            if (!inOrder) {
+                LOGGER.debug("Gap in package deltas (current generation {}, received generation {} chunk {}) -> syncCacheWithDatabase()", current, generation, delta.getChunk());
+                pendingDeltaGeneration = -1;
+                syncCoordinator.trigger();
+                return false;
+            }
+            if (0 == delta.getChunk()) {
+                pendingDeltaGeneration = generation;
+                deltaChunksApplied     = 0;
+            }
+
+            final List<Pkg> upserted = new ArrayList<>(delta.getUpsertedPkgs());
+            upserted.addAll(pkgsFromMongoDb);
+
+            boolean majorVersionAdded = false;
+            for (Pkg pkg : upserted) {
+                final String id = pkg.getId();
+                pkgCache.add(id, pkg);
+                jsonCacheV2.put(id, pkg.toString(OutputFormat.REDUCED_COMPRESSED, Constants.API_VERSION_V2));
+                jsonCacheV3.put(id, pkg.toString(OutputFormat.REDUCED_COMPRESSED, Constants.API_VERSION_V3));
+                jsonCacheMinimizedV3.put(id, pkg.toString(OutputFormat.MINIMIZED, Constants.API_VERSION_V3));
+                final int featureVersion = pkg.getFeatureVersion().orElse(0);
+                if (majorVersionCatalog.get().getMajorVersions().stream().noneMatch(majorVersion -> majorVersion.getAsInt() == featureVersion)) { majorVersionAdded = true; }
+            }
+            pkgCache.remove(delta.getRemovedIds());
+            jsonCacheV2.remove(delta.getRemovedIds());
+            jsonCacheV3.remove(delta.getRemovedIds());
+            jsonCacheMinimizedV3.remove(delta.getRemovedIds());
+            newMajorVersion = majorVersionAdded;
+
+            if (!newMajorVersion && delta.isLastChunk()) { updateMajorVersionCatalog(); }
+            numberOfPackages.set(pkgCache.size());
+            catalogHistory.record(generation, upserted, delta.getRemovedIds());
+
+            deltaChunksApplied++;
+            if (delta.isLastChunk()) {
+                catalogGeneration.set(generation);
+                pendingDeltaGeneration = -1;
+            }
+        }
+
+        // Reading the major versions from mongodb and publishing the fingerprint do not need the lock
+        if (newMajorVersion) { updateMajorVersions(); }
+        if (!delta.isLastChunk()) { return true; }
+        LOGGER.debug("Applied package delta of generation {}", generation);
+        publishFingerprint();
+        return true;
+    }
+
+    /**
+     * Increments the catalog generation, applies the given changes to the own cache and publishes
+     * them as package deltas, so that all other nodes can apply them without reading all packages
+     * from the database. The own cache does not depend on the message coming back from the broker.
+     * @param upserted the packages that have been added or changed in the database
+     * @param removedIds the ids of the packages that have been removed from the database
+     * @return the new catalog generation or -1 if no delta has been published
+     */
+    public long publishPkgDelta(final Collection<Pkg> upserted, final Collection<String> removedIds) {
+        if (upserted.isEmpty() && removedIds.isEmpty()) { return -1; }
+        final long generation = MongoDbManager.INSTANCE.incrementCatalogGeneration();
+        if (generation < 0) { return -1; }
+        applyPkgDelta(new PkgDelta(generation, 0, 1, new ArrayList<>(upserted), List.of(), new ArrayList<>(removedIds)));
+        final List<String> messages = PkgDelta.createMessages(generation, upserted, removedIds, Constants.MQTT_MAX_PAYLOAD_BYTES);
+        messages.forEach(msg -> mqttManager.publish(Constants.MQTT_PKG_DELTA_TOPIC, MqttQos.EXACTLY_ONCE, false, msg));
+        LOGGER.debug("Published package delta of generation {} ({} upserted, {} removed) in {} messages", generation, upserted.size(), removedIds.size(), messages.size());
+        return generation;
+    }
+
+    /**
+     * Computes the fingerprint of the packages in the cache and publishes it together with
+     * the catalog generation on the api state topic, so that nodes can compare their catalogs.
+     */
+    public void publishFingerprint() {
+        final CatalogFingerprint current = CatalogFingerprint.of(Constants.MQTT_CLIENT_ID, catalogGeneration.get(), pkgCache.getPkgs());
+        fingerprint.set(current);
+        mqttManager.publish(Constants.MQTT_API_STATE_TOPIC, MqttQos.AT_LEAST_ONCE, false, current.toString());
+        LOGGER.debug("Published catalog fingerprint {} of generation {}", current.getFingerprint(), current.getGeneration());
+    }
+
+    /**
+     * Writes the package cache and the json caches to the binary catalog snapshot on disk.
+     * @return the catalog generation of the written snapshot or -1 if the snapshot could not be written
+     */
+    public long writeSnapshot() {
+        final Path snapshotPath = Paths.get(Config.INSTANCE.getFoojaySnapshotPath());
+        try {
+            final long            start = System.currentTimeMillis();
+            final CatalogSnapshot snapshot;
+            // Take the generation together with the packages, so a delta can't be applied in between
+            synchronized (this) {
+                snapshot = CatalogSnapshot.of(catalogGeneration.get(), pkgCache.getPkgs(), jsonCacheV2.getCopy(), jsonCacheV3.getCopy(), jsonCacheMinimizedV3.getCopy());
+            }
+            snapshot.write(snapshotPath);
+            LOGGER.debug("Wrote catalog snapshot of generation {} to {} in {} ms", snapshot.getGeneration(), snapshotPath, (System.currentTimeMillis() - start));
+            return snapshot.getGeneration();
+        } catch (IOException e) {
+            LOGGER.error("Error writing catalog snapshot to {}. {}", snapshotPath, e.getMessage());
+            return -1;
+        }
+    }
+
+    /**
+     * Fills the package cache and the json caches from the catalog snapshot on disk (if present)
+     * so that requests can be served right after startup. The cache will be reconciled with the
+     * database in the background afterwards.
+     * @return true if the caches have been filled from the snapshot
+     */
+    public boolean loadSnapshot() {
+        final CatalogSnapshot snapshot = CatalogSnapshot.read(Paths.get(Config.INSTANCE.getFoojaySnapshotPath()));
+        final boolean         loaded   = null != snapshot && !snapshot.getPkgs().isEmpty();
+        if (loaded) { applySnapshot(snapshot); }
+
+        // Reconcile with the database in the background
+        syncCoordinator.trigger();
+        return loaded;
+    }
+
+    /**
+     * Downloads the snapshot of the current catalog generation from the snapshot store (GridFS)
+     * if this node is behind, memory maps it and swaps it into the caches. This replaces a full
+     * read of the packages collection and rendering of all json by one sequential read.
+     * @return true if the caches have been updated from the snapshot store
+     */
+    private boolean syncCacheWithSnapshotStore() {
+        final long generation = MongoDbManager.INSTANCE.getCatalogGeneration();
+        if (generation < 0 || generation <= catalogGeneration.get()) { return false; }
+
+        final long start        = System.currentTimeMillis();
+        final Path snapshotPath = Paths.get(Config.INSTANCE.getFoojaySnapshotPath()).toAbsolutePath();
+        Path compressed = null;
+        Path raw        = null;
+        try {
+            Files.createDirectories(snapshotPath.getParent());
+            compressed = Files.createTempFile(snapshotPath.getParent(), snapshotPath.getFileName().toString(), ".gz");
+            raw        = Files.createTempFile(snapshotPath.getParent(), snapshotPath.getFileName().toString(), ".tmp");
+            try (OutputStream out = Files.newOutputStream(compressed)) {
+                if (!MongoDbManager.INSTANCE.downloadCatalogSnapshot(generation, out)) { return false; }
+            }
+            try (InputStream in = new GZIPInputStream(Files.newInputStream(compressed))) {
+                Files.copy(in, raw, StandardCopyOption.REPLACE_EXISTING);
+            }
+            final CatalogSnapshot snapshot = CatalogSnapshot.read(raw);
+            if (null == snapshot || snapshot.getGeneration() != generation || !snapshot.hasJson()) { return false; }
+
+            Map<Distro, Instant> lastUpdates = MongoDbManager.INSTANCE.getLastUpdatesForDistros();
+            Distro.getAsListWithoutNoneAndNotFound().forEach(distro -> distro.lastUpdate.set(lastUpdates.get(distro)));
+
+            applySnapshot(snapshot);
+            updateMajorVersions();
+            Files.move(raw, snapshotPath, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            lastSync.set(Instant.now());
+            LOGGER.debug("Synchronized cache with catalog snapshot of generation {} in {} ms", generation, (System.currentTimeMillis() - start));
+            return true;
+        } catch (IOException e) {
+            LOGGER.error("Error syncing cache with catalog snapshot of generation {}. {}", generation, e.getMessage());
+            return false;
+        } finally {
+            try {
+                if (null != compressed) { Files.deleteIfExists(compressed); }
+                if (null != raw)        { Files.deleteIfExists(raw); }
+            } catch (IOException e) {
+                LOGGER.debug("Error deleting temporary snapshot files. {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Uploads the local catalog snapshot (gzip compressed) to the snapshot store so that the other
+     * nodes can take it instead of reading all packages from the database. Only the node that
+     * claimed the upload of a generation in the database will upload it.
+     * @param generation the catalog generation of the local snapshot (as returned by writeSnapshot())
+     */
+    private void publishSnapshotToStore(final long generation) {
+        if (generation < 0 || !MongoDbManager.INSTANCE.claimCatalogSnapshotUpload(generation)) { return; }
+
+        final Path snapshotPath = Paths.get(Config.INSTANCE.getFoojaySnapshotPath()).toAbsolutePath();
+        Path compressed = null;
+        try {
+            compressed = Files.createTempFile(snapshotPath.getParent(), snapshotPath.getFileName().toString(), ".gz");
+            try (InputStream in = Files.newInputStream(snapshotPath); OutputStream out = new GZIPOutputStream(Files.newOutputStream(compressed))) {
+                in.transferTo(out);
+            }
+            try (InputStream in = Files.newInputStream(compressed)) {
+                if (MongoDbManager.INSTANCE.uploadCatalogSnapshot(generation, in)) {
+                    LOGGER.debug("Published catalog snapshot of generation {} ({} bytes)", generation, Files.size(compressed));
+                }
+            }
+        } catch (IOException e) {
+            LOGGER.error("Error publishing catalog snapshot of generation {}. {}", generation, e.getMessage());
+        } finally {
+            try {
+                if (null != compressed) { Files.deleteIfExists(compressed); }
+            } catch (IOException e) {
+                LOGGER.debug("Error deleting temporary snapshot file. {}", e.getMessage());
+            }
+        }
+    }
+
+    private void applySnapshot(final CatalogSnapshot snapshot) {
+        final long             start = System.currentTimeMillis();
+        final Map<String, Pkg> pkgs  = snapshot.getPkgs().stream().collect(Collectors.toMap(Pkg::getId, pkg -> pkg, (pkg1, pkg2) -> pkg1));
+        shareUnchangedPkgs(pkgs);
+        synchronized (this) {
+            pkgCache.setAll(pkgs);
+            if (snapshot.hasJson()) {
+                jsonCacheV2.setAll(snapshot.getJsonV2());
+                jsonCacheV3.setAll(snapshot.getJsonV3());
+                jsonCacheMinimizedV3.setAll(snapshot.getJsonMinimizedV3());
+            } else {
+                updateJsonCacheV2();
+                updateJsonCacheV3();
+                updateJsonCacheMinimizedV3();
+            }
+            catalogGeneration.set(snapshot.getGeneration());
+            pendingDeltaGeneration = -1;
+            catalogHistory.record(snapshot.getGeneration(), pkgs);
+        }
+        numberOfPackages.set(pkgCache.size());
+        updateMajorVersionCatalog();
+        LOGGER.info("Loaded {} packages of generation {} from catalog snapshot in {} ms", pkgCache.size(), snapshot.getGeneration(), (System.currentTimeMillis() - start));
+    }
+
+    /**
+     * Compares the own fingerprint with the fingerprints of the other nodes that are on the same
+     * catalog generation. If the own fingerprint differs from the one of the majority, only the
+     * distros with a different sub-fingerprint will be reloaded from the database.
+     * @param peer the fingerprint that was received from another node
+     */
+    private void handleFingerprint(final CatalogFingerprint peer) {
+        if (Constants.MQTT_CLIENT_ID.equals(peer.getNode())) { return; }
+        peerFingerprints.put(peer.getNode(), peer);
+        // Nodes that stopped publishing their fingerprint must not vote anymore
+        final long now = System.currentTimeMillis();
+        peerFingerprints.values().removeIf(fp -> fp.isOlderThan(TimeUnit.MINUTES.toMillis(Constants.FINGERPRINT_TTL_IN_MINUTES), now));
+        if (pinnedGeneration.get() >= 0) { return; }
+
+        final CatalogFingerprint own = fingerprint.get();
+        if (null == own || own.getGeneration() != peer.getGeneration() || syncCoordinator.isRunning()) { return; }
+
+        final Map<String, Long> votes = peerFingerprints.values()
+                                                        .stream()
+                                                        .filter(fp -> fp.getGeneration() == own.getGeneration())
+                                                        .collect(Collectors.groupingBy(CatalogFingerprint::getFingerprint, Collectors.counting()));
+        votes.merge(own.getFingerprint(), 1L, Long::sum);
+        final long ownVotes = votes.get(own.getFingerprint());
+        final Optional<Map.Entry<String, Long>> majority = votes.entrySet().stream().max(Map.Entry.comparingByValue());
+        if (majority.isEmpty() || majority.get().getValue() <= ownVotes) { return; }
+
+        final Optional<CatalogFingerprint> reference = peerFingerprints.values().stream().filter(fp -> fp.getGeneration() == own.getGeneration()).filter(fp -> fp.getFingerprint().equals(majority.get().getKey())).findFirst();
+        if (reference.isEmpty()) { return; }
+
+        final List<Distro> diverging = own.getDivergingDistros(reference.get());
+        if (diverging.isEmpty()) { return; }
+        LOGGER.debug("Catalog diverges from majority in {} distros -> resync {}", diverging.size(), diverging);
+        // Reload the distros on the resync thread instead of blocking the mqtt client thread
+        distrosToResync.addAll(diverging);
+        resyncCoordinator.trigger();
+    }
+
+    /**
+     * Publishes the fingerprint again if the catalog did not change since it was computed, otherwise a
+     * new fingerprint will be computed. Called periodically so that the other nodes know this node is alive.
+     */
+    public void republishFingerprint() {
+        final CatalogFingerprint current = fingerprint.get();
+        if (null == current || current.getGeneration() != catalogGeneration.get() || current.getSize() != pkgCache.size()) {
+            publishFingerprint();
+        } else {
+            mqttManager.publish(Constants.MQTT_API_STATE_TOPIC, MqttQos.AT_LEAST_ONCE, false, current.toString());
+        }
+    }
+
+    /**
+     * Replaces the packages of the given distros in all caches with the ones from the database
+     * @param distros the distros to reload from the database
+     */
+    public synchronized void resyncDistros(final List<Distro> distros) {
+        for (Distro distro : distros) {
+            final Map<String, Pkg> pkgsFromMongoDb = MongoDbManager.INSTANCE.getPkgsForDistro(distro).stream().collect(Collectors.toMap(Pkg::getId, pkg -> pkg, (pkg1, pkg2) -> pkg1));
+            final List<String>     idsToRemove     = pkgCache.getEntrySet()
+                                                             .stream()
+                                                             .filter(entry -> entry.getValue().getDistribution().getDistro() == distro)
+                                                             .map(Map.Entry::getKey)
+                                                             .filter(id -> !pkgsFromMongoDb.containsKey(id))
+                                                             .collect(Collectors.toList());
+            pkgsFromMongoDb.forEach((id, pkg) -> {
+                pkgCache.add(id, pkg);
+                jsonCacheV2.put(id, pkg.toString(OutputFormat.REDUCED_COMPRESSED, Constants.API_VERSION_V2));
+                jsonCacheV3.put(id, pkg.toString(OutputFormat.REDUCED_COMPRESSED, Constants.API_VERSION_V3));
+                jsonCacheMinimizedV3.put(id, pkg.toString(OutputFormat.MINIMIZED, Constants.API_VERSION_V3));
+            });
+            pkgCache.remove(idsToRemove);
+            jsonCacheV2.remove(idsToRemove);
+            jsonCacheV3.remove(idsToRemove);
+            jsonCacheMinimizedV3.remove(idsToRemove);
+        }
+        numberOfPackages.set(pkgCache.size());
+        updateMajorVersionCatalog();
+        catalogHistory.record(catalogGeneration.get(), pkgCache.getCopy());
+    }
+
+    /**
+     * Swaps the package cache and the json caches to the content of the given catalog generation
+     * (if still available in the catalog history). Only the packages that differ from the current
+     * cache will be rendered again. The next sync will move the cache forward again.
+     * @param generation the catalog generation to roll back to
+     * @return true if the caches now contain the given generation
+     */
+    public synchronized boolean rollbackToGeneration(final long generation) {
+        final PersistentHashMap<String, Pkg> pkgsOfGeneration = catalogHistory.get(generation);
+        if (null == pkgsOfGeneration) {
+            LOGGER.debug("Catalog generation {} not available for rollback, available generations {}", generation, catalogHistory.getGenerations());
+            return false;
+        }
+        final Map<String, Pkg> pkgs        = pkgsOfGeneration.toMap();
+        final List<String>     idsToRemove = pkgCache.getKeys().stream().filter(id -> !pkgs.containsKey(id)).collect(Collectors.toList());
+        pkgs.forEach((id, pkg) -> {
+            if (pkgCache.get(id) == pkg) { return; }
+            pkgCache.add(id, pkg);
+            jsonCacheV2.put(id, pkg.toString(OutputFormat.REDUCED_COMPRESSED, Constants.API_VERSION_V2));
+            jsonCacheV3.put(id, pkg.toString(OutputFormat.REDUCED_COMPRESSED, Constants.API_VERSION_V3));
+            jsonCacheMinimizedV3.put(id, pkg.toString(OutputFormat.MINIMIZED, Constants.API_VERSION_V3));
+        });
+        pkgCache.remove(idsToRemove);
+        jsonCacheV2.remove(idsToRemove);
+        jsonCacheV3.remove(idsToRemove);
+        jsonCacheMinimizedV3.remove(idsToRemove);
+
+        catalogGeneration.set(generation);
+        pendingDeltaGeneration = -1;
+        numberOfPackages.set(pkgCache.size());
+        updateMajorVersionCatalog();
+        LOGGER.info("Rolled back package catalog to generation {} ({} packages)", generation, pkgCache.size());
+        publishFingerprint();
+        return true;
+    }
+
+    /**
+     * Rolls back to the given catalog generation and keeps serving it (syncs and deltas will be
+     * ignored) until unpinGeneration() is called.
+     * @param generation the catalog generation to pin
+     * @return true if the given generation is pinned now
+     */
+    public synchronized boolean pinGeneration(final long generation) {
+        if (!catalogHistory.pin(generation)) { return false; }
+        if (!rollbackToGeneration(generation)) {
+            catalogHistory.unpin(generation);
+            return false;
+        }
+        final long previous = pinnedGeneration.getAndSet(generation);
+        if (previous >= 0 && previous != generation) { catalogHistory.unpin(previous); }
+        return true;
+    }
+
+    /**
+     * Releases the pinned catalog generation and synchronizes the cache with the database again.
+     */
+    public synchronized void unpinGeneration() {
+        final long generation = pinnedGeneration.getAndSet(-1);
+        if (generation < 0) { return; }
+        catalogHistory.unpin(generation);
+        forceFullSync.set(true);
+        syncCoordinator.trigger();
+    }
+
+    /**
+     * Replaces packages in the given map with the instances that are already in the cache if they
+     * did not change, so unchanged packages are shared between the cache and the catalog history.
+     */
+    private void shareUnchangedPkgs(final Map<String, Pkg> pkgs) {
+        pkgs.replaceAll((id, pkg) -> {
+            final Pkg cached = pkgCache.get(id);
+            return null != cached && cached.diff(pkg).isEmpty() ? cached : pkg;
+        });
+    }
 
 
     // ******************** MQTT Message handling *****************************
@@ -230,56 +745,101 @@ public enum CacheManager {
         final String topic = evt.getTopic();
         final String msg   = evt.getMsg();
 
-        if (topic.equals(Constants.MQTT_PKG_UPDATE_TOPIC)) {
-            switch(msg) {
+        if (topic.equals(Constants.MQTT_API_STATE_TOPIC)) {
+            final CatalogFingerprint peer = CatalogFingerprint.fromJson(msg);
+            if (null != peer) { handleFingerprint(peer); }
+        } else if (topic.equals(Constants.MQTT_PKG_DELTA_TOPIC)) {
+            final PkgDelta delta = PkgDelta.fromJson(msg);
+            if (null == delta) {
+                syncCoordinator.trigger();
+            } else {
+                applyPkgDelta(delta);
+            }
+        } else if (topic.equals(Constants.MQTT_PKG_UPDATE_TOPIC)) {
+            // The finished message might carry the catalog generation (e.g. pkg_update_finished@42)
+            final int    separator  = msg.indexOf(Constants.MQTT_GENERATION_SEPARATOR);
+            final String command    = separator < 0 ? msg : msg.substring(0, separator);
+            final long   generation = separator < 0 ? -1 : parseGeneration(msg.substring(separator + 1));
+
+            // Sync runs on the coordinator thread, triggers during a sync are coalesced into one follow-up run
+            switch(command) {
                 case Constants.MQTT_PKG_UPDATE_FINISHED_EMPTY_MSG -> {
                     if (!pkgCache.isEmpty()) { return; }
-                        try {
-                        LOGGER.debug("PkgCache is empty -> syncCacheWithDatabase(). MQTT event: {}", evt);
-
-                            // Update cache with pkgs from mongodb
-                            syncCacheWithDatabase();
-
-                            // Update json cache
-                            updateJsonCacheV2();
-                        updateJsonCacheV3();
-                        updateJsonCacheMinimizedV3();
-                        } catch (Exception e) {
-                            syncWithDatabaseInProgress.set(false);
-                        }
-                    }
+                    LOGGER.debug("PkgCache is empty -> syncCacheWithDatabase(). MQTT event: {}", evt);
+                    syncCoordinator.trigger();
+                }
                 case Constants.MQTT_PKG_UPDATE_FINISHED_MSG -> {
-                    try {
-                        LOGGER.debug("Database updated -> syncCacheWithDatabase(). MQTT event: {}", evt);
-                        mqttManager.publish(Constants.MQTT_API_STATE_TOPIC, "Database updated -> syncCacheWithDatabase");
-                        // Update cache with pkgs from mongodb
-                        syncCacheWithDatabase();
-
-                        // Update json cache
-                        updateJsonCacheV2();
-                        updateJsonCacheV3();
-                        updateJsonCacheMinimizedV3();
-                    } catch (Exception e) {
-                        syncWithDatabaseInProgress.set(false);
+                    if (generation >= 0 && generation <= catalogGeneration.get()) {
+                        LOGGER.debug("Cache already on catalog generation {}. MQTT event: {}", generation, evt);
+                        return;
                     }
+                    LOGGER.debug("Database updated -> syncCacheWithDatabase(). MQTT event: {}", evt);
+                    mqttManager.publish(Constants.MQTT_API_STATE_TOPIC, "Database updated -> syncCacheWithDatabase");
+                    syncCoordinator.trigger();
                 }
                 case Constants.MQTT_FORCE_PKG_UPDATE_MSG -> {
-                    try {
-                        LOGGER.debug("Force pkg update -> syncCacheWithDatabase(). MQTT event: {}", evt);
-                        mqttManager.publish(Constants.MQTT_API_STATE_TOPIC, "Force pkg update -> syncCacheWithDatabase");
-
-                        // Update cache with pkgs from mongodb
-                        syncCacheWithDatabase();
-
-                        // Update json cache
-                        updateJsonCacheV2();
-                        updateJsonCacheV3();
-                        updateJsonCacheMinimizedV3();
-                    } catch (Exception e) {
-                        syncWithDatabaseInProgress.set(false);
-                    }
+                    LOGGER.debug("Force pkg update -> syncCacheWithDatabase(). MQTT event: {}", evt);
+                    mqttManager.publish(Constants.MQTT_API_STATE_TOPIC, "Force pkg update -> syncCacheWithDatabase");
+                    forceFullSync.set(true);
+                    syncCoordinator.trigger();
                 }
+                case Constants.MQTT_ROLLBACK_CATALOG_MSG, Constants.MQTT_PIN_CATALOG_MSG, Constants.MQTT_UNPIN_CATALOG_MSG -> handleAdminCommand(msg);
             }
         }
     }
+
+    /**
+     * Signs the given admin command (rollback, pin or unpin) with the admin secret and publishes it to all nodes
+     * @param command the command (Constants.MQTT_ROLLBACK_CATALOG_MSG, MQTT_PIN_CATALOG_MSG or MQTT_UNPIN_CATALOG_MSG)
+     * @param generation the catalog generation the command refers to
+     * @return true if the command has been published
+     */
+    public boolean publishAdminCommand(final String command, final long generation) {
+        final String msg = AdminCommand.sign(command, generation, System.currentTimeMillis(), Config.INSTANCE.getFoojayAdminSecret());
+        if (null == msg) { return false; }
+        mqttManager.publish(Constants.MQTT_PKG_UPDATE_TOPIC, MqttQos.EXACTLY_ONCE, false, msg);
+        return true;
+    }
+
+    /**
+     * Executes the rollback, pin and unpin commands only if they have been signed with the admin secret
+     * (see AdminCommand) and are newer than the last executed command, so they can't be replayed.
+     * @param msg the signed command (command@generation@timestamp@signature)
+     */
+    private void handleAdminCommand(final String msg) {
+        final AdminCommand adminCommand = AdminCommand.fromSigned(msg, Config.INSTANCE.getFoojayAdminSecret(), System.currentTimeMillis(), TimeUnit.SECONDS.toMillis(Constants.ADMIN_COMMAND_MAX_AGE_IN_SECONDS));
+        if (null == adminCommand) {
+            LOGGER.warn("Rejected unsigned or invalid admin command {}", msg);
+            return;
+        }
+        final long lastTimestamp = lastAdminCommandTimestamp.getAndAccumulate(adminCommand.getTimestamp(), Math::max);
+        if (adminCommand.getTimestamp() <= lastTimestamp) {
+            LOGGER.warn("Rejected replayed admin command {}", msg);
+            return;
+        }
+        final long generation = adminCommand.getGeneration();
+        switch(adminCommand.getCommand()) {
+            case Constants.MQTT_ROLLBACK_CATALOG_MSG -> {
+                LOGGER.debug("Rollback to catalog generation {}", generation);
+                rollbackToGeneration(generation);
+            }
+            case Constants.MQTT_PIN_CATALOG_MSG -> {
+                LOGGER.debug("Pin catalog generation {}", generation);
+                pinGeneration(generation);
+            }
+            case Constants.MQTT_UNPIN_CATALOG_MSG -> {
+                LOGGER.debug("Unpin catalog generation");
+                unpinGeneration();
+            }
+            default -> LOGGER.warn("Unknown admin command {}", adminCommand.getCommand());
+        }
+    }
+
+    private static long parseGeneration(final String text) {
+        try {
+            return Long.parseLong(text.trim());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
 }
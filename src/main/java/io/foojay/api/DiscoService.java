@@ -33,6 +33,7 @@ import eu.hansolo.jdktools.TermOfSupport;
 import eu.hansolo.jdktools.Verification;
 import eu.hansolo.jdktools.scopes.Scope;
 import eu.hansolo.jdktools.util.Comparison;
+import eu.hansolo.jdktools.util.OutputFormat;
 import eu.hansolo.jdktools.versioning.VersionNumber;
 import io.foojay.api.distribution.Distribution;
 import io.foojay.api.pkg.Distro;
@@ -41,6 +42,7 @@ import io.foojay.api.pkg.MajorVersion;
 import io.foojay.api.pkg.Pkg;
 import io.foojay.api.util.Constants;
 import io.foojay.api.util.Helper;
+import io.foojay.api.util.RollupPeriod;
 
 import java.util.ArrayList;
 import java.util.Collection;
@@ -571,4 +573,48 @@ public enum DiscoService {
 
         return pkgsFound.parallelStream().sorted(Comparator.comparing(Pkg::getDistributionName).reversed().thenComparing(Comparator.comparing(Pkg::getSemver).reversed())).collect(Collectors.toList());
     }
+
+    /**
+     * Returns the json of the given distro from the current distro catalog (rendered once per catalog change)
+     * @param distro the distro
+     * @param outputFormat the output format
+     * @param include_versions include the versions of the distro
+     * @param include_synonyms include the synonyms of the distro
+     * @param latest_per_update only include the latest version of each update
+     * @param include_ea include early access versions
+     * @return the json of the given distro
+     */
+    public String getDistributionJson(final Distro distro, final OutputFormat outputFormat, final boolean include_versions, final boolean include_synonyms, final boolean latest_per_update, final boolean include_ea) {
+        return CacheManager.INSTANCE.distroCatalog.get().getJson(distro, outputFormat, include_versions, include_synonyms, latest_per_update, include_ea);
+    }
+
+    /**
+     * Returns the json array of the given distros (all public distros if empty) from the current distro catalog
+     * (rendered once per catalog change)
+     * @param distros the distros to include (all public distros if empty)
+     * @param outputFormat the output format
+     * @param include_versions include the versions of the distros
+     * @param include_synonyms include the synonyms of the distros
+     * @param latest_per_update only include the latest version of each update
+     * @param include_ea include early access versions
+     * @return the json array of the given distros
+     */
+    public String getDistributionsJson(final List<Distro> distros, final OutputFormat outputFormat, final boolean include_versions, final boolean include_synonyms, final boolean latest_per_update, final boolean include_ea) {
+        final List<Distro> distrosToRender = null == distros || distros.isEmpty() ? Distro.getPublicDistros() : distros;
+        return CacheManager.INSTANCE.distroCatalog.get().getJson(distrosToRender, outputFormat, include_versions, include_synonyms, latest_per_update, include_ea);
+    }
+
+    /**
+     * Returns a json array with the number of downloads per bucket of the given rollup period
+     * @param period the rollup period (hourly, daily, weekly, monthly)
+     * @param from epoch seconds from where to include (null for all)
+     * @param to epoch seconds to where to include (null for now)
+     * @param distro only include downloads of this distro (null for all)
+     * @param majorVersion only include downloads of this major version (null for all)
+     * @param pkgId only include downloads of this package (null for all)
+     * @return a json array with the number of downloads per bucket of the given rollup period
+     */
+    public String getDownloadStats(final RollupPeriod period, final Long from, final Long to, final Distro distro, final Integer majorVersion, final String pkgId) {
+        return MongoDbManager.INSTANCE.getDownloadStats(null == period ? RollupPeriod.DAILY : period, from, to, distro, majorVersion, pkgId);
+    }
 }
@@ -19,9 +19,12 @@
 
 package io.foojay.api;
 
+import com.mongodb.ErrorCategory;
+import com.mongodb.MongoBulkWriteException;
 import com.mongodb.MongoClientSettings;
 import com.mongodb.MongoCredential;
 import com.mongodb.MongoException;
+import com.mongodb.MongoWriteException;
 import com.mongodb.ServerAddress;
 import com.mongodb.client.MongoClient;
 import com.mongodb.client.MongoClients;
@@ -29,8 +32,23 @@ import com.mongodb.client.MongoCollection;
 import com.mongodb.client.MongoCursor;
 import com.mongodb.client.MongoDatabase;
 import com.mongodb.client.MongoIterable;
+import com.mongodb.client.gridfs.GridFSBucket;
+import com.mongodb.client.gridfs.GridFSBuckets;
+import com.mongodb.client.gridfs.model.GridFSFile;
+import com.mongodb.client.gridfs.model.GridFSUploadOptions;
+import com.mongodb.client.model.Accumulators;
+import com.mongodb.client.model.FindOneAndUpdateOptions;
+import com.mongodb.client.model.Aggregates;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.IndexOptions;
+import com.mongodb.client.model.Indexes;
+import com.mongodb.client.model.ReplaceOneModel;
 import com.mongodb.client.model.ReplaceOptions;
+import com.mongodb.client.model.ReturnDocument;
+import com.mongodb.client.model.Sorts;
+import com.mongodb.client.model.UpdateOneModel;
 import com.mongodb.client.model.UpdateOptions;
+import com.mongodb.client.model.WriteModel;
 import eu.hansolo.jdktools.util.OutputFormat;
 import io.foojay.api.pkg.Distro;
 import io.foojay.api.pkg.MajorVersion;
@@ -39,7 +57,9 @@ import io.foojay.api.pkg.PkgField;
 import io.foojay.api.util.Config;
 import io.foojay.api.util.Constants;
 import io.foojay.api.util.EphemeralIdCache;
+import io.foojay.api.util.FileSizeResolver.FileSize;
 import io.foojay.api.util.Helper;
+import io.foojay.api.util.RollupPeriod;
 import io.foojay.api.util.State;
 import io.foojay.api.util.UpdaterState;
 import org.bson.BsonDocument;
@@ -47,22 +67,32 @@ import org.bson.BsonString;
 import org.bson.Document;
 import org.bson.conversions.Bson;
 import org.bson.json.JsonParseException;
+import org.bson.types.ObjectId;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.time.Duration;
 import java.time.Instant;
-import java.time.ZoneId;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Date;
+import java.util.EnumMap;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 import java.util.logging.Level;
 import java.util.stream.Collectors;
@@ -71,14 +101,21 @@ import static com.mongodb.client.model.Filters.and;
 import static com.mongodb.client.model.Filters.eq;
 import static com.mongodb.client.model.Filters.gte;
 import static com.mongodb.client.model.Filters.in;
+import static com.mongodb.client.model.Filters.lt;
 import static com.mongodb.client.model.Filters.lte;
 import static com.mongodb.client.model.Updates.combine;
+import static com.mongodb.client.model.Updates.inc;
+import static com.mongodb.client.model.Updates.max;
+import static com.mongodb.client.model.Updates.push;
 import static com.mongodb.client.model.Updates.set;
+import static com.mongodb.client.model.Updates.setOnInsert;
 import static io.foojay.api.util.Constants.API_VERSION_V3;
+import static io.foojay.api.util.Constants.COLON;
 import static io.foojay.api.util.Constants.COMMA;
 import static io.foojay.api.util.Constants.COMMA_NEW_LINE;
 import static io.foojay.api.util.Constants.CURLY_BRACKET_CLOSE;
 import static io.foojay.api.util.Constants.CURLY_BRACKET_OPEN;
+import static io.foojay.api.util.Constants.QUOTES;
 import static io.foojay.api.util.Constants.SQUARE_BRACKET_CLOSE;
 import static io.foojay.api.util.Constants.SQUARE_BRACKET_OPEN;
 
@@ -107,9 +144,31 @@ public enum MongoDbManager {
     private static final String                           FIELD_TERM_OF_SUPPORT          = "term_of_support";
     private static final String                           FIELD_RELEASE_STATUS           = "release_status";
     private static final String                           FIELD_MAINTAINED               = "maintained";
-    public final         EphemeralIdCache<String, String> ephemeralIdCache               = new EphemeralIdCache<>();
+    private static final String                           FIELD_BUCKET                   = "bucket";
+    private static final String                           FIELD_GENERATION               = "generation";
+    private static final String                           FIELD_CATALOG_GENERATION       = "catalog_generation";
+    private static final String                           FIELD_COUNT                    = "count";
+    private static final String                           FIELD_EVENTS                   = "events";
+    private static final String                           FIELD_EXPIRES_AT               = "expires_at";
+    private static final String                           FIELD_METADATA_GENERATION      = "metadata.generation";
+    private static final String                           FIELD_UPLOAD_DATE              = "uploadDate";
+    private static final String                           FIELD_URI                      = "uri";
+    private static final String                           FIELD_SIZE                     = "size";
+    private static final String                           FIELD_ETAG                     = "etag";
+    private static final String                           FIELD_LAST_MODIFIED            = "last_modified";
+    private static final String                           FIELD_CHECKED_AT               = "checked_at";
+    private static final String                           FIELD_ROLLUP_BACKFILL          = "rollup_backfill";
+    private static final String                           FIELD_SNAPSHOT_UPLOAD          = "snapshot_upload";
+    private static final String                           FIELD_ID                       = "_id";
+    private static final String                           FIELD_NODE                     = "node";
+    private static final String                           FIELD_GITHUB_MARK              = "github_mark";
+    private static final String                           FIELD_MARK                     = "mark";
+    private static final String                           UNKNOWN_DISTRO                 = "unknown";
+    public final         EphemeralIdCache<String, String> ephemeralIdCache               = new EphemeralIdCache<>(() -> CacheManager.INSTANCE.pkgCache.getKeys(), () -> CacheManager.INSTANCE.pkgCache.getVersion());
+    private final        Map<RollupKey, Long>             pendingRollups                 = new ConcurrentHashMap<>();
+    private volatile     ScheduledExecutorService         rollupFlusher;
     private              MongoClient                      mongoClient;
-    private              boolean                          connected;
+    private volatile     boolean                          connected;
     private              MongoDatabase                    database;
 
 
@@ -121,7 +180,7 @@ public enum MongoDbManager {
     }
 
 
-    public boolean init() {
+    public synchronized boolean init() {
         if (null == Config.INSTANCE.getFoojayMongoDbUser() ||
             null == Config.INSTANCE.getFoojayMongoDbPassword() ||
             null == Config.INSTANCE.getFoojayMongoDbDatabase()) {
@@ -145,8 +204,18 @@ public enum MongoDbManager {
                 if (!collectionExists(database, Constants.EPHEMERAL_IDS_COLLECTION)) { database.createCollection(Constants.EPHEMERAL_IDS_COLLECTION); }
                 if (!collectionExists(database, Constants.DOWNLOADS_COLLECTION)) { database.createCollection(Constants.DOWNLOADS_COLLECTION); }
                 if (!collectionExists(database, Constants.DOWNLOADS_USER_AGENT_COLLECTION)) { database.createCollection(Constants.DOWNLOADS_USER_AGENT_COLLECTION); }
+                if (!collectionExists(database, Constants.DOWNLOADS_USER_AGENT_BUCKET_COLLECTION)) { database.createCollection(Constants.DOWNLOADS_USER_AGENT_BUCKET_COLLECTION); }
+                database.getCollection(Constants.DOWNLOADS_USER_AGENT_BUCKET_COLLECTION).createIndex(Indexes.ascending(FIELD_BUCKET, FIELD_COUNT));
+                database.getCollection(Constants.DOWNLOADS_USER_AGENT_BUCKET_COLLECTION).createIndex(Indexes.ascending(FIELD_EXPIRES_AT), new IndexOptions().expireAfter(0L, TimeUnit.SECONDS));
                 if (!collectionExists(database, Constants.DISTRO_UPDATES_COLLECTION)) { database.createCollection(Constants.DISTRO_UPDATES_COLLECTION); }
                 if (!collectionExists(database, Constants.SHEDLOCK_COLLECTION)) { database.createCollection(Constants.SHEDLOCK_COLLECTION); }
+                if (!collectionExists(database, Constants.FILE_SIZES_COLLECTION)) { database.createCollection(Constants.FILE_SIZES_COLLECTION); }
+                database.getCollection(Constants.FILE_SIZES_COLLECTION).createIndex(Indexes.ascending(FIELD_URI), new IndexOptions().unique(true));
+                for (RollupPeriod period : RollupPeriod.values()) {
+                    if (!collectionExists(database, period.getCollectionName())) { database.createCollection(period.getCollectionName()); }
+                    database.getCollection(period.getCollectionName())
+                            .createIndex(Indexes.ascending(FIELD_BUCKET, FIELD_DISTRO, FIELD_MAJOR_VERSION, FIELD_PACKAGE_ID), new IndexOptions().unique(true));
+                }
 
                 updateEphemeralIds();
                 setState(State.IDLE);
@@ -164,8 +233,12 @@ public enum MongoDbManager {
      * @return true if connected
      */
     public boolean connect() {
+        // Double-checked, so the lock is only taken while not connected
         if (connected) { return true; }
-        return init();
+        synchronized (this) {
+            if (connected) { return true; }
+            return init();
+        }
     }
 
     public MongoDatabase getDatabase() {
@@ -303,6 +376,194 @@ public enum MongoDbManager {
                 .updateOne(eq(FIELD_TYPE, FIELD_STATE), combine(set(FIELD_TYPE, FIELD_STATE), set(FIELD_STATE, state.name()), set(FIELD_TIMESTAMP, Instant.now().getEpochSecond())), new UpdateOptions().upsert(true));
     }
 
+    /**
+     * Returns the current generation of the package catalog or -1 if not available.
+     * The generation will be incremented by the updater every time it changes the packages collection.
+     * @return the current generation of the package catalog or -1 if not available
+     */
+    public long getCatalogGeneration() {
+        connect();
+        if (!connected) {
+            LOGGER.debug("MongoDB not connected, return -1 as catalog generation");
+            return -1;
+        }
+        if (null == Config.INSTANCE.getFoojayMongoDbDatabase()) {
+            LOGGER.debug("Cannot return catalog generation because FOOJAY_MONGODB_DATABASE environment variable was not set.");
+            return -1;
+        }
+        if (null == database) {
+            LOGGER.error("Database is not set.");
+            database = mongoClient.getDatabase(Config.INSTANCE.getFoojayMongoDbDatabase());
+        }
+        if (null == Constants.STATE_COLLECTION) {
+            LOGGER.error("Constants.STATE_COLLECTION not set.");
+            return -1;
+        }
+        if (!collectionExists(database, Constants.STATE_COLLECTION)) { database.createCollection(Constants.STATE_COLLECTION); }
+
+        final Document document = database.getCollection(Constants.STATE_COLLECTION).find(eq(FIELD_TYPE, FIELD_CATALOG_GENERATION)).first();
+        if (null == document || !document.containsKey(FIELD_GENERATION)) { return -1; }
+        return ((Number) document.get(FIELD_GENERATION)).longValue();
+    }
+
+    /**
+     * Atomically increments the generation of the package catalog and returns the new value
+     * @return the new generation of the package catalog or -1 if not available
+     */
+    public long incrementCatalogGeneration() {
+        connect();
+        if (!connected) {
+            LOGGER.debug("MongoDB not connected, catalog generation not incremented");
+            return -1;
+        }
+        if (null == Config.INSTANCE.getFoojayMongoDbDatabase()) {
+            LOGGER.debug("Cannot increment catalog generation because FOOJAY_MONGODB_DATABASE environment variable was not set.");
+            return -1;
+        }
+        if (null == database) {
+            LOGGER.error("Database is not set.");
+            database = mongoClient.getDatabase(Config.INSTANCE.getFoojayMongoDbDatabase());
+        }
+        if (null == Constants.STATE_COLLECTION) {
+            LOGGER.error("Constants.STATE_COLLECTION not set.");
+            return -1;
+        }
+        if (!collectionExists(database, Constants.STATE_COLLECTION)) { database.createCollection(Constants.STATE_COLLECTION); }
+
+        final Document document = database.getCollection(Constants.STATE_COLLECTION)
+                                          .findOneAndUpdate(eq(FIELD_TYPE, FIELD_CATALOG_GENERATION),
+                                                            combine(set(FIELD_TYPE, FIELD_CATALOG_GENERATION), inc(FIELD_GENERATION, 1L), set(FIELD_TIMESTAMP, Instant.now().getEpochSecond())),
+                                                            new FindOneAndUpdateOptions().upsert(true).returnDocument(ReturnDocument.AFTER));
+        return null == document ? -1 : ((Number) document.get(FIELD_GENERATION)).longValue();
+    }
+
+    /**
+     * Uploads the given gzip compressed catalog snapshot to GridFS (keyed by the catalog generation)
+     * and removes all but the latest Constants.CATALOG_SNAPSHOTS_TO_KEEP snapshots (incl. their upload claims)
+     * @param generation the catalog generation the snapshot was taken from
+     * @param snapshot stream with the gzip compressed snapshot
+     * @return true if the snapshot was uploaded
+     */
+    public boolean uploadCatalogSnapshot(final long generation, final InputStream snapshot) {
+        connect();
+        if (!connected) {
+            LOGGER.debug("MongoDB not connected, catalog snapshot not uploaded");
+            return false;
+        }
+        if (null == Config.INSTANCE.getFoojayMongoDbDatabase()) {
+            LOGGER.debug("Cannot upload catalog snapshot because FOOJAY_MONGODB_DATABASE environment variable was not set.");
+            return false;
+        }
+        if (null == database) {
+            LOGGER.error("Database is not set.");
+            database = mongoClient.getDatabase(Config.INSTANCE.getFoojayMongoDbDatabase());
+        }
+
+        final GridFSBucket bucket = GridFSBuckets.create(database, Constants.CATALOG_SNAPSHOT_BUCKET);
+        bucket.uploadFromStream(getCatalogSnapshotFilename(generation), snapshot, new GridFSUploadOptions().metadata(new Document(FIELD_GENERATION, generation)));
+
+        // Only keep the latest snapshots
+        final List<ObjectId> outdated = new ArrayList<>();
+        bucket.find().sort(Sorts.descending(FIELD_METADATA_GENERATION, FIELD_UPLOAD_DATE)).skip(Constants.CATALOG_SNAPSHOTS_TO_KEEP).forEach(file -> outdated.add(file.getObjectId()));
+        outdated.forEach(bucket::delete);
+        database.getCollection(Constants.STATE_COLLECTION).deleteMany(and(eq(FIELD_TYPE, FIELD_SNAPSHOT_UPLOAD), lt(FIELD_GENERATION, generation - Constants.CATALOG_SNAPSHOTS_TO_KEEP)));
+        return true;
+    }
+
+    /**
+     * Returns true if there is a catalog snapshot of the given generation in GridFS
+     * @param generation the catalog generation
+     * @return true if there is a catalog snapshot of the given generation in GridFS
+     */
+    public boolean hasCatalogSnapshot(final long generation) {
+        connect();
+        if (!connected) {
+            LOGGER.debug("MongoDB not connected, return false for catalog snapshot");
+            return false;
+        }
+        if (null == Config.INSTANCE.getFoojayMongoDbDatabase()) {
+            LOGGER.debug("Cannot look for catalog snapshot because FOOJAY_MONGODB_DATABASE environment variable was not set.");
+            return false;
+        }
+        if (null == database) {
+            LOGGER.error("Database is not set.");
+            database = mongoClient.getDatabase(Config.INSTANCE.getFoojayMongoDbDatabase());
+        }
+
+        return null != GridFSBuckets.create(database, Constants.CATALOG_SNAPSHOT_BUCKET).find(eq(FIELD_METADATA_GENERATION, generation)).first();
+    }
+
+    /**
+     * Claims the upload of the catalog snapshot of the given generation. The claim is stored with the
+     * generation as id, so only one node can get it. A claim of a node that did not finish the upload
+     * within Constants.UPLOAD_TIMEOUT_IN_MINUTES can be taken over by another node.
+     * @param generation the catalog generation
+     * @return true if this node should upload the snapshot of the given generation
+     */
+    public boolean claimCatalogSnapshotUpload(final long generation) {
+        connect();
+        if (!connected) {
+            LOGGER.debug("MongoDB not connected, catalog snapshot upload not claimed");
+            return false;
+        }
+        if (null == Config.INSTANCE.getFoojayMongoDbDatabase()) {
+            LOGGER.debug("Cannot claim catalog snapshot upload because FOOJAY_MONGODB_DATABASE environment variable was not set.");
+            return false;
+        }
+        if (null == database) {
+            LOGGER.error("Database is not set.");
+            database = mongoClient.getDatabase(Config.INSTANCE.getFoojayMongoDbDatabase());
+        }
+        if (!collectionExists(database, Constants.STATE_COLLECTION)) { database.createCollection(Constants.STATE_COLLECTION); }
+
+        final MongoCollection<Document> collection = database.getCollection(Constants.STATE_COLLECTION);
+        final String                    claimId    = getCatalogSnapshotFilename(generation);
+        final long                      now        = Instant.now().getEpochSecond();
+        try {
+            collection.insertOne(new Document(FIELD_ID, claimId).append(FIELD_TYPE, FIELD_SNAPSHOT_UPLOAD).append(FIELD_GENERATION, generation).append(FIELD_NODE, Constants.MQTT_CLIENT_ID).append(FIELD_TIMESTAMP, now));
+            return true;
+        } catch (MongoWriteException e) {
+            if (ErrorCategory.DUPLICATE_KEY != e.getError().getCategory()) {
+                LOGGER.error("Error claiming catalog snapshot upload of generation {}. {}", generation, e.getMessage());
+                return false;
+            }
+        }
+        // Another node claimed the upload, take it over if that node did not finish in time
+        if (hasCatalogSnapshot(generation)) { return false; }
+        final long expired = now - TimeUnit.MINUTES.toSeconds(Constants.UPLOAD_TIMEOUT_IN_MINUTES);
+        return collection.updateOne(and(eq(FIELD_ID, claimId), lt(FIELD_TIMESTAMP, expired)), combine(set(FIELD_NODE, Constants.MQTT_CLIENT_ID), set(FIELD_TIMESTAMP, now))).getModifiedCount() == 1;
+    }
+
+    /**
+     * Downloads the latest gzip compressed catalog snapshot of the given generation from GridFS
+     * @param generation the catalog generation
+     * @param out stream the compressed snapshot will be written to
+     * @return true if a snapshot of the given generation was found and downloaded
+     */
+    public boolean downloadCatalogSnapshot(final long generation, final OutputStream out) {
+        connect();
+        if (!connected) {
+            LOGGER.debug("MongoDB not connected, catalog snapshot not downloaded");
+            return false;
+        }
+        if (null == Config.INSTANCE.getFoojayMongoDbDatabase()) {
+            LOGGER.debug("Cannot download catalog snapshot because FOOJAY_MONGODB_DATABASE environment variable was not set.");
+            return false;
+        }
+        if (null == database) {
+            LOGGER.error("Database is not set.");
+            database = mongoClient.getDatabase(Config.INSTANCE.getFoojayMongoDbDatabase());
+        }
+
+        final GridFSBucket bucket = GridFSBuckets.create(database, Constants.CATALOG_SNAPSHOT_BUCKET);
+        final GridFSFile   file   = bucket.find(eq(FIELD_METADATA_GENERATION, generation)).sort(Sorts.descending(FIELD_UPLOAD_DATE)).first();
+        if (null == file) { return false; }
+        bucket.downloadToStream(file.getObjectId(), out);
+        return true;
+    }
+
+    private static String getCatalogSnapshotFilename(final long generation) { return "catalog-" + generation + ".snapshot.gz"; }
+
     public UpdaterState getUpdaterState() {
         connect();
         if (!connected) {
@@ -427,6 +688,48 @@ public enum MongoDbManager {
         return result;
     }
 
+    /**
+     * Returns the packages with the given ids
+     * @param pkgIds the ids of the packages to return
+     * @return the packages with the given ids
+     */
+    public List<Pkg> getPkgsByIds(final Collection<String> pkgIds) {
+        if (null == pkgIds || pkgIds.isEmpty()) { return new ArrayList<>(); }
+        connect();
+        if (!connected) {
+            LOGGER.debug("MongoDB not connected, returned empty list of packages");
+            return new ArrayList<>();
+        }
+        if (null == Config.INSTANCE.getFoojayMongoDbDatabase()) {
+            LOGGER.debug("Cannot return packages because FOOJAY_MONGODB_DATABASE environment variable was not set.");
+            return new ArrayList<>();
+        }
+        if (null == database) {
+            LOGGER.error("Database is not set.");
+            database = mongoClient.getDatabase(Config.INSTANCE.getFoojayMongoDbDatabase());
+        }
+        if (null == Constants.PACKAGES_COLLECTION) {
+            LOGGER.error("Constants.PACKAGES_COLLECTION not set.");
+            return new ArrayList<>();
+        }
+        if (!collectionExists(database, Constants.PACKAGES_COLLECTION)) { database.createCollection(Constants.PACKAGES_COLLECTION); }
+
+        final MongoCollection<Document> collection = database.getCollection(Constants.PACKAGES_COLLECTION);
+        final List<Pkg>                 result     = new ArrayList<>();
+        try (MongoCursor<Document> cursor = collection.find(in(FIELD_PACKAGE_ID, pkgIds)).iterator()) {
+            while(cursor.hasNext()) {
+                Document document = cursor.next();
+                try {
+                    result.add(new Pkg(document.toJson()));
+                } catch (Exception e) {
+                    LOGGER.error("Error creating pkg from {}", document.toJson());
+                }
+            }
+        }
+        LOGGER.debug("Successfully returned {} of {} requested packages from mongodb.", result.size(), pkgIds.size());
+        return result;
+    }
+
     /**
      * Inserts given list of packages to packages collection
      * @param pkgs
@@ -479,7 +782,7 @@ public enum MongoDbManager {
     }
 
     /**
-     * Upsert the given list of packages to the packages collection where existing packages will be updated
+     * Upsert the given list of packages to the packages collection in one bulk write where existing packages will be updated
      * @param pkgs
      * @return true when packages have been added successfully
      */
@@ -507,8 +810,8 @@ public enum MongoDbManager {
         }
         if (!collectionExists(database, Constants.PACKAGES_COLLECTION)) { database.createCollection(Constants.PACKAGES_COLLECTION); }
 
-        MongoCollection<Document> collection = database.getCollection(Constants.PACKAGES_COLLECTION);
-        ReplaceOptions replaceOptions = new ReplaceOptions().upsert(true);
+        final ReplaceOptions             replaceOptions = new ReplaceOptions().upsert(true);
+        final List<WriteModel<Document>> writes         = new ArrayList<>();
         pkgs.stream()
             .filter(pkg -> !pkg.getArchitecture().getApiString().isEmpty())
             .filter(pkg -> !pkg.getArchiveType().getApiString().isEmpty())
@@ -520,12 +823,19 @@ public enum MongoDbManager {
             .forEach(pkg -> {
             try {
                 Document document = Document.parse(pkg.toString(OutputFormat.FULL_COMPRESSED, API_VERSION_V3));
-                collection.replaceOne(eq(FIELD_PACKAGE_ID, pkg.getId()), document, replaceOptions);
+                writes.add(new ReplaceOneModel<>(eq(FIELD_PACKAGE_ID, pkg.getId()), document, replaceOptions));
             } catch (JsonParseException e) {
                 LOGGER.error("Error parsing json when adding package {}. {}", pkg.getId(), e.getMessage());
             }
         });
-        LOGGER.debug("Successfully added {} new packages to mongodb.", pkgs.size());
+        if (writes.isEmpty()) { return true; }
+        try {
+            database.getCollection(Constants.PACKAGES_COLLECTION).bulkWrite(writes);
+        } catch (MongoException e) {
+            LOGGER.error("Error upserting packages. {}", e.getMessage());
+            return false;
+        }
+        LOGGER.debug("Successfully added {} new packages to mongodb.", writes.size());
         return true;
     }
 
@@ -606,7 +916,9 @@ public enum MongoDbManager {
 
     /**
      * Returns a map with the packageId as key and the number of downloads as value.
-     * With this one can determine which are most loaded packages.
+     * With this one can determine which are most loaded packages. The numbers are summed up
+     * from the yearly rollups once the download history has been backfilled into them, until
+     * then the counters of the old downloads collection are returned.
      * @return a map with the packageId as key and the number of downloads as value
      */
     public Map<String, Long> getDowloads() {
@@ -627,13 +939,15 @@ public enum MongoDbManager {
             LOGGER.error("Constants.DOWNLOADS_COLLECTION not set.");
             return new HashMap<>();
         };
-        if (!collectionExists(database, Constants.DOWNLOADS_COLLECTION)) { database.createCollection(Constants.DOWNLOADS_COLLECTION); }
+        flushDownloadRollups();
 
-        final Map<String, Long>  downloads        = new ConcurrentHashMap<>();
-        final Consumer<Document> downloadConsumer = document -> downloads.put(document.getString(FIELD_PACKAGE_ID), ((Number) document.get(FIELD_DOWNLOADS)).longValue());
-
-        final MongoCollection<Document> collection = database.getCollection(Constants.DOWNLOADS_COLLECTION);
-        collection.find().forEach(downloadConsumer);
+        // The rollups only contain all downloads once the history has been backfilled, until then the old counters are used
+        final Map<String, Long> downloads = new ConcurrentHashMap<>();
+        if (isDownloadRollupsBackfilled()) {
+            aggregateRollups(RollupPeriod.YEARLY, List.of(), "$" + FIELD_PACKAGE_ID, document -> downloads.put(document.getString("_id"), ((Number) document.get(FIELD_DOWNLOADS)).longValue()));
+        } else {
+            database.getCollection(Constants.DOWNLOADS_COLLECTION).find().forEach(document -> downloads.put(document.getString(FIELD_PACKAGE_ID), ((Number) document.get(FIELD_DOWNLOADS)).longValue()));
+        }
 
         LOGGER.debug("Successfully restored downloads for {} package ids from mongodb.", downloads.size());
         return downloads;
@@ -672,17 +986,74 @@ public enum MongoDbManager {
         }
         if (!collectionExists(database, Constants.DOWNLOADS_USER_AGENT_COLLECTION)) { database.createCollection(Constants.DOWNLOADS_USER_AGENT_COLLECTION); }
 
-        final MongoCollection<Document> collection = database.getCollection(Constants.DOWNLOADS_USER_AGENT_COLLECTION);
+        final StringBuilder msgBuilder = new StringBuilder();
+        streamPkgDownloadsInclUserAgent(start, end, json -> {
+            if (msgBuilder.length() > 0) { msgBuilder.append(COMMA_NEW_LINE); }
+            msgBuilder.append(json);
+        });
+        return msgBuilder.toString();
+    }
+
+    /**
+     * Streams all entries within the given range of timestamps to the given consumer one
+     * document at a time by iterating a cursor. Use this for large exports instead of
+     * getPkgDownloadsInclUserAgent() to avoid building one huge string in memory.
+     * @param from epoch seconds from where to include
+     * @param to epoch seconds to where
+     * @param consumer will be called with the json representation of each entry
+     * @return the number of entries that have been streamed
+     */
+    public long streamPkgDownloadsInclUserAgent(final Long from, final Long to, final Consumer<String> consumer) {
+        final long start = null == from ? Instant.MIN.getEpochSecond() : from;
+        final long end   = null == to   ? Instant.MAX.getEpochSecond() : to;
+
+        connect();
+        if (!connected) {
+            LOGGER.debug("MongoDB not connected, no downloads streamed");
+            return 0;
+        }
+        if (null == Config.INSTANCE.getFoojayMongoDbDatabase()) {
+            LOGGER.debug("Cannot stream downloads because FOOJAY_MONGODB_DATABASE environment variable was not set.");
+            return 0;
+        }
+        if (null == database) {
+            LOGGER.error("Database is not set.");
+            database = mongoClient.getDatabase(Config.INSTANCE.getFoojayMongoDbDatabase());
+        }
+        if (null == Constants.DOWNLOADS_USER_AGENT_COLLECTION || null == Constants.DOWNLOADS_USER_AGENT_BUCKET_COLLECTION) {
+            LOGGER.error("Constants.DOWNLOADS_USER_AGENT_COLLECTION or Constants.DOWNLOADS_USER_AGENT_BUCKET_COLLECTION not set.");
+            return 0;
+        }
+        if (!collectionExists(database, Constants.DOWNLOADS_USER_AGENT_COLLECTION)) { database.createCollection(Constants.DOWNLOADS_USER_AGENT_COLLECTION); }
+        if (!collectionExists(database, Constants.DOWNLOADS_USER_AGENT_BUCKET_COLLECTION)) { database.createCollection(Constants.DOWNLOADS_USER_AGENT_BUCKET_COLLECTION); }
 
-        final StringBuilder      msgBuilder       = new StringBuilder();
-        final Consumer<Document> downloadConsumer = document -> msgBuilder.append(document.toJson()).append(COMMA_NEW_LINE);
+        long counter = 0;
 
-        collection.find(and(gte(FIELD_TIMESTAMP, start), lte(FIELD_TIMESTAMP, end))).forEach(downloadConsumer);
-        if (msgBuilder.length() > 2) {
-            msgBuilder.setLength(msgBuilder.length() - 2);
+        // Entries that have not been moved into buckets yet by compactDownloadsUserAgent()
+        final MongoCollection<Document> legacyCollection = database.getCollection(Constants.DOWNLOADS_USER_AGENT_COLLECTION);
+        try (MongoCursor<Document> cursor = legacyCollection.find(and(gte(FIELD_TIMESTAMP, start), lte(FIELD_TIMESTAMP, end))).batchSize(1000).iterator()) {
+            while (cursor.hasNext()) {
+                consumer.accept(cursor.next().toJson());
+                counter++;
+            }
         }
 
-        return msgBuilder.toString();
+        // Only the buckets that overlap the requested range will be read
+        final long                      firstBucket      = RollupPeriod.HOURLY.getBucketStart(Instant.ofEpochSecond(Math.max(start, 0)));
+        final MongoCollection<Document> bucketCollection = database.getCollection(Constants.DOWNLOADS_USER_AGENT_BUCKET_COLLECTION);
+        try (MongoCursor<Document> cursor = bucketCollection.find(and(gte(FIELD_BUCKET, firstBucket), lte(FIELD_BUCKET, end))).sort(Sorts.ascending(FIELD_BUCKET)).batchSize(10).iterator()) {
+            while (cursor.hasNext()) {
+                final List<Document> events = cursor.next().getList(FIELD_EVENTS, Document.class, List.of());
+                for (Document event : events) {
+                    final long timestamp = ((Number) event.get(FIELD_TIMESTAMP)).longValue();
+                    if (timestamp < start || timestamp > end) { continue; }
+                    consumer.accept(event.toJson());
+                    counter++;
+                }
+            }
+        }
+        LOGGER.debug("Successfully streamed {} downloads incl. user-agent from mongodb.", counter);
+        return counter;
     }
 
     /**
@@ -730,23 +1101,383 @@ public enum MongoDbManager {
             LOGGER.error("Database is not set.");
             database = mongoClient.getDatabase(Config.INSTANCE.getFoojayMongoDbDatabase());
         }
-        if (null == Constants.DOWNLOADS_USER_AGENT_COLLECTION) {
-            LOGGER.error("Constants.DOWNLOADS_USER_AGENT_COLLECTION not set.");
+        if (null == Constants.DOWNLOADS_USER_AGENT_BUCKET_COLLECTION) {
+            LOGGER.error("Constants.DOWNLOADS_USER_AGENT_BUCKET_COLLECTION not set.");
             return;
         }
-        if (!collectionExists(database, Constants.DOWNLOADS_USER_AGENT_COLLECTION)) { database.createCollection(Constants.DOWNLOADS_USER_AGENT_COLLECTION); }
+        if (!collectionExists(database, Constants.DOWNLOADS_USER_AGENT_BUCKET_COLLECTION)) { database.createCollection(Constants.DOWNLOADS_USER_AGENT_BUCKET_COLLECTION); }
+
+        final Instant now = Instant.now();
+
+        Document event = new Document();
+        event.append(FIELD_PACKAGE_ID, pkgId);
+        event.append(FIELD_USER_AGENT, userAgent);
+        event.append(FIELD_COUNTRY_CODE, countryCode);
+        event.append(FIELD_TIMESTAMP, now.getEpochSecond());
 
-        Document document = new Document();
-        document.append(FIELD_PACKAGE_ID, pkgId);
-        document.append(FIELD_USER_AGENT, userAgent);
-        document.append(FIELD_COUNTRY_CODE, countryCode);
-        document.append(FIELD_TIMESTAMP, Instant.now().getEpochSecond());
+        // Append the event to a non full bucket of the current hour or create a new bucket
+        final long bucket = RollupPeriod.HOURLY.getBucketStart(now);
+        database.getCollection(Constants.DOWNLOADS_USER_AGENT_BUCKET_COLLECTION)
+                .updateOne(and(eq(FIELD_BUCKET, bucket), lt(FIELD_COUNT, Constants.DOWNLOADS_USER_AGENT_BUCKET_SIZE)),
+                           combine(push(FIELD_EVENTS, event), inc(FIELD_COUNT, 1), setOnInsert(FIELD_EXPIRES_AT, getBucketExpiry(bucket))),
+                           new UpdateOptions().upsert(true));
 
-        database.getCollection(Constants.DOWNLOADS_USER_AGENT_COLLECTION).insertOne(document);
+        // Downloads of packages that are not in the cache are rolled up with an unknown distro to keep the counts complete
+        final Pkg pkg = CacheManager.INSTANCE.pkgCache.get(pkgId);
+        if (null == pkg) {
+            addDownloadToRollups(pkgId, UNKNOWN_DISTRO, 0);
+        } else {
+            addDownloadToRollups(pkgId, pkg.getDistribution().getDistro().getApiString(), pkg.getFeatureVersion().orElse(0));
+        }
 
         LOGGER.debug("Successfully added download for id {} and user-agent {}", pkgId, userAgent);
     }
 
+    /**
+     * Moves the per download documents of the old downloadsUserAgent collection into hourly
+     * bucket documents and removes entries and buckets that are older than the configured retention.
+     * Nothing is removed before all download events have been rolled up into the hourly, daily,
+     * weekly, monthly and yearly rollups (by backfillDownloadRollups() for events that were stored
+     * before the rollups existed and by addDownloadFromUserAgent() for all newer ones), so the
+     * download counts survive the removal.
+     * @return the number of legacy entries that have been moved into buckets
+     */
+    public long compactDownloadsUserAgent() {
+        connect();
+        if (!connected) {
+            LOGGER.debug("MongoDB not connected, downloads per user-agent not compacted.");
+            return 0;
+        }
+        if (null == Config.INSTANCE.getFoojayMongoDbDatabase()) {
+            LOGGER.debug("Could not compact downloads per user-agent because FOOJAY_MONGODB_DATABASE environment variable was not set.");
+            return 0;
+        }
+        if (null == database) {
+            LOGGER.error("Database is not set.");
+            database = mongoClient.getDatabase(Config.INSTANCE.getFoojayMongoDbDatabase());
+        }
+        if (null == Constants.DOWNLOADS_USER_AGENT_COLLECTION || null == Constants.DOWNLOADS_USER_AGENT_BUCKET_COLLECTION) {
+            LOGGER.error("Constants.DOWNLOADS_USER_AGENT_COLLECTION or Constants.DOWNLOADS_USER_AGENT_BUCKET_COLLECTION not set.");
+            return 0;
+        }
+        if (!collectionExists(database, Constants.DOWNLOADS_USER_AGENT_COLLECTION)) { database.createCollection(Constants.DOWNLOADS_USER_AGENT_COLLECTION); }
+        if (!collectionExists(database, Constants.DOWNLOADS_USER_AGENT_BUCKET_COLLECTION)) { database.createCollection(Constants.DOWNLOADS_USER_AGENT_BUCKET_COLLECTION); }
+
+        final MongoCollection<Document> legacyCollection = database.getCollection(Constants.DOWNLOADS_USER_AGENT_COLLECTION);
+        final MongoCollection<Document> bucketCollection = database.getCollection(Constants.DOWNLOADS_USER_AGENT_BUCKET_COLLECTION);
+        final long                      retentionStart   = Instant.now().minus(Duration.ofDays(Config.INSTANCE.getFoojayDownloadsRetentionDays())).getEpochSecond();
+
+        // Events outside of the retention window may only be dropped when they are part of the rollups
+        flushDownloadRollups();
+        if (!isDownloadRollupsBackfilled()) { backfillDownloadRollups(); }
+        if (!isDownloadRollupsBackfilled()) {
+            LOGGER.error("Download rollups have not been backfilled completely, downloads per user-agent not compacted.");
+            return 0;
+        }
+        legacyCollection.deleteMany(lt(FIELD_TIMESTAMP, retentionStart));
+
+        long moved = 0;
+        while (true) {
+            final List<Document> batch = new ArrayList<>();
+            legacyCollection.find().limit(Constants.DOWNLOADS_USER_AGENT_BUCKET_SIZE * 10).forEach(batch::add);
+            if (batch.isEmpty()) { break; }
+
+            final Map<Long, List<Document>> eventsPerBucket = new HashMap<>();
+            for (Document document : batch) {
+                final long timestamp = ((Number) document.get(FIELD_TIMESTAMP)).longValue();
+                Document event = new Document();
+                event.append(FIELD_PACKAGE_ID, document.get(FIELD_PACKAGE_ID));
+                event.append(FIELD_USER_AGENT, document.get(FIELD_USER_AGENT));
+                event.append(FIELD_COUNTRY_CODE, document.get(FIELD_COUNTRY_CODE));
+                event.append(FIELD_TIMESTAMP, timestamp);
+                eventsPerBucket.computeIfAbsent(RollupPeriod.HOURLY.getBucketStart(Instant.ofEpochSecond(timestamp)), k -> new ArrayList<>()).add(event);
+            }
+
+            final List<Document> buckets = new ArrayList<>();
+            eventsPerBucket.forEach((bucket, events) -> {
+                for (int i = 0 ; i < events.size() ; i += Constants.DOWNLOADS_USER_AGENT_BUCKET_SIZE) {
+                    final List<Document> chunk = events.subList(i, Math.min(i + Constants.DOWNLOADS_USER_AGENT_BUCKET_SIZE, events.size()));
+                    buckets.add(new Document(FIELD_BUCKET, bucket).append(FIELD_COUNT, chunk.size()).append(FIELD_EXPIRES_AT, getBucketExpiry(bucket)).append(FIELD_EVENTS, new ArrayList<>(chunk)));
+                }
+            });
+            bucketCollection.insertMany(buckets);
+            legacyCollection.deleteMany(in("_id", batch.stream().map(document -> document.get("_id")).collect(Collectors.toList())));
+            moved += batch.size();
+        }
+
+        // The TTL index removes expired buckets as well, this covers buckets that were created with a longer retention
+        bucketCollection.deleteMany(lt(FIELD_BUCKET, RollupPeriod.HOURLY.getBucketStart(Instant.ofEpochSecond(retentionStart))));
+
+        LOGGER.debug("Successfully compacted downloads per user-agent, moved {} entries into buckets", moved);
+        return moved;
+    }
+
+    private Date getBucketExpiry(final long bucket) {
+        return Date.from(Instant.ofEpochSecond(bucket).plus(Duration.ofDays(Config.INSTANCE.getFoojayDownloadsRetentionDays())));
+    }
+
+    /**
+     * Adds a download of the given package to the hourly, daily, weekly, monthly and yearly rollups.
+     * The increments are collected in memory and written by flushDownloadRollups() with one
+     * unordered bulk write of atomic $inc upserts per rollup collection, so a download does
+     * not cost a round trip per rollup period.
+     * @param pkgId the id of the downloaded package
+     * @param distro the distro of the downloaded package
+     * @param majorVersion the major version of the downloaded package
+     */
+    public void addDownloadToRollups(final String pkgId, final Distro distro, final int majorVersion) {
+        addDownloadToRollups(pkgId, distro.getApiString(), majorVersion);
+    }
+
+    private void addDownloadToRollups(final String pkgId, final String distro, final int majorVersion) {
+        final Instant now = Instant.now();
+        for (RollupPeriod period : RollupPeriod.values()) {
+            pendingRollups.merge(new RollupKey(period, period.getBucketStart(now), distro, majorVersion, pkgId), 1L, Long::sum);
+        }
+        if (null == rollupFlusher) { startRollupFlusher(); }
+        LOGGER.debug("Added download for id {} to rollups", pkgId);
+    }
+
+    /**
+     * Writes the collected rollup increments to mongodb. Increments that could not be written
+     * will be kept and written with the next flush.
+     */
+    public void flushDownloadRollups() {
+        if (pendingRollups.isEmpty()) { return; }
+        connect();
+        if (!connected) {
+            LOGGER.debug("MongoDB not connected, download rollups not flushed.");
+            return;
+        }
+        if (null == Config.INSTANCE.getFoojayMongoDbDatabase()) {
+            LOGGER.debug("Could not flush download rollups because FOOJAY_MONGODB_DATABASE environment variable was not set.");
+            return;
+        }
+        if (null == database) {
+            LOGGER.error("Database is not set.");
+            database = mongoClient.getDatabase(Config.INSTANCE.getFoojayMongoDbDatabase());
+        }
+
+        // Removing the keys one by one makes sure that increments which are added concurrently are not lost
+        final Map<RollupPeriod, Map<RollupKey, Long>> increments = new EnumMap<>(RollupPeriod.class);
+        for (RollupKey key : pendingRollups.keySet()) {
+            final Long count = pendingRollups.remove(key);
+            if (null == count) { continue; }
+            increments.computeIfAbsent(key.period(), period -> new HashMap<>()).put(key, count);
+        }
+
+        increments.forEach((period, periodIncrements) -> {
+            final List<RollupKey>            keys    = new ArrayList<>(periodIncrements.keySet());
+            final List<WriteModel<Document>> updates = new ArrayList<>(keys.size());
+            keys.forEach(key -> updates.add(new UpdateOneModel<>(key.toFilter(), inc(FIELD_DOWNLOADS, periodIncrements.get(key)), new UpdateOptions().upsert(true))));
+            try {
+                database.getCollection(period.getCollectionName()).bulkWrite(updates, new BulkWriteOptions().ordered(false));
+            } catch (MongoBulkWriteException e) {
+                // Only the failed increments have to be written again, all others have been applied
+                e.getWriteErrors().forEach(error -> pendingRollups.merge(keys.get(error.getIndex()), periodIncrements.get(keys.get(error.getIndex())), Long::sum));
+                LOGGER.error("Error flushing {} of {} {} download rollups. {}", e.getWriteErrors().size(), keys.size(), period.getApiString(), e.getMessage());
+            } catch (MongoException e) {
+                periodIncrements.forEach((key, count) -> pendingRollups.merge(key, count, Long::sum));
+                LOGGER.error("Error flushing {} download rollups. {}", period.getApiString(), e.getMessage());
+            }
+        });
+        LOGGER.debug("Successfully flushed download rollups");
+    }
+
+    private synchronized void startRollupFlusher() {
+        if (null != rollupFlusher) { return; }
+        final ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "download-rollup-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(() -> {
+            try {
+                flushDownloadRollups();
+            } catch (Exception e) {
+                LOGGER.error("Error flushing download rollups. {}", e.getMessage());
+            }
+        }, Constants.DOWNLOADS_ROLLUP_FLUSH_IN_SECONDS, Constants.DOWNLOADS_ROLLUP_FLUSH_IN_SECONDS, TimeUnit.SECONDS);
+        rollupFlusher = flusher;
+    }
+
+    /**
+     * Returns true if the historical downloads have been rolled up by backfillDownloadRollups()
+     * @return true if the historical downloads have been rolled up by backfillDownloadRollups()
+     */
+    public boolean isDownloadRollupsBackfilled() {
+        connect();
+        if (!connected) {
+            LOGGER.debug("MongoDB not connected, cannot check download rollup backfill.");
+            return false;
+        }
+        if (null == Config.INSTANCE.getFoojayMongoDbDatabase()) {
+            LOGGER.debug("Cannot check download rollup backfill because FOOJAY_MONGODB_DATABASE environment variable was not set.");
+            return false;
+        }
+        if (null == database) {
+            LOGGER.error("Database is not set.");
+            database = mongoClient.getDatabase(Config.INSTANCE.getFoojayMongoDbDatabase());
+        }
+        return null != database.getCollection(Constants.STATE_COLLECTION).find(eq(FIELD_TYPE, FIELD_ROLLUP_BACKFILL)).first();
+    }
+
+    /**
+     * Rolls up all download events that are still stored with their timestamp (the old
+     * downloadsUserAgent collection and the hourly buckets) into the rollup collections.
+     * The counters are set with $max, so the backfill can run again without counting a
+     * download twice and will never lower a counter that also contains newer downloads.
+     * Events of packages that are not in the cache are not rolled up. As long as the old
+     * downloadsUserAgent collection contains such events the backfill is not marked as done,
+     * so compactDownloadsUserAgent() keeps them until they can be attributed to a distro and
+     * major version. The backfill only runs when the bootstrap finished with readiness READY
+     * and the pkg cache is filled, otherwise every event would be unresolved.
+     * @return the number of download events that have been rolled up
+     */
+    public long backfillDownloadRollups() {
+        connect();
+        if (!connected) {
+            LOGGER.debug("MongoDB not connected, download rollups not backfilled.");
+            return 0;
+        }
+        if (null == Config.INSTANCE.getFoojayMongoDbDatabase()) {
+            LOGGER.debug("Could not backfill download rollups because FOOJAY_MONGODB_DATABASE environment variable was not set.");
+            return 0;
+        }
+        if (null == database) {
+            LOGGER.error("Database is not set.");
+            database = mongoClient.getDatabase(Config.INSTANCE.getFoojayMongoDbDatabase());
+        }
+        if (null == Constants.DOWNLOADS_USER_AGENT_COLLECTION || null == Constants.DOWNLOADS_USER_AGENT_BUCKET_COLLECTION) {
+            LOGGER.error("Constants.DOWNLOADS_USER_AGENT_COLLECTION or Constants.DOWNLOADS_USER_AGENT_BUCKET_COLLECTION not set.");
+            return 0;
+        }
+        if (Bootstrap.Readiness.READY != Bootstrap.INSTANCE.getReadiness() || CacheManager.INSTANCE.pkgCache.isEmpty()) {
+            LOGGER.debug("Pkg cache not ready, download rollups not backfilled.");
+            return 0;
+        }
+
+        final Map<RollupKey, Long> counts     = new HashMap<>();
+        final Set<String>          unresolved = new HashSet<>();
+        final long[]               rolledUp   = new long[1];
+
+        try (MongoCursor<Document> cursor = database.getCollection(Constants.DOWNLOADS_USER_AGENT_COLLECTION).find().batchSize(1000).iterator()) {
+            while (cursor.hasNext()) {
+                final Document event = cursor.next();
+                final Boolean  known = rollupEvent(event, counts);
+                if (null == known) { continue; }
+                if (known) { rolledUp[0]++; } else { unresolved.add(event.getString(FIELD_PACKAGE_ID)); }
+            }
+        }
+        // Bucket events have been rolled up when they were recorded and expire with the buckets, unresolved ones are not kept
+        try (MongoCursor<Document> cursor = database.getCollection(Constants.DOWNLOADS_USER_AGENT_BUCKET_COLLECTION).find().batchSize(10).iterator()) {
+            while (cursor.hasNext()) {
+                cursor.next().getList(FIELD_EVENTS, Document.class, List.of()).forEach(event -> { if (Boolean.TRUE.equals(rollupEvent(event, counts))) { rolledUp[0]++; } });
+            }
+        }
+
+        final Map<RollupPeriod, List<WriteModel<Document>>> updatesPerPeriod = new EnumMap<>(RollupPeriod.class);
+        counts.forEach((key, count) -> updatesPerPeriod.computeIfAbsent(key.period(), period -> new ArrayList<>())
+                                                       .add(new UpdateOneModel<>(key.toFilter(), max(FIELD_DOWNLOADS, count), new UpdateOptions().upsert(true))));
+        updatesPerPeriod.forEach((period, updates) -> {
+            for (int i = 0 ; i < updates.size() ; i += 1000) {
+                database.getCollection(period.getCollectionName()).bulkWrite(updates.subList(i, Math.min(i + 1000, updates.size())), new BulkWriteOptions().ordered(false));
+            }
+        });
+        if (!unresolved.isEmpty()) {
+            LOGGER.warn("Backfilled download rollups with {} downloads, {} packages could not be resolved, keeping their download events", rolledUp[0], unresolved.size());
+            return rolledUp[0];
+        }
+        database.getCollection(Constants.STATE_COLLECTION)
+                .updateOne(eq(FIELD_TYPE, FIELD_ROLLUP_BACKFILL), set(FIELD_TIMESTAMP, Instant.now().getEpochSecond()), new UpdateOptions().upsert(true));
+
+        LOGGER.info("Successfully backfilled download rollups with {} downloads", rolledUp[0]);
+        return rolledUp[0];
+    }
+
+    /**
+     * Counts the given download event into the given rollup counters
+     * (events of unknown packages are not counted)
+     * @return true if the package of the event is known, false if it is unknown and null if the event is invalid
+     */
+    private Boolean rollupEvent(final Document event, final Map<RollupKey, Long> counts) {
+        final String pkgId     = event.getString(FIELD_PACKAGE_ID);
+        final Object timestamp = event.get(FIELD_TIMESTAMP);
+        if (null == pkgId || !(timestamp instanceof Number)) { return null; }
+        final Pkg pkg = CacheManager.INSTANCE.pkgCache.get(pkgId);
+        if (null == pkg) { return false; }
+        final String  distro       = pkg.getDistribution().getDistro().getApiString();
+        final int     majorVersion = pkg.getFeatureVersion().orElse(0);
+        final Instant instant      = Instant.ofEpochSecond(((Number) timestamp).longValue());
+        for (RollupPeriod period : RollupPeriod.values()) {
+            counts.merge(new RollupKey(period, period.getBucketStart(instant), distro, majorVersion, pkgId), 1L, Long::sum);
+        }
+        return null != pkg;
+    }
+
+    /**
+     * Returns a json array with the number of downloads per bucket of the given period in the
+     * given range. The sums are calculated by mongodb on the pre-aggregated rollup collection
+     * so the cost depends on the number of buckets in the range and not on the number of downloads.
+     * @param period the rollup period (hourly, daily, weekly, monthly, yearly)
+     * @param from epoch seconds from where to include (inclusive)
+     * @param to epoch seconds to where to include (exclusive)
+     * @param distro only include downloads of this distro (null for all)
+     * @param majorVersion only include downloads of this major version (null for all)
+     * @param pkgId only include downloads of this package (null for all)
+     * @return a json array with the number of downloads per bucket of the given period in the given range
+     */
+    public String getDownloadStats(final RollupPeriod period, final Long from, final Long to, final Distro distro, final Integer majorVersion, final String pkgId) {
+        final long start = null == from ? 0 : period.getBucketStart(Instant.ofEpochSecond(from));
+        final long end   = null == to   ? Instant.now().getEpochSecond() + 1 : to;
+
+        connect();
+        if (!connected) {
+            LOGGER.debug("MongoDB not connected, returned empty list of download stats");
+            return SQUARE_BRACKET_OPEN + SQUARE_BRACKET_CLOSE;
+        }
+        if (null == Config.INSTANCE.getFoojayMongoDbDatabase()) {
+            LOGGER.debug("Cannot return download stats because FOOJAY_MONGODB_DATABASE environment variable was not set.");
+            return SQUARE_BRACKET_OPEN + SQUARE_BRACKET_CLOSE;
+        }
+        if (null == database) {
+            LOGGER.error("Database is not set.");
+            database = mongoClient.getDatabase(Config.INSTANCE.getFoojayMongoDbDatabase());
+        }
+        flushDownloadRollups();
+
+        final List<Bson> filters = new ArrayList<>();
+        filters.add(gte(FIELD_BUCKET, start));
+        filters.add(lt(FIELD_BUCKET, end));
+        if (null != distro)       { filters.add(eq(FIELD_DISTRO, distro.getApiString())); }
+        if (null != majorVersion) { filters.add(eq(FIELD_MAJOR_VERSION, majorVersion)); }
+        if (null != pkgId)        { filters.add(eq(FIELD_PACKAGE_ID, pkgId)); }
+
+        final StringBuilder msgBuilder = new StringBuilder().append(SQUARE_BRACKET_OPEN);
+        aggregateRollups(period, filters, "$" + FIELD_BUCKET, document -> {
+            msgBuilder.append(CURLY_BRACKET_OPEN)
+                      .append(QUOTES).append(FIELD_BUCKET).append(QUOTES).append(COLON).append(((Number) document.get("_id")).longValue()).append(COMMA)
+                      .append(QUOTES).append(FIELD_DOWNLOADS).append(QUOTES).append(COLON).append(((Number) document.get(FIELD_DOWNLOADS)).longValue())
+                      .append(CURLY_BRACKET_CLOSE)
+                      .append(COMMA);
+        });
+        if (msgBuilder.length() > 1) { msgBuilder.setLength(msgBuilder.length() - 1); }
+        msgBuilder.append(SQUARE_BRACKET_CLOSE);
+        return msgBuilder.toString();
+    }
+
+    /**
+     * Sums up the downloads of the given rollup period that match the given filters grouped by the given id
+     * and calls the consumer with one document (_id, downloads) per group, sorted by the group id.
+     */
+    private void aggregateRollups(final RollupPeriod period, final List<Bson> filters, final Object groupId, final Consumer<Document> consumer) {
+        final List<Bson> pipeline = new ArrayList<>();
+        if (!filters.isEmpty()) { pipeline.add(Aggregates.match(and(filters))); }
+        pipeline.add(Aggregates.group(groupId, Accumulators.sum(FIELD_DOWNLOADS, "$" + FIELD_DOWNLOADS)));
+        pipeline.add(Aggregates.sort(Sorts.ascending("_id")));
+        database.getCollection(period.getCollectionName()).aggregate(pipeline).allowDiskUse(true).forEach(consumer);
+    }
+
     public void addDownloadToToday(final Distro distro, final int majorVersion) {
         connect();
         if (!connected) {
@@ -768,7 +1499,7 @@ public enum MongoDbManager {
         if (!collectionExists(database, Constants.DOWNLOADS_PER_DAY_COLLECTION)) { database.createCollection(Constants.DOWNLOADS_PER_DAY_COLLECTION); }
 
         final String featureVersion = Integer.toString(majorVersion);
-        final String day            = DateTimeFormatter.ISO_LOCAL_DATE.format(ZonedDateTime.now());
+        final String day            = DateTimeFormatter.ISO_LOCAL_DATE.format(ZonedDateTime.now(ZoneOffset.UTC));
 
         final MongoCollection<Document> collection = database.getCollection(Constants.DOWNLOADS_PER_DAY_COLLECTION);
 
@@ -824,12 +1555,20 @@ public enum MongoDbManager {
         LOGGER.debug("Successfully added download to distro {} to database", distro.getName());
     }
 
+    /**
+     * Returns a json array with the downloads per distro and major version for each of the given days.
+     * The numbers are taken from the daily rollups, days without rollups (before the rollups existed)
+     * will be taken from the old downloadsPerDay collection. All days are UTC days.
+     * @param days the days to return the downloads for (all days since 2021-09-06 if empty)
+     * @return a json array with the downloads per distro and major version for each of the given days
+     */
     public String getDownloadsPerDay(final Set<ZonedDateTime> days) {
         if (days.isEmpty()) {
-            days.add(ZonedDateTime.of(2021, 9, 6, 12, 0, 0, 0, ZoneId.systemDefault()));
-            days.add(ZonedDateTime.now());
+            days.add(ZonedDateTime.of(2021, 9, 6, 12, 0, 0, 0, ZoneOffset.UTC));
+            days.add(ZonedDateTime.now(ZoneOffset.UTC));
         }
-        List<String> daysToFetch = days.stream().map(day -> DateTimeFormatter.ISO_LOCAL_DATE.format(day)).collect(Collectors.toList());
+        // Days are UTC days, like the buckets of the daily rollups
+        List<String> daysToFetch = days.stream().map(day -> DateTimeFormatter.ISO_LOCAL_DATE.format(day.withZoneSameInstant(ZoneOffset.UTC))).distinct().sorted().collect(Collectors.toList());
 
         connect();
         if (!connected) {
@@ -848,18 +1587,30 @@ public enum MongoDbManager {
             LOGGER.error("Constants.DOWNLOADS_PER_DAY_COLLECTION not set.");
             return SQUARE_BRACKET_OPEN + SQUARE_BRACKET_CLOSE;
         };
-        if (!collectionExists(database, Constants.DOWNLOADS_PER_DAY_COLLECTION)) { database.createCollection(Constants.DOWNLOADS_PER_DAY_COLLECTION); }
+        flushDownloadRollups();
+
+        final Map<String, Document> dayDocs = new HashMap<>();
+        final List<Long>            buckets = daysToFetch.stream().map(day -> LocalDate.parse(day).atStartOfDay(ZoneOffset.UTC).toEpochSecond()).collect(Collectors.toList());
+        final Document              groupId = new Document(FIELD_BUCKET, "$" + FIELD_BUCKET).append(FIELD_DISTRO, "$" + FIELD_DISTRO).append(FIELD_MAJOR_VERSION, "$" + FIELD_MAJOR_VERSION);
+        aggregateRollups(RollupPeriod.DAILY, List.of(in(FIELD_BUCKET, buckets)), groupId, document -> {
+            final Document id        = (Document) document.get("_id");
+            final String   day       = DateTimeFormatter.ISO_LOCAL_DATE.format(Instant.ofEpochSecond(((Number) id.get(FIELD_BUCKET)).longValue()).atZone(ZoneOffset.UTC));
+            final long     downloads = ((Number) document.get(FIELD_DOWNLOADS)).longValue();
+            final Document dayDoc    = dayDocs.computeIfAbsent(day, d -> new Document(FIELD_DAY, d).append(FIELD_DISTRIBUTIONS, new Document()));
+            final Document distroDoc = (Document) ((Document) dayDoc.get(FIELD_DISTRIBUTIONS)).computeIfAbsent(id.getString(FIELD_DISTRO), d -> new Document(FIELD_DOWNLOADS, 0L).append(FIELD_VERSION, new Document()));
+            distroDoc.put(FIELD_DOWNLOADS, distroDoc.getLong(FIELD_DOWNLOADS) + downloads);
+            ((Document) distroDoc.get(FIELD_VERSION)).merge(String.valueOf(id.get(FIELD_MAJOR_VERSION)), downloads, (a, b) -> ((Number) a).longValue() + ((Number) b).longValue());
+        });
 
-        final MongoCollection<Document> collection = database.getCollection(Constants.DOWNLOADS_PER_DAY_COLLECTION);
+        final List<String> daysWithoutRollups = daysToFetch.stream().filter(day -> !dayDocs.containsKey(day)).collect(Collectors.toList());
+        if (!daysWithoutRollups.isEmpty()) {
+            database.getCollection(Constants.DOWNLOADS_PER_DAY_COLLECTION).find(in(FIELD_DAY, daysWithoutRollups)).forEach(document -> {
+                document.remove("_id");
+                dayDocs.put(document.getString(FIELD_DAY), document);
+            });
+        }
 
-        StringBuilder msgBuilder = new StringBuilder();
-        msgBuilder.append(SQUARE_BRACKET_OPEN);
-        collection.find(in(FIELD_DAY, daysToFetch)).forEach(document -> {
-            msgBuilder.append(document.toJson());
-            msgBuilder.append(COMMA);
-        });
-        msgBuilder.append(SQUARE_BRACKET_CLOSE);
-        return msgBuilder.toString();
+        return daysToFetch.stream().filter(dayDocs::containsKey).map(day -> dayDocs.get(day).toJson()).collect(Collectors.joining(COMMA, SQUARE_BRACKET_OPEN, SQUARE_BRACKET_CLOSE));
     }
 
     public void updateLatestBuildAvailable(final List<Pkg> pkgs) {
@@ -1046,6 +1797,10 @@ public enum MongoDbManager {
         MongoCollection<Document> collection = database.getCollection(Constants.DOWNLOADS_USER_AGENT_COLLECTION);
         collection.deleteMany(new Document());
 
+        if (collectionExists(database, Constants.DOWNLOADS_USER_AGENT_BUCKET_COLLECTION)) {
+            database.getCollection(Constants.DOWNLOADS_USER_AGENT_BUCKET_COLLECTION).deleteMany(new Document());
+        }
+
         LOGGER.debug("Successfully deleted all downloads per pkg from mongodb.");
         return true;
     }
@@ -1112,73 +1867,14 @@ public enum MongoDbManager {
         return result;
     }
 
+    /**
+     * Ephemeral ids are derived locally from the rotation window and the package id
+     * (see EphemeralIdCache), so there is no need to rewrite the ephemeralIds collection.
+     * This only drops the reverse maps of windows that are no longer valid.
+     */
     public void updateEphemeralIds() {
-        connect();
-        if (!connected) {
-            LOGGER.debug("MongoDB not connected, no ephemeral id's updated");
-            return;
-        }
-        if (null == Config.INSTANCE.getFoojayMongoDbDatabase()) {
-            LOGGER.debug("Could not update ephemeral id's because FOOJAY_MONGODB_DATABASE environment variable was not set.");
-            return;
-        }
-        if (null == database) {
-            LOGGER.error("Database is not set.");
-            database = mongoClient.getDatabase(Config.INSTANCE.getFoojayMongoDbDatabase());
-        }
-        if (null == Constants.STATE_COLLECTION) {
-            LOGGER.error("Constants.STATE_COLLECTION not set.");
-            return;
-        }
-        if (null == Constants.PACKAGES_COLLECTION) {
-            LOGGER.error("Constants.PACKAGES_COLLECTION not set.");
-            return;
-        }
-        if (null == Constants.EPHEMERAL_IDS_COLLECTION) {
-            LOGGER.error("Constants.EPHEMERAL_IDS_COLLECTION not set.");
-            return;
-        }
-
-        if (!collectionExists(database, Constants.STATE_COLLECTION))         { database.createCollection(Constants.STATE_COLLECTION); }
-        if (!collectionExists(database, Constants.PACKAGES_COLLECTION))      { database.createCollection(Constants.PACKAGES_COLLECTION); }
-        if (!collectionExists(database, Constants.EPHEMERAL_IDS_COLLECTION)) { database.createCollection(Constants.EPHEMERAL_IDS_COLLECTION); }
-
-        final long                      start                  = System.currentTimeMillis();
-        final MongoCollection<Document> stateCollection        = database.getCollection(Constants.STATE_COLLECTION);
-        final MongoCollection<Document> pkgsCollection         = database.getCollection(Constants.PACKAGES_COLLECTION);
-        final MongoCollection<Document> ephemeralIdsCollection = database.getCollection(Constants.EPHEMERAL_IDS_COLLECTION);
-        final Instant                   now                    = Instant.now();
-        final boolean doUpdate;
-        // Check for last update of ephemeral ids
-        Document lastEphemeralIdUpdateDocument = stateCollection.find(eq(FIELD_TYPE, FIELD_LAST_EPHEMERAL_ID_UPDATE)).first();
-        if (null == lastEphemeralIdUpdateDocument) {
-            doUpdate = true;
-        } else {
-            final Instant timestamp = Instant.ofEpochSecond(((Number) lastEphemeralIdUpdateDocument.get(FIELD_TIMESTAMP)).longValue());
-            doUpdate = (Duration.between(timestamp, now).toMinutes() > 10);
-        }
-
-        final Map<String, String> tmpEphemeralIdCache = new HashMap<>();
-        if (doUpdate) {
-            final List<Document> ephemeralIdDocuments = new ArrayList<>();
-            final long epoch = now.getEpochSecond();
-            pkgsCollection.find().forEach(document -> {
-                final String pkgId       = document.get(FIELD_PACKAGE_ID).toString();
-                final String ephemeralId = Helper.createEphemeralId(epoch, pkgId);
-                ephemeralIdDocuments.add(new Document().append(FIELD_EPHEMERAL_ID, ephemeralId).append(FIELD_PACKAGE_ID, pkgId));
-                tmpEphemeralIdCache.put(ephemeralId, pkgId);
-            });
-            // Clear ephemeralIdsCollection
-            ephemeralIdsCollection.deleteMany(new Document());
-            // Insert updated ephemeral ids
-            ephemeralIdsCollection.insertMany(ephemeralIdDocuments);
-
-            // Update last ephemeral id update
-            stateCollection.updateOne(eq(FIELD_TYPE, FIELD_LAST_EPHEMERAL_ID_UPDATE), combine(set(FIELD_TYPE, FIELD_LAST_EPHEMERAL_ID_UPDATE), set(FIELD_TIMESTAMP, epoch)), new UpdateOptions().upsert(true));
-        } else {
-            ephemeralIdsCollection.find().forEach(document -> tmpEphemeralIdCache.put(document.getString(FIELD_EPHEMERAL_ID), document.getString(FIELD_PACKAGE_ID)));
-        }
-        ephemeralIdCache.setAll(tmpEphemeralIdCache);
+        final long start = System.currentTimeMillis();
+        ephemeralIdCache.rotate();
         LOGGER.debug("Successfully updated ephemeral id cache in {} ms", (System.currentTimeMillis() - start));
     }
 
@@ -1300,6 +1996,143 @@ public enum MongoDbManager {
         return true;
     }
 
+    /**
+     * Returns the high water marks of the github releases crawler
+     * @return map with the latest crawled release timestamp per releases url
+     */
+    public Map<String, Instant> getGithubHighWaterMarks() {
+        final Map<String, Instant> marks = new HashMap<>();
+        connect();
+        if (!connected) {
+            LOGGER.debug("MongoDB not connected, returned empty map of github high water marks");
+            return marks;
+        }
+        if (null == Config.INSTANCE.getFoojayMongoDbDatabase()) {
+            LOGGER.debug("Cannot return github high water marks because FOOJAY_MONGODB_DATABASE environment variable was not set.");
+            return marks;
+        }
+        if (null == database) {
+            LOGGER.error("Database is not set.");
+            database = mongoClient.getDatabase(Config.INSTANCE.getFoojayMongoDbDatabase());
+        }
+        if (!collectionExists(database, Constants.STATE_COLLECTION)) { database.createCollection(Constants.STATE_COLLECTION); }
+
+        database.getCollection(Constants.STATE_COLLECTION).find(eq(FIELD_TYPE, FIELD_GITHUB_MARK)).forEach(document -> {
+            final String uri = document.getString(FIELD_URI);
+            if (null == uri || null == document.get(FIELD_MARK)) { return; }
+            marks.put(uri, Instant.ofEpochMilli(((Number) document.get(FIELD_MARK)).longValue()));
+        });
+        return marks;
+    }
+
+    /**
+     * Upserts the given high water marks of the github releases crawler in one bulk write
+     * @param marks the latest crawled release timestamp per releases url
+     * @return true if the marks have been stored
+     */
+    public boolean upsertGithubHighWaterMarks(final Map<String, Instant> marks) {
+        if (null == marks || marks.isEmpty()) { return true; }
+        connect();
+        if (!connected) {
+            LOGGER.debug("MongoDB not connected, github high water marks not stored");
+            return false;
+        }
+        if (null == Config.INSTANCE.getFoojayMongoDbDatabase()) {
+            LOGGER.debug("Github high water marks not stored because FOOJAY_MONGODB_DATABASE environment variable was not set.");
+            return false;
+        }
+        if (null == database) {
+            LOGGER.error("Database is not set.");
+            database = mongoClient.getDatabase(Config.INSTANCE.getFoojayMongoDbDatabase());
+        }
+        if (!collectionExists(database, Constants.STATE_COLLECTION)) { database.createCollection(Constants.STATE_COLLECTION); }
+
+        final UpdateOptions              upsert = new UpdateOptions().upsert(true);
+        final List<WriteModel<Document>> writes = marks.entrySet()
+                                                       .stream()
+                                                       .map(entry -> new UpdateOneModel<Document>(and(eq(FIELD_TYPE, FIELD_GITHUB_MARK), eq(FIELD_URI, entry.getKey())),
+                                                                                                  combine(set(FIELD_TYPE, FIELD_GITHUB_MARK),
+                                                                                                          set(FIELD_URI, entry.getKey()),
+                                                                                                          set(FIELD_MARK, entry.getValue().toEpochMilli())),
+                                                                                                  upsert))
+                                                       .collect(Collectors.toList());
+        try {
+            database.getCollection(Constants.STATE_COLLECTION).bulkWrite(writes);
+            LOGGER.debug("Successfully stored {} github high water marks", writes.size());
+            return true;
+        } catch (MongoException e) {
+            LOGGER.error("Error storing github high water marks. {}", e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Returns the registry of file sizes that have been resolved by HEAD requests
+     * @return map with the file size per uri
+     */
+    public Map<String, FileSize> getFileSizes() {
+        final Map<String, FileSize> fileSizes = new HashMap<>();
+        connect();
+        if (!connected) {
+            LOGGER.debug("MongoDB not connected, returned empty map of file sizes");
+            return fileSizes;
+        }
+        if (null == Config.INSTANCE.getFoojayMongoDbDatabase()) {
+            LOGGER.debug("Cannot return file sizes because FOOJAY_MONGODB_DATABASE environment variable was not set.");
+            return fileSizes;
+        }
+        if (null == database) {
+            LOGGER.error("Database is not set.");
+            database = mongoClient.getDatabase(Config.INSTANCE.getFoojayMongoDbDatabase());
+        }
+        if (!collectionExists(database, Constants.FILE_SIZES_COLLECTION)) { database.createCollection(Constants.FILE_SIZES_COLLECTION); }
+
+        database.getCollection(Constants.FILE_SIZES_COLLECTION).find().forEach(document -> {
+            final String uri = document.getString(FIELD_URI);
+            if (null == uri) { return; }
+            fileSizes.put(uri, new FileSize(uri, ((Number) document.get(FIELD_SIZE)).longValue(), document.getString(FIELD_ETAG), document.getString(FIELD_LAST_MODIFIED), ((Number) document.get(FIELD_CHECKED_AT)).longValue()));
+        });
+        return fileSizes;
+    }
+
+    /**
+     * Upserts the given file sizes in one bulk write
+     * @param fileSizes
+     */
+    public void upsertFileSizes(final Collection<FileSize> fileSizes) {
+        if (null == fileSizes || fileSizes.isEmpty()) { return; }
+        connect();
+        if (!connected) {
+            LOGGER.debug("MongoDB not connected, file sizes not stored");
+            return;
+        }
+        if (null == Config.INSTANCE.getFoojayMongoDbDatabase()) {
+            LOGGER.debug("File sizes not stored because FOOJAY_MONGODB_DATABASE environment variable was not set.");
+            return;
+        }
+        if (null == database) {
+            LOGGER.error("Database is not set.");
+            database = mongoClient.getDatabase(Config.INSTANCE.getFoojayMongoDbDatabase());
+        }
+        if (!collectionExists(database, Constants.FILE_SIZES_COLLECTION)) { database.createCollection(Constants.FILE_SIZES_COLLECTION); }
+
+        final UpdateOptions              upsert = new UpdateOptions().upsert(true);
+        final List<WriteModel<Document>> writes = fileSizes.stream()
+                                                           .map(fileSize -> new UpdateOneModel<Document>(eq(FIELD_URI, fileSize.uri()),
+                                                                                                         combine(set(FIELD_SIZE, fileSize.size()),
+                                                                                                                 set(FIELD_ETAG, fileSize.etag()),
+                                                                                                                 set(FIELD_LAST_MODIFIED, fileSize.lastModified()),
+                                                                                                                 set(FIELD_CHECKED_AT, fileSize.checkedAt())),
+                                                                                                         upsert))
+                                                           .collect(Collectors.toList());
+        try {
+            database.getCollection(Constants.FILE_SIZES_COLLECTION).bulkWrite(writes);
+            LOGGER.debug("Successfully stored {} file sizes", writes.size());
+        } catch (MongoException e) {
+            LOGGER.error("Error storing file sizes. {}", e.getMessage());
+        }
+    }
+
     public void syncLatestBuildAvailableInDatabaseWithCache(final Collection<Pkg> pkgs) {
         connect();
         if (!connected) {
@@ -1338,4 +2171,9 @@ public enum MongoDbManager {
         }
         return false;
     }
+
+
+    private record RollupKey(RollupPeriod period, long bucket, String distro, int majorVersion, String pkgId) {
+        Bson toFilter() { return and(eq(FIELD_BUCKET, bucket), eq(FIELD_DISTRO, distro), eq(FIELD_MAJOR_VERSION, majorVersion), eq(FIELD_PACKAGE_ID, pkgId)); }
+    }
 }
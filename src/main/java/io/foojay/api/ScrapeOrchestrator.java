@@ -0,0 +1,353 @@
+/*
+ * Copyright (c) 2021.
+ *
+ * This file is part of DiscoAPI.
+ *
+ *     DiscoAPI is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 2 of the License, or
+ *     (at your option) any later version.
+ *
+ *     DiscoAPI is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with DiscoAPI.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.foojay.api;
+
+import io.foojay.api.pkg.Distro;
+import io.foojay.api.pkg.Pkg;
+import io.foojay.api.util.Config;
+import io.foojay.api.util.FileSizeResolver;
+import io.foojay.api.util.GithubReleasesCrawler;
+import io.foojay.api.util.GithubReleasesCrawler.HighWaterMark;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static io.foojay.api.util.Constants.COLON;
+import static io.foojay.api.util.Constants.COMMA;
+import static io.foojay.api.util.Constants.CURLY_BRACKET_CLOSE;
+import static io.foojay.api.util.Constants.CURLY_BRACKET_OPEN;
+import static io.foojay.api.util.Constants.QUOTES;
+
+
+/**
+ * Scrapes the maintained distros concurrently. Each distro is scheduled by its update interval
+ * (plus a jitter of 10% so that the vendors are not hit at the same time) and has its own timeout,
+ * a slow or hanging vendor only delays itself. The requests per upstream host are limited by the
+ * HostLimiter in Helper.get().
+ */
+public enum ScrapeOrchestrator {
+    INSTANCE;
+
+    private static final Logger                                 LOGGER           = LoggerFactory.getLogger(ScrapeOrchestrator.class);
+    private static final double                                 JITTER           = 0.1;
+    private final        PriorityQueue<Due>                     queue            = new PriorityQueue<>();
+    private final        Set<Distro>                            running          = ConcurrentHashMap.newKeySet();
+    private final        Map<Distro, Stats>                     stats            = new ConcurrentHashMap<>();
+    private volatile     ExecutorService                        workers;
+    private volatile     ScheduledExecutorService               timer;
+    private              ScheduledFuture<?>                     dispatcher;
+    private volatile     Persister                              consumer;
+    private volatile     boolean                                resolveFileSizes = true;
+    private              long                                   epoch            = 0;
+
+
+    /**
+     * Starts scraping all maintained distros continuously, each one according to its update interval
+     * @param consumer will be called with the pkgs of a distro after each successful scrape, the github
+     *                 high water marks of the scrape advance when its returned future completes successfully
+     */
+    public void start(final Persister consumer) { start(consumer, true); }
+
+    /**
+     * Starts scraping all maintained distros continuously, each one according to its update interval
+     * @param consumer         will be called with the pkgs of a distro after each successful scrape, the github
+     *                         high water marks of the scrape advance when its returned future completes successfully
+     * @param resolveFileSizes if false the consumer gets the pkgs as fetched (e.g. when the ScrapePipeline enriches them)
+     */
+    public synchronized void start(final Persister consumer, final boolean resolveFileSizes) {
+        if (null != dispatcher) { return; }
+        initExecutors();
+        this.consumer         = consumer;
+        this.resolveFileSizes = resolveFileSizes;
+        synchronized (queue) {
+            epoch++;
+            queue.clear();
+            running.clear();
+            getMaintainedDistros().forEach(distro -> queue.add(new Due(distro, System.currentTimeMillis() + jitter(distro))));
+        }
+        dispatcher = timer.scheduleWithFixedDelay(this::dispatch, 0, 1, TimeUnit.SECONDS);
+    }
+
+    public synchronized void stop() {
+        if (null != dispatcher) { dispatcher.cancel(false); }
+        if (null != workers)    { workers.shutdownNow(); }
+        if (null != timer)      { timer.shutdownNow(); }
+        dispatcher = null;
+        workers    = null;
+        timer      = null;
+        synchronized (queue) {
+            epoch++;
+            queue.clear();
+            running.clear();
+        }
+    }
+
+    /**
+     * Scrapes all maintained distros in parallel and waits until all of them are finished or timed out.
+     * The wall time is about the time of the slowest distro instead of the sum of all distros.
+     * The github high water marks are not advanced because the pkgs are not persisted here.
+     * @param onlyNewPkgs if true only new pkgs will be scraped
+     * @return pkgs per distro (distros that failed or timed out are not contained)
+     */
+    public Map<Distro, Collection<Pkg>> scrapeAll(final boolean onlyNewPkgs) {
+        initExecutors();
+        final long                                     start   = System.currentTimeMillis();
+        final Map<Distro, Collection<Pkg>>             result  = new ConcurrentHashMap<>();
+        final List<CompletableFuture<Collection<Pkg>>> futures = getMaintainedDistros().stream()
+                                                                                       .map(distro -> scrape(distro, onlyNewPkgs).thenApply(pkgs -> {
+                                                                                           result.put(distro, pkgs);
+                                                                                           return pkgs;
+                                                                                       }))
+                                                                                       .collect(Collectors.toList());
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).exceptionally(t -> null).join();
+        LOGGER.debug("Scraped {} distros in {} ms", result.size(), System.currentTimeMillis() - start);
+        return result;
+    }
+
+    /**
+     * Scrapes the given distro on the worker pool, the scrape will be cancelled FOOJAY_SCRAPE_TIMEOUT_MINUTES after it started
+     * @param distro      the distro to scrape
+     * @param onlyNewPkgs if true only new pkgs will be scraped
+     * @return future that completes with the pkgs or exceptionally on error or timeout
+     */
+    public CompletableFuture<Collection<Pkg>> scrape(final Distro distro, final boolean onlyNewPkgs) {
+        return scrape(distro, onlyNewPkgs, true).thenApply(Scrape::pkgs);
+    }
+
+    /**
+     * Fetches the pkgs of the given distro like scrape() but without resolving the file sizes,
+     * unknown sizes are -1 and have to be resolved by the caller with FileSizeResolver.resolve()
+     * @param distro      the distro to fetch
+     * @param onlyNewPkgs if true only new pkgs will be fetched
+     * @return future that completes with the pkgs or exceptionally on error or timeout
+     */
+    public CompletableFuture<Collection<Pkg>> fetch(final Distro distro, final boolean onlyNewPkgs) {
+        return scrape(distro, onlyNewPkgs, false).thenApply(Scrape::pkgs);
+    }
+
+    /**
+     * Fetches the pkgs of the given distro like fetch() and hands them over to the given persister,
+     * the github high water marks of the fetch advance when the future of the persister completes successfully
+     * @param distro      the distro to fetch
+     * @param onlyNewPkgs if true only new pkgs will be fetched
+     * @param persister   persists the fetched pkgs
+     * @return the future of the persister
+     */
+    public <T> CompletableFuture<T> fetch(final Distro distro, final boolean onlyNewPkgs, final Function<Collection<Pkg>, CompletableFuture<T>> persister) {
+        return scrape(distro, onlyNewPkgs, false).thenCompose(scrape -> persister.apply(scrape.pkgs()).thenApply(result -> {
+            GithubReleasesCrawler.INSTANCE.commitMarks(scrape.marks());
+            return result;
+        }));
+    }
+
+    private CompletableFuture<Scrape> scrape(final Distro distro, final boolean onlyNewPkgs, final boolean resolveFileSizes) {
+        initExecutors();
+        final ExecutorService           pool      = workers;
+        final ScheduledExecutorService  scheduler = timer;
+        final AtomicLong                start     = new AtomicLong(System.currentTimeMillis());
+        final CompletableFuture<Scrape> result    = new CompletableFuture<>();
+        if (null == pool || null == scheduler) {
+            result.completeExceptionally(new RejectedExecutionException("Scraping " + distro.getApiString() + " rejected, orchestrator stopped"));
+            return result;
+        }
+        try {
+            pool.execute(() -> {
+                // The timeout starts when the scrape starts, not while the distro is waiting for a free worker
+                start.set(System.currentTimeMillis());
+                final Thread       worker  = Thread.currentThread();
+                ScheduledFuture<?> timeout = null;
+                try {
+                    timeout = scheduler.schedule(() -> {
+                        if (result.completeExceptionally(new TimeoutException("Scraping " + distro.getApiString() + " timed out"))) { worker.interrupt(); }
+                    }, Config.INSTANCE.getFoojayScrapeTimeoutMinutes(), TimeUnit.MINUTES);
+                    final List<HighWaterMark> marks = new ArrayList<>();
+                    final Collection<Pkg>     pkgs  = GithubReleasesCrawler.INSTANCE.collectMarks(marks, () -> FileSizeResolver.INSTANCE.deferResolution(() -> distro.get().getAllPkgs(onlyNewPkgs)));
+                    if (resolveFileSizes) { FileSizeResolver.INSTANCE.resolve(pkgs); }
+                    result.complete(new Scrape(pkgs, marks));
+                } catch (Exception e) {
+                    result.completeExceptionally(e);
+                } finally {
+                    if (null != timeout) { timeout.cancel(false); }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            result.completeExceptionally(e);
+        }
+
+        return result.whenComplete((scrape, throwable) -> {
+            final Stats distroStats = stats.computeIfAbsent(distro, d -> new Stats());
+            distroStats.lastDurationMs = System.currentTimeMillis() - start.get();
+            distroStats.lastScrape     = System.currentTimeMillis();
+            if (null == throwable) {
+                distroStats.lastNumberOfPkgs = scrape.pkgs().size();
+            } else {
+                distroStats.failures.incrementAndGet();
+                LOGGER.error("Error scraping {}. {}", distro.getApiString(), throwable.getMessage());
+            }
+        });
+    }
+
+    public Map<Distro, Long> getLastDurations() {
+        final Map<Distro, Long> durations = new EnumMap<>(Distro.class);
+        stats.forEach((distro, distroStats) -> durations.put(distro, distroStats.lastDurationMs));
+        return durations;
+    }
+
+    private void dispatch() {
+        final long         now = System.currentTimeMillis();
+        final long         runEpoch;
+        final List<Distro> due = new ArrayList<>();
+        synchronized (queue) {
+            runEpoch = epoch;
+            while (!queue.isEmpty() && queue.peek().dueAt <= now) {
+                final Distro distro = queue.poll().distro;
+                if (running.add(distro)) { due.add(distro); }
+            }
+        }
+        // Scrape outside of the queue lock, scrape() locks the orchestrator to init the executors
+        for (Distro distro : due) {
+            scrape(distro, true, resolveFileSizes).whenComplete((scrape, throwable) -> {
+                if (!isCurrentRun(runEpoch)) { return; }
+                if (null == throwable && null != consumer) {
+                    try {
+                        consumer.persist(distro, scrape.pkgs()).whenComplete((result, persistThrowable) -> {
+                            if (null == persistThrowable) {
+                                GithubReleasesCrawler.INSTANCE.commitMarks(scrape.marks());
+                            } else {
+                                LOGGER.error("Error persisting pkgs of {}. {}", distro.getApiString(), persistThrowable.getMessage());
+                            }
+                        });
+                    } catch (Exception e) {
+                        LOGGER.error("Error processing pkgs of {}. {}", distro.getApiString(), e.getMessage());
+                    }
+                }
+                synchronized (queue) {
+                    // Distros of a stopped (or restarted) run will not be scheduled again
+                    if (runEpoch != epoch) { return; }
+                    running.remove(distro);
+                    queue.add(new Due(distro, System.currentTimeMillis() + TimeUnit.MINUTES.toMillis(distro.getUpdateIntervalInMinutes()) + jitter(distro)));
+                }
+            });
+        }
+    }
+
+    private boolean isCurrentRun(final long runEpoch) {
+        synchronized (queue) { return runEpoch == epoch; }
+    }
+
+    private synchronized void initExecutors() {
+        if (null != workers) { return; }
+        final AtomicInteger counter = new AtomicInteger();
+        workers = Executors.newFixedThreadPool(Config.INSTANCE.getFoojayScrapeThreads(), runnable -> {
+            final Thread thread = new Thread(runnable, "scraper-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "scrape-scheduler");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private static long jitter(final Distro distro) {
+        final long maxJitter = (long) (TimeUnit.MINUTES.toMillis(distro.getUpdateIntervalInMinutes()) * JITTER);
+        return maxJitter > 0 ? ThreadLocalRandom.current().nextLong(-maxJitter, maxJitter + 1) : 0;
+    }
+
+    private static List<Distro> getMaintainedDistros() {
+        final List<Distro> maintained = Distro.getAsListWithoutNoneAndNotFound().stream().filter(Distro::isMaintained).collect(Collectors.toList());
+        final List<Distro> scrapable  = maintained.stream().filter(distro -> distro.get().isScrapable()).collect(Collectors.toList());
+        if (scrapable.size() < maintained.size()) {
+            maintained.removeAll(scrapable);
+            LOGGER.warn("Skipped maintained distros without scraper: {}", maintained.stream().map(Distro::getApiString).collect(Collectors.joining(", ")));
+        }
+        return scrapable;
+    }
+
+    @Override public String toString() {
+        final StringBuilder msgBuilder = new StringBuilder().append(CURLY_BRACKET_OPEN);
+        boolean first = true;
+        for (Map.Entry<Distro, Stats> entry : new TreeMap<>(stats).entrySet()) {
+            if (!first) { msgBuilder.append(COMMA); }
+            final Stats distroStats = entry.getValue();
+            msgBuilder.append(QUOTES).append(entry.getKey().getApiString()).append(QUOTES).append(COLON).append(CURLY_BRACKET_OPEN)
+                      .append(QUOTES).append("last_ms").append(QUOTES).append(COLON).append(distroStats.lastDurationMs).append(COMMA)
+                      .append(QUOTES).append("last_scrape").append(QUOTES).append(COLON).append(distroStats.lastScrape).append(COMMA)
+                      .append(QUOTES).append("pkgs").append(QUOTES).append(COLON).append(distroStats.lastNumberOfPkgs).append(COMMA)
+                      .append(QUOTES).append("failures").append(QUOTES).append(COLON).append(distroStats.failures.get())
+                      .append(CURLY_BRACKET_CLOSE);
+            first = false;
+        }
+        return msgBuilder.append(CURLY_BRACKET_CLOSE).toString();
+    }
+
+
+    /**
+     * Persists the pkgs of a scraped distro
+     */
+    @FunctionalInterface
+    public interface Persister {
+        /**
+         * @param distro the scraped distro
+         * @param pkgs   the scraped pkgs
+         * @return future that completes when the pkgs have been persisted
+         */
+        CompletableFuture<?> persist(Distro distro, Collection<Pkg> pkgs);
+    }
+
+
+    private record Scrape(Collection<Pkg> pkgs, List<HighWaterMark> marks) { }
+
+
+    private record Due(Distro distro, long dueAt) implements Comparable<Due> {
+        @Override public int compareTo(final Due other) { return Long.compare(dueAt, other.dueAt); }
+    }
+
+
+    private static class Stats {
+        private volatile long          lastDurationMs   = -1;
+        private volatile long          lastScrape       = -1;
+        private volatile int           lastNumberOfPkgs = 0;
+        private final    AtomicInteger failures         = new AtomicInteger();
+    }
+}
@@ -0,0 +1,365 @@
+/*
+ * Copyright (c) 2021.
+ *
+ * This file is part of DiscoAPI.
+ *
+ *     DiscoAPI is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 2 of the License, or
+ *     (at your option) any later version.
+ *
+ *     DiscoAPI is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with DiscoAPI.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.foojay.api;
+
+import io.foojay.api.pkg.Distro;
+import io.foojay.api.pkg.Pkg;
+import io.foojay.api.util.FileSizeResolver;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import static io.foojay.api.util.Constants.COLON;
+import static io.foojay.api.util.Constants.COMMA;
+import static io.foojay.api.util.Constants.CURLY_BRACKET_CLOSE;
+import static io.foojay.api.util.Constants.CURLY_BRACKET_OPEN;
+import static io.foojay.api.util.Constants.QUOTES;
+
+
+/**
+ * Processes scraped pkgs in stages: fetch -> diff -> enrich -> persist.
+ * The fetch stage is the ScrapeOrchestrator (scheduling, timeouts and host limits), the fetched pkgs are split
+ * into batches that are handed over to the following stages by bounded queues. If a stage falls behind, its
+ * queue fills up and the previous stage blocks (backpressure) instead of buffering all pkgs in memory.
+ * - diff   : keeps only pkgs that are new or differ from the pkgs in the cache (Pkg.diff()), a pkg without
+ *            a size takes over the size of the cached pkg with the same download uri
+ * - enrich : resolves the missing file sizes of the remaining pkgs with parallel HEAD requests
+ * - persist: drains all waiting batches and upserts the changed pkgs in one bulk write
+ * Diffing first means that unchanged pkgs never cause a HEAD request.
+ * The pipeline is started by the Bootstrap if FOOJAY_SCRAPE_ENABLED is set.
+ */
+public class ScrapePipeline {
+    public enum Stage { FETCH, DIFF, ENRICH, PERSIST }
+
+    private static final Logger                        LOGGER              = LoggerFactory.getLogger(ScrapePipeline.class);
+    private static final int                           BATCH_SIZE          = 200;
+    private static final int                           QUEUE_CAPACITY      = 32;
+    private static final int                           MAX_PERSIST_BATCHES = 16;
+    private static final int                           ENRICH_WORKERS      = 2;
+    public  static final ScrapePipeline                INSTANCE            = new ScrapePipeline(new DefaultStages(), Metrics.globalRegistry, BATCH_SIZE, QUEUE_CAPACITY);
+    private final        Stages                        stages;
+    private final        int                           batchSize;
+    private final        BlockingQueue<Batch>          diffQueue;
+    private final        BlockingQueue<Batch>          enrichQueue;
+    private final        BlockingQueue<Batch>          persistQueue;
+    private final        Set<Job>                      jobs                = ConcurrentHashMap.newKeySet();
+    private final        Map<Stage, AtomicLong>        processedPkgs       = new EnumMap<>(Stage.class);
+    private final        Map<Stage, AtomicLong>        processedBatches    = new EnumMap<>(Stage.class);
+    private              ExecutorService               workers;
+    private              boolean                       scraping;
+
+
+    ScrapePipeline(final Stages stages, final MeterRegistry registry, final int batchSize, final int queueCapacity) {
+        this.stages       = stages;
+        this.batchSize    = batchSize;
+        this.diffQueue    = new ArrayBlockingQueue<>(queueCapacity);
+        this.enrichQueue  = new ArrayBlockingQueue<>(queueCapacity);
+        this.persistQueue = new ArrayBlockingQueue<>(queueCapacity);
+        for (Stage stage : Stage.values()) {
+            processedPkgs.put(stage, new AtomicLong(0));
+            processedBatches.put(stage, new AtomicLong(0));
+            final String tag = stage.name().toLowerCase();
+            Gauge.builder("discoapi.pipeline.pkgs", processedPkgs.get(stage), AtomicLong::get).tag("stage", tag).register(registry);
+            Gauge.builder("discoapi.pipeline.batches", processedBatches.get(stage), AtomicLong::get).tag("stage", tag).register(registry);
+            Gauge.builder("discoapi.pipeline.queue", this, pipeline -> pipeline.getQueueDepth(stage)).tag("stage", tag).register(registry);
+        }
+    }
+
+
+    /**
+     * Starts the stage workers and lets the ScrapeOrchestrator feed the fetched pkgs of all maintained distros into the pipeline
+     */
+    public synchronized void start() {
+        initWorkers();
+        ScrapeOrchestrator.INSTANCE.start(this::submit, false);
+        scraping = true;
+    }
+
+    /**
+     * Stops the stage workers (and the ScrapeOrchestrator if it has been started by start()),
+     * the futures of all pkgs that have not passed the pipeline yet fail with a CancellationException
+     */
+    public synchronized void stop() {
+        if (scraping) { ScrapeOrchestrator.INSTANCE.stop(); }
+        scraping = false;
+        // Fail the jobs before the workers are interrupted, so their futures report the stop and not the interrupt
+        final CancellationException stopped = new CancellationException("Scrape pipeline stopped");
+        jobs.forEach(job -> job.fail(stopped));
+        jobs.clear();
+        if (null != workers) { workers.shutdownNow(); }
+        workers = null;
+        diffQueue.clear();
+        enrichQueue.clear();
+        persistQueue.clear();
+    }
+
+    /**
+     * Fetches the given distro and runs its pkgs through the pipeline
+     * @param distro      the distro to scrape
+     * @param onlyNewPkgs if true only new pkgs will be scraped
+     * @return future that completes with the number of persisted pkgs
+     */
+    public CompletableFuture<Integer> scrape(final Distro distro, final boolean onlyNewPkgs) {
+        initWorkers();
+        return ScrapeOrchestrator.INSTANCE.fetch(distro, onlyNewPkgs, pkgs -> submit(distro, pkgs));
+    }
+
+    /**
+     * Splits the given pkgs into batches and puts them into the diff queue. Blocks while the queue is full.
+     * @param distro the distro the pkgs belong to
+     * @param pkgs   the fetched pkgs
+     * @return future that completes with the number of persisted pkgs when all batches passed the pipeline
+     */
+    public CompletableFuture<Integer> submit(final Distro distro, final Collection<Pkg> pkgs) {
+        initWorkers();
+        if (null == pkgs || pkgs.isEmpty()) { return CompletableFuture.completedFuture(0); }
+        count(Stage.FETCH, pkgs.size());
+
+        final List<Pkg> pkgList = new ArrayList<>(pkgs);
+        final Job       job     = new Job(distro, (pkgList.size() + batchSize - 1) / batchSize);
+        jobs.add(job);
+        job.future.whenComplete((persisted, throwable) -> jobs.remove(job));
+        try {
+            for (int i = 0 ; i < pkgList.size() && !job.future.isDone() ; i += batchSize) {
+                diffQueue.put(new Batch(job, new ArrayList<>(pkgList.subList(i, Math.min(i + batchSize, pkgList.size())))));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            job.fail(e);
+        }
+        return job.future;
+    }
+
+    public long getProcessedPkgs(final Stage stage) { return processedPkgs.get(stage).get(); }
+
+    public int getQueueDepth(final Stage stage) {
+        switch (stage) {
+            case DIFF   : return diffQueue.size();
+            case ENRICH : return enrichQueue.size();
+            case PERSIST: return persistQueue.size();
+            default     : return 0;
+        }
+    }
+
+    private Batch diff(final Batch batch) {
+        final List<Pkg> changed = new ArrayList<>();
+        for (Pkg pkg : batch.pkgs) {
+            final Pkg existing = stages.getExisting(pkg.getId());
+            if (null == existing) {
+                changed.add(pkg);
+                continue;
+            }
+            // The size is only resolved in the enrich stage, the file behind an unchanged download uri keeps its size
+            if (pkg.getSize() <= 0 && existing.getSize() > 0 && existing.getDirectDownloadUri().equals(pkg.getDirectDownloadUri())) { pkg.setSize(existing.getSize()); }
+            if (!existing.diff(pkg).isEmpty()) { changed.add(pkg); }
+        }
+        return new Batch(batch.job, changed);
+    }
+
+    private Batch enrich(final Batch batch) {
+        stages.enrich(batch.pkgs);
+        return batch;
+    }
+
+    private void persist(final List<Batch> batches) {
+        final List<Pkg> pkgs = new ArrayList<>();
+        batches.forEach(batch -> pkgs.addAll(batch.pkgs));
+        final boolean success = pkgs.isEmpty() || stages.persist(pkgs);
+        batches.forEach(batch -> {
+            if (success) {
+                batch.job.persisted.addAndGet(batch.pkgs.size());
+                batch.job.done();
+            } else {
+                batch.job.fail(new IllegalStateException("Persisting pkgs of " + batch.job.distro.getApiString() + " failed"));
+            }
+        });
+    }
+
+    private void runStage(final Stage stage, final BlockingQueue<Batch> input, final Function<Batch, Batch> work, final BlockingQueue<Batch> output) {
+        while (!Thread.currentThread().isInterrupted()) {
+            final Batch batch;
+            try {
+                batch = input.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            // Skip the remaining batches of a failed or cancelled job
+            if (batch.job.future.isDone()) { continue; }
+            try {
+                final Batch result = work.apply(batch);
+                count(stage, batch.pkgs.size());
+                if (result.pkgs.isEmpty()) {
+                    result.job.done();
+                } else {
+                    output.put(result);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                batch.job.fail(e);
+            } catch (Exception e) {
+                LOGGER.error("Error in stage {} for {}. {}", stage.name().toLowerCase(), batch.job.distro.getApiString(), e.getMessage());
+                batch.job.fail(e);
+            }
+        }
+    }
+
+    private void runPersistStage() {
+        while (!Thread.currentThread().isInterrupted()) {
+            final List<Batch> batches = new ArrayList<>();
+            try {
+                batches.add(persistQueue.take());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            persistQueue.drainTo(batches, MAX_PERSIST_BATCHES - 1);
+            batches.removeIf(batch -> batch.job.future.isDone());
+            if (batches.isEmpty()) { continue; }
+            try {
+                persist(batches);
+                batches.forEach(batch -> count(Stage.PERSIST, batch.pkgs.size()));
+            } catch (Exception e) {
+                LOGGER.error("Error persisting pkgs. {}", e.getMessage());
+                batches.forEach(batch -> batch.job.fail(e));
+            }
+        }
+    }
+
+    private void count(final Stage stage, final int pkgs) {
+        processedPkgs.get(stage).addAndGet(pkgs);
+        processedBatches.get(stage).incrementAndGet();
+    }
+
+    private synchronized void initWorkers() {
+        if (null != workers) { return; }
+        final int           diffWorkers = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        final AtomicInteger counter     = new AtomicInteger();
+        workers = Executors.newFixedThreadPool(diffWorkers + ENRICH_WORKERS + 1, runnable -> {
+            final Thread thread = new Thread(runnable, "scrape-pipeline-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (int i = 0 ; i < diffWorkers ; i++) { workers.submit(() -> runStage(Stage.DIFF, diffQueue, this::diff, enrichQueue)); }
+        // Enrichment is I/O bound but FileSizeResolver already sends the requests of a batch in parallel
+        for (int i = 0 ; i < ENRICH_WORKERS ; i++) { workers.submit(() -> runStage(Stage.ENRICH, enrichQueue, this::enrich, persistQueue)); }
+        // One writer, it collects the waiting batches into one bulk write
+        workers.submit(this::runPersistStage);
+    }
+
+    @Override public String toString() {
+        final StringBuilder msgBuilder = new StringBuilder().append(CURLY_BRACKET_OPEN);
+        boolean first = true;
+        for (Stage stage : Stage.values()) {
+            if (!first) { msgBuilder.append(COMMA); }
+            msgBuilder.append(QUOTES).append(stage.name().toLowerCase()).append(QUOTES).append(COLON).append(CURLY_BRACKET_OPEN)
+                      .append(QUOTES).append("pkgs").append(QUOTES).append(COLON).append(processedPkgs.get(stage).get()).append(COMMA)
+                      .append(QUOTES).append("batches").append(QUOTES).append(COLON).append(processedBatches.get(stage).get()).append(COMMA)
+                      .append(QUOTES).append("queue").append(QUOTES).append(COLON).append(getQueueDepth(stage))
+                      .append(CURLY_BRACKET_CLOSE);
+            first = false;
+        }
+        return msgBuilder.append(CURLY_BRACKET_CLOSE).toString();
+    }
+
+
+    private record Batch(Job job, List<Pkg> pkgs) {}
+
+
+    /**
+     * The work of the diff, enrich and persist stages
+     */
+    interface Stages {
+        /**
+         * @return the cached pkg with the given id or null
+         */
+        Pkg getExisting(String id);
+
+        /**
+         * Fills in the missing file sizes of the given pkgs
+         */
+        void enrich(List<Pkg> pkgs);
+
+        /**
+         * Stores the given changed pkgs
+         * @return true if the pkgs have been persisted
+         */
+        boolean persist(List<Pkg> pkgs);
+    }
+
+
+    private static class DefaultStages implements Stages {
+        @Override public Pkg getExisting(final String id) { return CacheManager.INSTANCE.pkgCache.get(id); }
+
+        @Override public void enrich(final List<Pkg> pkgs) { FileSizeResolver.INSTANCE.resolve(pkgs); }
+
+        @Override public boolean persist(final List<Pkg> pkgs) {
+            final boolean success = MongoDbManager.INSTANCE.upsertPkgs(pkgs);
+            // Apply the changed pkgs to the own cache and let the other nodes apply them as delta instead of a full sync
+            if (success) { CacheManager.INSTANCE.publishPkgDelta(pkgs, List.of()); }
+            return success;
+        }
+    }
+
+
+    private static class Job {
+        private final Distro                     distro;
+        private final AtomicInteger              pendingBatches;
+        private final AtomicInteger              persisted = new AtomicInteger(0);
+        private final CompletableFuture<Integer> future    = new CompletableFuture<>();
+
+
+        private Job(final Distro distro, final int batches) {
+            this.distro         = distro;
+            this.pendingBatches = new AtomicInteger(batches);
+        }
+
+
+        private void done() {
+            if (0 == pendingBatches.decrementAndGet()) {
+                future.complete(persisted.get());
+                LOGGER.debug("Pipeline persisted {} changed pkgs of {}", persisted.get(), distro.getApiString());
+            }
+        }
+
+        private void fail(final Throwable throwable) {
+            future.completeExceptionally(throwable);
+        }
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright (c) 2021.
+ *
+ * This file is part of DiscoAPI.
+ *
+ *     DiscoAPI is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 2 of the License, or
+ *     (at your option) any later version.
+ *
+ *     DiscoAPI is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with DiscoAPI.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.foojay.api;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Metrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static io.foojay.api.util.Constants.COLON;
+import static io.foojay.api.util.Constants.COMMA;
+import static io.foojay.api.util.Constants.CURLY_BRACKET_CLOSE;
+import static io.foojay.api.util.Constants.CURLY_BRACKET_OPEN;
+import static io.foojay.api.util.Constants.QUOTES;
+
+
+/**
+ * Runs a task (e.g. the sync of the cache with the database) on its own thread and makes sure
+ * that it is never executed concurrently. Triggers that arrive while a run is scheduled join
+ * that run, triggers that arrive while a run is in progress are coalesced into one follow-up run.
+ * Each new trigger postpones a scheduled run by the debounce time (trailing debounce).
+ */
+public class SyncCoordinator {
+    private static final Logger                   LOGGER = LoggerFactory.getLogger(SyncCoordinator.class);
+    private final        String                   name;
+    private final        Runnable                 task;
+    private final        long                     debounceMs;
+    private final        ScheduledExecutorService executor;
+    public  final        AtomicLong               triggersReceived;
+    public  final        AtomicLong               syncsExecuted;
+    public  final        AtomicLong               syncsFailed;
+    private              CompletableFuture<Void>  nextRun;
+    private              ScheduledFuture<?>       scheduledRun;
+    private              boolean                  running;
+
+
+    public SyncCoordinator(final String name, final long debounceMs, final Runnable task) {
+        this.name             = name;
+        this.task             = task;
+        this.debounceMs       = Math.max(0, debounceMs);
+        this.executor         = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.triggersReceived = new AtomicLong(0);
+        this.syncsExecuted    = new AtomicLong(0);
+        this.syncsFailed      = new AtomicLong(0);
+        this.nextRun          = null;
+        this.scheduledRun     = null;
+        this.running          = false;
+
+        Gauge.builder("discoapi.sync.triggers", triggersReceived, AtomicLong::get).tag("name", name).register(Metrics.globalRegistry);
+        Gauge.builder("discoapi.sync.executions", syncsExecuted, AtomicLong::get).tag("name", name).register(Metrics.globalRegistry);
+        Gauge.builder("discoapi.sync.failures", syncsFailed, AtomicLong::get).tag("name", name).register(Metrics.globalRegistry);
+    }
+
+
+    /**
+     * Requests a run of the task and returns a future that completes when a run that
+     * started after this trigger has finished.
+     * @return a future that completes when a run that started after this trigger has finished
+     */
+    public synchronized CompletableFuture<Void> trigger() {
+        triggersReceived.incrementAndGet();
+        if (null == nextRun) { nextRun = new CompletableFuture<>(); }
+        // While running, the follow-up run will be scheduled when the current run is finished
+        if (!running) { schedule(); }
+        return nextRun;
+    }
+
+    public synchronized boolean isRunning() { return running; }
+
+    public long getDebounceMs() { return debounceMs; }
+
+    private void schedule() {
+        if (null != scheduledRun) { scheduledRun.cancel(false); }
+        scheduledRun = executor.schedule(this::run, debounceMs, TimeUnit.MILLISECONDS);
+    }
+
+    private void run() {
+        final CompletableFuture<Void> currentRun;
+        synchronized (this) {
+            if (null == nextRun || running) { return; }
+            currentRun   = nextRun;
+            nextRun      = null;
+            scheduledRun = null;
+            running      = true;
+        }
+        try {
+            final long start = System.currentTimeMillis();
+            task.run();
+            syncsExecuted.incrementAndGet();
+            LOGGER.debug("{} finished in {} ms ({} triggers, {} executions)", name, (System.currentTimeMillis() - start), triggersReceived.get(), syncsExecuted.get());
+            currentRun.complete(null);
+        } catch (Exception e) {
+            syncsFailed.incrementAndGet();
+            LOGGER.error("{} failed. {}", name, e.getMessage());
+            currentRun.completeExceptionally(e);
+        } finally {
+            synchronized (this) {
+                running = false;
+                if (null != nextRun) { schedule(); }
+            }
+        }
+    }
+
+    @Override public String toString() {
+        return new StringBuilder().append(CURLY_BRACKET_OPEN)
+                                  .append(QUOTES).append("name").append(QUOTES).append(COLON).append(QUOTES).append(name).append(QUOTES).append(COMMA)
+                                  .append(QUOTES).append("triggers").append(QUOTES).append(COLON).append(triggersReceived.get()).append(COMMA)
+                                  .append(QUOTES).append("executions").append(QUOTES).append(COLON).append(syncsExecuted.get()).append(COMMA)
+                                  .append(QUOTES).append("failures").append(QUOTES).append(COLON).append(syncsFailed.get()).append(COMMA)
+                                  .append(QUOTES).append("debounce_ms").append(QUOTES).append(COLON).append(debounceMs)
+                                  .append(CURLY_BRACKET_CLOSE)
+                                  .toString();
+    }
+}
@@ -38,17 +38,16 @@ import io.foojay.api.pkg.Distro;
 import io.foojay.api.pkg.MajorVersion;
 import io.foojay.api.pkg.Pkg;
 import io.foojay.api.util.Constants;
+import io.foojay.api.util.FileSizeResolver;
+import io.foojay.api.util.FilenameClassifier;
 import io.foojay.api.util.Helper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
-import java.util.TreeSet;
-import java.util.stream.Collectors;
 
 import static eu.hansolo.jdktools.Architecture.AARCH64;
 import static eu.hansolo.jdktools.Architecture.ARM;
@@ -156,11 +155,7 @@ public class AOJ implements Distribution {
     }
 
     @Override public List<Semver> getVersions() {
-        return CacheManager.INSTANCE.pkgCache.getPkgs()
-                                             .stream()
-                                             .filter(pkg -> Distro.AOJ.get().equals(pkg.getDistribution()))
-                                             .map(pkg -> pkg.getSemver())
-                                             .collect(Collectors.toCollection(() -> new TreeSet<>(Comparator.comparing(Semver::toString)))).stream().sorted(Comparator.comparing(Semver::getVersionNumber).reversed()).collect(Collectors.toList());
+        return CacheManager.INSTANCE.distroCatalog.get().getStats(Distro.AOJ).getVersions();
     }
 
 
@@ -258,19 +253,9 @@ public class AOJ implements Distribution {
             */
             VersionNumber dNumber = VersionNumber.fromText(versionDataObj.get(FIELD_SEMVER).getAsString());
 
-            Architecture arc = Constants.ARCHITECTURE_LOOKUP.entrySet()
-                                                            .stream()
-                                                            .filter(entry -> entry.getKey().equals(binariesObj.get(FIELD_ARCHITECTURE).getAsString()))
-                                                            .findFirst()
-                                                            .map(Entry::getValue)
-                                                            .orElse(Architecture.NONE);
+            Architecture arc = Constants.ARCHITECTURE_LOOKUP.getOrDefault(binariesObj.get(FIELD_ARCHITECTURE).getAsString(), Architecture.NONE);
 
-            OperatingSystem os = Constants.OPERATING_SYSTEM_LOOKUP.entrySet()
-                                                                  .stream()
-                                                                  .filter(entry -> entry.getKey().equals(binariesObj.get(FIELD_OS).getAsString()))
-                                                                  .findFirst()
-                                                                  .map(Entry::getValue)
-                                                                  .orElse(OperatingSystem.NONE);
+            OperatingSystem os = Constants.OPERATING_SYSTEM_LOOKUP.getOrDefault(binariesObj.get(FIELD_OS).getAsString(), OperatingSystem.NONE);
 
             if (OperatingSystem.NONE == os) {
                 LOGGER.debug("Operating System not found in AOJ for field value: {}", binariesObj.get(FIELD_OS).getAsString());
@@ -288,11 +273,7 @@ public class AOJ implements Distribution {
                 if (installerName.contains("testimage") || installerName.contains("debugimage")) { continue; }
 
                 if (Architecture.NONE == arc) {
-                    arc = Constants.ARCHITECTURE_LOOKUP.entrySet().stream()
-                                                       .filter(entry -> installerName.contains(entry.getKey()))
-                                                       .findFirst()
-                                                       .map(Entry::getValue)
-                                                       .orElse(Architecture.NONE);
+                    arc = FilenameClassifier.INSTANCE.classify(installerName).getArchitecture(Architecture.NONE);
                 }
 
                 if (Architecture.NONE == arc) {
@@ -343,10 +324,10 @@ public class AOJ implements Distribution {
 
                     installerPkg.setFreeUseInProduction(Boolean.TRUE);
 
-                    installerPkg.setSize(Helper.getFileSize(installerDownloadLink));
+                    installerPkg.setSize(FileSizeResolver.INSTANCE.getSize(installerDownloadLink));
 
                     if (onlyNewPkgs) {
-                        if (CacheManager.INSTANCE.pkgCache.getPkgs().stream().filter(p -> p.getFilename().equals(installerName)).filter(p -> p.getDirectDownloadUri().equals(installerDownloadLink)).count() == 0) {
+                        if (!CacheManager.INSTANCE.pkgCache.containsArtifact(installerName, installerDownloadLink)) {
                             pkgs.add(installerPkg);
                         }
                     }
@@ -364,11 +345,7 @@ public class AOJ implements Distribution {
                 if (packageName.contains("testimage") || packageName.contains("debugimage")) { continue; }
 
                 if (Architecture.NONE == arc) {
-                    arc = Constants.ARCHITECTURE_LOOKUP.entrySet().stream()
-                                                       .filter(entry -> packageName.contains(entry.getKey()))
-                                                       .findFirst()
-                                                       .map(Entry::getValue)
-                                                       .orElse(Architecture.NONE);
+                    arc = FilenameClassifier.INSTANCE.classify(packageName).getArchitecture(Architecture.NONE);
                 }
 
                 if (Architecture.NONE == arc) {
@@ -379,7 +356,7 @@ public class AOJ implements Distribution {
                 String withoutPrefix = packageName.replace("OpenJDK" + vNumber.getFeature().getAsInt() + "U", "");
 
                 if (onlyNewPkgs) {
-                    if (CacheManager.INSTANCE.pkgCache.getPkgs().stream().filter(p -> p.getFilename().equals(packageName)).filter(p -> p.getDirectDownloadUri().equals(packageDownloadLink)).count() > 0) { continue; }
+                    if (CacheManager.INSTANCE.pkgCache.containsArtifact(packageName, packageDownloadLink)) { continue; }
                 }
 
                 Pkg packagePkg = new Pkg();
@@ -420,7 +397,7 @@ public class AOJ implements Distribution {
 
                     packagePkg.setFreeUseInProduction(Boolean.TRUE);
 
-                    packagePkg.setSize(Helper.getFileSize(packageDownloadLink));
+                    packagePkg.setSize(FileSizeResolver.INSTANCE.getSize(packageDownloadLink));
 
                     pkgs.add(packagePkg);
                 }
@@ -429,4 +406,11 @@ public class AOJ implements Distribution {
 
         return pkgs;
     }
+
+    /**
+     * AdoptOpenJDK is not maintained anymore, there is nothing to scrape
+     */
+    @Override public Collection<Pkg> getAllPkgs(final boolean onlyNewPkgs) { return List.of(); }
+
+    @Override public boolean isScrapable() { return false; }
 }
@@ -37,17 +37,15 @@ import io.foojay.api.pkg.Distro;
 import io.foojay.api.pkg.MajorVersion;
 import io.foojay.api.pkg.Pkg;
 import io.foojay.api.util.Constants;
+import io.foojay.api.util.FileSizeResolver;
+import io.foojay.api.util.FilenameClassifier;
 import io.foojay.api.util.Helper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.net.http.HttpResponse;
 import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.List;
-import java.util.Map.Entry;
-import java.util.TreeSet;
-import java.util.stream.Collectors;
 
 
 public class BiSheng implements Distribution {
@@ -111,11 +109,7 @@ public class BiSheng implements Distribution {
     }
 
     @Override public List<Semver> getVersions() {
-        return CacheManager.INSTANCE.pkgCache.getPkgs()
-                                             .stream()
-                                             .filter(pkg -> Distro.BISHENG.get().equals(pkg.getDistribution()))
-                                             .map(pkg -> pkg.getSemver())
-                                             .collect(Collectors.toCollection(() -> new TreeSet<>(Comparator.comparing(Semver::toString)))).stream().sorted(Comparator.comparing(Semver::getVersionNumber).reversed()).collect(Collectors.toList());
+        return CacheManager.INSTANCE.distroCatalog.get().getStats(Distro.BISHENG).getVersions();
     }
 
 
@@ -142,6 +136,8 @@ public class BiSheng implements Distribution {
         return pkgs;
     }
 
+    @Override public List<Pkg> getAllPkgs(final boolean onlyNewPkgs) { return getAllPackagesFromCDN(onlyNewPkgs); }
+
     /**
      * Returns all packages found on the Kunpeng CDN
      * @return all packages found on the Kunpeng CDN
@@ -169,7 +165,7 @@ public class BiSheng implements Distribution {
                 VersionNumber   distroVersionNumber = vNumber;
 
                 if (onlyNewPkgs) {
-                    if (CacheManager.INSTANCE.pkgCache.getPkgs().stream().filter(p -> p.getFilename().equals(filename)).filter(p -> p.getDirectDownloadUri().equals(downloadLink)).count() > 0) { continue; }
+                    if (CacheManager.INSTANCE.pkgCache.containsArtifact(filename, downloadLink)) { continue; }
                 }
 
                 Pkg pkg = new Pkg();
@@ -191,21 +187,12 @@ public class BiSheng implements Distribution {
 
                 pkg.setPackageType(packageType);
 
-                ArchiveType archiveType = Constants.ARCHIVE_TYPE_LOOKUP.entrySet().stream()
-                                                                       .filter(entry -> filename.endsWith(entry.getKey()))
-                                                                       .findFirst()
-                                                                       .map(Entry::getValue)
-                                                                       .orElse(ArchiveType.NOT_FOUND);
+                ArchiveType archiveType = FilenameClassifier.INSTANCE.classify(filename).getArchiveType(ArchiveType.NOT_FOUND);
                 if (ArchiveType.NOT_FOUND == archiveType) { continue; }
                 pkg.setArchiveType(archiveType);
 
                 if (OperatingSystem.NOT_FOUND == os) {
-                    os = Constants.OPERATING_SYSTEM_LOOKUP.entrySet()
-                                                          .stream()
-                                                          .filter(entry -> filename.contains(entry.getKey()))
-                                                          .findFirst()
-                                                          .map(Entry::getValue)
-                                                          .orElse(OperatingSystem.NOT_FOUND);
+                    os = FilenameClassifier.INSTANCE.classify(filename).getOperatingSystem(OperatingSystem.NOT_FOUND);
                     if (OperatingSystem.NOT_FOUND == os) {
                         os = Helper.fetchOperatingSystemByArchiveType(archiveType.getUiString());
                     }
@@ -215,12 +202,7 @@ public class BiSheng implements Distribution {
                 pkg.setOperatingSystem(os);
 
                 if (Architecture.NOT_FOUND == architecture) {
-                    architecture = Constants.ARCHITECTURE_LOOKUP.entrySet()
-                                                                .stream()
-                                                                .filter(entry -> filename.contains(entry.getKey()))
-                                                                .findFirst()
-                                                                .map(Entry::getValue)
-                                                                .orElse(Architecture.NOT_FOUND);
+                    architecture = FilenameClassifier.INSTANCE.classify(filename).getArchitecture(Architecture.NOT_FOUND);
                 }
                 if (Architecture.NOT_FOUND == architecture) {
                     if (OperatingSystem.MACOS == pkg.getOperatingSystem()) {
@@ -242,7 +224,7 @@ public class BiSheng implements Distribution {
 
                 pkg.setFreeUseInProduction(Boolean.TRUE);
 
-                pkg.setSize(Helper.getFileSize(downloadLink));
+                pkg.setSize(FileSizeResolver.INSTANCE.getSize(downloadLink));
 
                 pkgs.add(pkg);
             }
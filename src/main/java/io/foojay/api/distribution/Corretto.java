@@ -38,6 +38,8 @@ import io.foojay.api.pkg.Distro;
 import io.foojay.api.pkg.MajorVersion;
 import io.foojay.api.pkg.Pkg;
 import io.foojay.api.util.Constants;
+import io.foojay.api.util.FileSizeResolver;
+import io.foojay.api.util.FilenameClassifier;
 import io.foojay.api.util.Helper;
 import io.foojay.api.util.Pair;
 import org.slf4j.Logger;
@@ -46,13 +48,9 @@ import org.slf4j.LoggerFactory;
 import java.net.http.HttpResponse;
 import java.security.cert.Certificate;
 import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.Set;
-import java.util.TreeSet;
-import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
@@ -66,7 +64,6 @@ public class Corretto implements Distribution {
     private static final Logger                       LOGGER                  = LoggerFactory.getLogger(Corretto.class);
 
     private static final Pattern                      FILENAME_PREFIX_PATTERN = Pattern.compile("(java-(\\d+)?\\.?(\\d+)?\\.?(\\d+)?\\.?-)|(amazon-corretto-)(jdk_|devel-)?");
-    private static final Matcher                      FILENAME_PREFIX_MATCHER = FILENAME_PREFIX_PATTERN.matcher("");
     private static final String                       PACKAGE_URL             = "https://api.github.com/repos/corretto/";// jdk8: corretto-8, jdk11: corretto-11, jdk15,jdk16: corretto-jdk
     private static final List<Integer>                REPOS                   = List.of(8, 11, 17, 18, 19, 20);
     private static final String                       PREFIX                  = "amazon-corretto-";
@@ -126,11 +123,7 @@ public class Corretto implements Distribution {
     }
 
     @Override public List<Semver> getVersions() {
-        return CacheManager.INSTANCE.pkgCache.getPkgs()
-                                             .stream()
-                                             .filter(pkg -> Distro.CORRETTO.get().equals(pkg.getDistribution()))
-                                             .map(pkg -> pkg.getSemver())
-                                             .collect(Collectors.toCollection(() -> new TreeSet<>(Comparator.comparing(Semver::toString)))).stream().sorted(Comparator.comparing(Semver::getVersionNumber).reversed()).collect(Collectors.toList());
+        return CacheManager.INSTANCE.distroCatalog.get().getStats(Distro.CORRETTO).getVersions();
     }
 
 
@@ -200,10 +193,10 @@ public class Corretto implements Distribution {
             String filename = Helper.getFileNameFromText(url);
 
             if (onlyNewPkgs) {
-                if (CacheManager.INSTANCE.pkgCache.getPkgs().stream().filter(p -> p.getFilename().equals(filename)).filter(p -> p.getDirectDownloadUri().equals(url)).count() > 0) { continue; }
+                if (CacheManager.INSTANCE.pkgCache.containsArtifact(filename, url)) { continue; }
             }
 
-            String withoutPrefix = FILENAME_PREFIX_MATCHER.reset(filename).replaceAll("");
+            String withoutPrefix = Helper.removeMatches(FILENAME_PREFIX_PATTERN, filename);
 
             pkg.setDistribution(Distro.CORRETTO.get());
             pkg.setFileName(filename);
@@ -212,7 +205,7 @@ public class Corretto implements Distribution {
                 pkg.setSignatureUri(signatureUrisFound.get(filename));
             }
 
-            pkg.setSize(Helper.getFileSize(url));
+            pkg.setSize(FileSizeResolver.INSTANCE.getSize(url));
 
             ArchiveType ext = ArchiveType.getFromFileName(filename);
             if (ArchiveType.NONE != archiveType && ext != archiveType) { continue; }
@@ -274,11 +267,7 @@ public class Corretto implements Distribution {
                 continue;
             }
 
-            Architecture arch = Constants.ARCHITECTURE_LOOKUP.entrySet().stream()
-                                                             .filter(entry -> withoutPrefix.contains(entry.getKey()))
-                                                             .findFirst()
-                                                             .map(Entry::getValue)
-                                                             .orElse(Architecture.NONE);
+            Architecture arch = FilenameClassifier.INSTANCE.classify(withoutPrefix).getArchitecture(Architecture.NONE);
             if (Architecture.NONE == arch) {
                 LOGGER.debug("Architecture not found in Corretto for filename: {}", filename);
                 continue;
@@ -288,11 +277,7 @@ public class Corretto implements Distribution {
             pkg.setBitness(arch.getBitness());
 
 
-            OperatingSystem os = Constants.OPERATING_SYSTEM_LOOKUP.entrySet().stream()
-                                                                  .filter(entry -> withoutPrefix.contains(entry.getKey()))
-                                                                  .findFirst()
-                                                                  .map(Entry::getValue)
-                                                                  .orElse(OperatingSystem.NONE);
+            OperatingSystem os = FilenameClassifier.INSTANCE.classify(withoutPrefix).getOperatingSystem(OperatingSystem.NONE);
             if (OperatingSystem.NONE == os) {
                 switch (pkg.getArchiveType()) {
                     case DEB, RPM, TAR_GZ -> os = OperatingSystem.LINUX;
@@ -347,10 +332,10 @@ public class Corretto implements Distribution {
         for (String fileHref : fileHrefs) {
             if (fileHref.contains("latest_checksum") || fileHref.contains("latest_sha256")) { continue; }
 
-            String filename = Helper.getFileNameFromText(fileHref.replaceAll("\"", ""));
+            String filename = Helper.getFileNameFromText(fileHref.replace("\"", ""));
 
             if (onlyNewPkgs) {
-                if (CacheManager.INSTANCE.pkgCache.getPkgs().stream().filter(p -> p.getFilename().equals(Helper.getFileNameFromText(filename))).filter(p -> p.getDirectDownloadUri().equals(fileHref)).count() > 0) { continue; }
+                if (CacheManager.INSTANCE.pkgCache.containsArtifact(Helper.getFileNameFromText(filename), fileHref)) { continue; }
             }
 
             Pkg pkg = new Pkg();
@@ -361,11 +346,7 @@ public class Corretto implements Distribution {
             pkg.setJavaFXBundled(false);
             pkg.setPackageType(withoutPrefix.contains("jre") ? JRE : JDK);
 
-            Architecture architecture = Constants.ARCHITECTURE_LOOKUP.entrySet().stream()
-                                                                     .filter(entry -> filename.contains(entry.getKey()))
-                                                                     .findFirst()
-                                                                     .map(Entry::getValue)
-                                                                     .orElse(Architecture.NOT_FOUND);
+            Architecture architecture = FilenameClassifier.INSTANCE.classify(filename).getArchitecture(Architecture.NOT_FOUND);
             if (Architecture.NOT_FOUND == architecture) {
                 LOGGER.debug("Architecture not found in Corretto for filename: {}", filename);
                 continue;
@@ -373,22 +354,14 @@ public class Corretto implements Distribution {
             pkg.setArchitecture(architecture);
             pkg.setBitness(architecture.getBitness());
 
-            OperatingSystem operatingSystem = Constants.OPERATING_SYSTEM_LOOKUP.entrySet().stream()
-                                                                               .filter(entry -> filename.contains(entry.getKey()))
-                                                                               .findFirst()
-                                                                               .map(Entry::getValue)
-                                                                               .orElse(OperatingSystem.NOT_FOUND);
+            OperatingSystem operatingSystem = FilenameClassifier.INSTANCE.classify(filename).getOperatingSystem(OperatingSystem.NOT_FOUND);
             if (OperatingSystem.NOT_FOUND == operatingSystem) {
                 LOGGER.debug("Operating System not found in Corretto for filename: {}", filename);
                 continue;
             }
             pkg.setOperatingSystem(operatingSystem);
 
-            ArchiveType archiveType = Constants.ARCHIVE_TYPE_LOOKUP.entrySet().stream()
-                                                                   .filter(entry -> filename.contains(entry.getKey()))
-                                                                   .findFirst()
-                                                                   .map(Entry::getValue)
-                                                                   .orElse(ArchiveType.NOT_FOUND);
+            ArchiveType archiveType = FilenameClassifier.INSTANCE.classify(filename).getArchiveTypeContained(ArchiveType.NOT_FOUND);
             if (ArchiveType.NOT_FOUND == archiveType) {
                 LOGGER.debug("Archive Type not found in Corretto for filename: {}", filename);
                 continue;
@@ -420,7 +393,7 @@ public class Corretto implements Distribution {
 
             pkg.setFreeUseInProduction(Boolean.TRUE);
 
-            pkg.setSize(Helper.getFileSize(fileHref));
+            pkg.setSize(FileSizeResolver.INSTANCE.getSize(fileHref));
 
             pkgs.add(pkg);
         }
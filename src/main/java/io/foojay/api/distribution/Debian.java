@@ -42,11 +42,8 @@ import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
-import java.util.TreeSet;
 import java.util.regex.MatchResult;
-import java.util.regex.Matcher;
 import java.util.regex.Pattern;
-import java.util.stream.Collectors;
 
 import static eu.hansolo.jdktools.Architecture.AMD64;
 import static eu.hansolo.jdktools.Architecture.ARM;
@@ -75,7 +72,6 @@ public class Debian implements Distribution {
     private static final Logger                       LOGGER                 = LoggerFactory.getLogger(Debian.class);
     private static final String                       CDN_URL                = "http://ftp.debian.org/debian/pool/main/o/";
     private static final Pattern                      DEB_PKG_PATTERN        = Pattern.compile("(openjdk-)([0-9]{1,2})-(jre|jdk)_(([1-9]\\d*)((u(\\d+))|(\\.?(\\d+)?\\.?(\\d+)?\\.?(\\d+)?\\.?(\\d+)?\\.(\\d+)))?((_|b)(\\d+))?((-|\\+|\\.)([a-zA-Z0-9\\-\\+]+)(\\.[0-9]+)?)?)_(.*)(\\.deb)");
-    private static final Matcher                      DEB_PKG_MATCHER        = DEB_PKG_PATTERN.matcher("");
 
     // URL parameters
     private static final String                       ARCHITECTURE_PARAM     = "";
@@ -138,11 +134,7 @@ public class Debian implements Distribution {
     @Override public List<String> getSynonyms() { return List.of("debian", "DEBIAN", "Debian"); }
 
     @Override public List<Semver> getVersions() {
-        return CacheManager.INSTANCE.pkgCache.getPkgs()
-                                             .stream()
-                                             .filter(pkg -> Distro.DEBIAN.get().equals(pkg.getDistribution()))
-                                             .map(pkg -> pkg.getSemver())
-                                             .collect(Collectors.toCollection(() -> new TreeSet<>(Comparator.comparing(Semver::toString)))).stream().sorted(Comparator.comparing(Semver::getVersionNumber).reversed()).collect(Collectors.toList());
+        return CacheManager.INSTANCE.distroCatalog.get().getStats(Distro.DEBIAN).getVersions();
     }
 
     @Override public String getUrlForAvailablePkgs(final VersionNumber versionNumber, final boolean latest, final OperatingSystem operatingSystem, final Architecture architecture, final Bitness bitness, final ArchiveType archiveType,
@@ -155,6 +147,8 @@ public class Debian implements Distribution {
         return new ArrayList<>();
     }
 
+    @Override public List<Pkg> getAllPkgs(final boolean onlyNewPkgs) { return getAllPackages(); }
+
     public List<Pkg> getAllPackages() {
         List<Pkg> pkgs = new ArrayList<>();
         int latestMajorVersion = CacheManager.INSTANCE.getMajorVersions().stream().max(Comparator.comparing(MajorVersion::getAsInt)).get().getAsInt();
@@ -187,8 +181,7 @@ public class Debian implements Distribution {
                 String filename = Helper.getFileNameFromText(href);
                 if (!filename.endsWith("deb")) { continue; }
 
-                DEB_PKG_MATCHER.reset(filename);
-                final List<MatchResult> results     = DEB_PKG_MATCHER.results().collect(Collectors.toList());
+                final List<MatchResult> results     = Helper.getMatchResults(DEB_PKG_PATTERN, filename);
                 final int               noOfResults = results.size();
                 if (noOfResults > 0) {
                     MatchResult   result        = results.get(0);
@@ -34,6 +34,7 @@ import eu.hansolo.jdktools.versioning.VersionNumber;
 import io.foojay.api.pkg.Distro;
 import io.foojay.api.pkg.Pkg;
 
+import java.util.Collection;
 import java.util.List;
 
 
@@ -83,4 +84,17 @@ public interface Distribution {
     List<Pkg> getPkgFromJson(JsonObject jsonObj, VersionNumber versionNumber, boolean latest, OperatingSystem operatingSystem,
                              Architecture architecture, Bitness bitness, ArchiveType archiveType, PackageType packageType,
                              Boolean javafxBundled, ReleaseStatus releaseStatus, TermOfSupport termOfSupport, boolean onlyNewPkgs);
+
+    /**
+     * Fetches the packages of this distribution from its upstream sources (used by the ScrapeOrchestrator).
+     * Distributions without an own scraper return an empty list and override isScrapable().
+     * @param onlyNewPkgs if true only packages that are not in the cache will be returned
+     * @return the packages of this distribution found upstream
+     */
+    Collection<Pkg> getAllPkgs(boolean onlyNewPkgs);
+
+    /**
+     * @return true if this distribution has a scraper for getAllPkgs(), distributions without one are skipped by the ScrapeOrchestrator
+     */
+    default boolean isScrapable() { return true; }
 }
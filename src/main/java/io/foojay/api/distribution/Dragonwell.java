@@ -38,17 +38,16 @@ import io.foojay.api.pkg.Distro;
 import io.foojay.api.pkg.MajorVersion;
 import io.foojay.api.pkg.Pkg;
 import io.foojay.api.util.Constants;
+import io.foojay.api.util.FileSizeResolver;
+import io.foojay.api.util.FilenameClassifier;
+import io.foojay.api.util.GithubReleasesCrawler;
 import io.foojay.api.util.Helper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.List;
-import java.util.Map.Entry;
 import java.util.Optional;
-import java.util.TreeSet;
-import java.util.stream.Collectors;
 
 import static eu.hansolo.jdktools.ArchiveType.SRC_TAR;
 import static eu.hansolo.jdktools.ArchiveType.getFromFileName;
@@ -120,11 +119,7 @@ public class Dragonwell implements Distribution {
     }
 
     @Override public List<Semver> getVersions() {
-        return CacheManager.INSTANCE.pkgCache.getPkgs()
-                                             .stream()
-                                             .filter(pkg -> Distro.DRAGONWELL.get().equals(pkg.getDistribution()))
-                                             .map(pkg -> pkg.getSemver())
-                                             .collect(Collectors.toCollection(() -> new TreeSet<>(Comparator.comparing(Semver::toString)))).stream().sorted(Comparator.comparing(Semver::getVersionNumber).reversed()).collect(Collectors.toList());
+        return CacheManager.INSTANCE.distroCatalog.get().getStats(Distro.DRAGONWELL).getVersions();
     }
 
 
@@ -157,11 +152,7 @@ public class Dragonwell implements Distribution {
         }
 
         String name = jsonObj.get("name").getAsString().strip();
-        ReleaseStatus rs = Constants.RELEASE_STATUS_LOOKUP.entrySet().stream()
-                                                          .filter(entry -> name.endsWith(entry.getKey()))
-                                                          .findFirst()
-                                                          .map(Entry::getValue)
-                                                          .orElse(ReleaseStatus.GA);
+        ReleaseStatus rs = FilenameClassifier.INSTANCE.classify(name).getReleaseStatusSuffix(ReleaseStatus.GA);
 
         VersionNumber vNumber = null;
         String tag = jsonObj.get("tag_name").getAsString();
@@ -183,7 +174,7 @@ public class Dragonwell implements Distribution {
             String downloadLink = assetJsonObj.get("browser_download_url").getAsString();
 
             if (onlyNewPkgs) {
-                if (CacheManager.INSTANCE.pkgCache.getPkgs().stream().filter(p -> p.getFilename().equals(filename)).filter(p -> p.getDirectDownloadUri().equals(downloadLink)).count() > 0) { continue; }
+                if (CacheManager.INSTANCE.pkgCache.containsArtifact(filename, downloadLink)) { continue; }
             }
 
             Pkg pkg = new Pkg();
@@ -196,11 +187,7 @@ public class Dragonwell implements Distribution {
             pkg.setFileName(filename);
             pkg.setDirectDownloadUri(downloadLink);
 
-            Architecture arch = Constants.ARCHITECTURE_LOOKUP.entrySet().stream()
-                                                             .filter(entry -> filename.contains(entry.getKey()))
-                                                             .findFirst()
-                                                             .map(Entry::getValue)
-                                                             .orElse(Architecture.NONE);
+            Architecture arch = FilenameClassifier.INSTANCE.classify(filename).getArchitecture(Architecture.NONE);
             if (Architecture.NONE != architecture && architecture != arch) { continue; }
             if (Bitness.NONE != bitness && bitness != arch.getBitness()) { continue; }
             pkg.setArchitecture(arch);
@@ -226,11 +213,7 @@ public class Dragonwell implements Distribution {
 
             pkg.setReleaseStatus(rs);
 
-            OperatingSystem os = Constants.OPERATING_SYSTEM_LOOKUP.entrySet().stream()
-                                                                  .filter(entry -> filename.contains(entry.getKey()))
-                                                                  .findFirst()
-                                                                  .map(Entry::getValue)
-                                                                  .orElse(OperatingSystem.NONE);
+            OperatingSystem os = FilenameClassifier.INSTANCE.classify(filename).getOperatingSystem(OperatingSystem.NONE);
 
             if (OperatingSystem.NONE == os) {
                 switch (pkg.getArchiveType()) {
@@ -255,7 +238,7 @@ public class Dragonwell implements Distribution {
 
             pkg.setFreeUseInProduction(Boolean.TRUE);
 
-            pkg.setSize(Helper.getFileSize(downloadLink));
+            pkg.setSize(FileSizeResolver.INSTANCE.getSize(downloadLink));
 
             pkgs.add(pkg);
         }
@@ -268,9 +251,9 @@ public class Dragonwell implements Distribution {
             if (null == filename || filename.isEmpty() || (!filename.endsWith(Constants.FILE_ENDING_SHA256_TXT) && !filename.endsWith(Constants.FILE_ENDING_SHA256_DMG_TXT))) { continue; }
             String nameToMatch;
             if (filename.endsWith(Constants.FILE_ENDING_SHA256_DMG_TXT)) {
-                nameToMatch = filename.replaceAll(Constants.FILE_ENDING_SHA256_DMG_TXT, "");
+                nameToMatch = Helper.removeMatches(Constants.SHA256_DMG_TXT_FILE_ENDING_PATTERN, filename);
             } else if (filename.endsWith(Constants.FILE_ENDING_SHA256_TXT)) {
-                nameToMatch = filename.replaceAll(Constants.FILE_ENDING_SHA256_TXT, "");
+                nameToMatch = Helper.removeMatches(Constants.SHA256_TXT_FILE_ENDING_PATTERN, filename);
             } else {
                 continue;
             }
@@ -288,4 +271,20 @@ public class Dragonwell implements Distribution {
 
         return pkgs;
     }
+
+    public List<Pkg> getAllPkgs(final boolean onlyNewPkgs) {
+        final List<Pkg> pkgs = new ArrayList<>();
+        for (int feature : List.of(8, 11, 17)) {
+            final VersionNumber versionNumber = new VersionNumber(feature);
+            final String        packageUrl    = getUrlForAvailablePkgs(versionNumber, false, OperatingSystem.NONE, Architecture.NONE, Bitness.NONE, ArchiveType.NONE, PackageType.NONE, null, ReleaseStatus.NONE, TermOfSupport.NONE);
+            pkgs.addAll(GithubReleasesCrawler.INSTANCE.crawl(packageUrl, onlyNewPkgs, jsonArray -> {
+                final List<Pkg> pkgsInPage = new ArrayList<>();
+                for (JsonElement jsonElement : jsonArray) {
+                    pkgsInPage.addAll(getPkgFromJson(jsonElement.getAsJsonObject(), versionNumber, false, OperatingSystem.NONE, Architecture.NONE, Bitness.NONE, ArchiveType.NONE, PackageType.NONE, null, ReleaseStatus.NONE, TermOfSupport.NONE, onlyNewPkgs));
+                }
+                return pkgsInPage;
+            }));
+        }
+        return pkgs;
+    }
 }
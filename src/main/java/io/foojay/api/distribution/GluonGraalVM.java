@@ -19,7 +19,6 @@
 
 package io.foojay.api.distribution;
 
-import com.google.gson.Gson;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
@@ -39,23 +38,18 @@ import io.foojay.api.pkg.Distro;
 import io.foojay.api.pkg.MajorVersion;
 import io.foojay.api.pkg.Pkg;
 import io.foojay.api.util.Constants;
-import io.foojay.api.util.GithubTokenPool;
+import io.foojay.api.util.FileSizeResolver;
+import io.foojay.api.util.FilenameClassifier;
+import io.foojay.api.util.GithubReleasesCrawler;
 import io.foojay.api.util.Helper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.net.http.HttpResponse;
 import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.List;
-import java.util.Map;
-import java.util.Map.Entry;
 import java.util.Optional;
-import java.util.TreeSet;
 import java.util.concurrent.CompletionException;
-import java.util.regex.Matcher;
 import java.util.regex.Pattern;
-import java.util.stream.Collectors;
 
 import static eu.hansolo.jdktools.ArchiveType.getFromFileName;
 import static eu.hansolo.jdktools.OperatingSystem.LINUX;
@@ -71,7 +65,7 @@ public class GluonGraalVM implements Distribution {
     private static final String  GITHUB_USER      = "gluonhq";
     private static final String  PACKAGE_URL      = "https://api.github.com/repos/" + GITHUB_USER + "/graal/releases";
     private static final Pattern FILENAME_PATTERN = Pattern.compile("^(graalvm-svm-java)(.*)(\\.zip)$");
-    private static final Matcher FILENAME_MATCHER = FILENAME_PATTERN.matcher("");
+    private static final Pattern STRIP_PATTERN    = Pattern.compile("graalvm-svm-java([0-9]{2,3})-|\\.zip");
 
     // URL parameters
     private static final String                       ARCHITECTURE_PARAM      = "";
@@ -127,11 +121,7 @@ public class GluonGraalVM implements Distribution {
     }
 
     @Override public List<Semver> getVersions() {
-        return CacheManager.INSTANCE.pkgCache.getPkgs()
-                                             .stream()
-                                             .filter(pkg -> Distro.GLUON_GRAALVM.get().equals(pkg.getDistribution()))
-                                             .map(pkg -> pkg.getSemver())
-                                             .collect(Collectors.toCollection(() -> new TreeSet<>(Comparator.comparing(Semver::toString)))).stream().sorted(Comparator.comparing(Semver::getVersionNumber).reversed()).collect(Collectors.toList());
+        return CacheManager.INSTANCE.distroCatalog.get().getStats(Distro.GLUON_GRAALVM).getVersions();
     }
 
 
@@ -176,14 +166,14 @@ public class GluonGraalVM implements Distribution {
             String     filename     = assetJsonObj.get("name").getAsString();
             //if (!filename.endsWith(Constants.FILE_ENDING_ZIP)) { continue; }
 
-            String   strippedFilename      = filename.replaceFirst("graalvm-svm-java([0-9]{2,3})-", "").replaceAll("(\\.zip)", "");
+            String   strippedFilename      = Helper.removeMatches(STRIP_PATTERN, filename);
             String[] filenameParts         = filename.split("-");
             //String[] strippedFilenameParts = strippedFilename.split("-");
 
             String downloadLink = assetJsonObj.get("browser_download_url").getAsString();
 
             if (onlyNewPkgs) {
-                if (CacheManager.INSTANCE.pkgCache.getPkgs().stream().filter(p -> p.getFilename().equals(filename)).filter(p -> p.getDirectDownloadUri().equals(downloadLink)).count() > 0) { continue; }
+                if (CacheManager.INSTANCE.pkgCache.containsArtifact(filename, downloadLink)) { continue; }
             }
 
             Pkg pkg = new Pkg();
@@ -196,11 +186,7 @@ public class GluonGraalVM implements Distribution {
             if (ArchiveType.NOT_FOUND == ext) { continue; }
             pkg.setArchiveType(ext);
 
-            Architecture arch = Constants.ARCHITECTURE_LOOKUP.entrySet().stream()
-                                                             .filter(entry -> strippedFilename.contains(entry.getKey()))
-                                                             .findFirst()
-                                                             .map(Entry::getValue)
-                                                             .orElse(Architecture.NONE);
+            Architecture arch = FilenameClassifier.INSTANCE.classify(strippedFilename).getArchitecture(Architecture.NONE);
 
             if (Architecture.NONE == arch) {
                 if (filename.contains("m1") || filename.contains("m2")) {
@@ -246,11 +232,7 @@ public class GluonGraalVM implements Distribution {
 
             pkg.setReleaseStatus(GA);
 
-            OperatingSystem os = Constants.OPERATING_SYSTEM_LOOKUP.entrySet().stream()
-                                                                  .filter(entry -> strippedFilename.contains(entry.getKey()))
-                                                                  .findFirst()
-                                                                  .map(Entry::getValue)
-                                                                  .orElse(OperatingSystem.NONE);
+            OperatingSystem os = FilenameClassifier.INSTANCE.classify(strippedFilename).getOperatingSystem(OperatingSystem.NONE);
 
             if (OperatingSystem.NONE == os) {
                 if (strippedFilename.contains("darwin")) {
@@ -284,7 +266,7 @@ public class GluonGraalVM implements Distribution {
 
             pkg.setFreeUseInProduction(Boolean.TRUE);
 
-            pkg.setSize(Helper.getFileSize(downloadLink));
+            pkg.setSize(FileSizeResolver.INSTANCE.getSize(downloadLink));
 
             pkgs.add(pkg);
         }
@@ -297,7 +279,7 @@ public class GluonGraalVM implements Distribution {
             if (null == filename || filename.isEmpty() || !filename.endsWith(Constants.FILE_ENDING_SHA256)) { continue; }
             String nameToMatch;
             if (filename.endsWith(Constants.FILE_ENDING_SHA256)) {
-                nameToMatch = filename.replaceAll("." + Constants.FILE_ENDING_SHA256, "");
+                nameToMatch = Helper.removeMatches(Constants.SHA256_FILE_ENDING_PATTERN, filename);
             } else {
                 continue;
             }
@@ -322,23 +304,7 @@ public class GluonGraalVM implements Distribution {
         try {
             // Get all packages from github
             try {
-                HttpResponse<String> response = Helper.get(pkgUrl, Map.of("accept", "application/vnd.github.v3+json",
-                                                                              "authorization", GithubTokenPool.INSTANCE.next()));
-                if (response.statusCode() == 200) {
-                    String      bodyText = response.body();
-                    Gson        gson     = new Gson();
-                    JsonElement element  = gson.fromJson(bodyText, JsonElement.class);
-                    if (element instanceof JsonArray) {
-                        JsonArray jsonArray = element.getAsJsonArray();
-                        for (JsonElement jsonElement : jsonArray) {
-                            JsonObject jsonObj = jsonElement.getAsJsonObject();
-                            pkgs.addAll(getPkgFromJson(jsonObj, null, true, null, null, null, null, null, false, null, null,onlyNewPkgs));
-                        }
-                    }
-                } else {
-                    // Problem with url request
-                    LOGGER.debug("Response ({}) {} ", response.statusCode(), response.body());
-                }
+                pkgs.addAll(GithubReleasesCrawler.INSTANCE.crawl(pkgUrl, onlyNewPkgs, jsonArray -> getAllPkgsFromJson(jsonArray, onlyNewPkgs)));
             } catch (CompletionException e) {
                 LOGGER.error("Error fetching packages for distribution {} from {}", getName(), pkgUrl);
             }
@@ -347,4 +313,13 @@ public class GluonGraalVM implements Distribution {
         }
         return pkgs;
     }
+
+    private List<Pkg> getAllPkgsFromJson(final JsonArray jsonArray, final boolean onlyNewPkgs) {
+        List<Pkg> pkgs = new ArrayList<>();
+        for (JsonElement jsonElement : jsonArray) {
+            if (!jsonElement.isJsonObject()) { continue; }
+            pkgs.addAll(getPkgFromJson(jsonElement.getAsJsonObject(), null, true, null, null, null, null, null, false, null, null, onlyNewPkgs));
+        }
+        return pkgs;
+    }
 }
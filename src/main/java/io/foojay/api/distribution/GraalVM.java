@@ -41,6 +41,8 @@ import io.foojay.api.pkg.Distro;
 import io.foojay.api.pkg.MajorVersion;
 import io.foojay.api.pkg.Pkg;
 import io.foojay.api.util.Constants;
+import io.foojay.api.util.FileSizeResolver;
+import io.foojay.api.util.FilenameClassifier;
 import io.foojay.api.util.GithubTokenPool;
 import io.foojay.api.util.Helper;
 import org.slf4j.Logger;
@@ -49,16 +51,12 @@ import org.slf4j.LoggerFactory;
 import java.io.StringReader;
 import java.net.http.HttpResponse;
 import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.Optional;
-import java.util.TreeSet;
-import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
@@ -75,7 +73,7 @@ public class GraalVM implements Distribution {
     private static final Logger  LOGGER                        = LoggerFactory.getLogger(GraalVM.class);
     private static final String  PACKAGE_URL                   = "https://download.oracle.com/graalvm/";
     private static final Pattern FILENAME_PATTERN              = Pattern.compile(new StringBuilder().append("^(graalvm-jdk-").append(")(.*)(_bin)(\\.tar\\.gz|\\.zip)$").toString());
-    private static final Matcher FILENAME_MATCHER              = FILENAME_PATTERN.matcher("");
+    private static final Pattern STRIP_PATTERN                 = Pattern.compile("graalvm-community-jdk-|\\.tar\\.gz|\\.zip|_bin");
     private static final String  EA_BUILDS_URL                 = "https://raw.githubusercontent.com/graalvm/oracle-graalvm-ea-builds/main/versions/";
 
 
@@ -137,13 +135,7 @@ public class GraalVM implements Distribution {
     }
 
     @Override public List<Semver> getVersions() {
-        return CacheManager.INSTANCE.pkgCache.getPkgs()
-                                             .stream()
-                                             .filter(pkg -> getDistro().get().equals(pkg.getDistribution()))
-                                             .map(pkg -> pkg.getSemver())
-                                             .collect(Collectors.toCollection(() -> new TreeSet<>(Comparator.comparing(Semver::toString)))).stream()
-                                             .sorted(Comparator.comparing(Semver::getVersionNumber).reversed())
-                                             .collect(Collectors.toList());
+        return CacheManager.INSTANCE.distroCatalog.get().getStats(getDistro()).getVersions();
     }
 
     @Override public String getUrlForAvailablePkgs(final VersionNumber versionNumber,
@@ -185,16 +177,15 @@ public class GraalVM implements Distribution {
             if (filename.endsWith(Constants.FILE_ENDING_TXT) || filename.endsWith(Constants.FILE_ENDING_JAR) ||
                 filename.endsWith(Constants.FILE_ENDING_SHA1) || filename.endsWith(Constants.FILE_ENDING_SHA256)) { continue; }
 
-            FILENAME_MATCHER.reset(filename);
-            if (!FILENAME_MATCHER.matches()) { continue; }
+            if (!Helper.matches(FILENAME_PATTERN, filename)) { continue; }
 
-            String filenameWithoutPreset = filename.replaceFirst("graalvm-community-jdk-", "").replaceAll("(\\.tar\\.gz|\\.zip)", "").replaceAll("_bin", "");
+            String filenameWithoutPreset = Helper.removeMatches(STRIP_PATTERN, filename);
             String strippedFilename = filenameWithoutPreset.substring(filenameWithoutPreset.indexOf("_"));
 
             String downloadLink = assetJsonObj.get("browser_download_url").getAsString();
 
             if (onlyNewPkgs) {
-                if (CacheManager.INSTANCE.pkgCache.getPkgs().stream().filter(p -> p.getFilename().equals(filename)).filter(p -> p.getDirectDownloadUri().equals(downloadLink)).count() > 0) { continue; }
+                if (CacheManager.INSTANCE.pkgCache.containsArtifact(filename, downloadLink)) { continue; }
             }
 
             Pkg pkg = new Pkg();
@@ -207,11 +198,7 @@ public class GraalVM implements Distribution {
             if (SRC_TAR == ext || (ArchiveType.NONE != archiveType && ext != archiveType)) { continue; }
             pkg.setArchiveType(ext);
 
-            Architecture arch = Constants.ARCHITECTURE_LOOKUP.entrySet().stream()
-                                                             .filter(entry -> strippedFilename.contains(entry.getKey()))
-                                                             .findFirst()
-                                                             .map(Entry::getValue)
-                                                             .orElse(Architecture.NONE);
+            Architecture arch = FilenameClassifier.INSTANCE.classify(strippedFilename).getArchitecture(Architecture.NONE);
             if (Architecture.NONE == arch) {
                 LOGGER.debug("Architecture not found in GraalVM" + vNumber.toString(OutputFormat.REDUCED_COMPRESSED, true, true) + " for filename: {}", filename);
                 continue;
@@ -234,11 +221,7 @@ public class GraalVM implements Distribution {
 
             pkg.setReleaseStatus(ReleaseStatus.NONE == releaseStatus ? ReleaseStatus.GA : releaseStatus);
 
-            OperatingSystem os = Constants.OPERATING_SYSTEM_LOOKUP.entrySet().stream()
-                                                                  .filter(entry -> strippedFilename.contains(entry.getKey()))
-                                                                  .findFirst()
-                                                                  .map(Entry::getValue)
-                                                                  .orElse(OperatingSystem.NONE);
+            OperatingSystem os = FilenameClassifier.INSTANCE.classify(strippedFilename).getOperatingSystem(OperatingSystem.NONE);
 
             if (OperatingSystem.NONE == os) {
                 switch (pkg.getArchiveType()) {
@@ -265,7 +248,7 @@ public class GraalVM implements Distribution {
 
             pkg.setFreeUseInProduction(Boolean.TRUE);
 
-            pkg.setSize(Helper.getFileSize(downloadLink));
+            pkg.setSize(FileSizeResolver.INSTANCE.getSize(downloadLink));
 
             pkgs.add(pkg);
         }
@@ -278,7 +261,7 @@ public class GraalVM implements Distribution {
             if (null == filename || filename.isEmpty() || !filename.endsWith(Constants.FILE_ENDING_SHA256)) { continue; }
             String nameToMatch;
             if (filename.endsWith(Constants.FILE_ENDING_SHA256)) {
-                nameToMatch = filename.replaceAll("." + Constants.FILE_ENDING_SHA256, "");
+                nameToMatch = Helper.removeMatches(Constants.SHA256_FILE_ENDING_PATTERN, filename);
             } else {
                 continue;
             }
@@ -295,6 +278,8 @@ public class GraalVM implements Distribution {
         return pkgs;
     }
 
+    @Override public List<Pkg> getAllPkgs(final boolean onlyNewPkgs) { return getAllPkgs(true, onlyNewPkgs); }
+
     public List<Pkg> getAllPkgs(boolean includingEA, final boolean onlyNewPkgs) {
         List<Pkg> pkgs = new ArrayList<>();
         pkgs.addAll(getAllPkgs(PACKAGE_URL, ReleaseStatus.GA, onlyNewPkgs));
@@ -393,7 +378,7 @@ public class GraalVM implements Distribution {
                                                  final String checksumUri     = fileDownloadUri + ".sha256";
 
                                                  if (onlyNewPkgs) {
-                                                     if (CacheManager.INSTANCE.pkgCache.getPkgs().stream().filter(p -> p.getFilename().equals(filename)).filter(p -> p.getDirectDownloadUri().equals(fileDownloadUri)).count() > 0) { return; }
+                                                     if (CacheManager.INSTANCE.pkgCache.containsArtifact(filename, fileDownloadUri)) { return; }
                                                  }
 
                                                  if (Helper.isUriValid(fileDownloadUri)) {
@@ -420,7 +405,7 @@ public class GraalVM implements Distribution {
                                                          pkg.setChecksumUri(checksumUri);
                                                          pkg.setChecksumType(HashAlgorithm.SHA256);
                                                      }
-                                                     pkg.setSize(Helper.getFileSize(fileDownloadUri));
+                                                     pkg.setSize(FileSizeResolver.INSTANCE.getSize(fileDownloadUri));
 
                                                      pkgs.add(pkg);
                                                  }
@@ -490,7 +475,7 @@ public class GraalVM implements Distribution {
                                     pkg.setDirectlyDownloadable(true);
                                     pkg.setFreeUseInProduction(Boolean.TRUE);
                                     pkg.setDirectDownloadUri(fileDownloadUri);
-                                    pkg.setSize(Helper.getFileSize(fileDownloadUri));
+                                    pkg.setSize(FileSizeResolver.INSTANCE.getSize(fileDownloadUri));
                                     pkg.setLatestBuildAvailable(latest);
 
                                     pkgsFound.add(pkg);
@@ -19,7 +19,6 @@
 
 package io.foojay.api.distribution;
 
-import com.google.gson.Gson;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
@@ -39,25 +38,19 @@ import io.foojay.api.pkg.Distro;
 import io.foojay.api.pkg.MajorVersion;
 import io.foojay.api.pkg.Pkg;
 import io.foojay.api.util.Constants;
-import io.foojay.api.util.GithubTokenPool;
+import io.foojay.api.util.FileSizeResolver;
+import io.foojay.api.util.FilenameClassifier;
+import io.foojay.api.util.GithubReleasesCrawler;
 import io.foojay.api.util.Helper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.net.http.HttpResponse;
 import java.util.ArrayList;
-import java.util.Comparator;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.Map;
-import java.util.Map.Entry;
 import java.util.Optional;
-import java.util.TreeSet;
-import java.util.regex.Matcher;
 import java.util.regex.Pattern;
-import java.util.stream.Collectors;
 
 import static eu.hansolo.jdktools.ArchiveType.SRC_TAR;
 import static eu.hansolo.jdktools.ArchiveType.getFromFileName;
@@ -73,7 +66,7 @@ public abstract class GraalVM_CE implements Distribution {
     protected        final String        distroName;
     protected        final int           jdkVersion;
     protected        final Pattern       filenamePattern;
-    protected        final Matcher       filenameMatcher;
+    protected        final Pattern       stripPattern;
     protected static final String        GITHUB_USER             = "graalvm";
     protected static final String        PACKAGE_URL             = "https://api.github.com/repos/" + GITHUB_USER + "/graalvm-ce-builds/releases";
     protected static final String        PACKAGE_EA_URL          = "https://api.github.com/repos/" + GITHUB_USER + "/graalvm-ce-dev-builds/releases";
@@ -99,7 +92,7 @@ public abstract class GraalVM_CE implements Distribution {
         this.distroName      = distroName;
         this.jdkVersion      = jdkVersion;
         this.filenamePattern = Pattern.compile(new StringBuilder().append("^(graalvm-ce-java").append(this.jdkVersion).append(")(.*)(\\.tar\\.gz|\\.zip)$").toString());
-        this.filenameMatcher = filenamePattern.matcher("");
+        this.stripPattern    = Pattern.compile(new StringBuilder().append("graalvm-ce-java").append(this.jdkVersion).append("-|\\.tar\\.gz|\\.zip").toString());
     }
 
 
@@ -143,13 +136,7 @@ public abstract class GraalVM_CE implements Distribution {
     }
 
     @Override public List<Semver> getVersions() {
-        return CacheManager.INSTANCE.pkgCache.getPkgs()
-                                             .stream()
-                                             .filter(pkg -> getDistro().get().equals(pkg.getDistribution()))
-                                             .map(pkg -> pkg.getSemver())
-                                             .collect(Collectors.toCollection(() -> new TreeSet<>(Comparator.comparing(Semver::toString)))).stream()
-                                             .sorted(Comparator.comparing(Semver::getVersionNumber).reversed())
-                                             .collect(Collectors.toList());
+        return CacheManager.INSTANCE.distroCatalog.get().getStats(getDistro()).getVersions();
     }
 
 
@@ -200,15 +187,14 @@ public abstract class GraalVM_CE implements Distribution {
             if (filename.endsWith(Constants.FILE_ENDING_TXT) || filename.endsWith(Constants.FILE_ENDING_JAR) ||
                 filename.endsWith(Constants.FILE_ENDING_SHA1) || filename.endsWith(Constants.FILE_ENDING_SHA256)) { continue; }
 
-            filenameMatcher.reset(filename);
-            if (!filenameMatcher.matches()) { continue; }
-            String   strippedFilename = filename.replaceFirst(new StringBuilder("graalvm-ce-java").append(this.jdkVersion).append("-").toString(), "").replaceAll("(\\.tar\\.gz|\\.zip)", "");
+            if (!Helper.matches(filenamePattern, filename)) { continue; }
+            String   strippedFilename = Helper.removeMatches(stripPattern, filename);
             String[] filenameParts    = strippedFilename.split("-");
 
             String downloadLink = assetJsonObj.get("browser_download_url").getAsString();
 
             if (onlyNewPkgs) {
-                if (CacheManager.INSTANCE.pkgCache.getPkgs().stream().filter(p -> p.getFilename().equals(filename)).filter(p -> p.getDirectDownloadUri().equals(downloadLink)).count() > 0) { continue; }
+                if (CacheManager.INSTANCE.pkgCache.containsArtifact(filename, downloadLink)) { continue; }
             }
 
             Pkg pkg = new Pkg();
@@ -221,11 +207,7 @@ public abstract class GraalVM_CE implements Distribution {
             if (SRC_TAR == ext || (ArchiveType.NONE != archiveType && ext != archiveType)) { continue; }
             pkg.setArchiveType(ext);
 
-            Architecture arch = Constants.ARCHITECTURE_LOOKUP.entrySet().stream()
-                                                             .filter(entry -> strippedFilename.contains(entry.getKey()))
-                                                             .findFirst()
-                                                             .map(Entry::getValue)
-                                                             .orElse(Architecture.NONE);
+            Architecture arch = FilenameClassifier.INSTANCE.classify(strippedFilename).getArchitecture(Architecture.NONE);
             if (Architecture.NONE == arch) {
                 getLogger().debug("Architecture not found in GraalVM CE" + this.jdkVersion + " for filename: {}", filename);
                 continue;
@@ -253,11 +235,7 @@ public abstract class GraalVM_CE implements Distribution {
 
             pkg.setReleaseStatus(ReleaseStatus.NONE == releaseStatus ? ReleaseStatus.GA : releaseStatus);
 
-            OperatingSystem os = Constants.OPERATING_SYSTEM_LOOKUP.entrySet().stream()
-                                                                  .filter(entry -> strippedFilename.contains(entry.getKey()))
-                                                                  .findFirst()
-                                                                  .map(Entry::getValue)
-                                                                  .orElse(OperatingSystem.NONE);
+            OperatingSystem os = FilenameClassifier.INSTANCE.classify(strippedFilename).getOperatingSystem(OperatingSystem.NONE);
 
             if (OperatingSystem.NONE == os) {
                 switch (pkg.getArchiveType()) {
@@ -284,7 +262,7 @@ public abstract class GraalVM_CE implements Distribution {
 
             pkg.setFreeUseInProduction(Boolean.TRUE);
 
-            pkg.setSize(Helper.getFileSize(downloadLink));
+            pkg.setSize(FileSizeResolver.INSTANCE.getSize(downloadLink));
 
             pkgs.add(pkg);
         }
@@ -297,7 +275,7 @@ public abstract class GraalVM_CE implements Distribution {
             if (null == filename || filename.isEmpty() || !filename.endsWith(Constants.FILE_ENDING_SHA256)) { continue; }
             String nameToMatch;
             if (filename.endsWith(Constants.FILE_ENDING_SHA256)) {
-                nameToMatch = filename.replaceAll("." + Constants.FILE_ENDING_SHA256, "");
+                nameToMatch = Helper.removeMatches(Constants.SHA256_FILE_ENDING_PATTERN, filename);
             } else {
                 continue;
             }
@@ -314,6 +292,8 @@ public abstract class GraalVM_CE implements Distribution {
         return pkgs;
     }
 
+    @Override public List<Pkg> getAllPkgs(final boolean onlyNewPkgs) { return getAllPkgs(true, onlyNewPkgs); }
+
     public List<Pkg> getAllPkgs(boolean includingEA, final boolean onlyNewPkgs) {
         List<Pkg> pkgs = new ArrayList<>();
         pkgs.addAll(getAllPkgs(PACKAGE_URL, ReleaseStatus.GA, onlyNewPkgs));
@@ -325,49 +305,21 @@ public abstract class GraalVM_CE implements Distribution {
 
         if (query.isEmpty()) { return List.of(); }
         try {
-            List<Pkg>           pkgs      = new LinkedList<>();
-            List<Pkg>           pkgsFound = new ArrayList<>();
-            Map<String, String> headers   = new HashMap<>();
-            if (query.contains("api.github.com")) {
-                headers.put("accept", "application/vnd.github.v3+json");
-                headers.put("authorization", GithubTokenPool.INSTANCE.next());
-            }
-            HttpResponse<String> response = Helper.get(query, headers);
-            if (null == response) {
-                getLogger().debug("Response {} returned null.", getDistro().getApiString());
-            } else {
-                if (response.statusCode() == 200) {
-                    String      body    = response.body();
-                    Gson        gson    = new Gson();
-                    JsonElement element = gson.fromJson(body, JsonElement.class);
-                    if (element instanceof JsonArray) {
-                        JsonArray jsonArray = element.getAsJsonArray();
-                        for (int i = 0; i < jsonArray.size(); i++) {
-                            JsonObject pkgJsonObj = jsonArray.get(i).getAsJsonObject();
-                            List<Pkg> pkgsInDistribution = getPkgFromJson(pkgJsonObj, versionNumber, false, OperatingSystem.NONE, Architecture.NONE, Bitness.NONE, ArchiveType.NONE, PackageType.NONE, null, releaseStatus, TermOfSupport.NONE, onlyNewPkgs);
-                            pkgsFound.addAll(pkgsInDistribution);
-                        }
-                    } else if (element instanceof JsonObject) {
-                        JsonObject pkgJsonObj = element.getAsJsonObject();
-                        List<Pkg> pkgsInDistribution = getPkgFromJson(pkgJsonObj, versionNumber, false, OperatingSystem.NONE, Architecture.NONE, Bitness.NONE, ArchiveType.NONE, PackageType.NONE, null, releaseStatus, TermOfSupport.NONE, onlyNewPkgs);
-                        pkgsFound.addAll(pkgsInDistribution);
-                    }
-                } else {
-                    // Problem with url request
-                    getLogger().debug("Error getting packages for {} {}, calling {}.Response ({}) {} ", getName(), versionNumber, query, response.statusCode(), response.body());
-                    return pkgs;
-                }
-            }
-
-            pkgs.addAll(pkgsFound);
-            HashSet<Pkg> unique = new HashSet<>(pkgs);
-            pkgs = new LinkedList<>(unique);
-
-            return pkgs;
+            // All GraalVM CE distros and GraalVM Community crawl the same repositories, so each of them needs its own high water mark
+            List<Pkg> pkgs = GithubReleasesCrawler.INSTANCE.crawl(getDistro().getApiString(), query, onlyNewPkgs, jsonArray -> getAllPkgsFromJson(jsonArray, versionNumber, releaseStatus, onlyNewPkgs));
+            return new LinkedList<>(new HashSet<>(pkgs));
         } catch (Exception e) {
-            System.out.println("Error get packages for " + getName() + " " + versionNumber + " calling " + query + ". Exception: " + e);
             getLogger().debug("Error get packages for {} {} calling {}. {}", getName(), versionNumber, query, e.getMessage());
             return new ArrayList<>();
         }
     }
+
+    private List<Pkg> getAllPkgsFromJson(final JsonArray jsonArray, final VersionNumber versionNumber, final ReleaseStatus releaseStatus, final boolean onlyNewPkgs) {
+        List<Pkg> pkgs = new ArrayList<>();
+        for (JsonElement element : jsonArray) {
+            if (!element.isJsonObject()) { continue; }
+            pkgs.addAll(getPkgFromJson(element.getAsJsonObject(), versionNumber, false, OperatingSystem.NONE, Architecture.NONE, Bitness.NONE, ArchiveType.NONE, PackageType.NONE, null, releaseStatus, TermOfSupport.NONE, onlyNewPkgs));
+        }
+        return pkgs;
+    }
 }
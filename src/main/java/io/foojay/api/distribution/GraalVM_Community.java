@@ -20,7 +20,6 @@
 package io.foojay.api.distribution;
 
 
-import com.google.gson.Gson;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
@@ -41,28 +40,22 @@ import io.foojay.api.pkg.Distro;
 import io.foojay.api.pkg.MajorVersion;
 import io.foojay.api.pkg.Pkg;
 import io.foojay.api.util.Constants;
-import io.foojay.api.util.GithubTokenPool;
+import io.foojay.api.util.FileSizeResolver;
+import io.foojay.api.util.FilenameClassifier;
+import io.foojay.api.util.GithubReleasesCrawler;
 import io.foojay.api.util.Helper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.net.http.HttpResponse;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.util.ArrayList;
-import java.util.Comparator;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.Map;
-import java.util.Map.Entry;
 import java.util.Optional;
-import java.util.TreeSet;
-import java.util.regex.Matcher;
 import java.util.regex.Pattern;
-import java.util.stream.Collectors;
 
 import static eu.hansolo.jdktools.ArchiveType.SRC_TAR;
 import static eu.hansolo.jdktools.ArchiveType.getFromFileName;
@@ -78,7 +71,7 @@ public class GraalVM_Community implements Distribution {
     private static final String        PACKAGE_URL             = "https://api.github.com/repos/" + GITHUB_USER + "/graalvm-ce-builds/releases";
     private static final String        PACKAGE_EA_URL          = "https://api.github.com/repos/" + GITHUB_USER + "/graalvm-ce-dev-builds/releases";
     private static final Pattern       FILENAME_PATTERN        = Pattern.compile(new StringBuilder().append("^(graalvm-community-jdk-").append(")(.*)(_bin)(\\.tar\\.gz|\\.zip)$").toString());
-    private static final Matcher       FILENAME_MATCHER        = FILENAME_PATTERN.matcher("");
+    private static final Pattern       STRIP_PATTERN           = Pattern.compile("graalvm-community-jdk-|\\.tar\\.gz|\\.zip|_bin");
 
     // URL parameters
     private static final String        ARCHITECTURE_PARAM      = "";
@@ -138,13 +131,7 @@ public class GraalVM_Community implements Distribution {
     }
 
     @Override public List<Semver> getVersions() {
-        return CacheManager.INSTANCE.pkgCache.getPkgs()
-                                             .stream()
-                                             .filter(pkg -> getDistro().get().equals(pkg.getDistribution()))
-                                             .map(pkg -> pkg.getSemver())
-                                             .collect(Collectors.toCollection(() -> new TreeSet<>(Comparator.comparing(Semver::toString)))).stream()
-                                             .sorted(Comparator.comparing(Semver::getVersionNumber).reversed())
-                                             .collect(Collectors.toList());
+        return CacheManager.INSTANCE.distroCatalog.get().getStats(getDistro()).getVersions();
     }
 
     @Override public String getUrlForAvailablePkgs(final VersionNumber versionNumber,
@@ -192,16 +179,15 @@ public class GraalVM_Community implements Distribution {
             if (filename.endsWith(Constants.FILE_ENDING_TXT) || filename.endsWith(Constants.FILE_ENDING_JAR) ||
                 filename.endsWith(Constants.FILE_ENDING_SHA1) || filename.endsWith(Constants.FILE_ENDING_SHA256)) { continue; }
 
-            FILENAME_MATCHER.reset(filename);
-            if (!FILENAME_MATCHER.matches()) { continue; }
+            if (!Helper.matches(FILENAME_PATTERN, filename)) { continue; }
 
-            String filenameWithoutPreset = filename.replaceFirst("graalvm-community-jdk-", "").replaceAll("(\\.tar\\.gz|\\.zip)", "").replaceAll("_bin", "");
+            String filenameWithoutPreset = Helper.removeMatches(STRIP_PATTERN, filename);
             String strippedFilename = filenameWithoutPreset.substring(filenameWithoutPreset.indexOf("_"));
 
             String downloadLink = assetJsonObj.get("browser_download_url").getAsString();
 
             if (onlyNewPkgs) {
-                if (CacheManager.INSTANCE.pkgCache.getPkgs().stream().filter(p -> p.getFilename().equals(filename)).filter(p -> p.getDirectDownloadUri().equals(downloadLink)).count() > 0) { continue; }
+                if (CacheManager.INSTANCE.pkgCache.containsArtifact(filename, downloadLink)) { continue; }
             }
 
             Pkg pkg = new Pkg();
@@ -214,11 +200,7 @@ public class GraalVM_Community implements Distribution {
             if (SRC_TAR == ext || (ArchiveType.NONE != archiveType && ext != archiveType)) { continue; }
             pkg.setArchiveType(ext);
 
-            Architecture arch = Constants.ARCHITECTURE_LOOKUP.entrySet().stream()
-                                                             .filter(entry -> strippedFilename.contains(entry.getKey()))
-                                                             .findFirst()
-                                                             .map(Entry::getValue)
-                                                             .orElse(Architecture.NONE);
+            Architecture arch = FilenameClassifier.INSTANCE.classify(strippedFilename).getArchitecture(Architecture.NONE);
             if (Architecture.NONE == arch) {
                 LOGGER.debug("Architecture not found in GraalVM Community" + vNumber.toString(OutputFormat.REDUCED_COMPRESSED, true, true) + " for filename: {}", filename);
                 continue;
@@ -241,11 +223,7 @@ public class GraalVM_Community implements Distribution {
 
             pkg.setReleaseStatus(ReleaseStatus.NONE == releaseStatus ? ReleaseStatus.GA : releaseStatus);
 
-            OperatingSystem os = Constants.OPERATING_SYSTEM_LOOKUP.entrySet().stream()
-                                                                  .filter(entry -> strippedFilename.contains(entry.getKey()))
-                                                                  .findFirst()
-                                                                  .map(Entry::getValue)
-                                                                  .orElse(OperatingSystem.NONE);
+            OperatingSystem os = FilenameClassifier.INSTANCE.classify(strippedFilename).getOperatingSystem(OperatingSystem.NONE);
 
             if (OperatingSystem.NONE == os) {
                 switch (pkg.getArchiveType()) {
@@ -272,7 +250,7 @@ public class GraalVM_Community implements Distribution {
 
             pkg.setFreeUseInProduction(Boolean.TRUE);
 
-            pkg.setSize(Helper.getFileSize(downloadLink));
+            pkg.setSize(FileSizeResolver.INSTANCE.getSize(downloadLink));
 
             pkgs.add(pkg);
         }
@@ -285,7 +263,7 @@ public class GraalVM_Community implements Distribution {
             if (null == filename || filename.isEmpty() || !filename.endsWith(Constants.FILE_ENDING_SHA256)) { continue; }
             String nameToMatch;
             if (filename.endsWith(Constants.FILE_ENDING_SHA256)) {
-                nameToMatch = filename.replaceAll("." + Constants.FILE_ENDING_SHA256, "");
+                nameToMatch = Helper.removeMatches(Constants.SHA256_FILE_ENDING_PATTERN, filename);
             } else {
                 continue;
             }
@@ -302,6 +280,8 @@ public class GraalVM_Community implements Distribution {
         return pkgs;
     }
 
+    @Override public List<Pkg> getAllPkgs(final boolean onlyNewPkgs) { return getAllPkgs(true, onlyNewPkgs); }
+
     public List<Pkg> getAllPkgs(boolean includingEA, final boolean onlyNewPkgs) {
         List<Pkg> pkgs = new ArrayList<>();
         pkgs.addAll(getAllPkgs(PACKAGE_URL, ReleaseStatus.GA, onlyNewPkgs));
@@ -311,48 +291,21 @@ public class GraalVM_Community implements Distribution {
     private List<Pkg> getAllPkgs(final String query, final ReleaseStatus releaseStatus, final boolean onlyNewPkgs) {
         if (query.isEmpty()) { return List.of(); }
         try {
-            List<Pkg>           pkgs      = new LinkedList<>();
-            List<Pkg>           pkgsFound = new ArrayList<>();
-            Map<String, String> headers   = new HashMap<>();
-            if (query.contains("api.github.com")) {
-                headers.put("accept", "application/vnd.github.v3+json");
-                headers.put("authorization", GithubTokenPool.INSTANCE.next());
-            }
-            HttpResponse<String> response = Helper.get(query, headers);
-            if (null == response) {
-                LOGGER.debug("Response {} returned null.", getDistro().getApiString());
-            } else {
-                if (response.statusCode() == 200) {
-                    String      body    = response.body();
-                    Gson        gson    = new Gson();
-                    JsonElement element = gson.fromJson(body, JsonElement.class);
-                    if (element instanceof JsonArray) {
-                        JsonArray jsonArray = element.getAsJsonArray();
-                        for (int i = 0; i < jsonArray.size(); i++) {
-                            JsonObject pkgJsonObj = jsonArray.get(i).getAsJsonObject();
-                            List<Pkg> pkgsInDistribution = getPkgFromJson(pkgJsonObj, null,false, OperatingSystem.NONE, Architecture.NONE, Bitness.NONE, ArchiveType.NONE, PackageType.NONE, null, releaseStatus, TermOfSupport.NONE, onlyNewPkgs);
-                            pkgsFound.addAll(pkgsInDistribution);
-                        }
-                    } else if (element instanceof JsonObject) {
-                        JsonObject pkgJsonObj = element.getAsJsonObject();
-                        List<Pkg> pkgsInDistribution = getPkgFromJson(pkgJsonObj, null,false, OperatingSystem.NONE, Architecture.NONE, Bitness.NONE, ArchiveType.NONE, PackageType.NONE, null, releaseStatus, TermOfSupport.NONE, onlyNewPkgs);
-                        pkgsFound.addAll(pkgsInDistribution);
-                    }
-                } else {
-                    // Problem with url request
-                    LOGGER.debug("Error getting packages for {}, calling {}.Response ({}) {} ", getName(), query, response.statusCode(), response.body());
-                    return pkgs;
-                }
-            }
-
-            pkgs.addAll(pkgsFound);
-            HashSet<Pkg> unique = new HashSet<>(pkgs);
-            pkgs = new LinkedList<>(unique);
-
-            return pkgs;
+            // The GraalVM CE distros crawl the same repositories, so GraalVM Community needs its own high water mark
+            List<Pkg> pkgs = GithubReleasesCrawler.INSTANCE.crawl(getDistro().getApiString(), query, onlyNewPkgs, jsonArray -> getAllPkgsFromJson(jsonArray, releaseStatus, onlyNewPkgs));
+            return new LinkedList<>(new HashSet<>(pkgs));
         } catch (Exception e) {
             LOGGER.debug("Error get packages for {} calling {}. {}", getName(), query, e.getMessage());
             return new ArrayList<>();
         }
     }
+
+    private List<Pkg> getAllPkgsFromJson(final JsonArray jsonArray, final ReleaseStatus releaseStatus, final boolean onlyNewPkgs) {
+        List<Pkg> pkgs = new ArrayList<>();
+        for (JsonElement element : jsonArray) {
+            if (!element.isJsonObject()) { continue; }
+            pkgs.addAll(getPkgFromJson(element.getAsJsonObject(), null, false, OperatingSystem.NONE, Architecture.NONE, Bitness.NONE, ArchiveType.NONE, PackageType.NONE, null, releaseStatus, TermOfSupport.NONE, onlyNewPkgs));
+        }
+        return pkgs;
+    }
 }
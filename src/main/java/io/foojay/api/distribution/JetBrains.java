@@ -37,6 +37,8 @@ import io.foojay.api.pkg.Distro;
 import io.foojay.api.pkg.MajorVersion;
 import io.foojay.api.pkg.Pkg;
 import io.foojay.api.util.Constants;
+import io.foojay.api.util.FileSizeResolver;
+import io.foojay.api.util.FilenameClassifier;
 import io.foojay.api.util.Helper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -44,16 +46,12 @@ import org.slf4j.LoggerFactory;
 import java.io.StringReader;
 import java.net.http.HttpResponse;
 import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.List;
-import java.util.Map.Entry;
 import java.util.Optional;
 import java.util.OptionalInt;
 import java.util.Properties;
-import java.util.TreeSet;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
-import java.util.stream.Collectors;
 
 import static eu.hansolo.jdktools.ArchiveType.getFromFileName;
 import static eu.hansolo.jdktools.OperatingSystem.LINUX;
@@ -93,10 +91,10 @@ public class JetBrains implements Distribution {
     private static final String        SIGNATURE_URI          = "";
     private static final String        OFFICIAL_URI           = "https://github.com/JetBrains/JetBrainsRuntime";
 
+    private static final Pattern       QUERY_PATTERN          = Pattern.compile("\\?_.*");
+    private static final Pattern       STRIP_PATTERN          = Pattern.compile("jbrsdk-|\\.tar\\.gz|\\.zip");
     private static final Pattern       JBRSDK_PATTERN         = Pattern.compile("JBRSDK\\s+\\|\\s+\\[([0-9a-zA-Z_.-]+)\\]\\(([0-9a-z:/._-]+)\\)");
-    private static final Matcher       JBRSDK_MATCHER         = JBRSDK_PATTERN.matcher("");
     private static final Pattern       JBRSDK_JCEF_PATTERN    = Pattern.compile("(https:\\/\\/[a-zA-Z0-9_\\/\\.\\-]+)((jbrsdk_jcef)-([a-zA-Z0-9\\.]*)-([a-zA-Z]*)-([a-zA-Z0-9]*)-([bB0-9\\.]*)(((\\.tar\\.gz)|(\\.zip)|(\\.pkg)|(\\.msi))(\\.checksum)?))");//Pattern.compile("(https:\\/\\/[a-zA-Z0-9_\\/\\.\\-]+)((jbrsdk_jcef)-([a-zA-Z0-9\\.]*)-([a-zA-Z]*)-([a-zA-Z0-9]*)-([bB0-9\\.]*)((\\.tar\\.gz)|(\\.zip))(?!\\.checksum))");
-    private static final Matcher       JBRSDK_JCEF_MATCHER    = JBRSDK_JCEF_PATTERN.matcher("");
     // Group 0 -> download link
     // Group 2 -> filename
     // Group 4 -> version number
@@ -142,11 +140,7 @@ public class JetBrains implements Distribution {
     }
 
     @Override public List<Semver> getVersions() {
-        return CacheManager.INSTANCE.pkgCache.getPkgs()
-                                             .stream()
-                                             .filter(pkg -> Distro.JETBRAINS.get().equals(pkg.getDistribution()))
-                                             .map(pkg -> pkg.getSemver())
-                                             .collect(Collectors.toCollection(() -> new TreeSet<>(Comparator.comparing(Semver::toString)))).stream().sorted(Comparator.comparing(Semver::getVersionNumber).reversed()).collect(Collectors.toList());
+        return CacheManager.INSTANCE.distroCatalog.get().getStats(Distro.JETBRAINS).getVersions();
     }
 
 
@@ -198,18 +192,18 @@ public class JetBrains implements Distribution {
         for(String downloadLink : downloadLinks) {
             String strippedDownloadLink = "";
             if (downloadLink.startsWith("https://cache-redirector")) {
-                strippedDownloadLink = downloadLink.replaceAll("\\?_.*", "");
+                strippedDownloadLink = Helper.removeMatches(QUERY_PATTERN, downloadLink);
             }
             if (strippedDownloadLink.isEmpty()) { continue; }
 
             String   filename         = Helper.getFileNameFromText(strippedDownloadLink);
             if (filename.endsWith("diz.tar.gz") || filename.contains("fastdebug")) { continue; }
 
-            String   strippedFilename = filename.replaceFirst("jbrsdk-", "").replaceAll("(\\.tar\\.gz|\\.zip)", "");
+            String   strippedFilename = Helper.removeMatches(STRIP_PATTERN, filename);
             String[] filenameParts    = strippedFilename.split("-");
 
             if (onlyNewPkgs) {
-                if (CacheManager.INSTANCE.pkgCache.getPkgs().stream().filter(p -> p.getFilename().equals(filename)).filter(p -> p.getDirectDownloadUri().equals(downloadLink)).count() > 0) { continue; }
+                if (CacheManager.INSTANCE.pkgCache.containsArtifact(filename, downloadLink)) { continue; }
             }
 
             Pkg pkg = new Pkg();
@@ -221,17 +215,13 @@ public class JetBrains implements Distribution {
             ArchiveType ext = getFromFileName(filename);
             pkg.setArchiveType(ext);
 
-            Architecture arch = Constants.ARCHITECTURE_LOOKUP.entrySet().stream()
-                                                             .filter(entry -> strippedFilename.contains(entry.getKey()))
-                                                             .findFirst()
-                                                             .map(Entry::getValue)
-                                                             .orElse(Architecture.NONE);
+            Architecture arch = FilenameClassifier.INSTANCE.classify(strippedFilename).getArchitecture(Architecture.NONE);
 
             pkg.setArchitecture(arch);
             pkg.setBitness(arch.getBitness());
 
 
-            VersionNumber vNumber = VersionNumber.fromText(filenameParts[0].replaceAll("_", "."));
+            VersionNumber vNumber = VersionNumber.fromText(filenameParts[0].replace('_', '.'));
             pkg.setVersionNumber(vNumber);
             pkg.setJavaVersion(vNumber);
             pkg.setDistributionVersion(vNumber);
@@ -243,11 +233,7 @@ public class JetBrains implements Distribution {
 
             pkg.setReleaseStatus(GA);
 
-            OperatingSystem os = Constants.OPERATING_SYSTEM_LOOKUP.entrySet().stream()
-                                                                  .filter(entry -> strippedFilename.contains(entry.getKey()))
-                                                                  .findFirst()
-                                                                  .map(Entry::getValue)
-                                                                  .orElse(OperatingSystem.NONE);
+            OperatingSystem os = FilenameClassifier.INSTANCE.classify(strippedFilename).getOperatingSystem(OperatingSystem.NONE);
 
             if (OperatingSystem.NONE == os) {
                 LOGGER.debug("Operating System not found in {} for filename: {}", getName(), filename);
@@ -265,7 +251,7 @@ public class JetBrains implements Distribution {
 
             pkg.setFreeUseInProduction(Boolean.TRUE);
 
-            pkg.setSize(Helper.getFileSize(downloadLink));
+            pkg.setSize(FileSizeResolver.INSTANCE.getSize(downloadLink));
 
             pkgs.add(pkg);
         }
@@ -279,15 +265,15 @@ public class JetBrains implements Distribution {
         List<Pkg> pkgs = new ArrayList<>();
         
         // SDK + JCEF
-        JBRSDK_JCEF_MATCHER.reset(bodyText);
-        while(JBRSDK_JCEF_MATCHER.find()) {
-            final String downloadLink     = JBRSDK_JCEF_MATCHER.group(0);
-            final String filename         = JBRSDK_JCEF_MATCHER.group(2);
-            final String versionNumber    = JBRSDK_JCEF_MATCHER.group(4);
-            final String operatingSystem  = JBRSDK_JCEF_MATCHER.group(5);
-            final String architecture     = JBRSDK_JCEF_MATCHER.group(6);
-            final String buildNumber      = JBRSDK_JCEF_MATCHER.group(7).replaceAll("\\.", "");
-            final String fileEnding       = JBRSDK_JCEF_MATCHER.group(8);
+        final Matcher matcher = JBRSDK_JCEF_PATTERN.matcher(bodyText);
+        while(matcher.find()) {
+            final String downloadLink     = matcher.group(0);
+            final String filename         = matcher.group(2);
+            final String versionNumber    = matcher.group(4);
+            final String operatingSystem  = matcher.group(5);
+            final String architecture     = matcher.group(6);
+            final String buildNumber      = matcher.group(7).replace(".", "");
+            final String fileEnding       = matcher.group(8);
 
             // Fetch checksum
             if (fileEnding.endsWith("checksum")) {
@@ -301,7 +287,7 @@ public class JetBrains implements Distribution {
             }
 
             if (onlyNewPkgs) {
-                if (CacheManager.INSTANCE.pkgCache.getPkgs().stream().filter(p -> p.getFilename().equals(filename)).filter(p -> p.getDirectDownloadUri().equals(downloadLink)).count() > 0) { continue; }
+                if (CacheManager.INSTANCE.pkgCache.containsArtifact(filename, downloadLink)) { continue; }
             }
 
             Pkg pkg = new Pkg();
@@ -349,7 +335,7 @@ public class JetBrains implements Distribution {
 
             pkg.setFreeUseInProduction(Boolean.TRUE);
 
-            pkg.setSize(Helper.getFileSize(downloadLink));
+            pkg.setSize(FileSizeResolver.INSTANCE.getSize(downloadLink));
 
             pkgs.add(pkg);
         }
@@ -372,35 +358,25 @@ public class JetBrains implements Distribution {
             if (null == filename || !filename.startsWith("jbrsdk") || filename.contains("fastdebug") || filename.endsWith("diz.tar.gz")) { continue; }
 
             if (onlyNewPkgs) {
-                if (CacheManager.INSTANCE.pkgCache.getPkgs().stream().filter(p -> p.getFilename().equals(filename)).filter(p -> p.getDirectDownloadUri().equals(href)).count() > 0) { continue; }
+                if (CacheManager.INSTANCE.pkgCache.containsArtifact(filename, href)) { continue; }
             }
 
             final String        withoutPrefix = filename.replace("jbrsdk-", "");
             final String        withoutSuffix = withoutPrefix.replace(".tar.gz", "");
             final String[]      filenameParts = withoutSuffix.split("-");
-            final String        versionString = filenameParts[0].replaceAll("_", "\\.") + (filenameParts.length == 4 ? "+" + filenameParts[3] : "");
-            final Semver        semver        = Semver.fromText(filenameParts[0].replaceAll("_", "\\.") + (filenameParts.length == 4 ? "+" + filenameParts[3] : "")).getSemver1();
+            final String        versionString = filenameParts[0].replace('_', '.') + (filenameParts.length == 4 ? "+" + filenameParts[3] : "");
+            final Semver        semver        = Semver.fromText(filenameParts[0].replace('_', '.') + (filenameParts.length == 4 ? "+" + filenameParts[3] : "")).getSemver1();
             final VersionNumber versionNumber = VersionNumber.fromText(versionString);
             final MajorVersion  majorVersion  =new MajorVersion(versionNumber.getFeature().isPresent() ? versionNumber.getFeature().getAsInt() : 0);
             final PackageType   packageType   = JDK;
 
-            OperatingSystem operatingSystem = Constants.OPERATING_SYSTEM_LOOKUP.entrySet()
-                                                                               .stream()
-                                                                               .filter(entry -> withoutPrefix.contains(entry.getKey()))
-                                                                               .findFirst()
-                                                                               .map(Entry::getValue)
-                                                                               .orElse(OperatingSystem.NOT_FOUND);
+            OperatingSystem operatingSystem = FilenameClassifier.INSTANCE.classify(withoutPrefix).getOperatingSystem(OperatingSystem.NOT_FOUND);
             if (OperatingSystem.NOT_FOUND == operatingSystem) {
                 LOGGER.debug("Operating System not found in JetBrains for filename: {}", filename);
                 continue;
             }
 
-            final Architecture architecture = Constants.ARCHITECTURE_LOOKUP.entrySet()
-                                                                           .stream()
-                                                                           .filter(entry -> withoutPrefix.contains(entry.getKey()))
-                                                                           .findFirst()
-                                                                           .map(Entry::getValue)
-                                                                           .orElse(Architecture.NOT_FOUND);
+            final Architecture architecture = FilenameClassifier.INSTANCE.classify(withoutPrefix).getArchitecture(Architecture.NOT_FOUND);
             if (Architecture.NOT_FOUND == architecture) {
                 LOGGER.debug("Architecture not found in JetBrains for filename: {}", filename);
                 continue;
@@ -436,7 +412,7 @@ public class JetBrains implements Distribution {
             pkg.setPackageType(packageType);
             pkg.setOperatingSystem(operatingSystem);
             pkg.setFreeUseInProduction(Boolean.TRUE);
-            pkg.setSize(Helper.getFileSize(href));
+            pkg.setSize(FileSizeResolver.INSTANCE.getSize(href));
             pkgs.add(pkg);
         }
 
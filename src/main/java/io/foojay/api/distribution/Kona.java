@@ -19,7 +19,6 @@
 
 package io.foojay.api.distribution;
 
-import com.google.gson.Gson;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
@@ -40,21 +39,17 @@ import io.foojay.api.pkg.Feature;
 import io.foojay.api.pkg.MajorVersion;
 import io.foojay.api.pkg.Pkg;
 import io.foojay.api.util.Constants;
-import io.foojay.api.util.GithubTokenPool;
+import io.foojay.api.util.FileSizeResolver;
+import io.foojay.api.util.FilenameClassifier;
+import io.foojay.api.util.GithubReleasesCrawler;
 import io.foojay.api.util.Helper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.net.http.HttpResponse;
 import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.List;
-import java.util.Map;
-import java.util.Map.Entry;
 import java.util.Optional;
-import java.util.TreeSet;
 import java.util.concurrent.CompletionException;
-import java.util.stream.Collectors;
 
 import static eu.hansolo.jdktools.ArchiveType.getFromFileName;
 import static eu.hansolo.jdktools.OperatingSystem.LINUX;
@@ -124,11 +119,7 @@ public class Kona implements Distribution {
     }
 
     @Override public List<Semver> getVersions() {
-        return CacheManager.INSTANCE.pkgCache.getPkgs()
-                                             .stream()
-                                             .filter(pkg -> Distro.KONA.get().equals(pkg.getDistribution()))
-                                             .map(pkg -> pkg.getSemver())
-                                             .collect(Collectors.toCollection(() -> new TreeSet<>(Comparator.comparing(Semver::toString)))).stream().sorted(Comparator.comparing(Semver::getVersionNumber).reversed()).collect(Collectors.toList());
+        return CacheManager.INSTANCE.distroCatalog.get().getStats(Distro.KONA).getVersions();
     }
 
 
@@ -170,20 +161,7 @@ public class Kona implements Distribution {
             for (String packageUrl : packageUrls) {
                 // Get all packages from github
                 try {
-                    HttpResponse<String> response = Helper.get(packageUrl, Map.of("accept", "application/vnd.github.v3+json",
-                                                                                  "authorization", GithubTokenPool.INSTANCE.next()));
-                    if (response.statusCode() == 200) {
-                        String      bodyText = response.body();
-                        Gson        gson     = new Gson();
-                        JsonElement element  = gson.fromJson(bodyText, JsonElement.class);
-                        if (element instanceof JsonArray) {
-                            JsonArray jsonArray = element.getAsJsonArray();
-                            pkgs.addAll(getAllPkgsFromJson(jsonArray, onlyNewPkgs));
-                        }
-                    } else {
-                        // Problem with url request
-                        LOGGER.debug("Response ({}) {} ", response.statusCode(), response.body());
-                    }
+                    pkgs.addAll(GithubReleasesCrawler.INSTANCE.crawl(packageUrl, onlyNewPkgs, jsonArray -> getAllPkgsFromJson(jsonArray, onlyNewPkgs)));
                 } catch (CompletionException e) {
                     LOGGER.error("Error fetching packages for distribution {} from {}", getName(), packageUrl);
                 }
@@ -213,7 +191,7 @@ public class Kona implements Distribution {
                 String downloadLink = assetJsonObj.get("browser_download_url").getAsString();
 
                 if (onlyNewPkgs) {
-                    if (CacheManager.INSTANCE.pkgCache.getPkgs().stream().filter(p -> p.getFilename().equals(filename)).filter(p -> p.getDirectDownloadUri().equals(downloadLink)).count() > 0) { continue; }
+                    if (CacheManager.INSTANCE.pkgCache.containsArtifact(filename, downloadLink)) { continue; }
                 }
 
                 Pkg pkg = new Pkg();
@@ -224,11 +202,7 @@ public class Kona implements Distribution {
                 ArchiveType ext = getFromFileName(filename);
                 pkg.setArchiveType(ext);
 
-                Architecture arch = Constants.ARCHITECTURE_LOOKUP.entrySet().stream()
-                                                                 .filter(entry -> filename.contains(entry.getKey()))
-                                                                 .findFirst()
-                                                                 .map(Entry::getValue)
-                                                                 .orElse(Architecture.NONE);
+                Architecture arch = FilenameClassifier.INSTANCE.classify(filename).getArchitecture(Architecture.NONE);
                 if (Architecture.NONE == arch) { continue; }
                 pkg.setArchitecture(arch);
                 pkg.setBitness(arch.getBitness());
@@ -263,11 +237,7 @@ public class Kona implements Distribution {
 
                 if (filename.contains("_fiber")) { pkg.setFeatures(List.of(Feature.KONA_FIBER)); }
 
-                OperatingSystem os = Constants.OPERATING_SYSTEM_LOOKUP.entrySet().stream()
-                                                                      .filter(entry -> filename.contains(entry.getKey()))
-                                                                      .findFirst()
-                                                                      .map(Entry::getValue)
-                                                                      .orElse(OperatingSystem.NONE);
+                OperatingSystem os = FilenameClassifier.INSTANCE.classify(filename).getOperatingSystem(OperatingSystem.NONE);
 
                 if (OperatingSystem.NONE == os) {
                     switch (pkg.getArchiveType()) {
@@ -293,7 +263,7 @@ public class Kona implements Distribution {
 
                 pkg.setFreeUseInProduction(Boolean.TRUE);
 
-                pkg.setSize(Helper.getFileSize(downloadLink));
+                pkg.setSize(FileSizeResolver.INSTANCE.getSize(downloadLink));
 
                 pkgs.add(pkg);
             }
@@ -310,7 +280,7 @@ public class Kona implements Distribution {
                 if (null == filename || filename.isEmpty() || !filename.endsWith(Constants.FILE_ENDING_MD5)) { continue; }
                 String nameToMatch;
                 if (filename.endsWith(Constants.FILE_ENDING_MD5)) {
-                    nameToMatch = filename.replaceAll("." + Constants.FILE_ENDING_MD5, "");
+                    nameToMatch = Helper.removeMatches(Constants.MD5_FILE_ENDING_PATTERN, filename);
                 } else {
                     continue;
                 }
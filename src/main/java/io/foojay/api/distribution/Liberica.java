@@ -19,6 +19,9 @@
 
 package io.foojay.api.distribution;
 
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import eu.hansolo.jdktools.Architecture;
 import eu.hansolo.jdktools.ArchiveType;
@@ -39,17 +42,17 @@ import io.foojay.api.pkg.Feature;
 import io.foojay.api.pkg.MajorVersion;
 import io.foojay.api.pkg.Pkg;
 import io.foojay.api.util.Constants;
+import io.foojay.api.util.FileSizeResolver;
+import io.foojay.api.util.FilenameClassifier;
 import io.foojay.api.util.Helper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.net.http.HttpResponse;
 import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
-import java.util.TreeSet;
-import java.util.stream.Collectors;
 
 import static eu.hansolo.jdktools.Architecture.AARCH64;
 import static eu.hansolo.jdktools.Architecture.AMD64;
@@ -169,11 +172,7 @@ public class Liberica implements Distribution {
     }
 
     @Override public List<Semver> getVersions() {
-        return CacheManager.INSTANCE.pkgCache.getPkgs()
-                                             .stream()
-                                             .filter(pkg -> Distro.LIBERICA.get().equals(pkg.getDistribution()))
-                                             .map(pkg -> pkg.getSemver())
-                                             .collect(Collectors.toCollection(() -> new TreeSet<>(Comparator.comparing(Semver::toString)))).stream().sorted(Comparator.comparing(Semver::getVersionNumber).reversed()).collect(Collectors.toList());
+        return CacheManager.INSTANCE.distroCatalog.get().getStats(Distro.LIBERICA).getVersions();
     }
 
 
@@ -270,13 +269,13 @@ public class Liberica implements Distribution {
         Integer       buildVersion  = jsonObj.get(FIELD_BUILD_VERSION).getAsInt();
 
         if (onlyNewPkgs) {
-            if (CacheManager.INSTANCE.pkgCache.getPkgs().stream().filter(p -> p.getFilename().equals(filename)).filter(p -> p.getDirectDownloadUri().equals(downloadLink)).count() > 0) { return pkgs; }
+            if (CacheManager.INSTANCE.pkgCache.containsArtifact(filename, downloadLink)) { return pkgs; }
         }
 
         dNumber.setBuild(buildVersion);
         vNumber.setBuild(buildVersion);
-        String        packageType   = jsonObj.get(FIELD_PACKAGE_TYPE).toString().replaceAll("\"", "");
-        String        bundleTyp     = jsonObj.get(FIELD_BUNDLE_TYPE).toString().replaceAll("\"", "");
+        String        packageType   = jsonObj.get(FIELD_PACKAGE_TYPE).toString().replace("\"", "");
+        String        bundleTyp     = jsonObj.get(FIELD_BUNDLE_TYPE).toString().replace("\"", "");
         boolean       isGA          = jsonObj.get(FIELD_GA).getAsBoolean();
         boolean       isFX          = jsonObj.get(FIELD_FX).getAsBoolean() || filename.contains("-full");
         boolean       isLTS         = jsonObj.get(FIELD_LTS).getAsBoolean();
@@ -328,11 +327,7 @@ public class Liberica implements Distribution {
         if (ArchiveType.SRC_TAR == ext) { return pkgs; }
         pkg.setArchiveType(ArchiveType.fromText(packageType));
 
-        Architecture arch = Constants.ARCHITECTURE_LOOKUP.entrySet().stream()
-                                                         .filter(entry -> filename.contains(entry.getKey()))
-                                                         .findFirst()
-                                                         .map(Entry::getValue)
-                                                         .orElse(Architecture.NONE);
+        Architecture arch = FilenameClassifier.INSTANCE.classify(filename).getArchitecture(Architecture.NONE);
 
         if (filename.contains("hflt")) {
             pkg.setFPU(FPU.HARD_FLOAT);
@@ -350,11 +345,7 @@ public class Liberica implements Distribution {
 
         OperatingSystem osFound = OperatingSystem.fromText(os);
         if (OperatingSystem.NONE == osFound) {
-            osFound = Constants.OPERATING_SYSTEM_LOOKUP.entrySet().stream()
-                                                       .filter(entry -> filename.contains(entry.getKey()))
-                                                       .findFirst()
-                                                       .map(Entry::getValue)
-                                                       .orElse(OperatingSystem.NONE);
+            osFound = FilenameClassifier.INSTANCE.classify(filename).getOperatingSystem(OperatingSystem.NONE);
         }
         if (OperatingSystem.NONE == osFound) {
             LOGGER.debug("Operating Sytsem not found in Liberica for filename: {}", filename);
@@ -385,7 +376,7 @@ public class Liberica implements Distribution {
             pkg.setChecksumType(hash.isEmpty() ? HashAlgorithm.NONE : HashAlgorithm.SHA1);
         }
 
-        pkg.setSize(Helper.getFileSize(downloadLink));
+        pkg.setSize(FileSizeResolver.INSTANCE.getSize(downloadLink));
 
         pkgs.add(pkg);
 
@@ -393,4 +384,28 @@ public class Liberica implements Distribution {
 
         return pkgs;
     }
+
+    public List<Pkg> getAllPkgs(final boolean onlyNewPkgs) {
+        final List<Pkg>           pkgs    = new ArrayList<>();
+        final Map<String, String> headers = new HashMap<>();
+        headers.put("accept", "application/json");
+
+        for (MajorVersion majorVersion : CacheManager.INSTANCE.getMajorVersions()) {
+            if (majorVersion.getAsInt() < 8) { continue; }
+            final VersionNumber        versionNumber = new VersionNumber(majorVersion.getAsInt());
+            final String               query         = getUrlForAvailablePkgs(versionNumber, false, OperatingSystem.NONE, Architecture.NONE, Bitness.NONE, ArchiveType.NONE, PackageType.NONE, null, ReleaseStatus.NONE, TermOfSupport.NONE);
+            final HttpResponse<String> response      = Helper.get(query, headers);
+            if (null == response) {
+                throw new IllegalStateException("No response from " + query);
+            } else if (response.statusCode() != 200) {
+                throw new IllegalStateException("Error getting packages for " + getName() + " " + majorVersion.getAsInt() + ", response (" + response.statusCode() + ") from " + query);
+            }
+            final JsonElement element = new Gson().fromJson(response.body(), JsonElement.class);
+            if (!(element instanceof JsonArray)) { continue; }
+            for (JsonElement jsonElement : element.getAsJsonArray()) {
+                pkgs.addAll(getPkgFromJson(jsonElement.getAsJsonObject(), versionNumber, false, OperatingSystem.NONE, Architecture.NONE, Bitness.NONE, ArchiveType.NONE, PackageType.NONE, null, ReleaseStatus.NONE, TermOfSupport.NONE, onlyNewPkgs));
+            }
+        }
+        return pkgs;
+    }
 }
@@ -41,18 +41,16 @@ import io.foojay.api.CacheManager;
 import io.foojay.api.pkg.Distro;
 import io.foojay.api.pkg.MajorVersion;
 import io.foojay.api.pkg.Pkg;
+import io.foojay.api.util.FileSizeResolver;
 import io.foojay.api.util.Helper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.net.http.HttpResponse;
 import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.TreeSet;
-import java.util.stream.Collectors;
 
 import static eu.hansolo.jdktools.Architecture.AARCH64;
 import static eu.hansolo.jdktools.Architecture.ARM;
@@ -164,11 +162,7 @@ public class LibericaNative implements Distribution {
     }
 
     @Override public List<Semver> getVersions() {
-        return CacheManager.INSTANCE.pkgCache.getPkgs()
-                                             .stream()
-                                             .filter(pkg -> Distro.LIBERICA_NATIVE.get().equals(pkg.getDistribution()))
-                                             .map(pkg -> pkg.getSemver())
-                                             .collect(Collectors.toCollection(() -> new TreeSet<>(Comparator.comparing(Semver::toString)))).stream().sorted(Comparator.comparing(Semver::getVersionNumber).reversed()).collect(Collectors.toList());
+        return CacheManager.INSTANCE.distroCatalog.get().getStats(Distro.LIBERICA_NATIVE).getVersions();
     }
 
 
@@ -299,7 +293,7 @@ public class LibericaNative implements Distribution {
                                 return;
                             } else {
                                 pkg.setDirectDownloadUri(downloadLink);
-                                if (pkg.getSize() == 0) { pkg.setSize(Helper.getFileSize(downloadLink)); }
+                                if (pkg.getSize() == 0) { pkg.setSize(FileSizeResolver.INSTANCE.getSize(downloadLink)); }
                                 }
                         } else {
                             return;
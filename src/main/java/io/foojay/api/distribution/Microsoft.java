@@ -33,19 +33,17 @@ import io.foojay.api.pkg.Distro;
 import io.foojay.api.pkg.MajorVersion;
 import io.foojay.api.pkg.Pkg;
 import io.foojay.api.util.Constants;
+import io.foojay.api.util.FileSizeResolver;
+import io.foojay.api.util.FilenameClassifier;
 import io.foojay.api.util.Helper;
+import io.foojay.api.util.HttpCache;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.List;
-import java.util.Map.Entry;
 import java.util.OptionalInt;
-import java.util.TreeSet;
-import java.util.regex.Matcher;
 import java.util.regex.Pattern;
-import java.util.stream.Collectors;
 
 import static eu.hansolo.jdktools.PackageType.JDK;
 import static eu.hansolo.jdktools.PackageType.JRE;
@@ -57,7 +55,6 @@ public class Microsoft implements Distribution {
     private static final Logger        LOGGER = LoggerFactory.getLogger(Microsoft.class);
 
     private static final Pattern       FILENAME_PREFIX_PATTERN = Pattern.compile("microsoft-");
-    private static final Matcher       FILENAME_PREFIX_MATCHER = FILENAME_PREFIX_PATTERN.matcher("");
     private static final String        PACKAGE_URL             = "https://docs.microsoft.com/java/openjdk/download";
     private static final String        OLDER_PACKAGES_URL      = "https://docs.microsoft.com/en-us/java/openjdk/older-releases";
     public  static final String        PKGS_PROPERTIES         = "https://github.com/foojayio/openjdk_releases/raw/main/microsoft.properties";
@@ -116,11 +113,7 @@ public class Microsoft implements Distribution {
     }
 
     @Override public List<Semver> getVersions() {
-        return CacheManager.INSTANCE.pkgCache.getPkgs()
-                                             .stream()
-                                             .filter(pkg -> Distro.MICROSOFT.get().equals(pkg.getDistribution()))
-                                             .map(pkg -> pkg.getSemver())
-                                             .collect(Collectors.toCollection(() -> new TreeSet<>(Comparator.comparing(Semver::toString)))).stream().sorted(Comparator.comparing(Semver::getVersionNumber).reversed()).collect(Collectors.toList());
+        return CacheManager.INSTANCE.distroCatalog.get().getStats(Distro.MICROSOFT).getVersions();
     }
 
 
@@ -147,10 +140,16 @@ public class Microsoft implements Distribution {
         List<Pkg> pkgs = new ArrayList<>();
         try {
             String htmlCurrentPkgs = Helper.getTextFromUrl(PACKAGE_URL);
-            pkgs.addAll(getAllPkgsFromHtml(htmlCurrentPkgs, onlyNewPkgs));
+            if (!onlyNewPkgs || !HttpCache.INSTANCE.isUnchanged(getName(), PACKAGE_URL, htmlCurrentPkgs)) {
+                pkgs.addAll(getAllPkgsFromHtml(htmlCurrentPkgs, onlyNewPkgs));
+                HttpCache.INSTANCE.consumed(getName(), PACKAGE_URL, htmlCurrentPkgs);
+            }
 
             String htmlOlderPkgs = Helper.getTextFromUrl(OLDER_PACKAGES_URL);
-            pkgs.addAll(getAllPkgsFromHtml(htmlOlderPkgs, onlyNewPkgs));
+            if (!onlyNewPkgs || !HttpCache.INSTANCE.isUnchanged(getName(), OLDER_PACKAGES_URL, htmlOlderPkgs)) {
+                pkgs.addAll(getAllPkgsFromHtml(htmlOlderPkgs, onlyNewPkgs));
+                HttpCache.INSTANCE.consumed(getName(), OLDER_PACKAGES_URL, htmlOlderPkgs);
+            }
         } catch (Exception e) {
             LOGGER.error("Error fetching all packages from Microsoft. {}", e);
         }
@@ -175,7 +174,7 @@ public class Microsoft implements Distribution {
             if (filename.contains("debugsymbols") || filename.startsWith("jdk") || filename.contains("sources") || filename.endsWith("sig")) { continue; }
 
             if (onlyNewPkgs) {
-                if (CacheManager.INSTANCE.pkgCache.getPkgs().stream().filter(p -> p.getFilename().equals(filename)).filter(p -> p.getDirectDownloadUri().equals(href)).count() > 0) { continue; }
+                if (CacheManager.INSTANCE.pkgCache.containsArtifact(filename, href)) { continue; }
             }
 
             final String          withoutPrefix   = filename.replace("microsoft-", "");
@@ -200,23 +199,13 @@ public class Microsoft implements Distribution {
             final MajorVersion    majorVersion    = new MajorVersion(versionNumber.getFeature().isPresent() ? versionNumber.getFeature().getAsInt() : 0);
             final PackageType     packageType     = withoutPrefix.startsWith("jdk") ? JDK : JRE;
 
-            OperatingSystem operatingSystem = Constants.OPERATING_SYSTEM_LOOKUP.entrySet()
-                                                                               .stream()
-                                                                               .filter(entry -> withoutPrefix.contains(entry.getKey()))
-                                                                               .findFirst()
-                                                                               .map(Entry::getValue)
-                                                                               .orElse(OperatingSystem.NOT_FOUND);
+            OperatingSystem operatingSystem = FilenameClassifier.INSTANCE.classify(withoutPrefix).getOperatingSystem(OperatingSystem.NOT_FOUND);
             if (OperatingSystem.NOT_FOUND == operatingSystem) {
                 LOGGER.debug("Operating System not found in {} for filename: {}", getName(), filename);
                 continue;
             }
 
-            final Architecture architecture = Constants.ARCHITECTURE_LOOKUP.entrySet()
-                                                                           .stream()
-                                                                           .filter(entry -> withoutPrefix.contains(entry.getKey()))
-                                                                           .findFirst()
-                                                                           .map(Entry::getValue)
-                                                                           .orElse(Architecture.NOT_FOUND);
+            final Architecture architecture = FilenameClassifier.INSTANCE.classify(withoutPrefix).getArchitecture(Architecture.NOT_FOUND);
             if (Architecture.NOT_FOUND == architecture) {
                 LOGGER.debug("Architecture not found in {} for filename: {}", getName(), filename);
                 continue;
@@ -256,7 +245,7 @@ public class Microsoft implements Distribution {
             pkg.setPackageType(packageType);
             pkg.setOperatingSystem(operatingSystem);
             pkg.setFreeUseInProduction(Boolean.TRUE);
-            pkg.setSize(Helper.getFileSize(href));
+            pkg.setSize(FileSizeResolver.INSTANCE.getSize(href));
 
             pkgs.add(pkg);
         }
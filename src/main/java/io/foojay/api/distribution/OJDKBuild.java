@@ -19,7 +19,6 @@
 
 package io.foojay.api.distribution;
 
-import com.google.gson.Gson;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
@@ -39,23 +38,18 @@ import io.foojay.api.pkg.Distro;
 import io.foojay.api.pkg.MajorVersion;
 import io.foojay.api.pkg.Pkg;
 import io.foojay.api.util.Constants;
-import io.foojay.api.util.GithubTokenPool;
+import io.foojay.api.util.FileSizeResolver;
+import io.foojay.api.util.FilenameClassifier;
+import io.foojay.api.util.GithubReleasesCrawler;
 import io.foojay.api.util.Helper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.net.http.HttpResponse;
 import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.List;
-import java.util.Map;
-import java.util.Map.Entry;
 import java.util.Optional;
-import java.util.TreeSet;
 import java.util.concurrent.CompletionException;
-import java.util.regex.Matcher;
 import java.util.regex.Pattern;
-import java.util.stream.Collectors;
 
 import static eu.hansolo.jdktools.PackageType.JDK;
 import static eu.hansolo.jdktools.PackageType.JRE;
@@ -67,7 +61,6 @@ public class OJDKBuild implements Distribution {
     private static final Logger        LOGGER                  = LoggerFactory.getLogger(OJDKBuild.class);
 
     private static final Pattern       FILENAME_PREFIX_PATTERN = Pattern.compile(".*-openjdk(-debug)?(-jre)?-");
-    private static final Matcher       FILENAME_PREFIX_MATCHER = FILENAME_PREFIX_PATTERN.matcher("");
     private static final String        GITHUB_USER             = "ojdkbuild";
     private static final String        GITHUB_REPOSITORY       = "ojdkbuild";
     private static final String        PACKAGE_URL             = "https://api.github.com/repos/" + GITHUB_USER + "/" + GITHUB_REPOSITORY + "/releases?per_page=100";
@@ -132,14 +125,7 @@ public class OJDKBuild implements Distribution {
     }
 
     @Override public List<Semver> getVersions() {
-        return CacheManager.INSTANCE.pkgCache.getPkgs()
-                                             .stream()
-                                             .filter(pkg -> Distro.OJDK_BUILD.get().equals(pkg.getDistribution()))
-                                             .map(pkg -> pkg.getSemver())
-                                             .collect(Collectors.toCollection(() -> new TreeSet<>(Comparator.comparing(Semver::toString))))
-                                             .stream()
-                                             .sorted(Comparator.comparing(Semver::getVersionNumber).reversed())
-                                             .collect(Collectors.toList());
+        return CacheManager.INSTANCE.distroCatalog.get().getStats(Distro.OJDK_BUILD).getVersions();
     }
 
 
@@ -177,7 +163,7 @@ public class OJDKBuild implements Distribution {
 
             if (filename.endsWith("txt") || filename.endsWith("symbols.tar.gz")) { continue; }
 
-            String withoutPrefix = FILENAME_PREFIX_MATCHER.reset(filename).replaceAll("");
+            String withoutPrefix = Helper.removeMatches(FILENAME_PREFIX_PATTERN, filename);
 
             VersionNumber vNumber = VersionNumber.fromText(withoutPrefix);
             if (latest) {
@@ -189,16 +175,12 @@ public class OJDKBuild implements Distribution {
             String downloadLink = assetJsonObj.get("browser_download_url").getAsString();
 
             if (onlyNewPkgs) {
-                if (CacheManager.INSTANCE.pkgCache.getPkgs().stream().filter(p -> p.getFilename().equals(filename)).filter(p -> p.getDirectDownloadUri().equals(downloadLink)).count() > 0) { continue; }
+                if (CacheManager.INSTANCE.pkgCache.containsArtifact(filename, downloadLink)) { continue; }
             }
 
             Pkg pkg = new Pkg();
 
-            ArchiveType ext = Constants.ARCHIVE_TYPE_LOOKUP.entrySet().stream()
-                                                           .filter(entry -> filename.endsWith(entry.getKey()))
-                                                           .findFirst()
-                                                           .map(Entry::getValue)
-                                                           .orElse(ArchiveType.NONE);
+            ArchiveType ext = FilenameClassifier.INSTANCE.classify(filename).getArchiveType(ArchiveType.NONE);
             if (ArchiveType.NONE == ext) {
                 LOGGER.debug("Archive Type not found in OJDKBuild for filename: {}", filename);
                 return pkgs;
@@ -247,11 +229,7 @@ public class OJDKBuild implements Distribution {
                     break;
             }
 
-            Architecture arch = Constants.ARCHITECTURE_LOOKUP.entrySet().stream()
-                                                             .filter(entry -> withoutPrefix.contains(entry.getKey()))
-                                                             .findFirst()
-                                                             .map(Entry::getValue)
-                                                             .orElse(Architecture.NONE);
+            Architecture arch = FilenameClassifier.INSTANCE.classify(withoutPrefix).getArchitecture(Architecture.NONE);
 
             if (Architecture.NONE == arch) {
                 LOGGER.debug("Architecture not found in OJDKBuild for filename: {}", filename);
@@ -261,11 +239,7 @@ public class OJDKBuild implements Distribution {
             pkg.setArchitecture(arch);
             pkg.setBitness(arch.getBitness());
 
-            OperatingSystem os = Constants.OPERATING_SYSTEM_LOOKUP.entrySet().stream()
-                                                                  .filter(entry -> withoutPrefix.contains(entry.getKey()))
-                                                                  .findFirst()
-                                                                  .map(Entry::getValue)
-                                                                  .orElse(OperatingSystem.NONE);
+            OperatingSystem os = FilenameClassifier.INSTANCE.classify(withoutPrefix).getOperatingSystem(OperatingSystem.NONE);
             if (OperatingSystem.NONE == os) {
                 switch (pkg.getArchiveType()) {
                     case DEB, RPM, TAR_GZ -> os = OperatingSystem.LINUX;
@@ -282,7 +256,7 @@ public class OJDKBuild implements Distribution {
 
             pkg.setFreeUseInProduction(Boolean.TRUE);
 
-            pkg.setSize(Helper.getFileSize(downloadLink));
+            pkg.setSize(FileSizeResolver.INSTANCE.getSize(downloadLink));
 
             pkgs.add(pkg);
         }
@@ -298,20 +272,7 @@ public class OJDKBuild implements Distribution {
             for (String packageUrl : PACKAGE_URLS) {
                 // Get all packages from github
                 try {
-                    HttpResponse<String> response = Helper.get(packageUrl, Map.of("accept", "application/vnd.github.v3+json",
-                                                                                  "authorization", GithubTokenPool.INSTANCE.next()));
-                    if (response.statusCode() == 200) {
-                        String      bodyText = response.body();
-                        Gson        gson     = new Gson();
-                        JsonElement element  = gson.fromJson(bodyText, JsonElement.class);
-                        if (element instanceof JsonArray) {
-                            JsonArray jsonArray = element.getAsJsonArray();
-                            pkgs.addAll(getAllPkgsFromJson(jsonArray, onlyNewPkgs));
-                        }
-                    } else {
-                        // Problem with url request
-                        LOGGER.debug("Response ({}) {} ", response.statusCode(), response.body());
-                    }
+                    pkgs.addAll(GithubReleasesCrawler.INSTANCE.crawl(packageUrl, onlyNewPkgs, jsonArray -> getAllPkgsFromJson(jsonArray, onlyNewPkgs)));
                 } catch (CompletionException e) {
                     LOGGER.error("Error fetching packages for distribution {} from {}", getName(), packageUrl);
                 }
@@ -338,7 +299,7 @@ public class OJDKBuild implements Distribution {
                 if (null == filename || filename.isEmpty() || filename.startsWith("openjfx") || filename.endsWith("txt") || filename.endsWith("debuginfo.zip") || filename.endsWith("sha256")) { continue; }
                 if (filename.contains("-debug-")) { continue; }
 
-                String withoutPrefix = FILENAME_PREFIX_MATCHER.reset(filename).replaceAll("");
+                String withoutPrefix = Helper.removeMatches(FILENAME_PREFIX_PATTERN, filename);
 
                 VersionNumber numberFound = VersionNumber.fromText(withoutPrefix);
                 VersionNumber vNumber = numberFound;
@@ -347,16 +308,12 @@ public class OJDKBuild implements Distribution {
                 String downloadLink = assetJsonObj.get("browser_download_url").getAsString();
 
                 if (onlyNewPkgs) {
-                    if (CacheManager.INSTANCE.pkgCache.getPkgs().stream().filter(p -> p.getFilename().equals(filename)).filter(p -> p.getDirectDownloadUri().equals(downloadLink)).count() > 0) { continue; }
+                    if (CacheManager.INSTANCE.pkgCache.containsArtifact(filename, downloadLink)) { continue; }
                 }
 
                 Pkg pkg = new Pkg();
 
-                ArchiveType ext = Constants.ARCHIVE_TYPE_LOOKUP.entrySet().stream()
-                                                               .filter(entry -> filename.endsWith(entry.getKey()))
-                                                               .findFirst()
-                                                               .map(Entry::getValue)
-                                                               .orElse(ArchiveType.NONE);
+                ArchiveType ext = FilenameClassifier.INSTANCE.classify(filename).getArchiveType(ArchiveType.NONE);
                 if (ArchiveType.NONE == ext) {
                     LOGGER.debug("Archive Type not found in OJDKBuild for filename: {}", filename);
                     continue;
@@ -383,11 +340,7 @@ public class OJDKBuild implements Distribution {
                 pkg.setReleaseStatus(withoutPrefix.contains(Constants.EA_POSTFIX) ? EA : GA);
 
 
-                Architecture arch = Constants.ARCHITECTURE_LOOKUP.entrySet().stream()
-                                                                 .filter(entry -> withoutPrefix.contains(entry.getKey()))
-                                                                 .findFirst()
-                                                                 .map(Entry::getValue)
-                                                                 .orElse(Architecture.NONE);
+                Architecture arch = FilenameClassifier.INSTANCE.classify(withoutPrefix).getArchitecture(Architecture.NONE);
                 if (Architecture.NONE == arch) {
                     LOGGER.debug("Architecture not found in OJDKBuild for filename: {}", filename);
                     continue;
@@ -395,11 +348,7 @@ public class OJDKBuild implements Distribution {
                 pkg.setArchitecture(arch);
                 pkg.setBitness(arch.getBitness());
 
-                OperatingSystem os = Constants.OPERATING_SYSTEM_LOOKUP.entrySet().stream()
-                                                                      .filter(entry -> withoutPrefix.contains(entry.getKey()))
-                                                                      .findFirst()
-                                                                      .map(Entry::getValue)
-                                                                      .orElse(OperatingSystem.NONE);
+                OperatingSystem os = FilenameClassifier.INSTANCE.classify(withoutPrefix).getOperatingSystem(OperatingSystem.NONE);
                 if (OperatingSystem.NONE == os) {
                     switch (pkg.getArchiveType()) {
                         case DEB:
@@ -426,7 +375,7 @@ public class OJDKBuild implements Distribution {
 
                 pkg.setFreeUseInProduction(Boolean.TRUE);
 
-                pkg.setSize(Helper.getFileSize(downloadLink));
+                pkg.setSize(FileSizeResolver.INSTANCE.getSize(downloadLink));
 
                 pkgs.add(pkg);
             }
@@ -443,7 +392,7 @@ public class OJDKBuild implements Distribution {
                 if (null == filename || filename.isEmpty() || !filename.endsWith(Constants.FILE_ENDING_SHA256)) { continue; }
                 String nameToMatch;
                 if (filename.endsWith("." + Constants.FILE_ENDING_SHA256)) {
-                    nameToMatch = filename.replaceAll("." + Constants.FILE_ENDING_SHA256, "");
+                    nameToMatch = Helper.removeMatches(Constants.SHA256_FILE_ENDING_PATTERN, filename);
                 } else {
                     continue;
                 }
@@ -36,6 +36,8 @@ import io.foojay.api.pkg.Distro;
 import io.foojay.api.pkg.MajorVersion;
 import io.foojay.api.pkg.Pkg;
 import io.foojay.api.util.Constants;
+import io.foojay.api.util.FileSizeResolver;
+import io.foojay.api.util.FilenameClassifier;
 import io.foojay.api.util.Helper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -43,13 +45,9 @@ import org.slf4j.LoggerFactory;
 import java.io.StringReader;
 import java.net.http.HttpResponse;
 import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.Properties;
-import java.util.TreeSet;
-import java.util.stream.Collectors;
 
 import static eu.hansolo.jdktools.PackageType.JDK;
 import static eu.hansolo.jdktools.PackageType.JRE;
@@ -125,11 +123,7 @@ public class OpenLogic implements Distribution {
     }
 
     @Override public List<Semver> getVersions() {
-        return CacheManager.INSTANCE.pkgCache.getPkgs()
-                                             .stream()
-                                             .filter(pkg -> Distro.OPEN_LOGIC.get().equals(pkg.getDistribution()))
-                                             .map(pkg -> pkg.getSemver())
-                                             .collect(Collectors.toCollection(() -> new TreeSet<>(Comparator.comparing(Semver::toString)))).stream().sorted(Comparator.comparing(Semver::getVersionNumber).reversed()).collect(Collectors.toList());
+        return CacheManager.INSTANCE.distroCatalog.get().getStats(Distro.OPEN_LOGIC).getVersions();
     }
 
 
@@ -214,10 +208,10 @@ public class OpenLogic implements Distribution {
         if (null == html || html.isEmpty()) { return pkgs; }
         List<String> fileHrefs = new ArrayList<>(Helper.getFileHrefsFromString(html));
         for (String fileHref : fileHrefs) {
-            String filename = Helper.getFileNameFromText(fileHref.replaceAll("\"", ""));
+            String filename = Helper.getFileNameFromText(fileHref.replace("\"", ""));
 
             if (onlyNewPkgs) {
-                if (CacheManager.INSTANCE.pkgCache.getPkgs().stream().filter(p -> p.getFilename().equals(filename)).filter(p -> p.getDirectDownloadUri().equals(fileHref)).count() > 0) { continue; }
+                if (CacheManager.INSTANCE.pkgCache.containsArtifact(filename, fileHref)) { continue; }
             }
 
             Pkg pkg = new Pkg();
@@ -233,11 +227,7 @@ public class OpenLogic implements Distribution {
                 pkg.setPackageType(JDK);
             }
 
-            Architecture architecture = Constants.ARCHITECTURE_LOOKUP.entrySet().stream()
-                                                                     .filter(entry -> filename.contains(entry.getKey()))
-                                                                     .findFirst()
-                                                                     .map(Entry::getValue)
-                                                                     .orElse(Architecture.NOT_FOUND);
+            Architecture architecture = FilenameClassifier.INSTANCE.classify(filename).getArchitecture(Architecture.NOT_FOUND);
             if (Architecture.NOT_FOUND == architecture) {
                 LOGGER.debug("Architecture not found in OpenLogic for filename: {}", filename);
                 continue;
@@ -245,22 +235,14 @@ public class OpenLogic implements Distribution {
             pkg.setArchitecture(architecture);
             pkg.setBitness(architecture.getBitness());
 
-            OperatingSystem operatingSystem = Constants.OPERATING_SYSTEM_LOOKUP.entrySet().stream()
-                                                                               .filter(entry -> filename.contains(entry.getKey()))
-                                                                               .findFirst()
-                                                                               .map(Entry::getValue)
-                                                                               .orElse(OperatingSystem.NOT_FOUND);
+            OperatingSystem operatingSystem = FilenameClassifier.INSTANCE.classify(filename).getOperatingSystem(OperatingSystem.NOT_FOUND);
             if (OperatingSystem.NOT_FOUND == operatingSystem) {
                 LOGGER.debug("Operating System not found in OpenLogic for filename: {}", filename);
                 continue;
             }
             pkg.setOperatingSystem(operatingSystem);
 
-            ArchiveType archiveType = Constants.ARCHIVE_TYPE_LOOKUP.entrySet().stream()
-                                                                   .filter(entry -> filename.contains(entry.getKey()))
-                                                                   .findFirst()
-                                                                   .map(Entry::getValue)
-                                                                   .orElse(ArchiveType.NOT_FOUND);
+            ArchiveType archiveType = FilenameClassifier.INSTANCE.classify(filename).getArchiveTypeContained(ArchiveType.NOT_FOUND);
             if (ArchiveType.NOT_FOUND == archiveType) {
                 LOGGER.debug("Archive Type not found in OpenLogic for filename: {}", filename);
                 continue;
@@ -286,7 +268,7 @@ public class OpenLogic implements Distribution {
 
             pkg.setFreeUseInProduction(Boolean.TRUE);
 
-            pkg.setSize(Helper.getFileSize(fileHref));
+            pkg.setSize(FileSizeResolver.INSTANCE.getSize(fileHref));
 
             pkgs.add(pkg);
         }
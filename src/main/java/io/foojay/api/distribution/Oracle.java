@@ -38,6 +38,8 @@ import io.foojay.api.pkg.Distro;
 import io.foojay.api.pkg.MajorVersion;
 import io.foojay.api.pkg.Pkg;
 import io.foojay.api.util.Constants;
+import io.foojay.api.util.FileSizeResolver;
+import io.foojay.api.util.FilenameClassifier;
 import io.foojay.api.util.Helper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -45,12 +47,9 @@ import org.slf4j.LoggerFactory;
 import java.io.StringReader;
 import java.net.http.HttpResponse;
 import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.Properties;
-import java.util.TreeSet;
 import java.util.stream.Collectors;
 
 import static eu.hansolo.jdktools.PackageType.JDK;
@@ -121,11 +120,7 @@ public class Oracle implements Distribution {
     }
 
     @Override public List<Semver> getVersions() {
-        return CacheManager.INSTANCE.pkgCache.getPkgs()
-                                             .stream()
-                                             .filter(pkg -> Distro.ORACLE.get().equals(pkg.getDistribution()))
-                                             .map(pkg -> pkg.getSemver())
-                                             .collect(Collectors.toCollection(() -> new TreeSet<>(Comparator.comparing(Semver::toString)))).stream().sorted(Comparator.comparing(Semver::getVersionNumber).reversed()).collect(Collectors.toList());
+        return CacheManager.INSTANCE.distroCatalog.get().getStats(Distro.ORACLE).getVersions();
     }
 
 
@@ -240,18 +235,10 @@ public class Oracle implements Distribution {
 
                 osArchParts     = nameParts[1].split("-");
                 operatingSystem = OperatingSystem.fromText(osArchParts[0]);
-                architecture    = Constants.ARCHITECTURE_LOOKUP.entrySet().stream()
-                                                               .filter(entry -> filename.contains(entry.getKey()))
-                                                               .findFirst()
-                                                               .map(Entry::getValue)
-                                                               .orElse(Architecture.NONE);
+                architecture    = FilenameClassifier.INSTANCE.classify(filename).getArchitecture(Architecture.NONE);
 
                 bitness     = architecture.getBitness();
-                archiveType = Constants.ARCHIVE_TYPE_LOOKUP.entrySet().stream()
-                                                           .filter(entry -> filename.endsWith(entry.getKey()))
-                                                           .findFirst()
-                                                           .map(Entry::getValue)
-                                                           .orElse(ArchiveType.NONE);
+                archiveType = FilenameClassifier.INSTANCE.classify(filename).getArchiveType(ArchiveType.NONE);
                 termOfSupport = Helper.getTermOfSupport(versionNumber);
                 javafxBundled = versionNumber.getMajorVersion().getAsInt() < 11;
             } else {
@@ -269,25 +256,12 @@ public class Oracle implements Distribution {
 
                 versionNumber   = VersionNumber.fromText(nameParts[0]);
 
-                operatingSystem = Constants.OPERATING_SYSTEM_LOOKUP.entrySet()
-                                                                   .stream()
-                                                                   .filter(entry -> filename.contains(entry.getKey()))
-                                                                   .findFirst()
-                                                                   .map(Entry::getValue)
-                                                                   .orElse(OperatingSystem.NONE);
+                operatingSystem = FilenameClassifier.INSTANCE.classify(filename).getOperatingSystem(OperatingSystem.NONE);
 
-                architecture    = Constants.ARCHITECTURE_LOOKUP.entrySet().stream()
-                                                               .filter(entry -> filename.contains(entry.getKey()))
-                                                               .findFirst()
-                                                               .map(Entry::getValue)
-                                                               .orElse(Architecture.NONE);
+                architecture    = FilenameClassifier.INSTANCE.classify(filename).getArchitecture(Architecture.NONE);
 
                 bitness     = architecture.getBitness();
-                archiveType = Constants.ARCHIVE_TYPE_LOOKUP.entrySet().stream()
-                                                           .filter(entry -> filename.endsWith(entry.getKey()))
-                                                           .findFirst()
-                                                           .map(Entry::getValue)
-                                                           .orElse(ArchiveType.NONE);
+                archiveType = FilenameClassifier.INSTANCE.classify(filename).getArchiveType(ArchiveType.NONE);
                 termOfSupport = Helper.getTermOfSupport(versionNumber);
                 if (filename.contains("javafx")) {
                     javafxBundled = true;
@@ -390,7 +364,7 @@ public class Oracle implements Distribution {
                                                  final String checksumUri     = fileDownloadUri + ".sha256";
 
                                                  if (onlyNewPkgs) {
-                                                     if (CacheManager.INSTANCE.pkgCache.getPkgs().stream().filter(p -> p.getFilename().equals(filename)).filter(p -> p.getDirectDownloadUri().equals(fileDownloadUri)).count() > 0) { return; }
+                                                     if (CacheManager.INSTANCE.pkgCache.containsArtifact(filename, fileDownloadUri)) { return; }
                                                  }
 
                                                  if (Helper.isUriValid(fileDownloadUri)) {
@@ -417,7 +391,7 @@ public class Oracle implements Distribution {
                                                          pkg.setChecksumUri(checksumUri);
                                                          pkg.setChecksumType(HashAlgorithm.SHA256);
                                                      }
-                                                     pkg.setSize(Helper.getFileSize(fileDownloadUri));
+                                                     pkg.setSize(FileSizeResolver.INSTANCE.getSize(fileDownloadUri));
                                                      if (filename.contains("hflt")) {
                                                          pkg.setFPU(FPU.HARD_FLOAT);
                                                      }
@@ -19,7 +19,6 @@
 
 package io.foojay.api.distribution;
 
-import com.google.gson.Gson;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
@@ -42,8 +41,11 @@ import io.foojay.api.pkg.Feature;
 import io.foojay.api.pkg.MajorVersion;
 import io.foojay.api.pkg.Pkg;
 import io.foojay.api.util.Constants;
-import io.foojay.api.util.GithubTokenPool;
+import io.foojay.api.util.FileSizeResolver;
+import io.foojay.api.util.FilenameClassifier;
+import io.foojay.api.util.GithubReleasesCrawler;
 import io.foojay.api.util.Helper;
+import io.foojay.api.util.HttpCache;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -55,15 +57,12 @@ import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.OptionalInt;
 import java.util.Properties;
-import java.util.TreeSet;
 import java.util.concurrent.CompletionException;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
-import java.util.stream.Collectors;
 
 import static eu.hansolo.jdktools.Architecture.AARCH64;
 import static eu.hansolo.jdktools.Architecture.X64;
@@ -89,9 +88,8 @@ public class OracleOpenJDK implements Distribution {
     private static final String                       GITHUB_CRAC_URL            = "https://api.github.com/repos/CRaC/openjdk-builds/releases";
     private static final String                       FILENAME_PREFIX            = "openjdk-";
     private static final Pattern                      FILENAME_PREFIX_PATTERN    = Pattern.compile("OpenJDK(8|11)U-");
-    private static final Matcher                      FILENAME_PREFIX_MATCHER    = FILENAME_PREFIX_PATTERN.matcher("");
     private static final Pattern                      BUILD_NUMBER_PATTERN       = Pattern.compile("\\/([0-9]{1,3})\\/GPL\\/");
-    private static final Matcher                      BUILD_NUMBER_MATCHER       = BUILD_NUMBER_PATTERN.matcher("");
+    private static final Pattern                      VERSION_PREFIX_PATTERN     = Pattern.compile("openjdk-?");
 
     // URL parameters
     private static final String                       ARCHITECTURE_PARAM         = "";
@@ -175,11 +173,7 @@ public class OracleOpenJDK implements Distribution {
     }
 
     @Override public List<Semver> getVersions() {
-        return CacheManager.INSTANCE.pkgCache.getPkgs()
-                                             .stream()
-                                             .filter(pkg -> Distro.ORACLE_OPEN_JDK.get().equals(pkg.getDistribution()))
-                                             .map(pkg -> pkg.getSemver())
-                                             .collect(Collectors.toCollection(() -> new TreeSet<>(Comparator.comparing(Semver::toString)))).stream().sorted(Comparator.comparing(Semver::getVersionNumber).reversed()).collect(Collectors.toList());
+        return CacheManager.INSTANCE.distroCatalog.get().getStats(Distro.ORACLE_OPEN_JDK).getVersions();
     }
 
 
@@ -263,7 +257,7 @@ public class OracleOpenJDK implements Distribution {
 
                 if (filename.contains("debuginfo") || filename.contains("sources") || filename.contains("static-libs") || filename.contains("testimage") || filename.endsWith("sign")) { continue; }
 
-                String withoutPrefix = FILENAME_PREFIX_MATCHER.reset(filename).replaceAll("");
+                String withoutPrefix = Helper.removeMatches(FILENAME_PREFIX_PATTERN, filename);
 
                 String[] nameParts = withoutPrefix.split("_");
 
@@ -278,7 +272,7 @@ public class OracleOpenJDK implements Distribution {
                 String downloadLink = assetJsonObj.get("browser_download_url").getAsString();
 
                 if (onlyNewPkgs) {
-                    if (CacheManager.INSTANCE.pkgCache.getPkgs().stream().filter(p -> p.getFilename().equals(filename)).filter(p -> p.getDirectDownloadUri().equals(downloadLink)).count() > 0) { continue; }
+                    if (CacheManager.INSTANCE.pkgCache.containsArtifact(filename, downloadLink)) { continue; }
                 }
 
                 Pkg pkg = new Pkg();
@@ -299,12 +293,7 @@ public class OracleOpenJDK implements Distribution {
                 pkg.setJdkVersion(new MajorVersion(vNumber.getFeature().getAsInt()));
 
 
-                PackageType packageTypeFound = Constants.PACKAGE_TYPE_LOOKUP.entrySet()
-                                                                            .stream()
-                                                                            .filter(entry -> withoutPrefix.contains(entry.getKey()))
-                                                                            .findFirst()
-                                                                            .map(Entry::getValue)
-                                                                            .orElse(PackageType.NONE);
+                PackageType packageTypeFound = FilenameClassifier.INSTANCE.classify(withoutPrefix).getPackageType(PackageType.NONE);
 
                 switch (packageType) {
                     case NONE:
@@ -320,12 +309,7 @@ public class OracleOpenJDK implements Distribution {
                         break;
                 }
 
-                ReleaseStatus releaseStatusFound = Constants.RELEASE_STATUS_LOOKUP.entrySet()
-                                                                                  .stream()
-                                                                                  .filter(entry -> withoutPrefix.contains(entry.getKey()))
-                                                                                  .findFirst()
-                                                                                  .map(Entry::getValue)
-                                                                                  .orElse(ReleaseStatus.GA);
+                ReleaseStatus releaseStatusFound = FilenameClassifier.INSTANCE.classify(withoutPrefix).getReleaseStatus(ReleaseStatus.GA);
 
                 switch (releaseStatus) {
                     case NONE:
@@ -341,11 +325,7 @@ public class OracleOpenJDK implements Distribution {
                         break;
                 }
 
-                Architecture arch = Constants.ARCHITECTURE_LOOKUP.entrySet().stream()
-                                                                 .filter(entry -> withoutPrefix.contains(entry.getKey()))
-                                                                 .findFirst()
-                                                                 .map(Entry::getValue)
-                                                                 .orElse(Architecture.NONE);
+                Architecture arch = FilenameClassifier.INSTANCE.classify(withoutPrefix).getArchitecture(Architecture.NONE);
                 if (Architecture.NONE == arch) {
                     LOGGER.debug("Architecture not found in {} for filename: {}", getName(), filename);
                     continue;
@@ -354,11 +334,7 @@ public class OracleOpenJDK implements Distribution {
                 pkg.setArchitecture(arch);
                 pkg.setBitness(arch.getBitness());
 
-                OperatingSystem os = Constants.OPERATING_SYSTEM_LOOKUP.entrySet().stream()
-                                                                      .filter(entry -> withoutPrefix.contains(entry.getKey()))
-                                                                      .findFirst()
-                                                                      .map(Entry::getValue)
-                                                                      .orElse(OperatingSystem.NONE);
+                OperatingSystem os = FilenameClassifier.INSTANCE.classify(withoutPrefix).getOperatingSystem(OperatingSystem.NONE);
                 if (OperatingSystem.NONE == os) {
                     switch (pkg.getArchiveType()) {
                         case DEB:
@@ -384,7 +360,7 @@ public class OracleOpenJDK implements Distribution {
 
                 pkg.setFreeUseInProduction(Boolean.TRUE);
 
-                pkg.setSize(Helper.getFileSize(downloadLink));
+                pkg.setSize(FileSizeResolver.INSTANCE.getSize(downloadLink));
 
                 if (WINDOWS == pkg.getOperatingSystem())  {
                     if (pkg.getFilename().contains("linux")) { continue; }
@@ -415,8 +391,8 @@ public class OracleOpenJDK implements Distribution {
                 ArchiveType archiveType = ArchiveType.getFromFileName(filename);
                 if (ArchiveType.SRC_TAR == archiveType) { continue; }
 
-                String withoutPrefix = FILENAME_PREFIX_MATCHER.reset(filename).replaceAll("");
-                String withoutSuffix = withoutPrefix.replaceAll(archiveType.getFileEndings().get(0), "");
+                String withoutPrefix = Helper.removeMatches(FILENAME_PREFIX_PATTERN, filename);
+                String withoutSuffix = withoutPrefix.replace(archiveType.getFileEndings().get(0), "");
 
                 String[] nameParts = withoutSuffix.split("_");
                 if (!nameParts[0].equals("jre") && !nameParts[0].equals("jdk")) { continue; }
@@ -431,7 +407,7 @@ public class OracleOpenJDK implements Distribution {
                 String downloadLink = assetJsonObj.get("browser_download_url").getAsString();
 
                 if (onlyNewPkgs) {
-                    if (CacheManager.INSTANCE.pkgCache.getPkgs().stream().filter(p -> p.getFilename().equals(filename)).filter(p -> p.getDirectDownloadUri().equals(downloadLink)).count() > 0) { continue; }
+                    if (CacheManager.INSTANCE.pkgCache.containsArtifact(filename, downloadLink)) { continue; }
                 }
 
                 Pkg pkg = new Pkg();
@@ -452,31 +428,17 @@ public class OracleOpenJDK implements Distribution {
                 pkg.setDistributionVersion(vNumber);
                 pkg.setJdkVersion(new MajorVersion(vNumber.getFeature().getAsInt()));
 
-                ReleaseStatus releaseStatus = Constants.RELEASE_STATUS_LOOKUP.entrySet()
-                                                                             .stream()
-                                                                             .filter(entry -> withoutPrefix.contains(entry.getKey()))
-                                                                             .findFirst()
-                                                                             .map(Entry::getValue)
-                                                                             .orElse(ReleaseStatus.GA);
+                ReleaseStatus releaseStatus = FilenameClassifier.INSTANCE.classify(withoutPrefix).getReleaseStatus(ReleaseStatus.GA);
                 pkg.setReleaseStatus(releaseStatus);
 
-                PackageType packageType = Constants.PACKAGE_TYPE_LOOKUP.entrySet()
-                                                                       .stream()
-                                                                       .filter(entry -> withoutPrefix.contains(entry.getKey()))
-                                                                       .findFirst()
-                                                                       .map(Entry::getValue)
-                                                                       .orElse(PackageType.NONE);
+                PackageType packageType = FilenameClassifier.INSTANCE.classify(withoutPrefix).getPackageType(PackageType.NONE);
                 if (PackageType.NONE == packageType) {
                     LOGGER.debug("Package Type not found in {} for filename: {}", getName(), filename);
                     continue;
                 }
                 pkg.setPackageType(packageType);
 
-                Architecture arch = Constants.ARCHITECTURE_LOOKUP.entrySet().stream()
-                                                                 .filter(entry -> withoutPrefix.contains(entry.getKey()))
-                                                                 .findFirst()
-                                                                 .map(Entry::getValue)
-                                                                 .orElse(Architecture.NONE);
+                Architecture arch = FilenameClassifier.INSTANCE.classify(withoutPrefix).getArchitecture(Architecture.NONE);
                 if (Architecture.NONE == arch) {
                     LOGGER.debug("Architecture not found in {} for filename: {}", getName(), filename);
                     continue;
@@ -485,11 +447,7 @@ public class OracleOpenJDK implements Distribution {
                 pkg.setArchitecture(arch);
                 pkg.setBitness(arch.getBitness());
 
-                OperatingSystem os = Constants.OPERATING_SYSTEM_LOOKUP.entrySet().stream()
-                                                                      .filter(entry -> withoutPrefix.contains(entry.getKey()))
-                                                                      .findFirst()
-                                                                      .map(Entry::getValue)
-                                                                      .orElse(OperatingSystem.NONE);
+                OperatingSystem os = FilenameClassifier.INSTANCE.classify(withoutPrefix).getOperatingSystem(OperatingSystem.NONE);
                 if (OperatingSystem.NONE == os) {
                     switch (pkg.getArchiveType()) {
                         case DEB:
@@ -515,7 +473,7 @@ public class OracleOpenJDK implements Distribution {
 
                 pkg.setFreeUseInProduction(Boolean.TRUE);
 
-                pkg.setSize(Helper.getFileSize(downloadLink));
+                pkg.setSize(FileSizeResolver.INSTANCE.getSize(downloadLink));
 
                 if (WINDOWS == pkg.getOperatingSystem())  {
                     if (pkg.getFilename().contains("linux")) { continue; }
@@ -534,20 +492,7 @@ public class OracleOpenJDK implements Distribution {
     public List<Pkg> getCRaCPkgs(final boolean onlyNewPkgs) {
         List<Pkg> pkgs = new ArrayList<>();
         try {
-            HttpResponse<String> response = Helper.get(GITHUB_CRAC_URL, Map.of("accept", "application/vnd.github.v3+json",
-                                                                               "authorization", GithubTokenPool.INSTANCE.next()));
-            if (response.statusCode() == 200) {
-                String      bodyText = response.body();
-                Gson        gson     = new Gson();
-                JsonElement element  = gson.fromJson(bodyText, JsonElement.class);
-                if (element instanceof JsonArray) {
-                    JsonArray jsonArray = element.getAsJsonArray();
-                    pkgs.addAll(getAllCRaCPkgsFromJson(jsonArray, onlyNewPkgs));
-                }
-            } else {
-                // Problem with url request
-                LOGGER.debug("Response ({}) {} ", response.statusCode(), response.body());
-            }
+            pkgs.addAll(GithubReleasesCrawler.INSTANCE.crawl(GITHUB_CRAC_URL, onlyNewPkgs, jsonArray -> getAllCRaCPkgsFromJson(jsonArray, onlyNewPkgs)));
         } catch (CompletionException e) {
             LOGGER.error("Error fetching packages for distribution {} from {}", getName(), GITHUB_CRAC_URL);
         }
@@ -571,16 +516,12 @@ public class OracleOpenJDK implements Distribution {
                 String downloadLink = assetJsonObj.get("browser_download_url").getAsString();
 
                 if (onlyNewPkgs) {
-                    if (CacheManager.INSTANCE.pkgCache.getPkgs().stream().filter(p -> p.getFilename().equals(filename)).filter(p -> p.getDirectDownloadUri().equals(downloadLink)).count() > 0) { continue; }
+                    if (CacheManager.INSTANCE.pkgCache.containsArtifact(filename, downloadLink)) { continue; }
                 }
 
                 Pkg pkg = new Pkg();
 
-                ArchiveType ext = Constants.ARCHIVE_TYPE_LOOKUP.entrySet().stream()
-                                                               .filter(entry -> filename.endsWith(entry.getKey()))
-                                                               .findFirst()
-                                                               .map(Entry::getValue)
-                                                               .orElse(ArchiveType.NONE);
+                ArchiveType ext = FilenameClassifier.INSTANCE.classify(filename).getArchiveType(ArchiveType.NONE);
                 if (ArchiveType.NONE == ext) {
                     LOGGER.debug("Archive Type not found in {} for filename: {}", getName(), filename);
                     continue;
@@ -619,11 +560,7 @@ public class OracleOpenJDK implements Distribution {
                 pkg.setReleaseStatus(EA);
 
 
-                Architecture arch = Constants.ARCHITECTURE_LOOKUP.entrySet().stream()
-                                                                 .filter(entry -> filename.contains(entry.getKey()))
-                                                                 .findFirst()
-                                                                 .map(Entry::getValue)
-                                                                 .orElse(Architecture.NONE);
+                Architecture arch = FilenameClassifier.INSTANCE.classify(filename).getArchitecture(Architecture.NONE);
                 if (Architecture.NONE == arch) {
                     LOGGER.debug("Architecture not found in {} for filename: {}", getName(), filename);
                     arch = Architecture.X64;
@@ -631,11 +568,7 @@ public class OracleOpenJDK implements Distribution {
                 pkg.setArchitecture(arch);
                 pkg.setBitness(arch.getBitness());
 
-                OperatingSystem os = Constants.OPERATING_SYSTEM_LOOKUP.entrySet().stream()
-                                                                      .filter(entry -> filename.contains(entry.getKey()))
-                                                                      .findFirst()
-                                                                      .map(Entry::getValue)
-                                                                      .orElse(OperatingSystem.NONE);
+                OperatingSystem os = FilenameClassifier.INSTANCE.classify(filename).getOperatingSystem(OperatingSystem.NONE);
                 if (OperatingSystem.NONE == os) {
                     switch (pkg.getArchiveType()) {
                         case DEB, RPM, TAR_GZ -> os = OperatingSystem.LINUX;
@@ -651,7 +584,7 @@ public class OracleOpenJDK implements Distribution {
                 pkg.setOperatingSystem(os);
 
                 pkg.setFreeUseInProduction(Boolean.TRUE);
-                pkg.setSize(Helper.getFileSize(downloadLink));
+                pkg.setSize(FileSizeResolver.INSTANCE.getSize(downloadLink));
                 List<Feature> features = new ArrayList<>();
                 features.add(Feature.CRAC);
                 pkg.setFeatures(features);
@@ -745,7 +678,10 @@ public class OracleOpenJDK implements Distribution {
                 LOGGER.debug("jdk properties are empty for {}", getName());
                 return pkgMap.values();
             }
-            propertiesPkgs.load(new StringReader(propertiesText));
+            if (!HttpCache.INSTANCE.isUnchanged(getName(), PKGS_PROPERTIES, propertiesText)) {
+                propertiesPkgs.load(new StringReader(propertiesText));
+                HttpCache.INSTANCE.consumed(getName(), PKGS_PROPERTIES, propertiesText);
+            }
         } catch (Exception e) {
             LOGGER.error("Error reading jdk properties file for {} from github. {}", getName(), e.getMessage());
         }
@@ -756,7 +692,7 @@ public class OracleOpenJDK implements Distribution {
             boolean isMusl      = false;
 
             if (onlyNewPkgs) {
-                if (CacheManager.INSTANCE.pkgCache.getPkgs().stream().filter(p -> p.getFilename().equals(filename)).filter(p -> p.getDirectDownloadUri().equals(downloadLink)).count() > 0) { return; }
+                if (CacheManager.INSTANCE.pkgCache.containsArtifact(filename, downloadLink)) { return; }
             }
 
             Pkg pkg = new Pkg();
@@ -764,11 +700,7 @@ public class OracleOpenJDK implements Distribution {
             ArchiveType ext = ArchiveType.getFromFileName(filename);
             pkg.setArchiveType(ext);
 
-            ReleaseStatus rs = Constants.RELEASE_STATUS_LOOKUP.entrySet().stream()
-                                                              .filter(entry -> downloadLink.contains(entry.getKey()))
-                                                              .findFirst()
-                                                              .map(Entry::getValue)
-                                                              .orElse(ReleaseStatus.NONE);
+            ReleaseStatus rs = FilenameClassifier.INSTANCE.classify(downloadLink).getReleaseStatus(ReleaseStatus.NONE);
             if (ReleaseStatus.NONE == rs) {
                 LOGGER.debug("Release Status not found in {} for downloadLink: {}", getName(), downloadLink);
             } else {
@@ -803,16 +735,16 @@ public class OracleOpenJDK implements Distribution {
 
                 VersionNumber versionNumber = VersionNumber.fromText(filename);
 
-                BUILD_NUMBER_MATCHER.reset(downloadLink);
-                while(BUILD_NUMBER_MATCHER.find()) {
-                    if (BUILD_NUMBER_MATCHER.groupCount() > 0) {
+                final Matcher matcher = BUILD_NUMBER_PATTERN.matcher(downloadLink);
+                while(matcher.find()) {
+                    if (matcher.groupCount() > 0) {
                         try {
-                            Integer buildNo = Integer.valueOf(BUILD_NUMBER_MATCHER.group(1));
+                            Integer buildNo = Integer.valueOf(matcher.group(1));
                             if (versionNumber.getBuild().isEmpty()) {
                                     versionNumber.setBuild(buildNo);
                                 }
                         } catch (NumberFormatException e) {
-                            LOGGER.debug("Error parsing Oracle OpenJDK build number: {}", BUILD_NUMBER_MATCHER.group(1));
+                            LOGGER.debug("Error parsing Oracle OpenJDK build number: {}", matcher.group(1));
                         }
                     }
                 }
@@ -828,11 +760,7 @@ public class OracleOpenJDK implements Distribution {
 
                 pkg.setReleaseStatus(rs);
 
-                OperatingSystem os = Constants.OPERATING_SYSTEM_LOOKUP.entrySet().stream()
-                                                                      .filter(entry -> filename.contains(entry.getKey()))
-                                                                      .findFirst()
-                                                                      .map(Entry::getValue)
-                                                                      .orElse(OperatingSystem.NONE);
+                OperatingSystem os = FilenameClassifier.INSTANCE.classify(filename).getOperatingSystem(OperatingSystem.NONE);
                 pkg.setOperatingSystem(os);
                     switch (os) {
                     case WINDOWS: pkg.setLibCType(LibCType.C_STD_LIB); break;
@@ -842,7 +770,7 @@ public class OracleOpenJDK implements Distribution {
 
                 String[] fileNameParts = filename.split("_");
                 if (fileNameParts.length > 1) {
-                    String versionText = fileNameParts[0].replace("openjdk", "").replaceFirst("-", "");
+                    String versionText = Helper.removeMatches(VERSION_PREFIX_PATTERN, fileNameParts[0]);
                     Semver semVer = Semver.fromText(versionText).getSemver1();
                     if (null != semVer) {
                         pkg.setReleaseStatus(semVer.getReleaseStatus());
@@ -854,7 +782,7 @@ public class OracleOpenJDK implements Distribution {
 
                 pkg.setFreeUseInProduction(Boolean.TRUE);
 
-                pkg.setSize(Helper.getFileSize(downloadLink));
+                pkg.setSize(FileSizeResolver.INSTANCE.getSize(downloadLink));
 
                 if (!pkgMap.containsKey(pkg)) {
                     if (WINDOWS == pkg.getOperatingSystem())  {
@@ -907,11 +835,7 @@ public class OracleOpenJDK implements Distribution {
         ArchiveType ext = ArchiveType.getFromFileName(fileName);
         pkg.setArchiveType(ext);
 
-        ReleaseStatus rs = Constants.RELEASE_STATUS_LOOKUP.entrySet().stream()
-                                                          .filter(entry -> directDownloadLink.contains(entry.getKey()))
-                                                          .findFirst()
-                                                          .map(Entry::getValue)
-                                                          .orElse(ReleaseStatus.NONE);
+        ReleaseStatus rs = FilenameClassifier.INSTANCE.classify(directDownloadLink).getReleaseStatus(ReleaseStatus.NONE);
         if (ReleaseStatus.NONE == rs) {
             LOGGER.debug("Release Status not found in {} for downloadLink: {}", getName(), downloadLink);
             return null;
@@ -948,7 +872,7 @@ public class OracleOpenJDK implements Distribution {
 
         pkg.setFreeUseInProduction(Boolean.TRUE);
 
-        pkg.setSize(Helper.getFileSize(downloadLink));
+        pkg.setSize(FileSizeResolver.INSTANCE.getSize(downloadLink));
 
         if (WINDOWS == pkg.getOperatingSystem() && (pkg.getFilename().contains("linux") || pkg.getFilename().contains("macos"))) {
             return null;
@@ -973,23 +897,23 @@ public class OracleOpenJDK implements Distribution {
             TermOfSupport   termOfSupport   = Helper.getTermOfSupport(versionNumber);
             ReleaseStatus   releaseStatus   = (href.contains("/GA/") || href.contains("/ga/")) ? ReleaseStatus.GA : ReleaseStatus.EA;
             if (isReleaseCandidate) { releaseStatus = EA; }
-            String          downloadLink    = href.replaceAll("\"", "").replace("href=", "");
+            String          downloadLink    = href.replace("\"", "").replace("href=", "");
             String          checksumUri     = Helper.isUriValid(downloadLink + ".sha256") ? downloadLink + ".sha256" : "";
 
             if (onlyNewPkgs) {
-                if (CacheManager.INSTANCE.pkgCache.getPkgs().stream().filter(p -> p.getFilename().equals(filename)).filter(p -> p.getDirectDownloadUri().equals(downloadLink)).count() > 0) { continue; }
+                if (CacheManager.INSTANCE.pkgCache.containsArtifact(filename, downloadLink)) { continue; }
             }
 
-            BUILD_NUMBER_MATCHER.reset(downloadLink);
-            while(BUILD_NUMBER_MATCHER.find()) {
-                if (BUILD_NUMBER_MATCHER.groupCount() > 0) {
+            final Matcher matcher = BUILD_NUMBER_PATTERN.matcher(downloadLink);
+            while(matcher.find()) {
+                if (matcher.groupCount() > 0) {
                     try {
-                        Integer buildNo = Integer.valueOf(BUILD_NUMBER_MATCHER.group(1));
+                        Integer buildNo = Integer.valueOf(matcher.group(1));
                         if (versionNumber.getBuild().isEmpty()) {
                         versionNumber.setBuild(buildNo);
                             }
                     } catch (NumberFormatException e) {
-                        LOGGER.debug("Error parsing Oracle OpenJDK build number: {}", BUILD_NUMBER_MATCHER.group(1));
+                        LOGGER.debug("Error parsing Oracle OpenJDK build number: {}", matcher.group(1));
                     }
                 }
             }
@@ -1021,7 +945,7 @@ public class OracleOpenJDK implements Distribution {
             }
 
             pkg.setFreeUseInProduction(Boolean.TRUE);
-            pkg.setSize(Helper.getFileSize(downloadLink));
+            pkg.setSize(FileSizeResolver.INSTANCE.getSize(downloadLink));
 
             if (WINDOWS == pkg.getOperatingSystem()) {
                 if (pkg.getFilename().contains("linux")) { continue; }
@@ -36,18 +36,16 @@ import io.foojay.api.pkg.Distro;
 import io.foojay.api.pkg.MajorVersion;
 import io.foojay.api.pkg.Pkg;
 import io.foojay.api.util.Constants;
+import io.foojay.api.util.FilenameClassifier;
 import io.foojay.api.util.Helper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.net.http.HttpResponse;
 import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
-import java.util.TreeSet;
-import java.util.stream.Collectors;
+import java.util.regex.Pattern;
 
 import static eu.hansolo.jdktools.PackageType.JDK;
 import static eu.hansolo.jdktools.PackageType.JRE;
@@ -60,6 +58,7 @@ public class RedHat implements Distribution {
 
     public  static final String                       PACKAGE_ALL_URL        = "https://developers.redhat.com/products/openjdk/download";
     private static final String                       DOWNLOAD_PREFIX        = "https://developers.redhat.com/download-manager/file/";
+    private static final Pattern                      PREFIX_PATTERN         = Pattern.compile("((java)-.*openjdk-)|(openjfx-)");
     private static final String                       PACKAGE_URL            = "";
 
     // URL parameters
@@ -123,11 +122,7 @@ public class RedHat implements Distribution {
     }
 
     @Override public List<Semver> getVersions() {
-        return CacheManager.INSTANCE.pkgCache.getPkgs()
-                                             .stream()
-                                             .filter(pkg -> Distro.RED_HAT.get().equals(pkg.getDistribution()))
-                                             .map(pkg -> pkg.getSemver())
-                                             .collect(Collectors.toCollection(() -> new TreeSet<>(Comparator.comparing(Semver::toString)))).stream().sorted(Comparator.comparing(Semver::getVersionNumber).reversed()).collect(Collectors.toList());
+        return CacheManager.INSTANCE.distroCatalog.get().getStats(Distro.RED_HAT).getVersions();
     }
 
 
@@ -161,6 +156,8 @@ public class RedHat implements Distribution {
         return pkgs;
     }
 
+    @Override public List<Pkg> getAllPkgs(final boolean onlyNewPkgs) { return getAllPkgs(); }
+
     public List<Pkg> getAllPkgs() {
         List<Pkg> pkgs = new ArrayList<>();
         try {
@@ -185,7 +182,7 @@ public class RedHat implements Distribution {
 
         List<String> fileHrefs = new ArrayList<>(Helper.getFileHrefsFromString(html));
         for (String fileHref : fileHrefs) {
-            String filename = Helper.getFileNameFromText(fileHref.replaceAll("\"", ""));
+            String filename = Helper.getFileNameFromText(fileHref.replace("\"", ""));
             if (null == filename || filename.isEmpty() || filename.startsWith("openjfx") || filename.endsWith("sources.zip") || filename.endsWith("src.zip")) { continue; }
 
             Pkg pkg = new Pkg();
@@ -194,7 +191,7 @@ public class RedHat implements Distribution {
             String withoutPrefix = filename.replace(DOWNLOAD_PREFIX, "");
 
             pkg.setJavaFXBundled(withoutPrefix.startsWith("openjfx"));
-            withoutPrefix = withoutPrefix.replaceAll("((java)-.*openjdk-)|(openjfx-)", "");
+            withoutPrefix = Helper.removeMatches(PREFIX_PATTERN, withoutPrefix);
 
             if (withoutPrefix.startsWith("jre-")) {
                 pkg.setPackageType(JRE);
@@ -205,11 +202,7 @@ public class RedHat implements Distribution {
                 pkg.setPackageType(JDK);
             }
 
-            Architecture architecture = Constants.ARCHITECTURE_LOOKUP.entrySet().stream()
-                                                                     .filter(entry -> filename.contains(entry.getKey()))
-                                                                     .findFirst()
-                                                                     .map(Entry::getValue)
-                                                                     .orElse(Architecture.NONE);
+            Architecture architecture = FilenameClassifier.INSTANCE.classify(filename).getArchitecture(Architecture.NONE);
             if (Architecture.NONE == architecture) {
                 LOGGER.debug("Architecture not found in Redhat for filename: {}", filename);
                 continue;
@@ -217,22 +210,14 @@ public class RedHat implements Distribution {
             pkg.setArchitecture(architecture);
             pkg.setBitness(architecture.getBitness());
 
-            OperatingSystem operatingSystem = Constants.OPERATING_SYSTEM_LOOKUP.entrySet().stream()
-                                                                               .filter(entry -> filename.contains(entry.getKey()))
-                                                                               .findFirst()
-                                                                               .map(Entry::getValue)
-                                                                               .orElse(OperatingSystem.NONE);
+            OperatingSystem operatingSystem = FilenameClassifier.INSTANCE.classify(filename).getOperatingSystem(OperatingSystem.NONE);
             if (OperatingSystem.NONE == operatingSystem) {
                 LOGGER.debug("Operating System not found in Redhat for filename: {}", filename);
                 continue;
             }
             pkg.setOperatingSystem(operatingSystem);
 
-            ArchiveType archiveType = Constants.ARCHIVE_TYPE_LOOKUP.entrySet().stream()
-                                                                   .filter(entry -> filename.contains(entry.getKey()))
-                                                                   .findFirst()
-                                                                   .map(Entry::getValue)
-                                                                   .orElse(ArchiveType.NONE);
+            ArchiveType archiveType = FilenameClassifier.INSTANCE.classify(filename).getArchiveTypeContained(ArchiveType.NONE);
             if (ArchiveType.NONE == archiveType) {
                 LOGGER.debug("Archive Type not found in Redhat for filename: {}", filename);
                 continue;
@@ -19,10 +19,10 @@
 
 package io.foojay.api.distribution;
 
-import com.google.gson.Gson;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
 import eu.hansolo.jdktools.Architecture;
 import eu.hansolo.jdktools.ArchiveType;
 import eu.hansolo.jdktools.Bitness;
@@ -40,11 +40,16 @@ import io.foojay.api.pkg.Distro;
 import io.foojay.api.pkg.MajorVersion;
 import io.foojay.api.pkg.Pkg;
 import io.foojay.api.util.Constants;
+import io.foojay.api.util.FileSizeResolver;
+import io.foojay.api.util.FilenameClassifier;
 import io.foojay.api.util.Helper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpClient.Redirect;
@@ -53,16 +58,11 @@ import java.net.http.HttpResponse;
 import java.net.http.HttpResponse.BodyHandlers;
 import java.time.Duration;
 import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.List;
-import java.util.Map.Entry;
 import java.util.Optional;
 import java.util.OptionalInt;
-import java.util.TreeSet;
 import java.util.concurrent.CompletionException;
-import java.util.regex.Matcher;
 import java.util.regex.Pattern;
-import java.util.stream.Collectors;
 
 import static eu.hansolo.jdktools.Architecture.AARCH64;
 import static eu.hansolo.jdktools.Architecture.PPC64;
@@ -77,6 +77,7 @@ import static eu.hansolo.jdktools.PackageType.JDK;
 import static eu.hansolo.jdktools.PackageType.JRE;
 import static eu.hansolo.jdktools.ReleaseStatus.EA;
 import static eu.hansolo.jdktools.ReleaseStatus.GA;
+import static java.nio.charset.StandardCharsets.UTF_8;
 
 
 public class SAPMachine implements Distribution {
@@ -84,7 +85,6 @@ public class SAPMachine implements Distribution {
 
     public  static final Pattern                      SAP_MACHINE_EA_PATTERN  = Pattern.compile("(-ea\\.|-eabeta\\.)([0-9]*)");
     private static final Pattern                      FILENAME_PREFIX_PATTERN = Pattern.compile("sapmachine-");
-    private static final Matcher                      FILENAME_PREFIX_MATCHER = FILENAME_PREFIX_PATTERN.matcher("");
     private static final String                       GITHUB_USER             = "SAP";
     private static final String                       GITHUB_REPOSITORY       = "SapMachine";
     private static final String                       PACKAGE_URL             = "https://api.github.com/repos/" + GITHUB_USER + "/" + GITHUB_REPOSITORY + "/releases";
@@ -147,11 +147,7 @@ public class SAPMachine implements Distribution {
     }
 
     @Override public List<Semver> getVersions() {
-        return CacheManager.INSTANCE.pkgCache.getPkgs()
-                                             .stream()
-                                             .filter(pkg -> Distro.SAP_MACHINE.get().equals(pkg.getDistribution()))
-                                             .map(pkg -> pkg.getSemver())
-                                             .collect(Collectors.toCollection(() -> new TreeSet<>(Comparator.comparing(Semver::toString)))).stream().sorted(Comparator.comparing(Semver::getVersionNumber).reversed()).collect(Collectors.toList());
+        return CacheManager.INSTANCE.distroCatalog.get().getStats(Distro.SAP_MACHINE).getVersions();
     }
 
 
@@ -189,7 +185,7 @@ public class SAPMachine implements Distribution {
 
             if (null == filename || filename.isEmpty() || filename.endsWith(Constants.FILE_ENDING_TXT) || filename.endsWith(Constants.FILE_ENDING_SYMBOLS_TAR_GZ) || filename.contains("beta") || filename.contains("internal")) { continue; }
 
-            String withoutPrefix = FILENAME_PREFIX_MATCHER.reset(filename).replaceAll("");
+            String withoutPrefix = Helper.removeMatches(FILENAME_PREFIX_PATTERN, filename);
 
             VersionNumber vNumber = VersionNumber.fromText(withoutPrefix);
             if (latest) {
@@ -201,16 +197,12 @@ public class SAPMachine implements Distribution {
             String downloadLink = assetJsonObj.get("browser_download_url").getAsString();
 
             if (onlyNewPkgs) {
-                if (CacheManager.INSTANCE.pkgCache.getPkgs().stream().filter(p -> p.getFilename().equals(filename)).filter(p -> p.getDirectDownloadUri().equals(downloadLink)).count() > 0) { continue; }
+                if (CacheManager.INSTANCE.pkgCache.containsArtifact(filename, downloadLink)) { continue; }
             }
 
             Pkg pkg = new Pkg();
 
-            ArchiveType ext = Constants.ARCHIVE_TYPE_LOOKUP.entrySet().stream()
-                                                                      .filter(entry -> filename.endsWith(entry.getKey()))
-                                                                      .findFirst()
-                                                                      .map(Entry::getValue)
-                                                                      .orElse(ArchiveType.NONE);
+            ArchiveType ext = FilenameClassifier.INSTANCE.classify(filename).getArchiveType(ArchiveType.NONE);
             if (ArchiveType.NONE == ext) {
                 LOGGER.debug("Archive Type not found in SAP Machine for filename: {}", filename);
                 return pkgs;
@@ -260,11 +252,7 @@ public class SAPMachine implements Distribution {
                 pkg.setReleaseStatus(EA);
             }
 
-            Architecture arch = Constants.ARCHITECTURE_LOOKUP.entrySet().stream()
-                                                             .filter(entry -> withoutPrefix.contains(entry.getKey()))
-                                                             .findFirst()
-                                                             .map(Entry::getValue)
-                                                             .orElse(Architecture.NONE);
+            Architecture arch = FilenameClassifier.INSTANCE.classify(withoutPrefix).getArchitecture(Architecture.NONE);
 
             if (Architecture.NONE == arch) {
                 LOGGER.debug("Architecture not found in SAP Machine for filename: {}", filename);
@@ -274,11 +262,7 @@ public class SAPMachine implements Distribution {
             pkg.setArchitecture(arch);
             pkg.setBitness(arch.getBitness());
 
-            OperatingSystem os = Constants.OPERATING_SYSTEM_LOOKUP.entrySet().stream()
-                                                                  .filter(entry -> withoutPrefix.contains(entry.getKey()))
-                                                                  .findFirst()
-                                                                  .map(Entry::getValue)
-                                                                  .orElse(OperatingSystem.NONE);
+            OperatingSystem os = FilenameClassifier.INSTANCE.classify(withoutPrefix).getOperatingSystem(OperatingSystem.NONE);
             if (OperatingSystem.NONE == os) {
                 switch (pkg.getArchiveType()) {
                     case DEB, RPM, TAR_GZ -> os = OperatingSystem.LINUX;
@@ -293,7 +277,7 @@ public class SAPMachine implements Distribution {
             }
             pkg.setOperatingSystem(os);
             pkg.setFreeUseInProduction(Boolean.TRUE);
-            pkg.setSize(Helper.getFileSize(downloadLink));
+            pkg.setSize(FileSizeResolver.INSTANCE.getSize(downloadLink));
 
             if (ReleaseStatus.GA == pkg.getReleaseStatus() && Helper.isLTS(pkg.getMajorVersion())) {
                 pkg.setTckTested(Verification.YES);
@@ -343,15 +327,10 @@ public class SAPMachine implements Distribution {
                 final String        downloadLink  = assetJsonObj.get("browser_download_url").getAsString();
 
                 if (onlyNewPkgs) {
-                    if (CacheManager.INSTANCE.pkgCache.getPkgs().stream().filter(p -> p.getFilename().equals(filename)).filter(p -> p.getDirectDownloadUri().equals(downloadLink)).count() > 0) { continue; }
+                    if (CacheManager.INSTANCE.pkgCache.containsArtifact(filename, downloadLink)) { continue; }
                 }
 
-                OperatingSystem operatingSystem = Constants.OPERATING_SYSTEM_LOOKUP.entrySet()
-                                                                                   .stream()
-                                                                                   .filter(entry -> withoutPrefix.contains(entry.getKey()))
-                                                               .findFirst()
-                                                               .map(Entry::getValue)
-                                                                                   .orElse(OperatingSystem.NOT_FOUND);
+                OperatingSystem operatingSystem = FilenameClassifier.INSTANCE.classify(withoutPrefix).getOperatingSystem(OperatingSystem.NOT_FOUND);
                 
                 if (OperatingSystem.NOT_FOUND == operatingSystem) {
                     if (filename.endsWith(ArchiveType.RPM.getApiString()) || filename.endsWith(ArchiveType.DEB.getApiString())) {
@@ -370,22 +349,13 @@ public class SAPMachine implements Distribution {
                 }
                 }
 
-                final Architecture architecture = Constants.ARCHITECTURE_LOOKUP.entrySet()
-                                                                               .stream()
-                                                                 .filter(entry -> withoutPrefix.contains(entry.getKey()))
-                                                                 .findFirst()
-                                                                 .map(Entry::getValue)
-                                                                               .orElse(Architecture.NOT_FOUND);
+                final Architecture architecture = FilenameClassifier.INSTANCE.classify(withoutPrefix).getArchitecture(Architecture.NOT_FOUND);
                 if (Architecture.NOT_FOUND == architecture) {
                     LOGGER.debug("Architecture not found in SAP Machine for filename: {}", filename);
                     continue;
                 }
 
-                ArchiveType ext = Constants.ARCHIVE_TYPE_LOOKUP.entrySet().stream()
-                                                               .filter(entry -> filename.endsWith(entry.getKey()))
-                                                                      .findFirst()
-                                                                      .map(Entry::getValue)
-                                                               .orElse(ArchiveType.NOT_FOUND);
+                ArchiveType ext = FilenameClassifier.INSTANCE.classify(filename).getArchiveType(ArchiveType.NOT_FOUND);
                 if (ArchiveType.NOT_FOUND == ext) {
                     LOGGER.debug("Archive Type not found in SAP Machine for filename: {}", filename);
                     continue;
@@ -425,7 +395,7 @@ public class SAPMachine implements Distribution {
                 pkg.setPackageType(packageType);
                 pkg.setOperatingSystem(operatingSystem);
                 pkg.setFreeUseInProduction(Boolean.TRUE);
-                pkg.setSize(Helper.getFileSize(downloadLink));
+                pkg.setSize(FileSizeResolver.INSTANCE.getSize(downloadLink));
 
                 if (ReleaseStatus.GA == pkg.getReleaseStatus() && Helper.isLTS(pkg.getMajorVersion())) {
                     pkg.setTckTested(Verification.YES);
@@ -452,9 +422,9 @@ public class SAPMachine implements Distribution {
                 String nameToMatch;
                 String fn = filename;
                 if (fn.endsWith(Constants.FILE_ENDING_SHA256_DMG_TXT)) {
-                    nameToMatch = fn.replaceAll("." + Constants.FILE_ENDING_SHA256_DMG_TXT, "");
+                    nameToMatch = Helper.removeMatches(Constants.SHA256_DMG_TXT_FILE_ENDING_PATTERN, fn);
                 } else if (fn.endsWith(Constants.FILE_ENDING_SHA256_TXT)) {
-                    nameToMatch = fn.replaceAll("." + Constants.FILE_ENDING_SHA256_TXT, "");
+                    nameToMatch = Helper.removeMatches(Constants.SHA256_TXT_FILE_ENDING_PATTERN, fn);
                 } else {
                     continue;
                 }
@@ -493,11 +463,13 @@ public class SAPMachine implements Distribution {
                                            .GET()
                                            .build();
         try {
-            HttpResponse<String> response = clientSAP.send(request, BodyHandlers.ofString());
+            HttpResponse<InputStream> response = clientSAP.send(request, BodyHandlers.ofInputStream());
             if (response.statusCode() == 200) {
-                String      bodyText = response.body();
-                Gson        gson     = new Gson();
-                JsonElement element  = gson.fromJson(bodyText, JsonElement.class);
+                // Parse directly from the stream instead of buffering the whole body in a String first
+                final JsonElement element;
+                try (Reader reader = new InputStreamReader(response.body(), UTF_8)) {
+                    element = JsonParser.parseReader(reader);
+                }
                 if (element instanceof JsonObject) {
                     JsonObject jsonObject = element.getAsJsonObject();
 
@@ -545,7 +517,7 @@ public class SAPMachine implements Distribution {
                                         final String filename     = Helper.getFileNameFromText(downloadLink);
                                         if (null == filename || filename.isEmpty() || filename.endsWith(Constants.FILE_ENDING_TXT) || filename.endsWith(Constants.FILE_ENDING_SYMBOLS_TAR_GZ) || filename.contains("beta") || filename.contains("internal")) { continue; }
                                         if (onlyNewPkgs) {
-                                            if (CacheManager.INSTANCE.pkgCache.getPkgs().stream().filter(p -> p.getFilename().equals(filename)).filter(p -> p.getDirectDownloadUri().equals(downloadLink)).count() > 0) { continue; }
+                                            if (CacheManager.INSTANCE.pkgCache.containsArtifact(filename, downloadLink)) { continue; }
                                         }
                                         Pkg          pkg          = new Pkg();
                                         pkg.setDistribution(Distro.SAP_MACHINE.get());
@@ -610,7 +582,7 @@ public class SAPMachine implements Distribution {
                                             pkg.setTckCertUri("https://github.com/SAP/SapMachine/wiki/Frequently-Asked-Questions#Are-SapMachine-builds-verified-by-the-Java-Compatibility-Kit-JCK");
                                         }
 
-                                        pkg.setSize(Helper.getFileSize(downloadLink));
+                                        pkg.setSize(FileSizeResolver.INSTANCE.getSize(downloadLink));
                                         if (pkg.getVersionNumber().getInterim().isPresent() && pkg.getVersionNumber().getInterim().getAsInt() != 0) { continue; }
                                         pkgs.add(pkg);
                                     }
@@ -621,7 +593,8 @@ public class SAPMachine implements Distribution {
                 }
             } else {
                 // Problem with url request
-                LOGGER.debug("Response ({}) {} ", response.statusCode(), response.body());
+                LOGGER.debug("Response ({}) from {} ", response.statusCode(), PACKAGE_JSON_URL);
+                response.body().close();
             }
         } catch (CompletionException | InterruptedException | IOException e) {
             LOGGER.error("Error fetching packages for distribution {} from {}", getName(), PACKAGE_JSON_URL);
@@ -679,12 +652,7 @@ public class SAPMachine implements Distribution {
 
             ArchiveType archiveType = ArchiveType.getFromFileName(filename);
 
-            OperatingSystem operatingSystem = Constants.OPERATING_SYSTEM_LOOKUP.entrySet()
-                                                                               .stream()
-                                                                               .filter(entry -> withoutPrefix.contains(entry.getKey()))
-                                                                               .findFirst()
-                                                                               .map(Entry::getValue)
-                                                                               .orElse(OperatingSystem.NOT_FOUND);
+            OperatingSystem operatingSystem = FilenameClassifier.INSTANCE.classify(withoutPrefix).getOperatingSystem(OperatingSystem.NOT_FOUND);
             if (OperatingSystem.NOT_FOUND == operatingSystem) {
                 switch (archiveType) {
                     case DEB, RPM      -> operatingSystem = OperatingSystem.LINUX;
@@ -706,12 +674,7 @@ public class SAPMachine implements Distribution {
                 }
             }
 
-            final Architecture architecture = Constants.ARCHITECTURE_LOOKUP.entrySet()
-                                                                           .stream()
-                                                                           .filter(entry -> withoutPrefix.contains(entry.getKey()))
-                                                                           .findFirst()
-                                                                           .map(Entry::getValue)
-                                                                           .orElse(Architecture.NOT_FOUND);
+            final Architecture architecture = FilenameClassifier.INSTANCE.classify(withoutPrefix).getArchitecture(Architecture.NOT_FOUND);
             if (Architecture.NOT_FOUND == architecture) {
                 LOGGER.debug("Architecture not found in SAP Machine for filename: {}", filename);
                 continue;
@@ -719,7 +682,7 @@ public class SAPMachine implements Distribution {
 
             final String downloadLink = "https://github.com" + href;
             if (onlyNewPkgs) {
-                if (CacheManager.INSTANCE.pkgCache.getPkgs().stream().filter(p -> p.getFilename().equals(filename)).filter(p -> p.getDirectDownloadUri().equals(downloadLink)).count() > 0) { continue; }
+                if (CacheManager.INSTANCE.pkgCache.containsArtifact(filename, downloadLink)) { continue; }
             }
 
             Pkg pkg = new Pkg();
@@ -752,7 +715,7 @@ public class SAPMachine implements Distribution {
                 pkg.setTckCertUri("https://github.com/SAP/SapMachine/wiki/Frequently-Asked-Questions#Are-SapMachine-builds-verified-by-the-Java-Compatibility-Kit-JCK");
             }
 
-            pkg.setSize(Helper.getFileSize(pkg.getDirectDownloadUri()));
+            pkg.setSize(FileSizeResolver.INSTANCE.getSize(pkg.getDirectDownloadUri()));
             if (pkg.getVersionNumber().getInterim().isPresent() && pkg.getVersionNumber().getInterim().getAsInt() != 0) { continue; }
             pkgs.add(pkg);
         }
@@ -19,7 +19,6 @@
 
 package io.foojay.api.distribution;
 
-import com.google.gson.Gson;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
@@ -39,22 +38,19 @@ import io.foojay.api.pkg.Distro;
 import io.foojay.api.pkg.MajorVersion;
 import io.foojay.api.pkg.Pkg;
 import io.foojay.api.util.Constants;
-import io.foojay.api.util.GithubTokenPool;
+import io.foojay.api.util.FileSizeResolver;
+import io.foojay.api.util.FilenameClassifier;
+import io.foojay.api.util.GithubReleasesCrawler;
 import io.foojay.api.util.Helper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.net.http.HttpResponse;
 import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.List;
-import java.util.Map;
-import java.util.Map.Entry;
 import java.util.Optional;
 import java.util.OptionalInt;
-import java.util.TreeSet;
 import java.util.concurrent.CompletionException;
-import java.util.stream.Collectors;
+import java.util.regex.Pattern;
 
 import static eu.hansolo.jdktools.ReleaseStatus.EA;
 import static eu.hansolo.jdktools.ReleaseStatus.GA;
@@ -64,6 +60,8 @@ public class Semeru implements Distribution {
     private static final Logger        LOGGER                 = LoggerFactory.getLogger(Semeru.class);
 
     private static final String        PACKAGE_URL            = "https://api.github.com/repos/ibmruntimes/";
+    private static final Pattern       PREFIX_PATTERN         = Pattern.compile("ibm-semeru-open-");
+    private static final Pattern       LEADING_NUMBER_PATTERN = Pattern.compile("^[0-9]+-");
 
     // URL parameters
     private static final String        ARCHITECTURE_PARAM     = "architecture";
@@ -119,14 +117,7 @@ public class Semeru implements Distribution {
     }
 
     @Override public List<Semver> getVersions() {
-        return CacheManager.INSTANCE.pkgCache.getPkgs()
-                                             .stream()
-                                             .filter(pkg -> Distro.SEMERU.get().equals(pkg.getDistribution()))
-                                             .map(pkg -> pkg.getSemver())
-                                             .collect(Collectors.toCollection(() -> new TreeSet<>(Comparator.comparing(Semver::toString))))
-                                             .stream()
-                                             .sorted(Comparator.comparing(Semver::getVersionNumber).reversed())
-                                             .collect(Collectors.toList());
+        return CacheManager.INSTANCE.distroCatalog.get().getStats(Distro.SEMERU).getVersions();
     }
 
 
@@ -163,20 +154,7 @@ public class Semeru implements Distribution {
                 String packageUrl = PACKAGE_URL + "semeru" + i + "-binaries/releases";
                 // Get all packages from github
                 try {
-                    HttpResponse<String> response = Helper.get(packageUrl, Map.of("accept", "application/vnd.github.v3+json",
-                                                                                  "authorization", GithubTokenPool.INSTANCE.next()));
-                    if (response.statusCode() == 200) {
-                        String      bodyText = response.body();
-                        Gson        gson     = new Gson();
-                        JsonElement element  = gson.fromJson(bodyText, JsonElement.class);
-                        if (element instanceof JsonArray) {
-                            JsonArray jsonArray = element.getAsJsonArray();
-                            pkgs.addAll(getAllPkgsFromJson(jsonArray, onlyNewPkgs));
-                        }
-                    } else {
-                        // Problem with url request
-                        LOGGER.debug("Response ({}) {} ", response.statusCode(), response.body());
-                    }
+                    pkgs.addAll(GithubReleasesCrawler.INSTANCE.crawl(packageUrl, onlyNewPkgs, jsonArray -> getAllPkgsFromJson(jsonArray, onlyNewPkgs)));
                 } catch (CompletionException e) {
                     LOGGER.error("Error fetching packages for distribution {} from {}", getName(), packageUrl);
                 }
@@ -211,14 +189,10 @@ public class Semeru implements Distribution {
                 if (filename.contains("-debug-")) { continue; }
                 if (null == filename || !filename.startsWith("ibm-semeru-open")) { continue; }
 
-                final String withoutPrefix    = filename.replaceAll("ibm-semeru-open-", "");
-                final String withoutLeadingNo = withoutPrefix.replaceAll("^[0-9]+-", "");
+                final String withoutPrefix    = Helper.removeMatches(PREFIX_PATTERN, filename);
+                final String withoutLeadingNo = Helper.removeMatches(LEADING_NUMBER_PATTERN, withoutPrefix);
 
-                PackageType packageType = Constants.PACKAGE_TYPE_LOOKUP.entrySet().stream()
-                                                                       .filter(entry -> withoutLeadingNo.contains(entry.getKey()))
-                                                                       .findFirst()
-                                                                       .map(Entry::getValue)
-                                                                       .orElse(PackageType.NOT_FOUND);
+                PackageType packageType = FilenameClassifier.INSTANCE.classify(withoutLeadingNo).getPackageType(PackageType.NOT_FOUND);
                 if (PackageType.NOT_FOUND == packageType) {
                     LOGGER.debug("Package type not found in Semeru for filename: {}", filename);
                     continue;
@@ -241,25 +215,17 @@ public class Semeru implements Distribution {
                 String downloadLink = assetJsonObj.get("browser_download_url").getAsString();
 
                 if (onlyNewPkgs) {
-                    if (CacheManager.INSTANCE.pkgCache.getPkgs().stream().filter(p -> p.getFilename().equals(filename)).filter(p -> p.getDirectDownloadUri().equals(downloadLink)).count() > 0) { continue; }
+                    if (CacheManager.INSTANCE.pkgCache.containsArtifact(filename, downloadLink)) { continue; }
                 }
 
-                OperatingSystem operatingSystem = Constants.OPERATING_SYSTEM_LOOKUP.entrySet().stream()
-                                                                                   .filter(entry -> withoutSuffix.contains(entry.getKey()))
-                                                                                   .findFirst()
-                                                                                   .map(Entry::getValue)
-                                                                                   .orElse(OperatingSystem.NOT_FOUND);
+                OperatingSystem operatingSystem = FilenameClassifier.INSTANCE.classify(withoutSuffix).getOperatingSystem(OperatingSystem.NOT_FOUND);
                 if (OperatingSystem.NOT_FOUND == operatingSystem) {
                     LOGGER.debug("Operating System not found in Semeru for filename: {}", filename);
                     continue;
                 }
 
 
-                final Architecture architecture = Constants.ARCHITECTURE_LOOKUP.entrySet().stream()
-                                                                               .filter(entry -> withoutSuffix.contains(entry.getKey()))
-                                                                               .findFirst()
-                                                                               .map(Entry::getValue)
-                                                                               .orElse(Architecture.NOT_FOUND);
+                final Architecture architecture = FilenameClassifier.INSTANCE.classify(withoutSuffix).getArchitecture(Architecture.NOT_FOUND);
                 if (Architecture.NOT_FOUND == architecture) {
                     LOGGER.debug("Architecture not found in Semeru for filename: {}", filename);
                     continue;
@@ -294,7 +260,7 @@ public class Semeru implements Distribution {
                 pkg.setPackageType(packageType);
                 pkg.setOperatingSystem(operatingSystem);
                 pkg.setFreeUseInProduction(Boolean.TRUE);
-                pkg.setSize(Helper.getFileSize(downloadLink));
+                pkg.setSize(FileSizeResolver.INSTANCE.getSize(downloadLink));
                 pkgs.add(pkg);
             }
         }
@@ -310,9 +276,9 @@ public class Semeru implements Distribution {
                 if (null == filename || filename.isEmpty() || (!filename.endsWith(Constants.FILE_ENDING_SHA256_TXT) && !filename.endsWith(Constants.FILE_ENDING_SHA256_DMG_TXT))) { continue; }
                 String nameToMatch;
                 if (filename.endsWith(Constants.FILE_ENDING_SHA256_DMG_TXT)) {
-                    nameToMatch = filename.replaceAll("." + Constants.FILE_ENDING_SHA256_DMG_TXT, "");
+                    nameToMatch = Helper.removeMatches(Constants.SHA256_DMG_TXT_FILE_ENDING_PATTERN, filename);
                 } else if (filename.endsWith(Constants.FILE_ENDING_SHA256_TXT)) {
-                    nameToMatch = filename.replaceAll("." + Constants.FILE_ENDING_SHA256_TXT, "");
+                    nameToMatch = Helper.removeMatches(Constants.SHA256_TXT_FILE_ENDING_PATTERN, filename);
                 } else {
                     continue;
                 }
@@ -19,7 +19,6 @@
 
 package io.foojay.api.distribution;
 
-import com.google.gson.Gson;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
@@ -40,22 +39,19 @@ import io.foojay.api.pkg.Distro;
 import io.foojay.api.pkg.MajorVersion;
 import io.foojay.api.pkg.Pkg;
 import io.foojay.api.util.Constants;
-import io.foojay.api.util.GithubTokenPool;
+import io.foojay.api.util.FileSizeResolver;
+import io.foojay.api.util.FilenameClassifier;
+import io.foojay.api.util.GithubReleasesCrawler;
 import io.foojay.api.util.Helper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.net.http.HttpResponse;
 import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.List;
-import java.util.Map;
-import java.util.Map.Entry;
 import java.util.Optional;
 import java.util.OptionalInt;
-import java.util.TreeSet;
 import java.util.concurrent.CompletionException;
-import java.util.stream.Collectors;
+import java.util.regex.Pattern;
 
 import static eu.hansolo.jdktools.ReleaseStatus.EA;
 import static eu.hansolo.jdktools.ReleaseStatus.GA;
@@ -66,6 +62,8 @@ public class SemeruCertified implements Distribution {
 
     //private static final String        PACKAGE_URL            = "https://developer.ibm.com/languages/java/semeru-runtimes/downloads/";
     private static final String        PACKAGE_URL            = "https://api.github.com/repos/ibmruntimes/";
+    private static final Pattern       PREFIX_PATTERN         = Pattern.compile("ibm-semeru-certified-");
+    private static final Pattern       LEADING_NUMBER_PATTERN = Pattern.compile("^[0-9]+-");
 
     // URL parameters
     private static final String        ARCHITECTURE_PARAM     = "architecture";
@@ -121,14 +119,7 @@ public class SemeruCertified implements Distribution {
     }
 
     @Override public List<Semver> getVersions() {
-        return CacheManager.INSTANCE.pkgCache.getPkgs()
-                                             .stream()
-                                             .filter(pkg -> Distro.SEMERU_CERTIFIED.get().equals(pkg.getDistribution()))
-                                             .map(pkg -> pkg.getSemver())
-                                             .collect(Collectors.toCollection(() -> new TreeSet<>(Comparator.comparing(Semver::toString))))
-                                             .stream()
-                                             .sorted(Comparator.comparing(Semver::getVersionNumber).reversed())
-                                             .collect(Collectors.toList());
+        return CacheManager.INSTANCE.distroCatalog.get().getStats(Distro.SEMERU_CERTIFIED).getVersions();
     }
 
 
@@ -163,24 +154,20 @@ public class SemeruCertified implements Distribution {
         List<String> downloadLinks = new ArrayList<>(Helper.getDownloadLinkFromString(html));
         List<String> signatureUris = new ArrayList<>(Helper.getSigFromString(html));
         for (String downloadLink : downloadLinks) {
-            String filename = Helper.getFileNameFromText(downloadLink.replaceAll("'", ""));
+            String filename = Helper.getFileNameFromText(downloadLink.replace("'", ""));
 
             if (null == filename || filename.isEmpty() || filename.endsWith("txt") || filename.contains("debugimage") || filename.contains("testimage") || filename.endsWith("json") || filename.endsWith("bin") || filename.endsWith("sig")) { continue; }
                 if (filename.contains("-debug-")) { continue; }
             if (null == filename || !filename.startsWith("ibm-semeru-certified")) { continue; }
 
             if (onlyNewPkgs) {
-                if (CacheManager.INSTANCE.pkgCache.getPkgs().stream().filter(p -> p.getFilename().equals(filename)).filter(p -> p.getDirectDownloadUri().equals(downloadLink)).count() > 0) { continue; }
+                if (CacheManager.INSTANCE.pkgCache.containsArtifact(filename, downloadLink)) { continue; }
             }
 
-            final String withoutPrefix    = filename.replaceAll("ibm-semeru-certified-", "");
-                final String withoutLeadingNo = withoutPrefix.replaceAll("^[0-9]+-", "");
+            final String withoutPrefix    = Helper.removeMatches(PREFIX_PATTERN, filename);
+                final String withoutLeadingNo = Helper.removeMatches(LEADING_NUMBER_PATTERN, withoutPrefix);
 
-                PackageType packageType = Constants.PACKAGE_TYPE_LOOKUP.entrySet().stream()
-                                                                       .filter(entry -> withoutLeadingNo.contains(entry.getKey()))
-                                                                       .findFirst()
-                                                                       .map(Entry::getValue)
-                                                                       .orElse(PackageType.NOT_FOUND);
+                PackageType packageType = FilenameClassifier.INSTANCE.classify(withoutLeadingNo).getPackageType(PackageType.NOT_FOUND);
                 if (PackageType.NOT_FOUND == packageType) {
                     LOGGER.debug("Package type not found in Semeru Certified for filename: {}", filename);
                     continue;
@@ -195,22 +182,14 @@ public class SemeruCertified implements Distribution {
                 final VersionNumber versionNumber = VersionNumber.fromText(filenameParts[2] + (filenameParts.length == 6 ? ("+b" + filenameParts[3]) : ""));
                 final MajorVersion  majorVersion  = new MajorVersion(versionNumber.getFeature().isPresent() ? versionNumber.getFeature().getAsInt() : 0);
 
-                OperatingSystem operatingSystem = Constants.OPERATING_SYSTEM_LOOKUP.entrySet().stream()
-                                                                                   .filter(entry -> withoutSuffix.contains(entry.getKey()))
-                                                                                   .findFirst()
-                                                                                   .map(Entry::getValue)
-                                                                                   .orElse(OperatingSystem.NOT_FOUND);
+                OperatingSystem operatingSystem = FilenameClassifier.INSTANCE.classify(withoutSuffix).getOperatingSystem(OperatingSystem.NOT_FOUND);
                 if (OperatingSystem.NOT_FOUND == operatingSystem) {
                     LOGGER.debug("Operating System not found in Semeru for filename: {}", filename);
                     continue;
                 }
 
 
-                final Architecture architecture = Constants.ARCHITECTURE_LOOKUP.entrySet().stream()
-                                                                               .filter(entry -> withoutSuffix.contains(entry.getKey()))
-                                                                               .findFirst()
-                                                                               .map(Entry::getValue)
-                                                                               .orElse(Architecture.NOT_FOUND);
+                final Architecture architecture = FilenameClassifier.INSTANCE.classify(withoutSuffix).getArchitecture(Architecture.NOT_FOUND);
                 if (Architecture.NOT_FOUND == architecture) {
                     LOGGER.debug("Architecture not found in Semeru Certified for filename: {}", filename);
                     continue;
@@ -253,7 +232,7 @@ public class SemeruCertified implements Distribution {
                 pkg.setOperatingSystem(operatingSystem);
             pkg.setFreeUseInProduction(Boolean.FALSE);
             if (signatureUris.contains(downloadLink + ".sig")) { pkg.setSignatureUri(downloadLink + ".sig"); }
-                pkg.setSize(Helper.getFileSize(downloadLink));
+                pkg.setSize(FileSizeResolver.INSTANCE.getSize(downloadLink));
                 pkgs.add(pkg);
             }
 
@@ -274,20 +253,7 @@ public class SemeruCertified implements Distribution {
                 String packageUrl = PACKAGE_URL + "semeru" + i + "-certified-binaries/releases";
                 // Get all packages from github
                 try {
-                    HttpResponse<String> response = Helper.get(packageUrl, Map.of("accept", "application/vnd.github.v3+json",
-                                                                                  "authorization", GithubTokenPool.INSTANCE.next()));
-                    if (response.statusCode() == 200) {
-                        String      bodyText = response.body();
-                        Gson        gson     = new Gson();
-                        JsonElement element  = gson.fromJson(bodyText, JsonElement.class);
-                        if (element instanceof JsonArray) {
-                            JsonArray jsonArray = element.getAsJsonArray();
-                            pkgs.addAll(getAllPkgsFromJson(jsonArray, onlyNewPkgs));
-                        }
-                } else {
-                        // Problem with url request
-                        LOGGER.debug("Response ({}) {} ", response.statusCode(), response.body());
-                }
+                    pkgs.addAll(GithubReleasesCrawler.INSTANCE.crawl(packageUrl, onlyNewPkgs, jsonArray -> getAllPkgsFromJson(jsonArray, onlyNewPkgs)));
                 } catch (CompletionException e) {
                     LOGGER.error("Error fetching packages for distribution {} from {}", getName(), packageUrl);
                 }
@@ -322,14 +288,10 @@ public class SemeruCertified implements Distribution {
             if (filename.contains("-debug-")) { continue; }
             if (null == filename || !filename.startsWith("ibm-semeru-certified")) { continue; }
 
-            final String withoutPrefix    = filename.replaceAll("ibm-semeru-certified-", "");
-            final String withoutLeadingNo = withoutPrefix.replaceAll("^[0-9]+-", "");
+            final String withoutPrefix    = Helper.removeMatches(PREFIX_PATTERN, filename);
+            final String withoutLeadingNo = Helper.removeMatches(LEADING_NUMBER_PATTERN, withoutPrefix);
 
-            PackageType packageType = Constants.PACKAGE_TYPE_LOOKUP.entrySet().stream()
-                                                                   .filter(entry -> withoutLeadingNo.contains(entry.getKey()))
-                                                                   .findFirst()
-                                                                   .map(Entry::getValue)
-                                                                   .orElse(PackageType.NOT_FOUND);
+            PackageType packageType = FilenameClassifier.INSTANCE.classify(withoutLeadingNo).getPackageType(PackageType.NOT_FOUND);
             if (PackageType.NOT_FOUND == packageType) {
                 LOGGER.debug("Package type not found in Semeru Certified for filename: {}", filename);
                 continue;
@@ -352,25 +314,17 @@ public class SemeruCertified implements Distribution {
                 String downloadLink = assetJsonObj.get("browser_download_url").getAsString();
 
                 if (onlyNewPkgs) {
-                    if (CacheManager.INSTANCE.pkgCache.getPkgs().stream().filter(p -> p.getFilename().equals(filename)).filter(p -> p.getDirectDownloadUri().equals(downloadLink)).count() > 0) { continue; }
+                    if (CacheManager.INSTANCE.pkgCache.containsArtifact(filename, downloadLink)) { continue; }
                 }
 
-            OperatingSystem operatingSystem = Constants.OPERATING_SYSTEM_LOOKUP.entrySet().stream()
-                                                                               .filter(entry -> withoutSuffix.contains(entry.getKey()))
-                                                                               .findFirst()
-                                                                               .map(Entry::getValue)
-                                                                               .orElse(OperatingSystem.NOT_FOUND);
+            OperatingSystem operatingSystem = FilenameClassifier.INSTANCE.classify(withoutSuffix).getOperatingSystem(OperatingSystem.NOT_FOUND);
             if (OperatingSystem.NOT_FOUND == operatingSystem) {
                     LOGGER.debug("Operating System not found in Semeru Certified for filename: {}", filename);
                 continue;
             }
 
 
-            final Architecture architecture = Constants.ARCHITECTURE_LOOKUP.entrySet().stream()
-                                                                           .filter(entry -> withoutSuffix.contains(entry.getKey()))
-                                                                           .findFirst()
-                                                                           .map(Entry::getValue)
-                                                                           .orElse(Architecture.NOT_FOUND);
+            final Architecture architecture = FilenameClassifier.INSTANCE.classify(withoutSuffix).getArchitecture(Architecture.NOT_FOUND);
             if (Architecture.NOT_FOUND == architecture) {
                 LOGGER.debug("Architecture not found in Semeru Certified for filename: {}", filename);
                 continue;
@@ -412,7 +366,7 @@ public class SemeruCertified implements Distribution {
             pkg.setPackageType(packageType);
             pkg.setOperatingSystem(operatingSystem);
             pkg.setFreeUseInProduction(Boolean.FALSE);
-            pkg.setSize(Helper.getFileSize(downloadLink));
+            pkg.setSize(FileSizeResolver.INSTANCE.getSize(downloadLink));
             pkgs.add(pkg);
         }
         }
@@ -428,9 +382,9 @@ public class SemeruCertified implements Distribution {
                 if (null == filename || filename.isEmpty() || (!filename.endsWith(Constants.FILE_ENDING_SHA256_TXT) && !filename.endsWith(Constants.FILE_ENDING_SHA256_DMG_TXT))) { continue; }
                 String nameToMatch;
                 if (filename.endsWith(Constants.FILE_ENDING_SHA256_DMG_TXT)) {
-                    nameToMatch = filename.replaceAll("." + Constants.FILE_ENDING_SHA256_DMG_TXT, "");
+                    nameToMatch = Helper.removeMatches(Constants.SHA256_DMG_TXT_FILE_ENDING_PATTERN, filename);
                 } else if (filename.endsWith(Constants.FILE_ENDING_SHA256_TXT)) {
-                    nameToMatch = filename.replaceAll("." + Constants.FILE_ENDING_SHA256_TXT, "");
+                    nameToMatch = Helper.removeMatches(Constants.SHA256_TXT_FILE_ENDING_PATTERN, filename);
                 } else {
                     continue;
                 }
@@ -19,7 +19,6 @@
 
 package io.foojay.api.distribution;
 
-import com.google.gson.Gson;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
@@ -39,24 +38,22 @@ import io.foojay.api.pkg.Distro;
 import io.foojay.api.pkg.MajorVersion;
 import io.foojay.api.pkg.Pkg;
 import io.foojay.api.util.Constants;
-import io.foojay.api.util.GithubTokenPool;
+import io.foojay.api.util.FileSizeResolver;
+import io.foojay.api.util.FilenameClassifier;
+import io.foojay.api.util.GithubReleasesCrawler;
 import io.foojay.api.util.Helper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.net.http.HttpResponse;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.Optional;
 import java.util.OptionalInt;
-import java.util.TreeSet;
 import java.util.concurrent.CompletionException;
-import java.util.stream.Collectors;
+import java.util.regex.Pattern;
 
 import static eu.hansolo.jdktools.Architecture.AARCH64;
 import static eu.hansolo.jdktools.Architecture.ARM;
@@ -85,6 +82,7 @@ public class Temurin implements Distribution {
 
     private static final String        PACKAGE_URL            = "https://api.github.com/repos/adoptium/";
     private static final String        PACKAGE_API_URL        = "https://api.adoptium.net/v3/assets/feature_releases/";
+    private static final Pattern       PREFIX_PATTERN         = Pattern.compile("OpenJDK[0-9]+U?\\-");
 
     // URL parameters
     private static final String        ARCHITECTURE_PARAM     = "architecture";
@@ -167,14 +165,7 @@ public class Temurin implements Distribution {
     }
 
     @Override public List<Semver> getVersions() {
-        return CacheManager.INSTANCE.pkgCache.getPkgs()
-                                             .stream()
-                                             .filter(pkg -> Distro.TEMURIN.get().equals(pkg.getDistribution()))
-                                             .map(pkg -> pkg.getSemver())
-                                             .collect(Collectors.toCollection(() -> new TreeSet<>(Comparator.comparing(Semver::toString))))
-                                             .stream()
-                                             .sorted(Comparator.comparing(Semver::getVersionNumber).reversed())
-                                             .collect(Collectors.toList());
+        return CacheManager.INSTANCE.distroCatalog.get().getStats(Distro.TEMURIN).getVersions();
     }
 
 
@@ -250,21 +241,11 @@ public class Temurin implements Distribution {
             int build = versionDataObj.get(FIELD_BUILD).getAsInt();
             vNumber.setBuild(build);
 
-            Architecture arc = Constants.ARCHITECTURE_LOOKUP.entrySet()
-                                                            .stream()
-                                                            .filter(entry -> entry.getKey().equals(binariesObj.get(FIELD_ARCHITECTURE).getAsString()))
-                                                            .findFirst()
-                                                            .map(Entry::getValue)
-                                                            .orElse(Architecture.NONE);
+            Architecture arc = Constants.ARCHITECTURE_LOOKUP.getOrDefault(binariesObj.get(FIELD_ARCHITECTURE).getAsString(), Architecture.NONE);
 
             PackageType pkgTypeFound = PackageType.fromText(binariesObj.get(FIELD_IMAGE_TYPE).getAsString());
 
-            OperatingSystem os = Constants.OPERATING_SYSTEM_LOOKUP.entrySet()
-                                                                  .stream()
-                                                                  .filter(entry -> entry.getKey().equals(binariesObj.get(FIELD_OS).getAsString()))
-                                                                  .findFirst()
-                                                                  .map(Entry::getValue)
-                                                                  .orElse(OperatingSystem.NONE);
+            OperatingSystem os = Constants.OPERATING_SYSTEM_LOOKUP.getOrDefault(binariesObj.get(FIELD_OS).getAsString(), OperatingSystem.NONE);
 
             if (OperatingSystem.NONE == os) {
                 LOGGER.debug("Operating System not found in Temurin for field value: {}", binariesObj.get(FIELD_OS).getAsString());
@@ -280,11 +261,7 @@ public class Temurin implements Distribution {
                 if (installerName.contains("testimage") || installerName.contains("debugimage") || installerName.endsWith("json")) { continue; }
 
                 if (Architecture.NONE == arc) {
-                    arc = Constants.ARCHITECTURE_LOOKUP.entrySet().stream()
-                                                       .filter(entry -> installerName.contains(entry.getKey()))
-                                                       .findFirst()
-                                                       .map(Entry::getValue)
-                                                       .orElse(Architecture.NONE);
+                    arc = FilenameClassifier.INSTANCE.classify(installerName).getArchitecture(Architecture.NONE);
                 }
 
                 if (Architecture.NONE == arc) {
@@ -325,14 +302,14 @@ public class Temurin implements Distribution {
                     installerPkg.setChecksumUri(checksumLink.isEmpty()  ? ""                 : checksumLink);
                     installerPkg.setChecksumType(checksumLink.isEmpty() ? HashAlgorithm.NONE : HashAlgorithm.SHA256);
                 }
-                installerPkg.setSize(Helper.getFileSize(installerDownloadLink));
+                installerPkg.setSize(FileSizeResolver.INSTANCE.getSize(installerDownloadLink));
                 if(ArchiveType.NONE == archiveType || ext == archiveType) {
                     installerPkg.setArchiveType(ext);
                     installerPkg.setFileName(installerName);
                     installerPkg.setDirectDownloadUri(installerDownloadLink);
                     installerPkg.setFreeUseInProduction(Boolean.TRUE);
                     if (onlyNewPkgs) {
-                        if (CacheManager.INSTANCE.pkgCache.getPkgs().stream().filter(p -> p.getFilename().equals(installerName)).filter(p -> p.getDirectDownloadUri().equals(installerDownloadLink)).count() == 0) {
+                        if (!CacheManager.INSTANCE.pkgCache.containsArtifact(installerName, installerDownloadLink)) {
                             pkgs.add(installerPkg);
                         }
                     }
@@ -348,11 +325,7 @@ public class Temurin implements Distribution {
                 if (packageName.contains("testimage") || packageName.contains("debugimage") || packageName.endsWith("json")) { continue; }
 
                 if (Architecture.NONE == arc) {
-                    arc = Constants.ARCHITECTURE_LOOKUP.entrySet().stream()
-                                                       .filter(entry -> packageName.contains(entry.getKey()))
-                                                       .findFirst()
-                                                       .map(Entry::getValue)
-                                                       .orElse(Architecture.NONE);
+                    arc = FilenameClassifier.INSTANCE.classify(packageName).getArchitecture(Architecture.NONE);
                 }
 
                 if (Architecture.NONE == arc) {
@@ -366,7 +339,7 @@ public class Temurin implements Distribution {
                 }
 
                 if (onlyNewPkgs) {
-                    if (CacheManager.INSTANCE.pkgCache.getPkgs().stream().filter(p -> p.getFilename().equals(packageName)).filter(p -> p.getDirectDownloadUri().equals(packageDownloadLink)).count() > 0) { continue; }
+                    if (CacheManager.INSTANCE.pkgCache.containsArtifact(packageName, packageDownloadLink)) { continue; }
                 }
 
                 Pkg packagePkg = new Pkg();
@@ -403,7 +376,7 @@ public class Temurin implements Distribution {
                     packagePkg.setChecksumUri(checksumLink.isEmpty()  ? ""                 : checksumLink);
                     packagePkg.setChecksumType(checksumLink.isEmpty() ? HashAlgorithm.NONE : HashAlgorithm.SHA256);
                 }
-                packagePkg.setSize(Helper.getFileSize(packageDownloadLink));
+                packagePkg.setSize(FileSizeResolver.INSTANCE.getSize(packageDownloadLink));
             }
         }
 
@@ -422,20 +395,8 @@ public class Temurin implements Distribution {
                 String packageUrl = PACKAGE_URL + "temurin" + i + "-binaries/releases";
                 // Get all packages from github
                 try {
-                    HttpResponse<String> response = Helper.get(packageUrl, Map.of("accept", "application/vnd.github.v3+json",
-                                                                                  "authorization", GithubTokenPool.INSTANCE.next()));
-                    if (response.statusCode() == 200) {
-                        String      bodyText = response.body();
-                        Gson        gson     = new Gson();
-                        JsonElement element  = gson.fromJson(bodyText, JsonElement.class);
-                        if (element instanceof JsonArray) {
-                            JsonArray jsonArray = element.getAsJsonArray();
-                            pkgs.addAll(getAllPkgsFromJson(jsonArray, i, onlyNewPkgs));
-                        }
-                    } else {
-                        // Problem with url request
-                        LOGGER.debug("Response ({}) {} ", response.statusCode(), response.body());
-                    }
+                    final int featureVersion = i;
+                    pkgs.addAll(GithubReleasesCrawler.INSTANCE.crawl(packageUrl, onlyNewPkgs, jsonArray -> getAllPkgsFromJson(jsonArray, featureVersion, onlyNewPkgs)));
                 } catch (CompletionException e) {
                     LOGGER.error("Error fetching packages for distribution {} from {}", getName(), packageUrl);
                 }
@@ -476,7 +437,7 @@ public class Temurin implements Distribution {
                     if (filename.contains("-debug-")) { continue; }
                     if (null == filename || !filename.startsWith("OpenJDK")) { continue; }
 
-                    final String   withoutPrefix = filename.replaceAll("OpenJDK[0-9]+U?\\-", "");
+                    final String   withoutPrefix = Helper.removeMatches(PREFIX_PATTERN, filename);
                     final String   withoutSuffix = withoutPrefix.substring(0, withoutPrefix.lastIndexOf("."));
                     final String[] filenameParts = withoutSuffix.split("_");
 
@@ -499,28 +460,18 @@ public class Temurin implements Distribution {
                     String downloadLink = assetJsonObj.get("browser_download_url").getAsString();
 
                     if (onlyNewPkgs) {
-                        if (CacheManager.INSTANCE.pkgCache.getPkgs().stream().filter(p -> p.getFilename().equals(filename)).filter(p -> p.getDirectDownloadUri().equals(downloadLink)).count() > 0) { continue; }
+                        if (CacheManager.INSTANCE.pkgCache.containsArtifact(filename, downloadLink)) { continue; }
                     }
 
                     PackageType packageType = PackageType.fromText(filenameParts[0]);
 
-                    OperatingSystem operatingSystem = Constants.OPERATING_SYSTEM_LOOKUP.entrySet()
-                                                                                       .stream()
-                                                                                       .filter(entry -> withoutSuffix.contains(entry.getKey()))
-                                                                                       .findFirst()
-                                                                                       .map(Entry::getValue)
-                                                                                       .orElse(OperatingSystem.NOT_FOUND);
+                    OperatingSystem operatingSystem = FilenameClassifier.INSTANCE.classify(withoutSuffix).getOperatingSystem(OperatingSystem.NOT_FOUND);
                     if (OperatingSystem.NOT_FOUND == operatingSystem) {
                         LOGGER.debug("Operating System not found in Temurin for filename: {}", filename);
                         continue;
                     }
 
-                    final Architecture architecture = Constants.ARCHITECTURE_LOOKUP.entrySet()
-                                                                                   .stream()
-                                                                                   .filter(entry -> withoutSuffix.contains(entry.getKey()))
-                                                                                   .findFirst()
-                                                                                   .map(Entry::getValue)
-                                                                                   .orElse(Architecture.NOT_FOUND);
+                    final Architecture architecture = FilenameClassifier.INSTANCE.classify(withoutSuffix).getArchitecture(Architecture.NOT_FOUND);
                     if (Architecture.NOT_FOUND == architecture) {
                         LOGGER.debug("Architecture not found in Temurin for filename: {}", filename);
                         continue;
@@ -551,7 +502,7 @@ public class Temurin implements Distribution {
                     pkg.setPackageType(packageType);
                     pkg.setOperatingSystem(operatingSystem);
                     pkg.setFreeUseInProduction(Boolean.TRUE);
-                    pkg.setSize(Helper.getFileSize(downloadLink));
+                    pkg.setSize(FileSizeResolver.INSTANCE.getSize(downloadLink));
 
                     if (isEarlyAccessOnly) {
                         if (publishedAt.isAfter(lastPublishedAt)) { pkgs.add(pkg); }
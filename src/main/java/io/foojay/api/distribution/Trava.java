@@ -16,7 +16,6 @@
 
 package io.foojay.api.distribution;
 
-import com.google.gson.Gson;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
@@ -36,23 +35,18 @@ import io.foojay.api.pkg.Distro;
 import io.foojay.api.pkg.MajorVersion;
 import io.foojay.api.pkg.Pkg;
 import io.foojay.api.util.Constants;
-import io.foojay.api.util.GithubTokenPool;
+import io.foojay.api.util.FileSizeResolver;
+import io.foojay.api.util.FilenameClassifier;
+import io.foojay.api.util.GithubReleasesCrawler;
 import io.foojay.api.util.Helper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.net.http.HttpResponse;
 import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.List;
-import java.util.Map;
-import java.util.Map.Entry;
-import java.util.TreeSet;
 import java.util.concurrent.CompletionException;
 import java.util.regex.MatchResult;
-import java.util.regex.Matcher;
 import java.util.regex.Pattern;
-import java.util.stream.Collectors;
 
 import static eu.hansolo.jdktools.PackageType.JDK;
 import static eu.hansolo.jdktools.PackageType.JRE;
@@ -64,7 +58,6 @@ public class Trava implements Distribution {
     private static final Logger LOGGER = LoggerFactory.getLogger(Trava.class);
 
     private static final Pattern      DOWNLOAD_PATTERN = Pattern.compile("(.*\\/download\\/dcevm)(\\-)?(.*)(\\/.*)");
-    private static final Matcher      DOWNLOAD_MATCHER = DOWNLOAD_PATTERN.matcher("");
     private static final String       GITHUB_USER      = "TravaOpenJDK";
     private static final String       PACKAGE_URL      = "https://github.com/TravaOpenJDK/";
     public  static final List<String> PACKAGE_URLS     = List.of("https://api.github.com/repos/" + GITHUB_USER + "/trava-jdk-8-dcevm/releases?per_page=100",
@@ -126,14 +119,7 @@ public class Trava implements Distribution {
     }
 
     @Override public List<Semver> getVersions() {
-        return CacheManager.INSTANCE.pkgCache.getPkgs()
-                                             .stream()
-                                             .filter(pkg -> Distro.TRAVA.get().equals(pkg.getDistribution()))
-                                             .map(pkg -> pkg.getSemver())
-                                             .collect(Collectors.toCollection(() -> new TreeSet<>(Comparator.comparing(Semver::toString))))
-                                             .stream()
-                                             .sorted(Comparator.comparing(Semver::getVersionNumber).reversed())
-                                             .collect(Collectors.toList());
+        return CacheManager.INSTANCE.distroCatalog.get().getStats(Distro.TRAVA).getVersions();
     }
 
 
@@ -174,12 +160,11 @@ public class Trava implements Distribution {
             String downloadLink = assetJsonObj.get("browser_download_url").getAsString();
 
             if (onlyNewPkgs) {
-                if (CacheManager.INSTANCE.pkgCache.getPkgs().stream().filter(p -> p.getFilename().equals(filename)).filter(p -> p.getDirectDownloadUri().equals(downloadLink)).count() > 0) { continue; }
+                if (CacheManager.INSTANCE.pkgCache.containsArtifact(filename, downloadLink)) { continue; }
             }
 
             VersionNumber vNumber = new VersionNumber();
-            DOWNLOAD_MATCHER.reset(downloadLink);
-            final List<MatchResult> results = DOWNLOAD_MATCHER.results().collect(Collectors.toList());
+            final List<MatchResult> results = Helper.getMatchResults(DOWNLOAD_PATTERN, downloadLink);
             if (results.size() > 0) {
                 MatchResult result = results.get(0);
                 vNumber = VersionNumber.fromText(result.group(3));
@@ -194,11 +179,7 @@ public class Trava implements Distribution {
 
             Pkg pkg = new Pkg();
 
-            ArchiveType ext = Constants.ARCHIVE_TYPE_LOOKUP.entrySet().stream()
-                                                           .filter(entry -> filename.endsWith(entry.getKey()))
-                                                           .findFirst()
-                                                           .map(Entry::getValue)
-                                                           .orElse(ArchiveType.NONE);
+            ArchiveType ext = FilenameClassifier.INSTANCE.classify(filename).getArchiveType(ArchiveType.NONE);
             if (ArchiveType.NONE == ext) {
                 LOGGER.debug("Archive Type not found in Trava for filename: {}", filename);
                 return pkgs;
@@ -247,11 +228,7 @@ public class Trava implements Distribution {
                     break;
             }
 
-            Architecture arch = Constants.ARCHITECTURE_LOOKUP.entrySet().stream()
-                                                             .filter(entry -> filename.contains(entry.getKey()))
-                                                             .findFirst()
-                                                             .map(Entry::getValue)
-                                                             .orElse(Architecture.NONE);
+            Architecture arch = FilenameClassifier.INSTANCE.classify(filename).getArchitecture(Architecture.NONE);
 
             if (Architecture.NONE == arch) {
                 LOGGER.debug("Architecture not found in Trava for filename: {}", filename);
@@ -261,11 +238,7 @@ public class Trava implements Distribution {
             pkg.setArchitecture(arch);
             pkg.setBitness(arch.getBitness());
 
-            OperatingSystem os = Constants.OPERATING_SYSTEM_LOOKUP.entrySet().stream()
-                                                                  .filter(entry -> filename.contains(entry.getKey()))
-                                                                  .findFirst()
-                                                                  .map(Entry::getValue)
-                                                                  .orElse(OperatingSystem.NONE);
+            OperatingSystem os = FilenameClassifier.INSTANCE.classify(filename).getOperatingSystem(OperatingSystem.NONE);
             if (OperatingSystem.NONE == os) {
                 switch (pkg.getArchiveType()) {
                     case DEB, RPM, TAR_GZ -> os = OperatingSystem.LINUX;
@@ -280,7 +253,7 @@ public class Trava implements Distribution {
             }
             pkg.setOperatingSystem(os);
             pkg.setFreeUseInProduction(Boolean.TRUE);
-            pkg.setSize(Helper.getFileSize(downloadLink));
+            pkg.setSize(FileSizeResolver.INSTANCE.getSize(downloadLink));
 
             pkgs.add(pkg);
         }
@@ -296,20 +269,7 @@ public class Trava implements Distribution {
             for (String packageUrl : PACKAGE_URLS) {
                 // Get all packages from github
                 try {
-                    HttpResponse<String> response = Helper.get(packageUrl, Map.of("accept", "application/vnd.github.v3+json",
-                                                                                  "authorization", GithubTokenPool.INSTANCE.next()));
-                    if (response.statusCode() == 200) {
-                        String      bodyText = response.body();
-                        Gson        gson     = new Gson();
-                        JsonElement element  = gson.fromJson(bodyText, JsonElement.class);
-                        if (element instanceof JsonArray) {
-                            JsonArray jsonArray = element.getAsJsonArray();
-                            pkgs.addAll(getAllPkgsFromJson(jsonArray, onlyNewPkgs));
-                        }
-                    } else {
-                        // Problem with url request
-                        LOGGER.debug("Response ({}) {} ", response.statusCode(), response.body());
-                    }
+                    pkgs.addAll(GithubReleasesCrawler.INSTANCE.crawl(packageUrl, onlyNewPkgs, jsonArray -> getAllPkgsFromJson(jsonArray, onlyNewPkgs)));
                 } catch (CompletionException e) {
                     LOGGER.error("Error fetching packages for distribution {} from {}", getName(), packageUrl);
                 }
@@ -339,12 +299,11 @@ public class Trava implements Distribution {
                 String downloadLink = assetJsonObj.get("browser_download_url").getAsString();
 
                 if (onlyNewPkgs) {
-                    if (CacheManager.INSTANCE.pkgCache.getPkgs().stream().filter(p -> p.getFilename().equals(filename)).filter(p -> p.getDirectDownloadUri().equals(downloadLink)).count() > 0) { continue; }
+                    if (CacheManager.INSTANCE.pkgCache.containsArtifact(filename, downloadLink)) { continue; }
                 }
 
                 VersionNumber vNumber = new VersionNumber();
-                DOWNLOAD_MATCHER.reset(downloadLink);
-                final List<MatchResult> results = DOWNLOAD_MATCHER.results().collect(Collectors.toList());
+                final List<MatchResult> results = Helper.getMatchResults(DOWNLOAD_PATTERN, downloadLink);
                 if (results.size() > 0) {
                     MatchResult result = results.get(0);
                     vNumber = VersionNumber.fromText(result.group(3));
@@ -352,11 +311,7 @@ public class Trava implements Distribution {
 
                 Pkg pkg = new Pkg();
 
-                ArchiveType ext = Constants.ARCHIVE_TYPE_LOOKUP.entrySet().stream()
-                                                               .filter(entry -> filename.endsWith(entry.getKey()))
-                                                               .findFirst()
-                                                               .map(Entry::getValue)
-                                                               .orElse(ArchiveType.NONE);
+                ArchiveType ext = FilenameClassifier.INSTANCE.classify(filename).getArchiveType(ArchiveType.NONE);
                 if (ArchiveType.NONE == ext) {
                     LOGGER.debug("Archive Type not found in Trava for filename: {}", filename);
                     continue;
@@ -383,11 +338,7 @@ public class Trava implements Distribution {
                 pkg.setReleaseStatus(filename.contains(Constants.EA_POSTFIX) ? EA : GA);
 
 
-                Architecture arch = Constants.ARCHITECTURE_LOOKUP.entrySet().stream()
-                                                                 .filter(entry -> filename.contains(entry.getKey()))
-                                                                 .findFirst()
-                                                                 .map(Entry::getValue)
-                                                                 .orElse(Architecture.NONE);
+                Architecture arch = FilenameClassifier.INSTANCE.classify(filename).getArchitecture(Architecture.NONE);
                 if (Architecture.NONE == arch) {
                     LOGGER.debug("Architecture not found in Trava for filename: {}", filename);
                     arch = Architecture.X64;
@@ -395,11 +346,7 @@ public class Trava implements Distribution {
                 pkg.setArchitecture(arch);
                 pkg.setBitness(arch.getBitness());
 
-                OperatingSystem os = Constants.OPERATING_SYSTEM_LOOKUP.entrySet().stream()
-                                                                      .filter(entry -> filename.contains(entry.getKey()))
-                                                                      .findFirst()
-                                                                      .map(Entry::getValue)
-                                                                      .orElse(OperatingSystem.NONE);
+                OperatingSystem os = FilenameClassifier.INSTANCE.classify(filename).getOperatingSystem(OperatingSystem.NONE);
                 if (OperatingSystem.NONE == os) {
                     switch (pkg.getArchiveType()) {
                         case DEB, RPM, TAR_GZ -> os = OperatingSystem.LINUX;
@@ -415,7 +362,7 @@ public class Trava implements Distribution {
                 pkg.setOperatingSystem(os);
 
                 pkg.setFreeUseInProduction(Boolean.TRUE);
-                pkg.setSize(Helper.getFileSize(downloadLink));
+                pkg.setSize(FileSizeResolver.INSTANCE.getSize(downloadLink));
 
                 pkgs.add(pkg);
             }
@@ -41,20 +41,18 @@ import io.foojay.api.pkg.Feature;
 import io.foojay.api.pkg.MajorVersion;
 import io.foojay.api.pkg.Pkg;
 import io.foojay.api.util.Constants;
+import io.foojay.api.util.FileSizeResolver;
+import io.foojay.api.util.FilenameClassifier;
 import io.foojay.api.util.Helper;
+import io.foojay.api.util.HttpCache;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.net.http.HttpResponse;
 import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
-import java.util.TreeSet;
-import java.util.regex.Matcher;
 import java.util.regex.Pattern;
-import java.util.stream.Collectors;
 
 import static eu.hansolo.jdktools.Architecture.ARM;
 import static eu.hansolo.jdktools.Architecture.MIPS;
@@ -91,10 +89,10 @@ public class Zulu implements Distribution {
     private static final Logger                       LOGGER                     = LoggerFactory.getLogger(Zulu.class);
 
     private static final Pattern                      FILENAME_PREFIX_PATTERN    = Pattern.compile("(zulu|zre)(\\d+)\\.(\\d+)\\.(\\d+)(\\.|_?)(\\d+)?");
-    private static final Matcher                      FILENAME_PREFIX_MATCHER    = FILENAME_PREFIX_PATTERN.matcher("");
     private static final Pattern                      FILENAME_PREFIX_VN_PATTERN = Pattern.compile("(zulu-repo-|zulu-repo_|zulu|zre)[0-9]{1,3}\\.[0-9]{1,3}(\\.|\\+)[0-9]{1,4}(\\.|-|_)([0-9]{1,3}-)?([0-9]{1,4}_[0-9]{1,4}-)?(ca-|ea-)?(fx-)?(dbg-)?(hl)?(cp(1|2|3)-)?(oem-)?(-|jre|jdk)?");
     private static final Pattern                      FEATURE_PREFIX_PATTERN     = Pattern.compile("^((-ea)|(-ca)|(-jdk)|(-jre)|(-fx)|(-))?((-ea)|(-ca)|(-jdk)|(-jre)|(-fx)|(-))?((-ea)|(-ca)|(-jdk)|(-jre)|(-fx)|(-))?");
-    private static final Matcher                      FEATURE_PREFIX_MATCHER     = FEATURE_PREFIX_PATTERN.matcher("");
+    private static final Pattern                      CDN_VERSION_PREFIX_PATTERN = Pattern.compile("(zulu|zre|zulu-repo|zulurepo)((-|_)?)(\\d+)\\.(\\d+)(\\.|\\+)(\\d+)(\\.|_?)(\\d+)?(-|_)([0-9]+-)?((ca|ea)(-))?(hl-)?(fx-)?(cp[0-9]+-)?(jdk|jre)?");
+    private static final Pattern                      CDN_DISTRO_PREFIX_PATTERN  = Pattern.compile("(zulu|zre|zulu-repo|zulurepo)");
     private static final String                       PACKAGE_URL                = "https://api.azul.com/metadata/v1/zulu/packages/";
     private static final String                       CDN_URL                    = "https://cdn.azul.com/zulu/bin/";
 
@@ -179,11 +177,7 @@ public class Zulu implements Distribution {
     }
 
     @Override public List<Semver> getVersions() {
-        return CacheManager.INSTANCE.pkgCache.getPkgs()
-                                             .stream()
-                                             .filter(pkg -> Distro.ZULU.get().equals(pkg.getDistribution()))
-                                             .map(pkg -> pkg.getSemver())
-                                             .collect(Collectors.toCollection(() -> new TreeSet<>(Comparator.comparing(Semver::toString)))).stream().sorted(Comparator.comparing(Semver::getVersionNumber).reversed()).collect(Collectors.toList());
+        return CacheManager.INSTANCE.distroCatalog.get().getStats(Distro.ZULU).getVersions();
     }
 
 
@@ -263,7 +257,7 @@ public class Zulu implements Distribution {
         String downloadLink = jsonObj.get(FIELD_URL).getAsString();
 
         if (onlyNewPkgs) {
-            if (CacheManager.INSTANCE.pkgCache.getPkgs().stream().filter(pkg -> pkg.getFilename().equals(filename)).filter(pkg -> pkg.getDirectDownloadUri().equals(downloadLink)).count() > 0) { return pkgs; }
+            if (CacheManager.INSTANCE.pkgCache.containsArtifact(filename, downloadLink)) { return pkgs; }
         }
 
         JsonArray jdkVersionArray = jsonObj.get(FIELD_JAVA_VERSION).getAsJsonArray();
@@ -272,7 +266,7 @@ public class Zulu implements Distribution {
             vNumber = new VersionNumber(jdkVersionArray.get(0).getAsInt(), jdkVersionArray.get(1).getAsInt(), jdkVersionArray.get(2).getAsInt(), 0);
         } else {
             //Get the real version number from the filename without the prefix
-            final String fileNameWithoutPrefix = filename.replaceAll(FILENAME_PREFIX_VN_PATTERN.pattern(), "");
+            final String fileNameWithoutPrefix = Helper.removeMatches(FILENAME_PREFIX_VN_PATTERN, filename);
             vNumber = VersionNumber.fromText(fileNameWithoutPrefix);
         }
 
@@ -336,16 +330,12 @@ public class Zulu implements Distribution {
             pkg.getFeatures().add(Feature.CRAC);
         }
 
-        String withoutPrefix = FILENAME_PREFIX_MATCHER.reset(filename).replaceAll("");
+        String withoutPrefix = Helper.removeMatches(FILENAME_PREFIX_PATTERN, filename);
 
         if (null != javafxBundled && javafxBundled && !withoutPrefix.contains(Constants.FX_POSTFIX)) { return pkgs; }
         pkg.setJavaFXBundled(withoutPrefix.contains(Constants.FX_POSTFIX));
 
-        ArchiveType ext = Constants.ARCHIVE_TYPE_LOOKUP.entrySet().stream()
-                                                       .filter(entry -> filename.endsWith(entry.getKey()))
-                                                       .findFirst()
-                                                       .map(Entry::getValue)
-                                                       .orElse(ArchiveType.NONE);
+        ArchiveType ext = FilenameClassifier.INSTANCE.classify(filename).getArchiveType(ArchiveType.NONE);
 
         if (ArchiveType.NONE == ext) {
             LOGGER.debug("Archive Type not found in Zulu for filename: {}", filename);
@@ -384,15 +374,11 @@ public class Zulu implements Distribution {
                 break;
         }
 
-        String withoutFeaturePrefix = FEATURE_PREFIX_MATCHER.reset(withoutPrefix).replaceAll("");
+        String withoutFeaturePrefix = Helper.removeMatches(FEATURE_PREFIX_PATTERN, withoutPrefix);
 
         pkg.setHeadless(withoutFeaturePrefix.contains(Constants.HEADLESS_POSTFIX));
 
-        Architecture arch = Constants.ARCHITECTURE_LOOKUP.entrySet().stream()
-                                                         .filter(entry -> filename.contains(entry.getKey()))
-                                                         .findFirst()
-                                                         .map(Entry::getValue)
-                                                         .orElse(Architecture.NONE);
+        Architecture arch = FilenameClassifier.INSTANCE.classify(filename).getArchitecture(Architecture.NONE);
 
         if (Architecture.NONE == arch && filename.contains("macos")) {
             arch = X64;
@@ -405,11 +391,7 @@ public class Zulu implements Distribution {
         pkg.setArchitecture(arch);
         pkg.setBitness(arch.getBitness());
 
-        OperatingSystem os = Constants.OPERATING_SYSTEM_LOOKUP.entrySet().stream()
-                                                              .filter(entry -> filename.contains(entry.getKey()))
-                                                              .findFirst()
-                                                              .map(Entry::getValue)
-                                                              .orElse(OperatingSystem.NONE);
+        OperatingSystem os = FilenameClassifier.INSTANCE.classify(filename).getOperatingSystem(OperatingSystem.NONE);
 
         if (OperatingSystem.NONE == os) {
             switch (pkg.getArchiveType()) {
@@ -431,7 +413,7 @@ public class Zulu implements Distribution {
 
         pkg.setFreeUseInProduction(Boolean.TRUE);
 
-        pkg.setSize(Helper.getFileSize(downloadLink));
+        pkg.setSize(FileSizeResolver.INSTANCE.getSize(downloadLink));
 
         String directDownloadUri = pkg.getDirectDownloadUri();
         //String tckCertUri        = directDownloadUri.replaceAll("/bin/", "/pdf/cert\\.") + ".pdf";
@@ -449,6 +431,8 @@ public class Zulu implements Distribution {
         return pkgs;
     }
 
+    @Override public List<Pkg> getAllPkgs(final boolean onlyNewPkgs) { return getAllPackagesFromCDN(onlyNewPkgs); }
+
     /**
      * Returns all packages found on the Azul Zulu Community CDN
      * @return all packages found on the Azul Zulu Community CDN
@@ -459,25 +443,24 @@ public class Zulu implements Distribution {
             final HttpResponse<String> response = Helper.get(CDN_URL);
             if (null == response) { return pkgs; }
             final String html = response.body();
-            if (html.isEmpty()) { return pkgs; }
+            if (null == html || html.isEmpty()) { return pkgs; }
+            if (onlyNewPkgs && HttpCache.INSTANCE.isUnchanged(getName(), CDN_URL, html)) { return pkgs; }
 
-            final Pattern      filenamePrefixVersion       = Pattern.compile("(zulu|zre|zulu-repo|zulurepo)((-|_)?)(\\d+)\\.(\\d+)(\\.|\\+)(\\d+)(\\.|_?)(\\d+)?(-|_)([0-9]+-)?((ca|ea)(-))?(hl-)?(fx-)?(cp[0-9]+-)?(jdk|jre)?");
-            final Pattern      filenamePrefixDistroVersion = Pattern.compile("(zulu|zre|zulu-repo|zulurepo)");
             final List<String> fileHrefs                   = new ArrayList<>(Helper.getFileHrefsFromString(html));
             for (String href : fileHrefs) {
                 String filename = Helper.getFileNameFromText(href);
                 if (filename.contains("noarch")) { continue; }
 
-                String          reducedToVersionFilename       = filename.startsWith("zulu1.") ? filename.replaceAll(filenamePrefixDistroVersion.pattern(), "") : filename.replaceAll(filenamePrefixVersion.pattern(), "");
+                String          reducedToVersionFilename       = filename.startsWith("zulu1.") ? Helper.removeMatches(CDN_DISTRO_PREFIX_PATTERN, filename) : Helper.removeMatches(CDN_VERSION_PREFIX_PATTERN, filename);
                 VersionNumber   versionNumber                  = VersionNumber.fromText(reducedToVersionFilename);
                 TermOfSupport   termOfSupport                  = Helper.getTermOfSupport(versionNumber);
                 String          downloadLink                   = CDN_URL + filename;
 
-                String          reducedToDistroVersionFilename = filename.startsWith("zulu1.") ? filename.replaceAll(filenamePrefixVersion.pattern(), "") : filename.replaceAll(filenamePrefixDistroVersion.pattern(), "");
+                String          reducedToDistroVersionFilename = filename.startsWith("zulu1.") ? Helper.removeMatches(CDN_VERSION_PREFIX_PATTERN, filename) : Helper.removeMatches(CDN_DISTRO_PREFIX_PATTERN, filename);
                 VersionNumber   distroVersionNumber            = VersionNumber.fromText(reducedToDistroVersionFilename);
 
                 if (onlyNewPkgs) {
-                    if (CacheManager.INSTANCE.pkgCache.getPkgs().stream().filter(pkg -> pkg.getFilename().equals(filename)).filter(pkg -> pkg.getDirectDownloadUri().equals(downloadLink)).count() > 0) { return pkgs; }
+                    if (CacheManager.INSTANCE.pkgCache.containsArtifact(filename, downloadLink)) { return pkgs; }
                 }
 
                 Pkg pkg = new Pkg();
@@ -501,27 +484,15 @@ public class Zulu implements Distribution {
                     pkg.getFeatures().add(Feature.CRAC);
                 }
 
-                PackageType packageType = Constants.PACKAGE_TYPE_LOOKUP.entrySet().stream()
-                                                                       .filter(entry -> filename.contains(entry.getKey()))
-                                                                       .findFirst()
-                                                                       .map(Entry::getValue)
-                                                                       .orElse(PackageType.NOT_FOUND);
+                PackageType packageType = FilenameClassifier.INSTANCE.classify(filename).getPackageType(PackageType.NOT_FOUND);
                 if (PackageType.NOT_FOUND == packageType) { packageType = JDK; }
                 pkg.setPackageType(packageType);
 
-                ArchiveType archiveType = Constants.ARCHIVE_TYPE_LOOKUP.entrySet().stream()
-                                                                       .filter(entry -> filename.endsWith(entry.getKey()))
-                                                                       .findFirst()
-                                                                       .map(Entry::getValue)
-                                                                       .orElse(ArchiveType.NOT_FOUND);
+                ArchiveType archiveType = FilenameClassifier.INSTANCE.classify(filename).getArchiveType(ArchiveType.NOT_FOUND);
                 if (ArchiveType.NOT_FOUND == archiveType) { continue; }
                 pkg.setArchiveType(archiveType);
 
-                OperatingSystem os = Constants.OPERATING_SYSTEM_LOOKUP.entrySet().stream()
-                                                                      .filter(entry -> filename.contains(entry.getKey()))
-                                                                      .findFirst()
-                                                                      .map(Entry::getValue)
-                                                                      .orElse(OperatingSystem.NOT_FOUND);
+                OperatingSystem os = FilenameClassifier.INSTANCE.classify(filename).getOperatingSystem(OperatingSystem.NOT_FOUND);
                 if (OperatingSystem.NOT_FOUND == os) {
                     os = Helper.fetchOperatingSystemByArchiveType(archiveType.getUiString());
                 }
@@ -529,11 +500,7 @@ public class Zulu implements Distribution {
                 if (OperatingSystem.NOT_FOUND == os) { continue; }
                 pkg.setOperatingSystem(os);
 
-                Architecture architecture = Constants.ARCHITECTURE_LOOKUP.entrySet().stream()
-                                                                         .filter(entry -> filename.contains(entry.getKey()))
-                                                                         .findFirst()
-                                                                         .map(Entry::getValue)
-                                                                         .orElse(Architecture.NOT_FOUND);
+                Architecture architecture = FilenameClassifier.INSTANCE.classify(filename).getArchitecture(Architecture.NOT_FOUND);
                 if (Architecture.NOT_FOUND == architecture) {
                     if (MACOS == pkg.getOperatingSystem()) {
                         architecture = X64;
@@ -552,7 +519,7 @@ public class Zulu implements Distribution {
                 pkg.setJavaFXBundled(filename.contains("-fx"));
 
                 pkg.setFreeUseInProduction(Boolean.TRUE);
-                pkg.setSize(Helper.getFileSize(downloadLink));
+                pkg.setSize(FileSizeResolver.INSTANCE.getSize(downloadLink));
 
                 String directDownloadUri = pkg.getDirectDownloadUri();
                 //String tckCertUri        = directDownloadUri.replaceAll("/bin/", "/pdf/cert\\.") + ".pdf";
@@ -564,6 +531,7 @@ public class Zulu implements Distribution {
 
                 pkgs.add(pkg);
             }
+            HttpCache.INSTANCE.consumed(getName(), CDN_URL, html);
         } catch (Exception e) {
             LOGGER.debug("Error fetching packages from Zulu CDN. {}", e.getMessage());
         }
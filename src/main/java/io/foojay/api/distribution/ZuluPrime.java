@@ -37,6 +37,8 @@ import io.foojay.api.pkg.Distro;
 import io.foojay.api.pkg.MajorVersion;
 import io.foojay.api.pkg.Pkg;
 import io.foojay.api.util.Constants;
+import io.foojay.api.util.FileSizeResolver;
+import io.foojay.api.util.FilenameClassifier;
 import io.foojay.api.util.Helper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -44,16 +46,12 @@ import org.slf4j.LoggerFactory;
 import java.io.StringReader;
 import java.net.http.HttpResponse;
 import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Properties;
-import java.util.TreeSet;
-import java.util.regex.Matcher;
 import java.util.regex.Pattern;
-import java.util.stream.Collectors;
 
 import static eu.hansolo.jdktools.Architecture.X64;
 import static eu.hansolo.jdktools.ArchiveType.getFromFileName;
@@ -103,10 +101,10 @@ public class ZuluPrime implements Distribution {
     private static final String        OFFICIAL_URI        = "https://www.azul.com/products/prime/stream-download/";
 
     private static final Pattern       FILENAME_PREFIX_PATTERN    = Pattern.compile("(zulu|zre)(\\d+)\\.(\\d+)\\.(\\d+)(\\.|_?)(\\d+)?");
-    private static final Matcher       FILENAME_PREFIX_MATCHER    = FILENAME_PREFIX_PATTERN.matcher("");
     private static final Pattern       FILENAME_PREFIX_VN_PATTERN = Pattern.compile("(zulu-repo-|zulu-repo_|zulu|zre)[0-9]{1,3}\\.[0-9]{1,3}(\\.|\\+)[0-9]{1,4}(\\.|-|_)([0-9]{1,3}-)?([0-9]{1,4}_[0-9]{1,4}-)?(ca-|ea-)?(fx-)?(dbg-)?(hl)?(cp(1|2|3)-)?(oem-)?(-|jre|jdk)?");
     private static final Pattern       FEATURE_PREFIX_PATTERN     = Pattern.compile("^((-ea)|(-ca)|(-jdk)|(-jre)|(-fx)|(-))?((-ea)|(-ca)|(-jdk)|(-jre)|(-fx)|(-))?((-ea)|(-ca)|(-jdk)|(-jre)|(-fx)|(-))?");
-    private static final Matcher       FEATURE_PREFIX_MATCHER     = FEATURE_PREFIX_PATTERN.matcher("");
+    private static final Pattern       ZING_PREFIX_PATTERN        = Pattern.compile("zing[0-9]*\\.[0-9]*\\.[0-9]*\\.[0-9]*-[0-9]*-");
+    private static final Pattern       STRIP_PATTERN              = Pattern.compile("zing[0-9]*\\.[0-9]*\\.[0-9]*\\.[0-9]*-[0-9]*-ca-jdk|\\.tar\\.gz");
 
 
     @Override public Distro getDistro() { return Distro.ZULU_PRIME; }
@@ -146,11 +144,7 @@ public class ZuluPrime implements Distribution {
     }
 
     @Override public List<Semver> getVersions() {
-        return CacheManager.INSTANCE.pkgCache.getPkgs()
-                                             .stream()
-                                             .filter(pkg -> Distro.ZULU_PRIME.get().equals(pkg.getDistribution()))
-                                             .map(pkg -> pkg.getSemver())
-                                             .collect(Collectors.toCollection(() -> new TreeSet<>(Comparator.comparing(Semver::toString)))).stream().sorted(Comparator.comparing(Semver::getVersionNumber).reversed()).collect(Collectors.toList());
+        return CacheManager.INSTANCE.distroCatalog.get().getStats(Distro.ZULU_PRIME).getVersions();
     }
 
 
@@ -173,7 +167,7 @@ public class ZuluPrime implements Distribution {
         String downloadLink = jsonObj.get(FIELD_URL).getAsString();
 
         if (onlyNewPkgs) {
-            if (CacheManager.INSTANCE.pkgCache.getPkgs().stream().filter(pkg -> pkg.getFilename().equals(filename)).filter(pkg -> pkg.getDirectDownloadUri().equals(downloadLink)).count() > 0) { return pkgs; }
+            if (CacheManager.INSTANCE.pkgCache.containsArtifact(filename, downloadLink)) { return pkgs; }
         }
 
         JsonArray     jdkVersionArray = jsonObj.get(FIELD_JAVA_VERSION).getAsJsonArray();
@@ -229,11 +223,7 @@ public class ZuluPrime implements Distribution {
         pkg.setFPU(FPU.UNKNOWN);
         pkg.setJavaFXBundled(false);
 
-        ArchiveType ext = Constants.ARCHIVE_TYPE_LOOKUP.entrySet().stream()
-                                                       .filter(entry -> filename.endsWith(entry.getKey()))
-                                                       .findFirst()
-                                                       .map(Entry::getValue)
-                                                       .orElse(ArchiveType.NONE);
+        ArchiveType ext = FilenameClassifier.INSTANCE.classify(filename).getArchiveType(ArchiveType.NONE);
 
         if (ArchiveType.NONE == ext) {
             LOGGER.debug("Archive Type not found in Prime for filename: {}", filename);
@@ -249,11 +239,7 @@ public class ZuluPrime implements Distribution {
         }
         pkg.setReleaseStatus(GA);
 
-        Architecture arch = Constants.ARCHITECTURE_LOOKUP.entrySet().stream()
-                                                         .filter(entry -> filename.contains(entry.getKey()))
-                                                         .findFirst()
-                                                         .map(Entry::getValue)
-                                                         .orElse(Architecture.NONE);
+        Architecture arch = FilenameClassifier.INSTANCE.classify(filename).getArchitecture(Architecture.NONE);
 
         if (Architecture.NONE == arch && filename.contains("macos")) {
             arch = X64;
@@ -266,11 +252,7 @@ public class ZuluPrime implements Distribution {
         pkg.setArchitecture(arch);
         pkg.setBitness(arch.getBitness());
 
-        OperatingSystem os = Constants.OPERATING_SYSTEM_LOOKUP.entrySet().stream()
-                                                              .filter(entry -> filename.contains(entry.getKey()))
-                                                              .findFirst()
-                                                              .map(Entry::getValue)
-                                                              .orElse(OperatingSystem.NONE);
+        OperatingSystem os = FilenameClassifier.INSTANCE.classify(filename).getOperatingSystem(OperatingSystem.NONE);
 
         if (OperatingSystem.NONE == os) {
             switch (pkg.getArchiveType()) {
@@ -292,7 +274,7 @@ public class ZuluPrime implements Distribution {
 
         pkg.setFreeUseInProduction(Boolean.TRUE);
 
-        pkg.setSize(Helper.getFileSize(downloadLink));
+        pkg.setSize(FileSizeResolver.INSTANCE.getSize(downloadLink));
 
         String directDownloadUri = pkg.getDirectDownloadUri();
         String tckCertUri        = directDownloadUri.replace("/bin/", "/pdf/cert.") + ".pdf";
@@ -343,7 +325,7 @@ public class ZuluPrime implements Distribution {
             String[] keyParts         = key.split("-");
 
             String   filename         = Helper.getFileNameFromText(downloadLink);
-            String   strippedFilename = filename.replaceFirst("zing[0-9]*\\.[0-9]*\\.[0-9]*\\.[0-9]*-[0-9]*-ca-jdk", "").replaceAll("(\\.tar\\.gz)", "");
+            String   strippedFilename = Helper.removeMatches(STRIP_PATTERN, filename);
             String[] filenameParts    = strippedFilename.split("-");
 
             Pkg pkg = new Pkg();
@@ -353,23 +335,19 @@ public class ZuluPrime implements Distribution {
             pkg.setDirectDownloadUri(downloadLink);
 
             if (onlyNewPkgs) {
-                if (CacheManager.INSTANCE.pkgCache.getPkgs().stream().filter(p -> p.getFilename().equals(filename)).filter(p -> p.getDirectDownloadUri().equals(downloadLink)).count() > 0) { continue; }
+                if (CacheManager.INSTANCE.pkgCache.containsArtifact(filename, downloadLink)) { continue; }
             }
 
             ArchiveType ext = getFromFileName(filename);
             pkg.setArchiveType(ext);
 
-            Architecture arch = Constants.ARCHITECTURE_LOOKUP.entrySet().stream()
-                                                             .filter(e -> keyParts[2].contains(e.getKey()))
-                                                             .findFirst()
-                                                             .map(Entry::getValue)
-                                                             .orElse(Architecture.NONE);
+            Architecture arch = FilenameClassifier.INSTANCE.classify(keyParts[2]).getArchitecture(Architecture.NONE);
 
             pkg.setArchitecture(arch);
             pkg.setBitness(arch.getBitness());
 
 
-            VersionNumber vNumber = VersionNumber.fromText(keyParts[0].replaceAll("_", "\\."));
+            VersionNumber vNumber = VersionNumber.fromText(keyParts[0].replace('_', '.'));
             pkg.setVersionNumber(vNumber);
             pkg.setJavaVersion(vNumber);
             pkg.setDistributionVersion(vNumber);
@@ -381,11 +359,7 @@ public class ZuluPrime implements Distribution {
 
             pkg.setReleaseStatus(GA);
 
-            OperatingSystem os = Constants.OPERATING_SYSTEM_LOOKUP.entrySet().stream()
-                                                                  .filter(e -> keyParts[1].contains(e.getKey()))
-                                                                  .findFirst()
-                                                                  .map(Entry::getValue)
-                                                                  .orElse(OperatingSystem.NONE);
+            OperatingSystem os = FilenameClassifier.INSTANCE.classify(keyParts[1]).getOperatingSystem(OperatingSystem.NONE);
 
             if (OperatingSystem.NONE == os) {
                 switch (pkg.getArchiveType()) {
@@ -412,7 +386,7 @@ public class ZuluPrime implements Distribution {
             }
 
             pkg.setFreeUseInProduction(Boolean.FALSE);
-            pkg.setSize(Helper.getFileSize(downloadLink));
+            pkg.setSize(FileSizeResolver.INSTANCE.getSize(downloadLink));
 
             pkgs.add(pkg);
         }
@@ -434,15 +408,14 @@ public class ZuluPrime implements Distribution {
         }
 
         List<String> fileHrefs = new ArrayList<>(Helper.getFileHrefsFromString(html));
-        Pattern zingPattern = Pattern.compile("zing[0-9]*\\.[0-9]*\\.[0-9]*\\.[0-9]*-[0-9]*-");
         for (String fileHref : fileHrefs) {
-            String filename = Helper.getFileNameFromText(fileHref.replaceAll("\"", ""));
+            String filename = Helper.getFileNameFromText(fileHref.replace("\"", ""));
 
             if (onlyNewPkgs) {
-                if (CacheManager.INSTANCE.pkgCache.getPkgs().stream().filter(p -> p.getFilename().equals(filename)).filter(p -> p.getDirectDownloadUri().equals(fileHref)).count() > 0) { continue; }
+                if (CacheManager.INSTANCE.pkgCache.containsArtifact(filename, fileHref)) { continue; }
             }
 
-            String withoutPrefix = zingPattern.matcher(filename).replaceAll("");
+            String withoutPrefix = Helper.removeMatches(ZING_PREFIX_PATTERN, filename);
 
             Pkg pkg = new Pkg();
             pkg.setDistribution(Distro.ZULU_PRIME.get());
@@ -451,11 +424,7 @@ public class ZuluPrime implements Distribution {
 
             withoutPrefix = withoutPrefix.replace(JDK == pkg.getPackageType() ? "jdk" : "jre", "");
 
-            Architecture architecture = Constants.ARCHITECTURE_LOOKUP.entrySet().stream()
-                                                                     .filter(entry -> filename.contains(entry.getKey()))
-                                                                     .findFirst()
-                                                                     .map(Entry::getValue)
-                                                                     .orElse(Architecture.NOT_FOUND);
+            Architecture architecture = FilenameClassifier.INSTANCE.classify(filename).getArchitecture(Architecture.NOT_FOUND);
             if (Architecture.NOT_FOUND == architecture) {
                 LOGGER.debug("Architecture not found in {} for filename: {}", getName(), filename);
                 continue;
@@ -463,11 +432,7 @@ public class ZuluPrime implements Distribution {
             pkg.setArchitecture(architecture);
             pkg.setBitness(architecture.getBitness());
 
-            OperatingSystem operatingSystem = Constants.OPERATING_SYSTEM_LOOKUP.entrySet().stream()
-                                                                               .filter(entry -> filename.contains(entry.getKey()))
-                                                                               .findFirst()
-                                                                               .map(Entry::getValue)
-                                                                               .orElse(OperatingSystem.NOT_FOUND);
+            OperatingSystem operatingSystem = FilenameClassifier.INSTANCE.classify(filename).getOperatingSystem(OperatingSystem.NOT_FOUND);
 
             if (filename.startsWith("zvm")) { operatingSystem = LINUX; }
 
@@ -477,11 +442,7 @@ public class ZuluPrime implements Distribution {
             }
             pkg.setOperatingSystem(operatingSystem);
 
-            ArchiveType archiveType = Constants.ARCHIVE_TYPE_LOOKUP.entrySet().stream()
-                                                                   .filter(entry -> filename.contains(entry.getKey()))
-                                                                   .findFirst()
-                                                                   .map(Entry::getValue)
-                                                                   .orElse(ArchiveType.NOT_FOUND);
+            ArchiveType archiveType = FilenameClassifier.INSTANCE.classify(filename).getArchiveTypeContained(ArchiveType.NOT_FOUND);
 
             if (ArchiveType.NOT_FOUND == archiveType) {
                 LOGGER.debug("Archive Type not found in {} for filename: {}", getName(), filename);
@@ -520,7 +481,7 @@ public class ZuluPrime implements Distribution {
 
             pkg.setFreeUseInProduction(Boolean.FALSE);
 
-            pkg.setSize(Helper.getFileSize(fileHref));
+            pkg.setSize(FileSizeResolver.INSTANCE.getSize(fileHref));
 
             pkgs.add(pkg);
         }
@@ -0,0 +1,143 @@
+/*
+ * Copyright (c) 2021.
+ *
+ * This file is part of DiscoAPI.
+ *
+ *     DiscoAPI is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 2 of the License, or
+ *     (at your option) any later version.
+ *
+ *     DiscoAPI is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with DiscoAPI.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.foojay.api.mqtt;
+
+import io.foojay.api.util.Constants;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+
+/**
+ * Decouples the handling of mqtt messages from the network thread of the mqtt client.
+ * Incoming events are put in a bounded queue and handed to the registered observers in order
+ * by a dedicated worker thread. If the queue is full, events of critical topics (pkg updates
+ * incl. admin commands and pkg deltas) block the caller until there is room, all other events
+ * are dropped and counted.
+ */
+public class MqttEvtDispatcher {
+    private static final Logger                             LOGGER   = LoggerFactory.getLogger(MqttEvtDispatcher.class);
+    private static final int                                CAPACITY = 1_000;
+    private final        BlockingQueue<MqttEvt>             queue;
+    private final        Set<String>                        criticalTopics;
+    private final        Map<String, List<MqttEvtObserver>> topicObservers;
+    private final        List<MqttEvtObserver>              observers;
+    private final        Thread                             worker;
+    public  final        AtomicLong                         eventsReceived;
+    public  final        AtomicLong                         eventsDropped;
+
+
+    // ******************** Constructors **************************************
+    public MqttEvtDispatcher(final String name) {
+        this(name, Set.of(Constants.MQTT_PKG_UPDATE_TOPIC, Constants.MQTT_PKG_DELTA_TOPIC), Metrics.globalRegistry, CAPACITY);
+    }
+    MqttEvtDispatcher(final String name, final Set<String> criticalTopics, final MeterRegistry registry, final int capacity) {
+        this.queue          = new ArrayBlockingQueue<>(capacity);
+        this.criticalTopics = Set.copyOf(criticalTopics);
+        this.topicObservers = new ConcurrentHashMap<>();
+        this.observers      = new CopyOnWriteArrayList<>();
+        this.eventsReceived = new AtomicLong(0);
+        this.eventsDropped  = new AtomicLong(0);
+        this.worker         = new Thread(this::work, name);
+        this.worker.setDaemon(true);
+        this.worker.start();
+        FunctionCounter.builder("discoapi.mqtt.events.dropped", eventsDropped, AtomicLong::get).tag("name", name).register(registry);
+    }
+
+
+    // ******************** Methods *******************************************
+    /**
+     * Puts the given event in the queue. Only blocks the calling thread if the queue is full and the
+     * event belongs to a critical topic, a lost pkg delta or admin command would leave the catalog stale.
+     * @param evt the event to dispatch
+     */
+    public void dispatch(final MqttEvt evt) {
+        eventsReceived.incrementAndGet();
+        if (queue.offer(evt)) { return; }
+        if (!criticalTopics.contains(evt.getTopic())) {
+            eventsDropped.incrementAndGet();
+            LOGGER.warn("MQTT event queue full, dropped event {}", evt);
+            return;
+        }
+        try {
+            queue.put(evt);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            eventsDropped.incrementAndGet();
+            LOGGER.error("Interrupted while waiting for room in the MQTT event queue, dropped event {}", evt);
+        }
+    }
+
+    public int getQueueSize() { return queue.size(); }
+
+    private void work() {
+        while (!Thread.currentThread().isInterrupted()) {
+            final MqttEvt evt;
+            try {
+                evt = queue.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            observers.forEach(observer -> handle(observer, evt));
+            final List<MqttEvtObserver> observersOfTopic = topicObservers.get(evt.getTopic());
+            if (null != observersOfTopic) { observersOfTopic.forEach(observer -> handle(observer, evt)); }
+        }
+    }
+
+    private void handle(final MqttEvtObserver observer, final MqttEvt evt) {
+        try {
+            observer.handleEvt(evt);
+        } catch (Exception e) {
+            LOGGER.error("Error handling MQTT event {}. {}", evt, e.getMessage());
+        }
+    }
+
+
+    // ******************** Event Handling ************************************
+    public void addObserver(final MqttEvtObserver observer) {
+        if (observers.contains(observer)) { return; }
+        observers.add(observer);
+    }
+    public void removeObserver(final MqttEvtObserver observer) {
+        observers.remove(observer);
+    }
+
+    public void addObserver(final String topic, final MqttEvtObserver observer) {
+        final List<MqttEvtObserver> observersOfTopic = topicObservers.computeIfAbsent(topic, t -> new CopyOnWriteArrayList<>());
+        if (observersOfTopic.contains(observer)) { return; }
+        observersOfTopic.add(observer);
+    }
+    public void removeObserver(final String topic, final MqttEvtObserver observer) {
+        final List<MqttEvtObserver> observersOfTopic = topicObservers.get(topic);
+        if (null != observersOfTopic) { observersOfTopic.remove(observer); }
+    }
+}
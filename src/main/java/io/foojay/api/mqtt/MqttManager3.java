@@ -30,9 +30,7 @@ import io.foojay.api.util.Constants;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.List;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 
@@ -48,27 +46,24 @@ public class MqttManager3 {
     private static final boolean               GHOST                  = !Config.INSTANCE.getFoojayApiEnvironment().equals(PRODUCTION_ENVIRONMENT) && !Config.INSTANCE.getFoojayApiEnvironment().equals(STAGING_ENVIRONMENT) && !Config.INSTANCE.getFoojayApiEnvironment().equals(TESTING_ENVIRONMENT);
     private              Mqtt3AsyncClient      asyncClient;
     private              AtomicBoolean         connected;
-    private              List<MqttEvtObserver> observers;
+    private              AtomicBoolean         publishesRegistered;
+    private              MqttEvtDispatcher     dispatcher;
 
 
     // ******************** Constructors **************************************
     public MqttManager3() {
-        this.connected = new AtomicBoolean(Boolean.FALSE);
-        this.observers = new CopyOnWriteArrayList<>();
+        this.connected           = new AtomicBoolean(Boolean.FALSE);
+        this.publishesRegistered = new AtomicBoolean(Boolean.FALSE);
+        this.dispatcher          = new MqttEvtDispatcher("mqtt-evt-dispatcher");
+        // Only create the client here, it will connect on connect() or on the first publish/subscribe
         try {
             asyncClient = createAsyncClient();
-            init();
         } catch (NullPointerException e) {
             LOGGER.error("Error connecting to MQTT broker {} on port {}. {}", Config.INSTANCE.getFoojayMqttBroker(), Config.INSTANCE.getFoojayMqttPort(), e.getMessage());
         }
     }
 
 
-    private void init() {
-        connect(true);
-    }
-
-
     // ******************** Methods *******************************************
     public boolean isConnected() { return connected.get(); }
 
@@ -127,18 +122,26 @@ public class MqttManager3 {
         asyncClient.unsubscribeWith().topicFilter(topic).send();
     }
 
-    public void connect(final boolean cleanStart) {
-        if (GHOST) { return; }
+    /**
+     * Connects to the mqtt broker if not already connected or connecting
+     * @param cleanStart start with a clean session
+     * @return future that completes with true if the client is connected to the broker
+     */
+    public CompletableFuture<Boolean> connect(final boolean cleanStart) {
+        if (GHOST) { return CompletableFuture.completedFuture(Boolean.FALSE); }
         if (null == asyncClient) {
             try {
                 asyncClient = createAsyncClient();
+                publishesRegistered.set(false);
             } catch (Exception e) {
                 LOGGER.error("Error connecting to MQTT broker {} on port {}. {}", Config.INSTANCE.getFoojayMqttBroker(), Config.INSTANCE.getFoojayMqttPort(), e.getMessage());
+                return CompletableFuture.completedFuture(Boolean.FALSE);
             }
         }
 
+        CompletableFuture<Boolean> result = CompletableFuture.completedFuture(asyncClient.getState().isConnected());
         if (!asyncClient.getState().isConnectedOrReconnect() && MqttClientState.CONNECTING != asyncClient.getState() && MqttClientState.CONNECTING_RECONNECT != asyncClient.getState()) {
-            asyncClient.connectWith()
+            result = asyncClient.connectWith()
                        .cleanSession(cleanStart)
                        .keepAlive(30)
                        .simpleAuth()
@@ -160,13 +163,18 @@ public class MqttManager3 {
                                publish(Constants.MQTT_PRESENCE_TOPIC, MqttQos.EXACTLY_ONCE,true, Constants.MQTT_ONLINE_MSG);
                            }
                            connected.set(null == throwable);
-                       });
+                       })
+                       .handle((connAck, throwable) -> null == throwable);
         }
-        asyncClient.publishes(ALL, publish -> {
-            if (publish.getPayload().isPresent()) {
-                fireMqttEvent(new MqttEvt(publish.getTopic().toString(), UTF_8.decode(publish.getPayload().get()).toString()));
-            }
-        });
+        // Register the callback only once per client, the client keeps it across reconnects
+        if (publishesRegistered.compareAndSet(false, true)) {
+            asyncClient.publishes(ALL, publish -> {
+                if (publish.getPayload().isPresent()) {
+                    fireMqttEvent(new MqttEvt(publish.getTopic().toString(), UTF_8.decode(publish.getPayload().get()).toString()));
+                }
+            });
+        }
+        return result;
     }
 
     private Mqtt3AsyncClient createAsyncClient() {
@@ -186,15 +194,27 @@ public class MqttManager3 {
 
     // ******************** Event Handling ************************************
     public void addMqttObserver(final MqttEvtObserver observer) {
-        if (GHOST || observers.contains(observer)) { return; }
-        observers.add(observer);
+        if (GHOST) { return; }
+        dispatcher.addObserver(observer);
     }
     public void removeMqttObserver(final MqttEvtObserver observer) {
         if (GHOST) { return; }
-        if (observers.contains(observer)) { observers.remove(observer); }
+        dispatcher.removeObserver(observer);
+    }
+
+    public void addMqttObserver(final String topic, final MqttEvtObserver observer) {
+        if (GHOST) { return; }
+        dispatcher.addObserver(topic, observer);
     }
+    public void removeMqttObserver(final String topic, final MqttEvtObserver observer) {
+        if (GHOST) { return; }
+        dispatcher.removeObserver(topic, observer);
+    }
+
+    public MqttEvtDispatcher getDispatcher() { return dispatcher; }
 
+    // Called on the network thread of the mqtt client, so only hand the event over to the dispatcher
     private void fireMqttEvent(final MqttEvt evt) {
-        observers.forEach(observer -> observer.handleEvt(evt));
+        dispatcher.dispatch(evt);
     }
 }
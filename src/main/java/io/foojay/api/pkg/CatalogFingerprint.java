@@ -0,0 +1,195 @@
+/*
+ * Copyright (c) 2021.
+ *
+ * This file is part of DiscoAPI.
+ *
+ *     DiscoAPI is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 2 of the License, or
+ *     (at your option) any later version.
+ *
+ *     DiscoAPI is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with DiscoAPI.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.foojay.api.pkg;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonSyntaxException;
+import eu.hansolo.jdktools.util.OutputFormat;
+import io.foojay.api.util.Helper;
+import io.foojay.api.util.Pair;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+import static io.foojay.api.util.Constants.API_VERSION_V3;
+import static io.foojay.api.util.Constants.COLON;
+import static io.foojay.api.util.Constants.COMMA;
+import static io.foojay.api.util.Constants.CURLY_BRACKET_CLOSE;
+import static io.foojay.api.util.Constants.CURLY_BRACKET_OPEN;
+import static io.foojay.api.util.Constants.QUOTES;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+
+/**
+ * An order independent fingerprint of the package catalog. Each package contributes a 128 bit
+ * content hash (the first 16 bytes of the SHA-256 of its json representation) and the hashes are
+ * summed up (modulo 2^64 per half). The same is done per distro, so nodes that hold different
+ * catalogs can find out which distros differ.
+ */
+public class CatalogFingerprint {
+    private static final Logger              LOGGER            = LoggerFactory.getLogger(CatalogFingerprint.class);
+    public  static final String              TYPE              = "catalog_fingerprint";
+    private static final String              FIELD_TYPE        = "type";
+    private static final String              FIELD_NODE        = "node";
+    private static final String              FIELD_GENERATION  = "generation";
+    private static final String              FIELD_FINGERPRINT = "fingerprint";
+    private static final String              FIELD_SIZE        = "size";
+    private static final String              FIELD_DISTROS     = "distros";
+    private final        String              node;
+    private final        long                generation;
+    private final        long                size;
+    private final        String              fingerprint;
+    private final        Map<Distro, String> distroFingerprints;
+    private final        long                createdAt;
+
+
+    public CatalogFingerprint(final String node, final long generation, final long size, final String fingerprint, final Map<Distro, String> distroFingerprints) {
+        this(node, generation, size, fingerprint, distroFingerprints, System.currentTimeMillis());
+    }
+    public CatalogFingerprint(final String node, final long generation, final long size, final String fingerprint, final Map<Distro, String> distroFingerprints, final long createdAt) {
+        this.node               = node;
+        this.generation         = generation;
+        this.size               = size;
+        this.fingerprint        = fingerprint;
+        this.distroFingerprints = Collections.unmodifiableMap(new TreeMap<>(distroFingerprints));
+        this.createdAt          = createdAt;
+    }
+
+
+    public String getNode() { return node; }
+
+    public long getGeneration() { return generation; }
+
+    public long getSize() { return size; }
+
+    public String getFingerprint() { return fingerprint; }
+
+    public Map<Distro, String> getDistroFingerprints() { return distroFingerprints; }
+
+    /**
+     * Returns the time in ms when this fingerprint was computed or (for fingerprints of other nodes) received
+     * @return the time in ms when this fingerprint was computed or received
+     */
+    public long getCreatedAt() { return createdAt; }
+
+    public boolean isOlderThan(final long maxAgeMs, final long now) { return now - createdAt > maxAgeMs; }
+
+    /**
+     * Returns the distros whose fingerprint differs between this and the given fingerprint
+     * @param other the fingerprint to compare with
+     * @return the distros whose fingerprint differs between this and the given fingerprint
+     */
+    public List<Distro> getDivergingDistros(final CatalogFingerprint other) {
+        final List<Distro> diverging = new ArrayList<>();
+        Distro.getAsListWithoutNoneAndNotFound().forEach(distro -> {
+            if (!Objects.equals(distroFingerprints.get(distro), other.getDistroFingerprints().get(distro))) { diverging.add(distro); }
+        });
+        return diverging;
+    }
+
+    /**
+     * Returns the fingerprint of the given packages
+     * @param node the name of the node that holds the packages
+     * @param generation the catalog generation of the packages
+     * @param pkgs the packages of the catalog
+     * @return the fingerprint of the given packages
+     */
+    public static CatalogFingerprint of(final String node, final long generation, final Collection<Pkg> pkgs) {
+        final List<Pair<Distro, long[]>> hashes    = pkgs.parallelStream().map(pkg -> new Pair<>(pkg.getDistribution().getDistro(), hash(pkg))).collect(Collectors.toList());
+        final long[]                     total     = new long[2];
+        final Map<Distro, long[]>        perDistro = new HashMap<>();
+        for (Pair<Distro, long[]> pair : hashes) {
+            add(total, pair.getValue());
+            add(perDistro.computeIfAbsent(pair.getKey(), distro -> new long[2]), pair.getValue());
+        }
+        final Map<Distro, String> distroFingerprints = new HashMap<>();
+        perDistro.forEach((distro, hash) -> distroFingerprints.put(distro, toHex(hash)));
+        return new CatalogFingerprint(node, generation, pkgs.size(), toHex(total), distroFingerprints);
+    }
+
+    public static CatalogFingerprint fromJson(final String jsonText) {
+        if (null == jsonText || !jsonText.startsWith(CURLY_BRACKET_OPEN)) { return null; }
+        try {
+            final Gson       gson = new Gson();
+            final JsonObject json = gson.fromJson(jsonText, JsonObject.class);
+            if (!json.has(FIELD_TYPE) || !TYPE.equals(json.get(FIELD_TYPE).getAsString())) { return null; }
+            final Map<Distro, String> distroFingerprints = new HashMap<>();
+            json.getAsJsonObject(FIELD_DISTROS).entrySet().forEach(entry -> {
+                final Distro distro = Distro.fromText(entry.getKey());
+                if (Distro.NOT_FOUND != distro) { distroFingerprints.put(distro, entry.getValue().getAsString()); }
+            });
+            return new CatalogFingerprint(json.get(FIELD_NODE).getAsString(), json.get(FIELD_GENERATION).getAsLong(), json.get(FIELD_SIZE).getAsLong(),
+                                          json.get(FIELD_FINGERPRINT).getAsString(), distroFingerprints);
+        } catch (JsonSyntaxException | IllegalStateException | ClassCastException | NullPointerException e) {
+            LOGGER.debug("Error parsing catalog fingerprint. {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private static long[] hash(final Pkg pkg) {
+        final ByteBuffer buffer = ByteBuffer.wrap(Helper.getSHA256Bytes(pkg.toString(OutputFormat.FULL_COMPRESSED, API_VERSION_V3).getBytes(UTF_8)));
+        return new long[] { buffer.getLong(), buffer.getLong() };
+    }
+
+    private static void add(final long[] sum, final long[] hash) {
+        sum[0] += hash[0];
+        sum[1] += hash[1];
+    }
+
+    private static String toHex(final long[] hash) { return String.format("%016x%016x", hash[0], hash[1]); }
+
+
+    @Override public boolean equals(final Object o) {
+        if (this == o) { return true; }
+        if (o == null || getClass() != o.getClass()) { return false; }
+        CatalogFingerprint that = (CatalogFingerprint) o;
+        return generation == that.generation && fingerprint.equals(that.fingerprint);
+    }
+
+    @Override public int hashCode() { return Objects.hash(generation, fingerprint); }
+
+    @Override public String toString() {
+        final StringBuilder msgBuilder = new StringBuilder().append(CURLY_BRACKET_OPEN)
+                                                            .append(QUOTES).append(FIELD_TYPE).append(QUOTES).append(COLON).append(QUOTES).append(TYPE).append(QUOTES).append(COMMA)
+                                                            .append(QUOTES).append(FIELD_NODE).append(QUOTES).append(COLON).append(QUOTES).append(node).append(QUOTES).append(COMMA)
+                                                            .append(QUOTES).append(FIELD_GENERATION).append(QUOTES).append(COLON).append(generation).append(COMMA)
+                                                            .append(QUOTES).append(FIELD_SIZE).append(QUOTES).append(COLON).append(size).append(COMMA)
+                                                            .append(QUOTES).append(FIELD_FINGERPRINT).append(QUOTES).append(COLON).append(QUOTES).append(fingerprint).append(QUOTES).append(COMMA)
+                                                            .append(QUOTES).append(FIELD_DISTROS).append(QUOTES).append(COLON).append(CURLY_BRACKET_OPEN);
+        boolean first = true;
+        for (Map.Entry<Distro, String> entry : distroFingerprints.entrySet()) {
+            if (!first) { msgBuilder.append(COMMA); }
+            msgBuilder.append(QUOTES).append(entry.getKey().getApiString()).append(QUOTES).append(COLON).append(QUOTES).append(entry.getValue()).append(QUOTES);
+            first = false;
+        }
+        return msgBuilder.append(CURLY_BRACKET_CLOSE).append(CURLY_BRACKET_CLOSE).toString();
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * Copyright (c) 2021.
+ *
+ * This file is part of DiscoAPI.
+ *
+ *     DiscoAPI is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 2 of the License, or
+ *     (at your option) any later version.
+ *
+ *     DiscoAPI is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with DiscoAPI.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.foojay.api.pkg;
+
+import io.foojay.api.util.PersistentHashMap;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static io.foojay.api.util.Constants.COLON;
+import static io.foojay.api.util.Constants.COMMA;
+import static io.foojay.api.util.Constants.CURLY_BRACKET_CLOSE;
+import static io.foojay.api.util.Constants.CURLY_BRACKET_OPEN;
+import static io.foojay.api.util.Constants.QUOTES;
+import static io.foojay.api.util.Constants.SQUARE_BRACKET_CLOSE;
+import static io.foojay.api.util.Constants.SQUARE_BRACKET_OPEN;
+
+
+/**
+ * Keeps the packages of the last catalog generations. Each generation is an immutable
+ * PersistentHashMap that shares all unchanged packages with the previous generation, so the
+ * history costs about the size of the deltas and not the size of several catalogs.
+ * Pinned generations will not be evicted.
+ */
+public class CatalogHistory {
+    private final int                    maxGenerations;
+    private final LinkedList<Generation> generations;
+    private final Set<Long>              pinned;
+
+
+    public CatalogHistory(final int maxGenerations) {
+        this.maxGenerations = Math.max(1, maxGenerations);
+        this.generations    = new LinkedList<>();
+        this.pinned         = new HashSet<>();
+    }
+
+
+    /**
+     * Records the given packages as the content of the given generation.
+     * Packages that are the same instances as in the latest generation will be shared.
+     * @param generation the catalog generation
+     * @param pkgs all packages of the generation by id
+     */
+    public synchronized void record(final long generation, final Map<String, Pkg> pkgs) {
+        PersistentHashMap<String, Pkg> pkgsOfGeneration = getLatest();
+        for (Map.Entry<String, Pkg> entry : pkgs.entrySet()) { pkgsOfGeneration = pkgsOfGeneration.put(entry.getKey(), entry.getValue()); }
+
+        final List<String> removedIds = new ArrayList<>();
+        pkgsOfGeneration.forEach((id, pkg) -> { if (!pkgs.containsKey(id)) { removedIds.add(id); } });
+        for (String id : removedIds) { pkgsOfGeneration = pkgsOfGeneration.remove(id); }
+        add(generation, pkgsOfGeneration);
+    }
+
+    /**
+     * Records the given changes on top of the latest generation as the content of the given generation.
+     * @param generation the catalog generation
+     * @param upserted the packages that have been added or updated
+     * @param removedIds the ids of the packages that have been removed
+     */
+    public synchronized void record(final long generation, final Collection<Pkg> upserted, final Collection<String> removedIds) {
+        PersistentHashMap<String, Pkg> pkgsOfGeneration = getLatest();
+        for (Pkg pkg : upserted)     { pkgsOfGeneration = pkgsOfGeneration.put(pkg.getId(), pkg); }
+        for (String id : removedIds) { pkgsOfGeneration = pkgsOfGeneration.remove(id); }
+        add(generation, pkgsOfGeneration);
+    }
+
+    /**
+     * Returns the packages of the given generation
+     * @param generation the catalog generation
+     * @return the packages of the given generation or null if the generation is not available anymore
+     */
+    public synchronized PersistentHashMap<String, Pkg> get(final long generation) {
+        return generations.stream().filter(g -> g.generation() == generation).map(Generation::pkgs).findFirst().orElse(null);
+    }
+
+    public synchronized List<Long> getGenerations() { return generations.stream().map(Generation::generation).toList(); }
+
+    public synchronized boolean pin(final long generation) {
+        if (null == get(generation)) { return false; }
+        pinned.add(generation);
+        return true;
+    }
+
+    public synchronized void unpin(final long generation) {
+        pinned.remove(generation);
+        evict();
+    }
+
+    public synchronized boolean isPinned(final long generation) { return pinned.contains(generation); }
+
+    private PersistentHashMap<String, Pkg> getLatest() { return generations.isEmpty() ? PersistentHashMap.empty() : generations.getLast().pkgs(); }
+
+    private void add(final long generation, final PersistentHashMap<String, Pkg> pkgs) {
+        // The same generation might be recorded again (e.g. after a resync), only keep the latest content
+        if (!generations.isEmpty() && generations.getLast().generation() == generation) { generations.removeLast(); }
+        generations.add(new Generation(generation, pkgs));
+        evict();
+    }
+
+    private void evict() {
+        final int toEvict = generations.size() - maxGenerations;
+        if (toEvict <= 0) { return; }
+        final List<Generation> evictable = generations.stream().limit(generations.size() - 1).filter(g -> !pinned.contains(g.generation())).limit(toEvict).toList();
+        generations.removeAll(evictable);
+    }
+
+    @Override public synchronized String toString() {
+        final StringBuilder msgBuilder = new StringBuilder().append(CURLY_BRACKET_OPEN)
+                                                            .append(QUOTES).append("max_generations").append(QUOTES).append(COLON).append(maxGenerations).append(COMMA)
+                                                            .append(QUOTES).append("generations").append(QUOTES).append(COLON).append(SQUARE_BRACKET_OPEN);
+        for (int i = 0 ; i < generations.size() ; i++) {
+            final Generation generation = generations.get(i);
+            if (i > 0) { msgBuilder.append(COMMA); }
+            msgBuilder.append(CURLY_BRACKET_OPEN)
+                      .append(QUOTES).append("generation").append(QUOTES).append(COLON).append(generation.generation()).append(COMMA)
+                      .append(QUOTES).append("packages").append(QUOTES).append(COLON).append(generation.pkgs().size()).append(COMMA)
+                      .append(QUOTES).append("pinned").append(QUOTES).append(COLON).append(pinned.contains(generation.generation()))
+                      .append(CURLY_BRACKET_CLOSE);
+        }
+        return msgBuilder.append(SQUARE_BRACKET_CLOSE).append(CURLY_BRACKET_CLOSE).toString();
+    }
+
+
+    private record Generation(long generation, PersistentHashMap<String, Pkg> pkgs) { }
+}
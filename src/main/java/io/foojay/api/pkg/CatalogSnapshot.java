@@ -0,0 +1,439 @@
+/*
+ * Copyright (c) 2021.
+ *
+ * This file is part of DiscoAPI.
+ *
+ *     DiscoAPI is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 2 of the License, or
+ *     (at your option) any later version.
+ *
+ *     DiscoAPI is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with DiscoAPI.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.foojay.api.pkg;
+
+import eu.hansolo.jdktools.Architecture;
+import eu.hansolo.jdktools.ArchiveType;
+import eu.hansolo.jdktools.Bitness;
+import eu.hansolo.jdktools.FPU;
+import eu.hansolo.jdktools.HashAlgorithm;
+import eu.hansolo.jdktools.LibCType;
+import eu.hansolo.jdktools.OperatingSystem;
+import eu.hansolo.jdktools.PackageType;
+import eu.hansolo.jdktools.ReleaseStatus;
+import eu.hansolo.jdktools.TermOfSupport;
+import eu.hansolo.jdktools.Verification;
+import eu.hansolo.jdktools.util.OutputFormat;
+import eu.hansolo.jdktools.versioning.VersionNumber;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+
+/**
+ * Compact binary image of the package catalog that can be written to disk after a sync and
+ * memory mapped on startup, so a node can serve requests before it talked to the database.
+ *
+ * Layout: header (magic, format, schema, generation, created at, length and crc32 of the body), a table
+ * of all distinct strings (uris, filenames, versions, ids), one record per package (enum ordinals, varints,
+ * three state booleans and string table indices) and optionally the pre-rendered json of the v2, v3 and
+ * minimized v3 caches. Truncated or corrupt snapshots are rejected because of the length and crc32.
+ * Nullable values keep their null state, enums and strings use 0 for null, booleans use 0 for null,
+ * 1 for false and 2 for true.
+ * Enum ordinals are only valid for the enum constants the snapshot was written with, that's why the
+ * header contains a checksum over the names of all used enum constants (snapshots with a different
+ * schema will be ignored).
+ */
+public class CatalogSnapshot {
+    private static final Logger              LOGGER         = LoggerFactory.getLogger(CatalogSnapshot.class);
+    private static final int                 MAGIC          = 0x44534E50; // DSNP
+    private static final int                 FORMAT_VERSION = 2;
+    private static final int                 HEADER_SIZE    = 32;
+    private static final int                 SCHEMA         = schemaChecksum();
+    private static final int                 NULL_STRING    = 0;
+    private static final Distro[]            DISTROS        = Distro.values();
+    private static final Architecture[]      ARCHITECTURES  = Architecture.values();
+    private static final Bitness[]           BITNESSES      = Bitness.values();
+    private static final FPU[]               FPUS           = FPU.values();
+    private static final OperatingSystem[]   OSES           = OperatingSystem.values();
+    private static final LibCType[]          LIB_C_TYPES    = LibCType.values();
+    private static final PackageType[]       PACKAGE_TYPES  = PackageType.values();
+    private static final ReleaseStatus[]     RELEASE_STATI  = ReleaseStatus.values();
+    private static final ArchiveType[]       ARCHIVE_TYPES  = ArchiveType.values();
+    private static final TermOfSupport[]     TERMS          = TermOfSupport.values();
+    private static final HashAlgorithm[]     HASH_ALGOS     = HashAlgorithm.values();
+    private static final Verification[]      VERIFICATIONS  = Verification.values();
+    private static final Feature[]           FEATURES       = Feature.values();
+    private static final int                 SLOT_FX        = 0;
+    private static final int                 SLOT_DIRECT    = 1;
+    private static final int                 SLOT_HEADLESS  = 2;
+    private static final int                 SLOT_LATEST    = 3;
+    private static final int                 SLOT_FREE_USE  = 4;
+    private static final int                 SLOT_URL_VALID = 5;
+    private static final int                 SLOT_MAINTAIN  = 6;
+    private final        long                generation;
+    private final        long                createdAt;
+    private final        List<Pkg>           pkgs;
+    private final        Map<String, String> jsonV2;
+    private final        Map<String, String> jsonV3;
+    private final        Map<String, String> jsonMinimizedV3;
+
+
+    public CatalogSnapshot(final long generation, final long createdAt, final List<Pkg> pkgs, final Map<String, String> jsonV2, final Map<String, String> jsonV3, final Map<String, String> jsonMinimizedV3) {
+        this.generation      = generation;
+        this.createdAt       = createdAt;
+        this.pkgs            = Collections.unmodifiableList(pkgs);
+        this.jsonV2          = null == jsonV2          ? Map.of() : Collections.unmodifiableMap(jsonV2);
+        this.jsonV3          = null == jsonV3          ? Map.of() : Collections.unmodifiableMap(jsonV3);
+        this.jsonMinimizedV3 = null == jsonMinimizedV3 ? Map.of() : Collections.unmodifiableMap(jsonMinimizedV3);
+    }
+
+
+    public long getGeneration() { return generation; }
+
+    public long getCreatedAt() { return createdAt; }
+
+    public List<Pkg> getPkgs() { return pkgs; }
+
+    public Map<String, String> getJsonV2() { return jsonV2; }
+
+    public Map<String, String> getJsonV3() { return jsonV3; }
+
+    public Map<String, String> getJsonMinimizedV3() { return jsonMinimizedV3; }
+
+    public boolean hasJson() { return !jsonV2.isEmpty() || !jsonV3.isEmpty() || !jsonMinimizedV3.isEmpty(); }
+
+
+    /**
+     * Writes the snapshot to a temporary file next to the given path and moves it in place, so
+     * readers either see the old or the new snapshot but never a partially written one.
+     * @param path The path of the snapshot file
+     * @throws IOException if the snapshot could not be written
+     */
+    public void write(final Path path) throws IOException {
+        final byte[] bytes = toBytes();
+        final Path   dir   = null == path.toAbsolutePath().getParent() ? Path.of(".") : path.toAbsolutePath().getParent();
+        Files.createDirectories(dir);
+        final Path tmp = Files.createTempFile(dir, path.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                final ByteBuffer buffer = ByteBuffer.wrap(bytes);
+                while (buffer.hasRemaining()) { channel.write(buffer); }
+                channel.force(true);
+            }
+            try {
+                Files.move(tmp, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    /**
+     * Memory maps the given snapshot file and decodes it.
+     * @param path The path of the snapshot file
+     * @return the snapshot or null if there is no (valid) snapshot at the given path
+     */
+    public static CatalogSnapshot read(final Path path) {
+        if (null == path || !Files.isRegularFile(path)) { return null; }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return fromBuffer(buffer);
+        } catch (IOException e) {
+            LOGGER.error("Error reading catalog snapshot from {}. {}", path, e.getMessage());
+            return null;
+        }
+    }
+
+    public byte[] toBytes() {
+        final Map<String, Integer> strings = new LinkedHashMap<>();
+        final ByteArrayOutputStream records = new ByteArrayOutputStream(pkgs.size() * 64);
+
+        writeVarLong(records, pkgs.size());
+        for (Pkg pkg : pkgs) {
+            final MajorVersion jdkVersion = pkg.getJdkVersion();
+            final long booleans = triState(pkg.isJavaFXBundled(), SLOT_FX)
+                                | triState(pkg.isDirectlyDownloadable(), SLOT_DIRECT)
+                                | triState(pkg.isHeadless(), SLOT_HEADLESS)
+                                | triState(pkg.isLatestBuildAvailable(), SLOT_LATEST)
+                                | triState(pkg.getFreeUseInProduction(), SLOT_FREE_USE)
+                                | triState(pkg.isUrlValid(), SLOT_URL_VALID)
+                                | triState(jdkVersion.isMaintained(), SLOT_MAINTAIN);
+
+            writeVarLong(records, booleans);
+            writeVarLong(records, ordinal(pkg.getDistribution().getDistro()));
+            writeVarLong(records, index(strings, toText(pkg.getVersionNumber())));
+            writeVarLong(records, index(strings, toText(pkg.getJavaVersion())));
+            writeVarLong(records, index(strings, toText(pkg.getDistributionVersion())));
+            writeVarLong(records, jdkVersion.getAsInt());
+            writeVarLong(records, ordinal(jdkVersion.getTermOfSupport()));
+            writeVarLong(records, ordinal(pkg.getArchitecture()));
+            writeVarLong(records, ordinal(pkg.getBitness()));
+            writeVarLong(records, ordinal(pkg.getFPU()));
+            writeVarLong(records, ordinal(pkg.getOperatingSystem()));
+            writeVarLong(records, ordinal(pkg.getLibCType()));
+            writeVarLong(records, ordinal(pkg.getPackageType()));
+            writeVarLong(records, ordinal(pkg.getReleaseStatus()));
+            writeVarLong(records, ordinal(pkg.getArchiveType()));
+            writeVarLong(records, ordinal(pkg.getTermOfSupport()));
+            writeVarLong(records, index(strings, pkg.getFilename()));
+            writeVarLong(records, index(strings, pkg.getDirectDownloadUri()));
+            writeVarLong(records, index(strings, pkg.getDownloadSiteUri()));
+            writeVarLong(records, index(strings, pkg.getSignatureUri()));
+            writeVarLong(records, index(strings, pkg.getChecksumUri()));
+            writeVarLong(records, index(strings, pkg.getChecksum()));
+            writeVarLong(records, ordinal(pkg.getChecksumType()));
+            writeVarLong(records, ordinal(pkg.getTckTested()));
+            writeVarLong(records, index(strings, pkg.getTckCertUri()));
+            writeVarLong(records, ordinal(pkg.getAqavitCertified()));
+            writeVarLong(records, index(strings, pkg.getAqavitCertUri()));
+            writeVarLong(records, zigZag(pkg.getValidatedAt()));
+            writeVarLong(records, zigZag(pkg.getSize()));
+            final Collection<Feature> features = null == pkg.getFeatures() ? List.of() : pkg.getFeatures();
+            writeVarLong(records, features.size());
+            features.forEach(feature -> writeVarLong(records, ordinal(feature)));
+        }
+        writeJson(records, strings, jsonV2);
+        writeJson(records, strings, jsonV3);
+        writeJson(records, strings, jsonMinimizedV3);
+
+        final ByteArrayOutputStream body = new ByteArrayOutputStream(records.size() + strings.size() * 48);
+        writeVarLong(body, strings.size());
+        strings.keySet().forEach(text -> writeString(body, text));
+        body.writeBytes(records.toByteArray());
+        final byte[] bodyBytes = body.toByteArray();
+        final CRC32  crc       = new CRC32();
+        crc.update(bodyBytes);
+
+        final ByteBuffer out = ByteBuffer.allocate(HEADER_SIZE + bodyBytes.length);
+        out.putInt(MAGIC).putInt(FORMAT_VERSION << 24 | (SCHEMA & 0x00FFFFFF)).putLong(generation).putLong(createdAt).putInt(bodyBytes.length).putInt((int) crc.getValue());
+        out.put(bodyBytes);
+        return out.array();
+    }
+
+    /**
+     * Decodes a snapshot from the given buffer (e.g. a memory mapped file).
+     * @param buffer The buffer that contains the binary snapshot
+     * @return the snapshot or null if the buffer does not contain a valid snapshot of this schema
+     */
+    public static CatalogSnapshot fromBuffer(final ByteBuffer buffer) {
+        try {
+            if (buffer.remaining() < HEADER_SIZE || buffer.getInt() != MAGIC) { return null; }
+            final int formatAndSchema = buffer.getInt();
+            if (formatAndSchema >>> 24 != FORMAT_VERSION || (formatAndSchema & 0x00FFFFFF) != (SCHEMA & 0x00FFFFFF)) {
+                LOGGER.info("Catalog snapshot was written with a different format or schema, ignoring it");
+                return null;
+            }
+            final long generation = buffer.getLong();
+            final long createdAt  = buffer.getLong();
+            final int  length     = buffer.getInt();
+            final int  checksum   = buffer.getInt();
+            if (length != buffer.remaining()) {
+                LOGGER.error("Catalog snapshot is truncated (expected {} bytes but found {} bytes)", length, buffer.remaining());
+                return null;
+            }
+            final CRC32 crc = new CRC32();
+            crc.update(buffer.slice());
+            if ((int) crc.getValue() != checksum) {
+                LOGGER.error("Catalog snapshot is corrupt (checksum mismatch)");
+                return null;
+            }
+
+            final int      noOfStrings = (int) readVarLong(buffer);
+            final String[] strings     = new String[noOfStrings + 1];
+            for (int i = 1 ; i <= noOfStrings ; i++) { strings[i] = readString(buffer); }
+
+            final int       noOfPkgs = (int) readVarLong(buffer);
+            final List<Pkg> pkgs     = new ArrayList<>(noOfPkgs);
+            for (int i = 0 ; i < noOfPkgs ; i++) {
+                final long            booleans            = readVarLong(buffer);
+                final Distro          distro              = fromOrdinal(DISTROS, buffer);
+                final VersionNumber   versionNumber       = fromText(strings[(int) readVarLong(buffer)]);
+                final VersionNumber   javaVersion         = fromText(strings[(int) readVarLong(buffer)]);
+                final VersionNumber   distributionVersion = fromText(strings[(int) readVarLong(buffer)]);
+                final int             majorVersion        = (int) readVarLong(buffer);
+                final TermOfSupport   majorTermOfSupport  = fromOrdinal(TERMS, buffer);
+                final Architecture    architecture        = fromOrdinal(ARCHITECTURES, buffer);
+                final Bitness         bitness             = fromOrdinal(BITNESSES, buffer);
+                final FPU             fpu                 = fromOrdinal(FPUS, buffer);
+                final OperatingSystem operatingSystem     = fromOrdinal(OSES, buffer);
+                final LibCType        libCType            = fromOrdinal(LIB_C_TYPES, buffer);
+                final PackageType     packageType         = fromOrdinal(PACKAGE_TYPES, buffer);
+                final ReleaseStatus   releaseStatus       = fromOrdinal(RELEASE_STATI, buffer);
+                final ArchiveType     archiveType         = fromOrdinal(ARCHIVE_TYPES, buffer);
+                final TermOfSupport   termOfSupport       = fromOrdinal(TERMS, buffer);
+                final String          filename            = strings[(int) readVarLong(buffer)];
+                final String          directDownloadUri   = strings[(int) readVarLong(buffer)];
+                final String          downloadSiteUri     = strings[(int) readVarLong(buffer)];
+                final String          signatureUri        = strings[(int) readVarLong(buffer)];
+                final String          checksumUri         = strings[(int) readVarLong(buffer)];
+                final String          checksum            = strings[(int) readVarLong(buffer)];
+                final HashAlgorithm   checksumType        = fromOrdinal(HASH_ALGOS, buffer);
+                final Verification    tckTested           = fromOrdinal(VERIFICATIONS, buffer);
+                final String          tckCertUri          = strings[(int) readVarLong(buffer)];
+                final Verification    aqavitCertified     = fromOrdinal(VERIFICATIONS, buffer);
+                final String          aqavitCertUri       = strings[(int) readVarLong(buffer)];
+                final long            validatedAt         = unZigZag(readVarLong(buffer));
+                final long            size                = unZigZag(readVarLong(buffer));
+                final int             noOfFeatures        = (int) readVarLong(buffer);
+                final List<Feature>   features            = new ArrayList<>(noOfFeatures);
+                for (int f = 0 ; f < noOfFeatures ; f++) { features.add(fromOrdinal(FEATURES, buffer)); }
+
+                final Boolean         javafxBundled       = fromTriState(booleans, SLOT_FX);
+                final Boolean         directDownloadable  = fromTriState(booleans, SLOT_DIRECT);
+
+                final MajorVersion jdkVersion = new MajorVersion(majorVersion, majorTermOfSupport, Boolean.TRUE.equals(fromTriState(booleans, SLOT_MAINTAIN)));
+                final Pkg pkg = new Pkg(distro.get(), versionNumber, jdkVersion, architecture, bitness, fpu, operatingSystem, packageType, releaseStatus, archiveType, termOfSupport,
+                                        Boolean.TRUE.equals(javafxBundled), Boolean.TRUE.equals(directDownloadable), filename, directDownloadUri, downloadSiteUri, signatureUri, checksumUri, checksum, checksumType,
+                                        fromTriState(booleans, SLOT_FREE_USE), tckTested, tckCertUri, aqavitCertified, aqavitCertUri, validatedAt, Boolean.TRUE.equals(fromTriState(booleans, SLOT_URL_VALID)), size, features);
+                pkg.setJavaFXBundled(javafxBundled);
+                pkg.setDirectlyDownloadable(directDownloadable);
+                pkg.setJavaVersion(javaVersion);
+                pkg.setDistributionVersion(distributionVersion);
+                pkg.setTermOfSupport(termOfSupport);
+                pkg.setLibCType(libCType);
+                pkg.setHeadless(Boolean.TRUE.equals(fromTriState(booleans, SLOT_HEADLESS)));
+                pkg.setLatestBuildAvailable(fromTriState(booleans, SLOT_LATEST));
+                pkgs.add(pkg);
+            }
+            final Map<String, String> jsonV2          = readJson(buffer, strings);
+            final Map<String, String> jsonV3          = readJson(buffer, strings);
+            final Map<String, String> jsonMinimizedV3 = readJson(buffer, strings);
+            return new CatalogSnapshot(generation, createdAt, pkgs, jsonV2, jsonV3, jsonMinimizedV3);
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException | NullPointerException e) {
+            LOGGER.error("Catalog snapshot is corrupt. {}", e.getMessage());
+            return null;
+        }
+    }
+
+    public static CatalogSnapshot of(final long generation, final Collection<Pkg> pkgs, final Map<String, String> jsonV2, final Map<String, String> jsonV3, final Map<String, String> jsonMinimizedV3) {
+        return new CatalogSnapshot(generation, Instant.now().getEpochSecond(), new ArrayList<>(pkgs), jsonV2, jsonV3, jsonMinimizedV3);
+    }
+
+
+    private static int schemaChecksum() {
+        final CRC32 crc = new CRC32();
+        final List<Enum<?>[]> schema = List.of(Distro.values(), Architecture.values(), Bitness.values(), FPU.values(), OperatingSystem.values(), LibCType.values(), PackageType.values(),
+                                               ReleaseStatus.values(), ArchiveType.values(), TermOfSupport.values(), HashAlgorithm.values(), Verification.values(), Feature.values());
+        schema.forEach(constants -> {
+            for (Enum<?> constant : constants) { crc.update(constant.name().getBytes(UTF_8)); }
+            crc.update(';');
+        });
+        return (int) crc.getValue();
+    }
+
+    private static String toText(final VersionNumber versionNumber) {
+        return null == versionNumber ? null : versionNumber.toString(OutputFormat.FULL_COMPRESSED, true, true);
+    }
+
+    private static VersionNumber fromText(final String text) {
+        return null == text || text.isEmpty() ? new VersionNumber() : VersionNumber.fromText(text);
+    }
+
+    private static int index(final Map<String, Integer> strings, final String text) {
+        if (null == text) { return NULL_STRING; }
+        return strings.computeIfAbsent(text, t -> strings.size() + 1);
+    }
+
+    private static long triState(final Boolean value, final int slot) { return (long) (null == value ? 0 : value ? 2 : 1) << (slot * 2); }
+
+    private static Boolean fromTriState(final long booleans, final int slot) {
+        switch ((int) (booleans >>> (slot * 2)) & 0b11) {
+            case 1 : return Boolean.FALSE;
+            case 2 : return Boolean.TRUE;
+            default: return null;
+        }
+    }
+
+    private static int ordinal(final Enum<?> constant) { return null == constant ? 0 : constant.ordinal() + 1; }
+
+    private static <E extends Enum<E>> E fromOrdinal(final E[] constants, final ByteBuffer buffer) {
+        final int ordinal = (int) readVarLong(buffer);
+        return 0 == ordinal ? null : constants[ordinal - 1];
+    }
+
+    private static void writeJson(final ByteArrayOutputStream out, final Map<String, Integer> strings, final Map<String, String> json) {
+        writeVarLong(out, json.size());
+        json.forEach((id, text) -> {
+            writeVarLong(out, index(strings, id));
+            writeString(out, text);
+        });
+    }
+
+    private static Map<String, String> readJson(final ByteBuffer buffer, final String[] strings) {
+        final int                 size = (int) readVarLong(buffer);
+        final Map<String, String> json = new HashMap<>(size * 2);
+        for (int i = 0 ; i < size ; i++) {
+            final String id = strings[(int) readVarLong(buffer)];
+            json.put(id, readString(buffer));
+        }
+        return json;
+    }
+
+    private static void writeString(final ByteArrayOutputStream out, final String text) {
+        final byte[] bytes = text.getBytes(UTF_8);
+        writeVarLong(out, bytes.length);
+        out.writeBytes(bytes);
+    }
+
+    private static String readString(final ByteBuffer buffer) {
+        final int    length = (int) readVarLong(buffer);
+        final byte[] bytes  = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, UTF_8);
+    }
+
+    private static void writeVarLong(final ByteArrayOutputStream out, final long value) {
+        long v = value;
+        while ((v & ~0x7FL) != 0) {
+            out.write((int) ((v & 0x7F) | 0x80));
+            v >>>= 7;
+        }
+        out.write((int) v);
+    }
+
+    private static long readVarLong(final ByteBuffer buffer) {
+        long value = 0;
+        for (int shift = 0 ; shift < 64 ; shift += 7) {
+            final byte b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) { return value; }
+        }
+        throw new IllegalArgumentException("Malformed varint");
+    }
+
+    private static long zigZag(final long value) { return (value << 1) ^ (value >> 63); }
+
+    private static long unZigZag(final long value) { return (value >>> 1) ^ -(value & 1); }
+}
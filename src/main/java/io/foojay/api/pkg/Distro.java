@@ -20,7 +20,6 @@
 package io.foojay.api.pkg;
 
 import eu.hansolo.jdktools.Api;
-import eu.hansolo.jdktools.ReleaseStatus;
 import eu.hansolo.jdktools.scopes.BuildScope;
 import eu.hansolo.jdktools.scopes.Scope;
 import eu.hansolo.jdktools.scopes.UsageScope;
@@ -33,7 +32,6 @@ import java.time.Instant;
 import java.util.Arrays;
 import java.util.Comparator;
 import java.util.List;
-import java.util.Optional;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 
@@ -474,9 +472,14 @@ public enum Distro implements Api {
     }
 
     public static long getNumberOfPkgsForDistro(final Distro distro) {
-        return CacheManager.INSTANCE.pkgCache.getPkgs().parallelStream().filter(pkg -> pkg.getDistribution().getDistro() == distro).count();
+        return CacheManager.INSTANCE.distroCatalog.get().getStats(distro).getNumberOfPkgs();
     }
 
+    /**
+     * @return the statistics of this distro from the current distro catalog
+     */
+    public DistroCatalog.Stats stats() { return CacheManager.INSTANCE.distroCatalog.get().getStats(this); }
+
     public static boolean isBasedOnOpenJDK(final Distro distro) { return distro.isBuildOfOpenJDK(); }
 
     public static boolean isBasedOnGraalVM(final Distro distro) { return distro.isBuildOfGraalVM(); }
@@ -489,37 +492,15 @@ public enum Distro implements Api {
         return toString(outputFormat, include_versions, include_synonyms, latest_per_update, true);
     }
     public String toString(final OutputFormat outputFormat, final boolean include_versions, final boolean include_synonyms, final boolean latest_per_update, final boolean include_ea) {
+        return toString(outputFormat, include_versions, include_synonyms, latest_per_update, include_ea, stats());
+    }
+    /**
+     * Returns the json of this distro with the versions of the given statistics (e.g. of a distro catalog
+     * that is not the current one)
+     */
+    public String toString(final OutputFormat outputFormat, final boolean include_versions, final boolean include_synonyms, final boolean latest_per_update, final boolean include_ea, final DistroCatalog.Stats stats) {
         final StringBuilder msgBuilder = new StringBuilder();
-        final List<Semver>  versions;
-        if (latest_per_update) {
-            final List<Semver> allVersions;
-            if (include_ea) {
-                allVersions = get().getVersions();
-            } else {
-                allVersions = get().getVersions().stream().filter(semver -> semver.getReleaseStatus() == ReleaseStatus.GA).collect(Collectors.toList());
-            }
-            versions = allVersions.stream()
-                                  .map(semver -> semver.getVersionNumber().toString(OutputFormat.REDUCED_COMPRESSED, true, false))
-                                  .collect(Collectors.toList())
-                                  .stream()
-                                  .distinct()
-                                  .map(vtext -> Semver.fromText(vtext).getSemver1())
-                                  .collect(Collectors.toSet())
-                                  .stream()
-                                  .map(unique -> allVersions.stream()
-                                                            .filter(semver -> semver.getVersionNumber().equals(unique.getVersionNumber()))
-                                                            .max(Comparator.comparing(Semver::getVersionNumber)))
-                                  .filter(Optional::isPresent)
-                                  .map(Optional::get)
-                                  .sorted(Comparator.comparing(Semver::getVersionNumber).reversed())
-                                  .collect(Collectors.toList());
-        } else {
-            if (include_ea) {
-            versions = get().getVersions();
-            } else {
-                versions = get().getVersions().stream().filter(semver -> semver.getReleaseStatus() == ReleaseStatus.GA).collect(Collectors.toList());
-            }
-        }
+        final List<Semver>  versions   = latest_per_update ? stats.getLatestPerUpdate(include_ea) : stats.getVersions(include_ea);
 
         List<String> synonyms = get().getSynonyms();
 
@@ -0,0 +1,185 @@
+/*
+ * Copyright (c) 2021.
+ *
+ * This file is part of DiscoAPI.
+ *
+ *     DiscoAPI is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 2 of the License, or
+ *     (at your option) any later version.
+ *
+ *     DiscoAPI is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with DiscoAPI.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.foojay.api.pkg;
+
+import eu.hansolo.jdktools.Architecture;
+import eu.hansolo.jdktools.OperatingSystem;
+import eu.hansolo.jdktools.ReleaseStatus;
+import eu.hansolo.jdktools.util.OutputFormat;
+import eu.hansolo.jdktools.versioning.Semver;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import static io.foojay.api.util.Constants.COMMA;
+import static io.foojay.api.util.Constants.COMMA_NEW_LINE;
+import static io.foojay.api.util.Constants.NEW_LINE;
+import static io.foojay.api.util.Constants.SQUARE_BRACKET_CLOSE;
+import static io.foojay.api.util.Constants.SQUARE_BRACKET_OPEN;
+
+
+/**
+ * Immutable statistics per distro (versions, latest version per update, operating systems,
+ * architectures and number of packages) that are computed in one pass over the packages when
+ * the catalog changes. The json of a distro (and of the list of all distros) is rendered on the
+ * first request and then kept until the next catalog change.
+ */
+public final class DistroCatalog {
+    public  static final DistroCatalog       EMPTY = of(List.of());
+    private        final Map<Distro, Stats>  stats;
+    private        final Map<String, String> jsonCache;
+
+
+    private DistroCatalog(final Collection<Pkg> pkgs) {
+        final Map<Distro, StatsBuilder> builders = new EnumMap<>(Distro.class);
+        for (Pkg pkg : pkgs) {
+            if (null == pkg.getDistribution()) { continue; }
+            builders.computeIfAbsent(pkg.getDistribution().getDistro(), d -> new StatsBuilder()).add(pkg);
+        }
+        this.stats     = new EnumMap<>(Distro.class);
+        this.jsonCache = new ConcurrentHashMap<>();
+        builders.forEach((distro, builder) -> stats.put(distro, builder.build()));
+    }
+
+
+    public static DistroCatalog of(final Collection<Pkg> pkgs) { return new DistroCatalog(pkgs); }
+
+
+    public Stats getStats(final Distro distro) { return stats.getOrDefault(distro, Stats.EMPTY); }
+
+    /**
+     * Returns the json of the given distro (see Distro.toString()) with the versions of this catalog,
+     * rendered once per catalog change
+     */
+    public String getJson(final Distro distro, final OutputFormat outputFormat, final boolean include_versions, final boolean include_synonyms, final boolean latest_per_update, final boolean include_ea) {
+        final String key = String.join("|", distro.name(), outputFormat.name(), Boolean.toString(include_versions), Boolean.toString(include_synonyms), Boolean.toString(latest_per_update), Boolean.toString(include_ea));
+        return jsonCache.computeIfAbsent(key, k -> distro.toString(outputFormat, include_versions, include_synonyms, latest_per_update, include_ea, getStats(distro)));
+    }
+
+    /**
+     * Returns the json array of the given distros, rendered once per catalog change
+     */
+    public String getJson(final List<Distro> distros, final OutputFormat outputFormat, final boolean include_versions, final boolean include_synonyms, final boolean latest_per_update, final boolean include_ea) {
+        final String key = String.join("|", distros.stream().map(Distro::name).collect(Collectors.joining(",")), outputFormat.name(), Boolean.toString(include_versions), Boolean.toString(include_synonyms), Boolean.toString(latest_per_update), Boolean.toString(include_ea));
+        String json = jsonCache.get(key);
+        if (null == json) {
+            // Not in computeIfAbsent() because the json of each distro is cached in the same map
+            final boolean compressed = OutputFormat.FULL_COMPRESSED == outputFormat || OutputFormat.REDUCED_COMPRESSED == outputFormat;
+            json = distros.stream()
+                          .map(distro -> getJson(distro, outputFormat, include_versions, include_synonyms, latest_per_update, include_ea))
+                          .collect(Collectors.joining(compressed ? COMMA : COMMA_NEW_LINE, SQUARE_BRACKET_OPEN + (compressed ? "" : NEW_LINE), (compressed ? "" : NEW_LINE) + SQUARE_BRACKET_CLOSE));
+            jsonCache.putIfAbsent(key, json);
+        }
+        return json;
+    }
+
+
+    public static final class Stats {
+        private static final Stats                EMPTY = new Stats(List.of(), List.of(), List.of(), List.of(), Set.of(), Set.of(), 0);
+        private        final List<Semver>         versions;
+        private        final List<Semver>         gaVersions;
+        private        final List<Semver>         latestPerUpdate;
+        private        final List<Semver>         gaLatestPerUpdate;
+        private        final Set<OperatingSystem> operatingSystems;
+        private        final Set<Architecture>    architectures;
+        private        final long                 numberOfPkgs;
+
+
+        private Stats(final List<Semver> versions, final List<Semver> gaVersions, final List<Semver> latestPerUpdate, final List<Semver> gaLatestPerUpdate,
+                      final Set<OperatingSystem> operatingSystems, final Set<Architecture> architectures, final long numberOfPkgs) {
+            this.versions          = versions;
+            this.gaVersions        = gaVersions;
+            this.latestPerUpdate   = latestPerUpdate;
+            this.gaLatestPerUpdate = gaLatestPerUpdate;
+            this.operatingSystems  = operatingSystems;
+            this.architectures     = architectures;
+            this.numberOfPkgs      = numberOfPkgs;
+        }
+
+
+        /**
+         * @return all versions of the distro, latest first
+         */
+        public List<Semver> getVersions() { return versions; }
+
+        public List<Semver> getVersions(final boolean include_ea) { return include_ea ? versions : gaVersions; }
+
+        /**
+         * @return the latest version of each update of the distro, latest first
+         */
+        public List<Semver> getLatestPerUpdate(final boolean include_ea) { return include_ea ? latestPerUpdate : gaLatestPerUpdate; }
+
+        public Set<OperatingSystem> getOperatingSystems() { return operatingSystems; }
+
+        public Set<Architecture> getArchitectures() { return architectures; }
+
+        public long getNumberOfPkgs() { return numberOfPkgs; }
+    }
+
+
+    private static final class StatsBuilder {
+        private final TreeSet<Semver>      versions         = new TreeSet<>(Comparator.comparing(Semver::toString));
+        private final Set<OperatingSystem> operatingSystems = EnumSet.noneOf(OperatingSystem.class);
+        private final Set<Architecture>    architectures    = EnumSet.noneOf(Architecture.class);
+        private       long                 numberOfPkgs     = 0;
+
+
+        private void add(final Pkg pkg) {
+            versions.add(pkg.getSemver());
+            if (null != pkg.getOperatingSystem()) { operatingSystems.add(pkg.getOperatingSystem()); }
+            if (null != pkg.getArchitecture())    { architectures.add(pkg.getArchitecture()); }
+            numberOfPkgs++;
+        }
+
+        private Stats build() {
+            final List<Semver> sorted   = versions.stream().sorted(Comparator.comparing(Semver::getVersionNumber).reversed()).collect(Collectors.toUnmodifiableList());
+            final List<Semver> gaSorted = sorted.stream().filter(semver -> semver.getReleaseStatus() == ReleaseStatus.GA).collect(Collectors.toUnmodifiableList());
+            return new Stats(sorted, gaSorted, latestPerUpdate(sorted), latestPerUpdate(gaSorted),
+                             Collections.unmodifiableSet(operatingSystems), Collections.unmodifiableSet(architectures), numberOfPkgs);
+        }
+
+        /**
+         * Keeps the latest version of each update (same as the former computation in Distro.toString()).
+         * The versions are sorted latest first, so the first match of each update is its latest version.
+         */
+        private static List<Semver> latestPerUpdate(final List<Semver> sorted) {
+            return sorted.stream()
+                         .map(semver -> semver.getVersionNumber().toString(OutputFormat.REDUCED_COMPRESSED, true, false))
+                         .distinct()
+                         .map(vtext -> Semver.fromText(vtext).getSemver1())
+                         .map(unique -> sorted.stream().filter(semver -> semver.getVersionNumber().equals(unique.getVersionNumber())).findFirst())
+                         .filter(Optional::isPresent)
+                         .map(Optional::get)
+                         .distinct()
+                         .sorted(Comparator.comparing(Semver::getVersionNumber).reversed())
+                         .collect(Collectors.toUnmodifiableList());
+        }
+    }
+}
@@ -29,7 +29,6 @@ import eu.hansolo.jdktools.scopes.Scope;
 import eu.hansolo.jdktools.versioning.Semver;
 import eu.hansolo.jdktools.versioning.VersionNumber;
 import io.foojay.api.CacheManager;
-import io.foojay.api.util.Constants;
 import io.foojay.api.util.Helper;
 
 import java.util.ArrayList;
@@ -38,7 +37,6 @@ import java.util.Comparator;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
-import java.util.TreeSet;
 import java.util.stream.Collectors;
 
 import static io.foojay.api.util.Constants.COLON;
@@ -51,7 +49,6 @@ import static io.foojay.api.util.Constants.NEW_LINE;
 import static io.foojay.api.util.Constants.QUOTES;
 import static io.foojay.api.util.Constants.SQUARE_BRACKET_CLOSE;
 import static io.foojay.api.util.Constants.SQUARE_BRACKET_OPEN;
-import static java.util.stream.Collectors.toSet;
 
 
 /**
@@ -121,11 +118,7 @@ public class MajorVersion implements Comparable<MajorVersion> {
         return getLatest(includingEa).getAsInt();
     }
     public static MajorVersion getLatest(final boolean includingEa) {
-        if (includingEa) {
-            return CacheManager.INSTANCE.getMajorVersions(BuildScope.BUILD_OF_OPEN_JDK).stream().sorted(Comparator.comparingInt(MajorVersion::getAsInt).reversed()).findFirst().get();
-        } else {
-            return CacheManager.INSTANCE.getMajorVersions(BuildScope.BUILD_OF_OPEN_JDK).stream().filter(majorVersion -> !majorVersion.getVersions().isEmpty()).sorted(Comparator.comparingInt(MajorVersion::getAsInt).reversed()).findFirst().get();
-        }
+        return CacheManager.INSTANCE.majorVersionCatalog.get().getLatest(BuildScope.BUILD_OF_OPEN_JDK, includingEa).get();
     }
 
     public static int getLatestGraalVMAsInt(final boolean includingEa) {
@@ -133,29 +126,11 @@ public class MajorVersion implements Comparable<MajorVersion> {
         return opt.isPresent() ? opt.get().getAsInt() : 8;
     }
     public static Optional<MajorVersion> getLatestGraalVM(final boolean includingEa) {
-        if (includingEa) {
-            return CacheManager.INSTANCE.getMajorVersions(BuildScope.BUILD_OF_GRAALVM).stream().sorted(Comparator.comparingInt(MajorVersion::getAsInt).reversed()).findFirst();
-        } else {
-            return CacheManager.INSTANCE.getMajorVersions(BuildScope.BUILD_OF_GRAALVM).stream().filter(majorVersion -> !majorVersion.getVersions().isEmpty()).sorted(Comparator.comparingInt(MajorVersion::getAsInt).reversed()).findFirst();
-        }
+        return CacheManager.INSTANCE.majorVersionCatalog.get().getLatest(BuildScope.BUILD_OF_GRAALVM, includingEa);
     }
 
     public static MajorVersion getLatest(final TermOfSupport termOfSupport, final boolean includingEa) {
-        int featureVersion = 1;
-        for (MajorVersion majorVersion : CacheManager.INSTANCE.getMajorVersions()) {
-            if (includingEa) {
-                if (termOfSupport == Helper.getTermOfSupport(majorVersion.getAsInt())) {
-                    featureVersion = majorVersion.getAsInt();
-                    break;
-                }
-            } else {
-                if (termOfSupport == Helper.getTermOfSupport(majorVersion.getAsInt()) && !majorVersion.getVersions().isEmpty()) {
-                    featureVersion = majorVersion.getAsInt();
-                    break;
-                }
-            }
-        }
-        return new MajorVersion(featureVersion);
+        return CacheManager.INSTANCE.majorVersionCatalog.get().getLatest(termOfSupport, includingEa).map(majorVersion -> new MajorVersion(majorVersion.getAsInt())).orElse(new MajorVersion(1));
     }
 
     public static MajorVersion getLatestSts(final boolean includingEa) {
@@ -175,12 +150,7 @@ public class MajorVersion implements Comparable<MajorVersion> {
         return getMaintainedMajorVersions(BuildScope.BUILD_OF_OPEN_JDK);
     }
     public static List<MajorVersion> getMaintainedMajorVersions(final BuildScope scope) {
-        return CacheManager.INSTANCE.getMajorVersions()
-                                    .stream()
-                                    .filter(majorVersion -> majorVersion.scope == scope)
-                                    .filter(majorVersion -> majorVersion.isMaintained())
-                                    .sorted(Comparator.comparing(MajorVersion::getVersionNumber).reversed())
-                                    .collect(Collectors.toList());
+        return CacheManager.INSTANCE.majorVersionCatalog.get().getMaintainedMajorVersions(scope);
     }
 
     public static MajorVersion[] getMaintainedMajorVersionsAsArray() {
@@ -191,23 +161,14 @@ public class MajorVersion implements Comparable<MajorVersion> {
         return getGeneralAvailabilityOnlyMajorVersions(BuildScope.BUILD_OF_OPEN_JDK);
     }
     public static List<MajorVersion> getGeneralAvailabilityOnlyMajorVersions(final BuildScope scope) {
-        return CacheManager.INSTANCE.getMajorVersions()
-                                    .stream()
-                                    .filter(majorVersion -> majorVersion.scope == scope)
-                                    .filter(majorVersion -> !majorVersion.getVersions().isEmpty())
-                                    .collect(Collectors.toList());
+        return CacheManager.INSTANCE.majorVersionCatalog.get().getGeneralAvailabilityOnlyMajorVersions(scope);
     }
 
     public static List<MajorVersion> getEarlyAccessOnlyMajorVersions() {
         return getEarlyAccessOnlyMajorVersions(BuildScope.BUILD_OF_OPEN_JDK);
     }
     public static List<MajorVersion> getEarlyAccessOnlyMajorVersions(final BuildScope scope) {
-        return CacheManager.INSTANCE.getMajorVersions()
-                                    .stream()
-                                    .filter(majorVersion -> majorVersion.scope == scope)
-                                    .filter(majorVersion -> majorVersion.getVersionsIncludingEarlyAccess().size() == 1)
-                                    .filter(majorVersion -> majorVersion.getVersionsOnlyEarlyAccess().size() == 1)
-                                    .collect(Collectors.toList());
+        return CacheManager.INSTANCE.majorVersionCatalog.get().getEarlyAccessOnlyMajorVersions(scope);
     }
 
     public static List<MajorVersion> getUsefulMajorVersions() {
@@ -253,14 +214,14 @@ public class MajorVersion implements Comparable<MajorVersion> {
     }
 
     public static boolean isMaintainedMajorVersion(final MajorVersion majorVersion) {
-        return getMaintainedMajorVersions().stream().filter(mv -> mv.getAsInt() == majorVersion.getAsInt()).count() > 0;
+        return isMaintainedMajorVersion(majorVersion.getAsInt());
     }
     public static boolean isMaintainedMajorVersion(final int majorVersion) {
-        return getMaintainedMajorVersions().stream().filter(mv -> mv.getAsInt() == majorVersion).count() > 0;
+        return getMaintainedMajorVersions().stream().anyMatch(mv -> mv.getAsInt() == majorVersion);
     }
 
     public static Optional<MajorVersion> getMax() {
-        return getAllMajorVersions().stream().max(Comparator.comparing(MajorVersion::getAsInt));
+        return CacheManager.INSTANCE.majorVersionCatalog.get().getLatest(BuildScope.BUILD_OF_OPEN_JDK, true);
     }
 
     // VersionNumber
@@ -277,77 +238,38 @@ public class MajorVersion implements Comparable<MajorVersion> {
 
     // Early Access only
     public Boolean isEarlyAccessOnly() {
-        return getVersions().stream().filter(semver -> ReleaseStatus.EA == semver.getReleaseStatus()).count() == getVersions().size();
+        return CacheManager.INSTANCE.majorVersionCatalog.get().getVersions(majorVersion, BuildScope.BUILD_OF_OPEN_JDK).isEarlyAccessOnly();
     }
 
     // Versions
     public List<Semver> getVersions(final List<Scope> scopes, final Match match) {
-        final Match scopeMatch = (null == match || Match.NONE == match || Match.NOT_FOUND == match) ? Match.ANY : match;
-        return CacheManager.INSTANCE.pkgCache.getPkgs()
-                                             .stream()
-                                             .filter(pkg -> Match.ANY == scopeMatch ? Constants.SCOPE_LOOKUP.get(pkg.getDistribution().getDistro()).stream().anyMatch(scopes.stream().collect(toSet())::contains) : Constants.SCOPE_LOOKUP.get(pkg.getDistribution().getDistro()).containsAll(scopes))
-                                             .filter(pkg -> majorVersion == pkg.getVersionNumber().getFeature().getAsInt())
-                                             .filter(pkg -> ReleaseStatus.GA == pkg.getReleaseStatus())
-                                             .map(pkg -> pkg.getSemver())
-                                             .collect(Collectors.toCollection(() -> new TreeSet<>(Comparator.comparing(Semver::toString)))).stream().sorted(Comparator.comparing(Semver::getVersionNumber).reversed()).collect(Collectors.toList());
+        return CacheManager.INSTANCE.majorVersionCatalog.get().getVersions(majorVersion, scopes, match).getGeneralAvailability();
     }
     public List<Semver> getVersions() {
         return getVersions(BuildScope.BUILD_OF_OPEN_JDK);
     }
     public List<Semver> getVersions(final BuildScope scope) {
-        return CacheManager.INSTANCE.pkgCache.getPkgs()
-                                             .stream()
-                                             .filter(pkg -> scope == BuildScope.BUILD_OF_OPEN_JDK ? Distro.getDistributionsBasedOnOpenJDK().contains(pkg.getDistribution().getDistro()) : Distro.getDistributionsBasedOnGraalVm().contains(pkg.getDistribution().getDistro()))
-                                             .filter(pkg -> majorVersion == pkg.getVersionNumber().getFeature().getAsInt())
-                                             .filter(pkg -> ReleaseStatus.GA == pkg.getReleaseStatus())
-                                             .map(pkg -> pkg.getSemver())
-                                             .collect(Collectors.toCollection(() -> new TreeSet<>(Comparator.comparing(Semver::toString)))).stream()
-                                             .sorted(Comparator.comparing(Semver::getVersionNumber).reversed())
-                                             .collect(Collectors.toList());
+        return CacheManager.INSTANCE.majorVersionCatalog.get().getVersions(majorVersion, scope).getGeneralAvailability();
     }
 
     public List<Semver> getVersionsOnlyEarlyAccess(final List<Scope> scopes, final Match match) {
-        final Match scopeMatch = (null == match || Match.NONE == match || Match.NOT_FOUND == match) ? Match.ANY : match;
-        return CacheManager.INSTANCE.pkgCache.getPkgs()
-                                             .stream()
-                                             .filter(pkg -> Match.ANY == scopeMatch ? Constants.SCOPE_LOOKUP.get(pkg.getDistribution().getDistro()).stream().anyMatch(scopes.stream().collect(toSet())::contains) : Constants.SCOPE_LOOKUP.get(pkg.getDistribution().getDistro()).containsAll(scopes))
-                                             .filter(pkg -> majorVersion == pkg.getVersionNumber().getFeature().getAsInt())
-                                             .filter(pkg -> ReleaseStatus.EA == pkg.getReleaseStatus())
-                                             .map(pkg -> pkg.getSemver())
-                                             .collect(Collectors.toCollection(() -> new TreeSet<>(Comparator.comparing(Semver::toString)))).stream().sorted(Comparator.comparing(Semver::getVersionNumber).reversed()).collect(Collectors.toList());
+        return CacheManager.INSTANCE.majorVersionCatalog.get().getVersions(majorVersion, scopes, match).getEarlyAccess();
     }
     public List<Semver> getVersionsOnlyEarlyAccess() {
         return getVersionsOnlyEarlyAccess(BuildScope.BUILD_OF_OPEN_JDK);
     }
     public List<Semver> getVersionsOnlyEarlyAccess(final BuildScope scope) {
-        return CacheManager.INSTANCE.pkgCache.getPkgs()
-                                             .stream()
-                                             .filter(pkg -> scope == BuildScope.BUILD_OF_OPEN_JDK ? Distro.getDistributionsBasedOnOpenJDK().contains(pkg.getDistribution().getDistro()) : Distro.getDistributionsBasedOnGraalVm().contains(pkg.getDistribution().getDistro()))
-                                             .filter(pkg -> majorVersion == pkg.getVersionNumber().getFeature().getAsInt())
-                                             .filter(pkg -> ReleaseStatus.EA == pkg.getReleaseStatus())
-                                             .map(pkg -> pkg.getSemver())
-                                             .collect(Collectors.toCollection(() -> new TreeSet<>(Comparator.comparing(Semver::toString)))).stream().sorted(Comparator.comparing(Semver::getVersionNumber).reversed()).collect(Collectors.toList());
+        return CacheManager.INSTANCE.majorVersionCatalog.get().getVersions(majorVersion, scope).getEarlyAccess();
     }
 
     public List<Semver> getVersionsIncludingEarlyAccess(final List<Scope> scopes, final Match match) {
-        final Match scopeMatch = (null == match || Match.NONE == match || Match.NOT_FOUND == match) ? Match.ANY : match;
-        return CacheManager.INSTANCE.pkgCache.getPkgs()
-                                             .stream()
-                                             .filter(pkg -> Match.ANY == scopeMatch ? Constants.SCOPE_LOOKUP.get(pkg.getDistribution().getDistro()).stream().anyMatch(scopes.stream().collect(toSet())::contains) : Constants.SCOPE_LOOKUP.get(pkg.getDistribution().getDistro()).containsAll(scopes))
-                                             .filter(pkg -> majorVersion == pkg.getVersionNumber().getFeature().getAsInt())
-                                             .map(pkg -> pkg.getSemver())
-                                             .collect(Collectors.toCollection(() -> new TreeSet<>(Comparator.comparing(Semver::toString)))).stream().sorted(Comparator.comparing(Semver::getVersionNumber).reversed()).collect(Collectors.toList());
+        return CacheManager.INSTANCE.majorVersionCatalog.get().getVersions(majorVersion, scopes, match).getAll();
     }
     public List<Semver> getVersionsIncludingEarlyAccess() {
         return getVersionsIncludingEarlyAccess(BuildScope.BUILD_OF_OPEN_JDK);
     }
     public List<Semver> getVersionsIncludingEarlyAccess(final BuildScope scope) {
-        return CacheManager.INSTANCE.pkgCache.getPkgs()
-                                             .stream()
-                                             .filter(pkg -> scope == BuildScope.BUILD_OF_OPEN_JDK ? Distro.getDistributionsBasedOnOpenJDK().contains(pkg.getDistribution().getDistro()) : Distro.getDistributionsBasedOnGraalVm().contains(pkg.getDistribution().getDistro()))
-                                             .filter(pkg -> majorVersion == pkg.getVersionNumber().getFeature().getAsInt())
-                                             .map(pkg -> pkg.getSemver())
-                                             .collect(Collectors.toCollection(() -> new TreeSet<>(Comparator.comparing(Semver::toString)))).stream().sorted(Comparator.comparing(Semver::getVersionNumber).reversed()).collect(Collectors.toList());
+        return CacheManager.INSTANCE.majorVersionCatalog.get().getVersions(majorVersion, scope).getAll();
     }
 
     public String toString(final boolean includingEarlyAccess, final BuildScope scope) {
@@ -0,0 +1,271 @@
+/*
+ * Copyright (c) 2021.
+ *
+ * This file is part of DiscoAPI.
+ *
+ *     DiscoAPI is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 2 of the License, or
+ *     (at your option) any later version.
+ *
+ *     DiscoAPI is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with DiscoAPI.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.foojay.api.pkg;
+
+import eu.hansolo.jdktools.Match;
+import eu.hansolo.jdktools.ReleaseStatus;
+import eu.hansolo.jdktools.TermOfSupport;
+import eu.hansolo.jdktools.scopes.BuildScope;
+import eu.hansolo.jdktools.scopes.Scope;
+import eu.hansolo.jdktools.versioning.Semver;
+import io.foojay.api.util.Constants;
+import io.foojay.api.util.Helper;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+
+/**
+ * Immutable index of the major versions and their versions that is built once per catalog change
+ * (sync, delta, snapshot, rollback). Per build scope and per distro it contains the sorted GA,
+ * EA and all versions of each major version, so the static helpers in MajorVersion don't need to
+ * scan the package cache. Lookups with a list of scopes are merged from the per distro versions
+ * once and then cached.
+ */
+public final class MajorVersionCatalog {
+    private static final int                                     MAX_CACHED_SCOPE_KEYS = 256;
+    private static final Versions                                NO_VERSIONS           = new Versions(List.of(), List.of(), List.of());
+    public  static final MajorVersionCatalog                     EMPTY                 = of(List.of(), List.of());
+    private        final List<MajorVersion>                      majorVersions;
+    private        final List<MajorVersion>                      openJdkMajorVersions;
+    private        final List<MajorVersion>                      graalvmMajorVersions;
+    private        final Map<BuildScope, Map<Integer, Versions>> versionsPerScope;
+    private        final Map<Distro, Map<Integer, Versions>>     versionsPerDistro;
+    private        final Map<String, Map<Integer, Versions>>     versionsPerScopes;
+    private        final List<MajorVersion>                      maintainedMajorVersions;
+    private        final List<MajorVersion>                      gaOnlyMajorVersions;
+    private        final List<MajorVersion>                      eaOnlyMajorVersions;
+    private        final Map<BuildScope, MajorVersion>           latestPerScope;
+    private        final Map<BuildScope, MajorVersion>           latestGaPerScope;
+    private        final Map<TermOfSupport, MajorVersion>        latestPerTermOfSupport;
+    private        final Map<TermOfSupport, MajorVersion>        latestGaPerTermOfSupport;
+    private        final long                                    numberOfPkgs;
+
+
+    private MajorVersionCatalog(final Collection<Pkg> pkgs, final Collection<MajorVersion> majorVersions) {
+        // Collect the versions per distro and major version
+        final Map<Distro, Map<Integer, VersionSets>> setsPerDistro = new EnumMap<>(Distro.class);
+        for (Pkg pkg : pkgs) {
+            if (null == pkg.getVersionNumber() || pkg.getVersionNumber().getFeature().isEmpty()) { continue; }
+            setsPerDistro.computeIfAbsent(pkg.getDistribution().getDistro(), d -> new HashMap<>())
+                         .computeIfAbsent(pkg.getVersionNumber().getFeature().getAsInt(), f -> new VersionSets())
+                         .add(pkg);
+        }
+        this.versionsPerDistro = new EnumMap<>(Distro.class);
+        setsPerDistro.forEach((distro, sets) -> versionsPerDistro.put(distro, toVersions(sets)));
+        this.versionsPerScope = new EnumMap<>(BuildScope.class);
+        versionsPerScope.put(BuildScope.BUILD_OF_OPEN_JDK, merge(setsPerDistro, Set.copyOf(Distro.getDistributionsBasedOnOpenJDK())));
+        versionsPerScope.put(BuildScope.BUILD_OF_GRAALVM, merge(setsPerDistro, Set.copyOf(Distro.getDistributionsBasedOnGraalVm())));
+        this.versionsPerScopes = new ConcurrentHashMap<>();
+
+        this.majorVersions        = List.copyOf(majorVersions);
+        this.graalvmMajorVersions = versionsPerScope.get(BuildScope.BUILD_OF_GRAALVM).keySet().stream().map(MajorVersion::new).collect(Collectors.toUnmodifiableList());
+
+        // Major versions of the OpenJDK scope as they are returned by CacheManager.getMajorVersions()
+        this.openJdkMajorVersions = this.majorVersions.stream().filter(majorVersion -> BuildScope.BUILD_OF_OPEN_JDK == majorVersion.getScope()).collect(Collectors.toUnmodifiableList());
+        this.maintainedMajorVersions = openJdkMajorVersions.stream()
+                                                           .filter(MajorVersion::isMaintained)
+                                                           .sorted(Comparator.comparing(MajorVersion::getVersionNumber).reversed())
+                                                           .collect(Collectors.toUnmodifiableList());
+        this.gaOnlyMajorVersions     = openJdkMajorVersions.stream()
+                                                           .filter(majorVersion -> !getVersions(majorVersion.getAsInt(), BuildScope.BUILD_OF_OPEN_JDK).getGeneralAvailability().isEmpty())
+                                                           .collect(Collectors.toUnmodifiableList());
+        this.eaOnlyMajorVersions     = openJdkMajorVersions.stream()
+                                                           .filter(majorVersion -> getVersions(majorVersion.getAsInt(), BuildScope.BUILD_OF_OPEN_JDK).getAll().size() == 1)
+                                                           .filter(majorVersion -> getVersions(majorVersion.getAsInt(), BuildScope.BUILD_OF_OPEN_JDK).getEarlyAccess().size() == 1)
+                                                           .collect(Collectors.toUnmodifiableList());
+        this.latestPerScope   = new EnumMap<>(BuildScope.class);
+        this.latestGaPerScope = new EnumMap<>(BuildScope.class);
+        for (BuildScope scope : List.of(BuildScope.BUILD_OF_OPEN_JDK, BuildScope.BUILD_OF_GRAALVM)) {
+            final List<MajorVersion> majorVersionsOfScope = BuildScope.BUILD_OF_GRAALVM == scope ? graalvmMajorVersions : openJdkMajorVersions;
+            majorVersionsOfScope.stream().max(Comparator.comparingInt(MajorVersion::getAsInt)).ifPresent(majorVersion -> latestPerScope.put(scope, majorVersion));
+            // Same as before the catalog existed, GA versions are always looked up in the OpenJDK scope
+            majorVersionsOfScope.stream()
+                                .filter(majorVersion -> !getVersions(majorVersion.getAsInt(), BuildScope.BUILD_OF_OPEN_JDK).isEarlyAccessOnly())
+                                .max(Comparator.comparingInt(MajorVersion::getAsInt))
+                                .ifPresent(majorVersion -> latestGaPerScope.put(scope, majorVersion));
+        }
+        this.latestPerTermOfSupport   = new EnumMap<>(TermOfSupport.class);
+        this.latestGaPerTermOfSupport = new EnumMap<>(TermOfSupport.class);
+        for (MajorVersion majorVersion : openJdkMajorVersions) {
+            final TermOfSupport termOfSupport = Helper.getTermOfSupport(majorVersion.getAsInt());
+            latestPerTermOfSupport.putIfAbsent(termOfSupport, majorVersion);
+            if (!getVersions(majorVersion.getAsInt(), BuildScope.BUILD_OF_OPEN_JDK).getGeneralAvailability().isEmpty()) {
+                latestGaPerTermOfSupport.putIfAbsent(termOfSupport, majorVersion);
+            }
+        }
+        this.numberOfPkgs = pkgs.size();
+    }
+
+
+    public static MajorVersionCatalog of(final Collection<Pkg> pkgs, final Collection<MajorVersion> majorVersions) {
+        return new MajorVersionCatalog(pkgs, majorVersions);
+    }
+
+
+    public List<MajorVersion> getMajorVersions() { return majorVersions; }
+
+    public List<MajorVersion> getMajorVersions(final BuildScope scope) {
+        switch(scope) {
+            case BUILD_OF_GRAALVM  : return graalvmMajorVersions;
+            case BUILD_OF_OPEN_JDK : return openJdkMajorVersions;
+            default                : return majorVersions.stream().filter(majorVersion -> majorVersion.getScope() == scope).collect(Collectors.toList());
+        }
+    }
+
+    public List<MajorVersion> getMaintainedMajorVersions(final BuildScope scope) { return BuildScope.BUILD_OF_OPEN_JDK == scope ? maintainedMajorVersions : List.of(); }
+
+    public List<MajorVersion> getGeneralAvailabilityOnlyMajorVersions(final BuildScope scope) { return BuildScope.BUILD_OF_OPEN_JDK == scope ? gaOnlyMajorVersions : List.of(); }
+
+    public List<MajorVersion> getEarlyAccessOnlyMajorVersions(final BuildScope scope) { return BuildScope.BUILD_OF_OPEN_JDK == scope ? eaOnlyMajorVersions : List.of(); }
+
+    public Optional<MajorVersion> getLatest(final BuildScope scope, final boolean includingEa) {
+        return Optional.ofNullable(includingEa ? latestPerScope.get(scope) : latestGaPerScope.get(scope));
+    }
+
+    /**
+     * Returns the first major version (in the order of getMajorVersions()) with the given term of support
+     * @param termOfSupport the term of support
+     * @param includingEa if false only major versions with GA versions will be taken into account
+     * @return the first major version with the given term of support
+     */
+    public Optional<MajorVersion> getLatest(final TermOfSupport termOfSupport, final boolean includingEa) {
+        return Optional.ofNullable(includingEa ? latestPerTermOfSupport.get(termOfSupport) : latestGaPerTermOfSupport.get(termOfSupport));
+    }
+
+    public Versions getVersions(final int majorVersion, final BuildScope scope) {
+        return versionsPerScope.getOrDefault(BuildScope.BUILD_OF_GRAALVM == scope ? BuildScope.BUILD_OF_GRAALVM : BuildScope.BUILD_OF_OPEN_JDK, Map.of()).getOrDefault(majorVersion, NO_VERSIONS);
+    }
+
+    public Versions getVersions(final int majorVersion, final Distro distro) {
+        return versionsPerDistro.getOrDefault(distro, Map.of()).getOrDefault(majorVersion, NO_VERSIONS);
+    }
+
+    public Versions getVersions(final int majorVersion, final List<Scope> scopes, final Match match) {
+        final Match  scopeMatch = (null == match || Match.NONE == match || Match.NOT_FOUND == match) ? Match.ANY : match;
+        final String key        = scopeMatch.name() + scopes.stream().map(Scope::getApiString).sorted().collect(Collectors.joining(","));
+        Map<Integer, Versions> versions = versionsPerScopes.get(key);
+        if (null == versions) {
+            final Set<Scope>  scopeSet = Set.copyOf(scopes);
+            final Set<Distro> distros  = versionsPerDistro.keySet()
+                                                          .stream()
+                                                          .filter(distro -> Match.ANY == scopeMatch ? Constants.SCOPE_LOOKUP.getOrDefault(distro, List.of()).stream().anyMatch(scopeSet::contains) : Constants.SCOPE_LOOKUP.getOrDefault(distro, List.of()).containsAll(scopes))
+                                                          .collect(Collectors.toSet());
+            versions = mergeVersions(distros);
+            if (versionsPerScopes.size() > MAX_CACHED_SCOPE_KEYS) { versionsPerScopes.clear(); }
+            versionsPerScopes.put(key, versions);
+        }
+        return versions.getOrDefault(majorVersion, NO_VERSIONS);
+    }
+
+    public long getNumberOfPkgs() { return numberOfPkgs; }
+
+    private Map<Integer, Versions> mergeVersions(final Set<Distro> distros) {
+        final Map<Integer, VersionSets> sets = new HashMap<>();
+        distros.forEach(distro -> versionsPerDistro.get(distro).forEach((featureVersion, versions) -> sets.computeIfAbsent(featureVersion, f -> new VersionSets()).addAll(versions)));
+        return toVersions(sets);
+    }
+
+    private static Map<Integer, Versions> merge(final Map<Distro, Map<Integer, VersionSets>> setsPerDistro, final Set<Distro> distros) {
+        final Map<Integer, VersionSets> sets = new HashMap<>();
+        setsPerDistro.forEach((distro, setsOfDistro) -> {
+            if (!distros.contains(distro)) { return; }
+            setsOfDistro.forEach((featureVersion, versionSets) -> sets.computeIfAbsent(featureVersion, f -> new VersionSets()).addAll(versionSets));
+        });
+        return toVersions(sets);
+    }
+
+    private static Map<Integer, Versions> toVersions(final Map<Integer, VersionSets> sets) {
+        final Map<Integer, Versions> versions = new HashMap<>(sets.size());
+        sets.forEach((featureVersion, versionSets) -> versions.put(featureVersion, versionSets.toVersions()));
+        return versions;
+    }
+
+    private static List<Semver> sorted(final TreeSet<Semver> semvers) {
+        return semvers.stream().sorted(Comparator.comparing(Semver::getVersionNumber).reversed()).collect(Collectors.toUnmodifiableList());
+    }
+
+
+    /**
+     * Sorted (latest first) GA, EA and all versions of one major version
+     */
+    public static final class Versions {
+        private final List<Semver> generalAvailability;
+        private final List<Semver> earlyAccess;
+        private final List<Semver> all;
+
+
+        private Versions(final List<Semver> generalAvailability, final List<Semver> earlyAccess, final List<Semver> all) {
+            this.generalAvailability = generalAvailability;
+            this.earlyAccess         = earlyAccess;
+            this.all                 = all;
+        }
+
+
+        public List<Semver> getGeneralAvailability() { return generalAvailability; }
+
+        public List<Semver> getEarlyAccess() { return earlyAccess; }
+
+        public List<Semver> getAll() { return all; }
+
+        public boolean isEarlyAccessOnly() { return generalAvailability.isEmpty(); }
+    }
+
+
+    private static final class VersionSets {
+        private final TreeSet<Semver> generalAvailability = new TreeSet<>(Comparator.comparing(Semver::toString));
+        private final TreeSet<Semver> earlyAccess         = new TreeSet<>(Comparator.comparing(Semver::toString));
+        private final TreeSet<Semver> all                 = new TreeSet<>(Comparator.comparing(Semver::toString));
+
+
+        private void add(final Pkg pkg) {
+            final Semver semver = pkg.getSemver();
+            if (ReleaseStatus.GA == pkg.getReleaseStatus()) {
+                generalAvailability.add(semver);
+            } else if (ReleaseStatus.EA == pkg.getReleaseStatus()) {
+                earlyAccess.add(semver);
+            }
+            all.add(semver);
+        }
+
+        private void addAll(final VersionSets sets) {
+            generalAvailability.addAll(sets.generalAvailability);
+            earlyAccess.addAll(sets.earlyAccess);
+            all.addAll(sets.all);
+        }
+
+        private void addAll(final Versions versions) {
+            generalAvailability.addAll(versions.generalAvailability);
+            earlyAccess.addAll(versions.earlyAccess);
+            all.addAll(versions.all);
+        }
+
+        private Versions toVersions() { return new Versions(sorted(generalAvailability), sorted(earlyAccess), sorted(all)); }
+    }
+}
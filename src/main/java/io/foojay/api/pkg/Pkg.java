@@ -38,6 +38,7 @@ import eu.hansolo.jdktools.versioning.Semver;
 import eu.hansolo.jdktools.versioning.VersionNumber;
 import io.foojay.api.distribution.Distribution;
 import io.foojay.api.util.Constants;
+import io.foojay.api.util.FilenameClassifier;
 import io.foojay.api.util.Helper;
 
 import java.nio.charset.StandardCharsets;
@@ -45,7 +46,6 @@ import java.time.Instant;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
-import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.OptionalInt;
 import java.util.Set;
@@ -219,12 +219,7 @@ public class Pkg {
 
         if (ArchiveType.NOT_FOUND     == this.archiveType)     { this.archiveType     = ArchiveType.getFromFileName(this.filename); }
         if (TermOfSupport.NOT_FOUND   == this.termOfSupport)   { this.termOfSupport   = Helper.getTermOfSupport(this.versionNumber, distro); }
-        if (OperatingSystem.NOT_FOUND == this.operatingSystem) { this.operatingSystem = Constants.OPERATING_SYSTEM_LOOKUP.entrySet()
-                                                                                                                         .stream()
-                                                                                                                         .filter(entry -> this.filename.contains(entry.getKey()))
-                                                                                                                         .findFirst()
-                                                                                                                         .map(Entry::getValue)
-                                                                                                                         .orElse(OperatingSystem.NONE); }
+        if (OperatingSystem.NOT_FOUND == this.operatingSystem) { this.operatingSystem = FilenameClassifier.INSTANCE.classify(this.filename).getOperatingSystem(OperatingSystem.NONE); }
     }
     public Pkg(final Pkg pkg) {
         this.distribution         = pkg.getDistribution();
@@ -0,0 +1,214 @@
+/*
+ * Copyright (c) 2021.
+ *
+ * This file is part of DiscoAPI.
+ *
+ *     DiscoAPI is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 2 of the License, or
+ *     (at your option) any later version.
+ *
+ *     DiscoAPI is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with DiscoAPI.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.foojay.api.pkg;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonSyntaxException;
+import eu.hansolo.jdktools.util.OutputFormat;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static io.foojay.api.util.Constants.API_VERSION_V3;
+import static io.foojay.api.util.Constants.COLON;
+import static io.foojay.api.util.Constants.COMMA;
+import static io.foojay.api.util.Constants.CURLY_BRACKET_CLOSE;
+import static io.foojay.api.util.Constants.CURLY_BRACKET_OPEN;
+import static io.foojay.api.util.Constants.QUOTES;
+import static io.foojay.api.util.Constants.SQUARE_BRACKET_CLOSE;
+import static io.foojay.api.util.Constants.SQUARE_BRACKET_OPEN;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+
+/**
+ * A delta of the package catalog that will be published by the updater after each update.
+ * It contains the catalog generation, the added or changed packages (either with their full
+ * json body or only their id if the body was too big) and the ids of the removed packages.
+ * A delta might be split in several chunks that all share the same generation.
+ */
+public class PkgDelta {
+    private static final Logger       LOGGER              = LoggerFactory.getLogger(PkgDelta.class);
+    public  static final String       FIELD_GENERATION    = "generation";
+    public  static final String       FIELD_CHUNK         = "chunk";
+    public  static final String       FIELD_CHUNKS        = "chunks";
+    public  static final String       FIELD_UPSERTED      = "upserted";
+    public  static final String       FIELD_UPSERTED_IDS  = "upserted_ids";
+    public  static final String       FIELD_REMOVED_IDS   = "removed_ids";
+    private static final int          ENVELOPE_SIZE       = 256;
+    private final        long         generation;
+    private final        int          chunk;
+    private final        int          chunks;
+    private final        List<Pkg>    upsertedPkgs;
+    private final        List<String> upsertedIds;
+    private final        List<String> removedIds;
+
+
+    public PkgDelta(final long generation, final int chunk, final int chunks, final List<Pkg> upsertedPkgs, final List<String> upsertedIds, final List<String> removedIds) {
+        this.generation   = generation;
+        this.chunk        = chunk;
+        this.chunks       = chunks;
+        this.upsertedPkgs = null == upsertedPkgs ? List.of() : upsertedPkgs;
+        this.upsertedIds  = null == upsertedIds  ? List.of() : upsertedIds;
+        this.removedIds   = null == removedIds   ? List.of() : removedIds;
+    }
+
+
+    public long getGeneration() { return generation; }
+
+    public int getChunk() { return chunk; }
+
+    public int getChunks() { return chunks; }
+
+    public boolean isLastChunk() { return chunk >= chunks - 1; }
+
+    public List<Pkg> getUpsertedPkgs() { return upsertedPkgs; }
+
+    public List<String> getUpsertedIds() { return upsertedIds; }
+
+    public List<String> getRemovedIds() { return removedIds; }
+
+    /**
+     * Returns a PkgDelta parsed from the given json text or null if the text could not be parsed
+     * @param jsonText the json text of a delta message
+     * @return a PkgDelta parsed from the given json text or null if the text could not be parsed
+     */
+    public static PkgDelta fromJson(final String jsonText) {
+        if (null == jsonText || jsonText.isEmpty()) { return null; }
+        try {
+            final Gson       gson       = new Gson();
+            final JsonObject json       = gson.fromJson(jsonText, JsonObject.class);
+            final long       generation = json.get(FIELD_GENERATION).getAsLong();
+            final int        chunk      = json.has(FIELD_CHUNK)  ? json.get(FIELD_CHUNK).getAsInt()  : 0;
+            final int        chunks     = json.has(FIELD_CHUNKS) ? json.get(FIELD_CHUNKS).getAsInt() : 1;
+
+            final List<Pkg> upsertedPkgs = new ArrayList<>();
+            if (json.has(FIELD_UPSERTED)) {
+                for (JsonElement element : json.getAsJsonArray(FIELD_UPSERTED)) { upsertedPkgs.add(new Pkg(element.toString())); }
+            }
+            return new PkgDelta(generation, chunk, chunks, upsertedPkgs, getStrings(json, FIELD_UPSERTED_IDS), getStrings(json, FIELD_REMOVED_IDS));
+        } catch (JsonSyntaxException | IllegalArgumentException | IllegalStateException | ClassCastException | NullPointerException e) {
+            LOGGER.error("Error parsing package delta. {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Returns the messages that represent the given changes. Each message will be smaller than
+     * the given max payload size. Packages whose json body alone exceeds the limit will only be
+     * transmitted with their id.
+     * @param generation the catalog generation that results from applying the changes
+     * @param upserted the packages that have been added or changed
+     * @param removedIds the ids of the packages that have been removed
+     * @param maxPayloadBytes the max size of one message in bytes
+     * @return the messages that represent the given changes
+     */
+    public static List<String> createMessages(final long generation, final Collection<Pkg> upserted, final Collection<String> removedIds, final int maxPayloadBytes) {
+        final List<List<Pkg>>    pkgChunks     = new ArrayList<>();
+        final List<List<String>> idChunks      = new ArrayList<>();
+        final List<List<String>> removedChunks = new ArrayList<>();
+
+        List<Pkg>    currentPkgs    = new ArrayList<>();
+        List<String> currentIds     = new ArrayList<>();
+        List<String> currentRemoved = new ArrayList<>();
+        int          currentSize    = ENVELOPE_SIZE;
+        for (Pkg pkg : upserted) {
+            final int     bodySize = pkg.toString(OutputFormat.FULL_COMPRESSED, API_VERSION_V3).getBytes(UTF_8).length + 1;
+            final boolean idOnly   = bodySize + ENVELOPE_SIZE > maxPayloadBytes;
+            final int     size     = idOnly ? pkg.getId().length() + 3 : bodySize;
+            if (currentSize + size > maxPayloadBytes) {
+                pkgChunks.add(currentPkgs);
+                idChunks.add(currentIds);
+                removedChunks.add(currentRemoved);
+                currentPkgs    = new ArrayList<>();
+                currentIds     = new ArrayList<>();
+                currentRemoved = new ArrayList<>();
+                currentSize    = ENVELOPE_SIZE;
+            }
+            if (idOnly) { currentIds.add(pkg.getId()); } else { currentPkgs.add(pkg); }
+            currentSize += size;
+        }
+        for (String id : removedIds) {
+            final int size = id.length() + 3;
+            if (currentSize + size > maxPayloadBytes) {
+                pkgChunks.add(currentPkgs);
+                idChunks.add(currentIds);
+                removedChunks.add(currentRemoved);
+                currentPkgs    = new ArrayList<>();
+                currentIds     = new ArrayList<>();
+                currentRemoved = new ArrayList<>();
+                currentSize    = ENVELOPE_SIZE;
+            }
+            currentRemoved.add(id);
+            currentSize += size;
+        }
+        pkgChunks.add(currentPkgs);
+        idChunks.add(currentIds);
+        removedChunks.add(currentRemoved);
+
+        final int          chunks   = pkgChunks.size();
+        final List<String> messages = new ArrayList<>(chunks);
+        for (int i = 0 ; i < chunks ; i++) {
+            messages.add(new PkgDelta(generation, i, chunks, pkgChunks.get(i), idChunks.get(i), removedChunks.get(i)).toString());
+        }
+        return messages;
+    }
+
+    private static List<String> getStrings(final JsonObject json, final String fieldName) {
+        final List<String> strings = new ArrayList<>();
+        if (!json.has(fieldName)) { return strings; }
+        final JsonArray array = json.getAsJsonArray(fieldName);
+        array.forEach(element -> strings.add(element.getAsString()));
+        return strings;
+    }
+
+    private static void appendStrings(final StringBuilder msgBuilder, final List<String> strings) {
+        msgBuilder.append(SQUARE_BRACKET_OPEN);
+        for (int i = 0 ; i < strings.size() ; i++) {
+            if (i > 0) { msgBuilder.append(COMMA); }
+            msgBuilder.append(QUOTES).append(strings.get(i)).append(QUOTES);
+        }
+        msgBuilder.append(SQUARE_BRACKET_CLOSE);
+    }
+
+    @Override public String toString() {
+        final StringBuilder msgBuilder = new StringBuilder().append(CURLY_BRACKET_OPEN)
+                                                            .append(QUOTES).append(FIELD_GENERATION).append(QUOTES).append(COLON).append(generation).append(COMMA)
+                                                            .append(QUOTES).append(FIELD_CHUNK).append(QUOTES).append(COLON).append(chunk).append(COMMA)
+                                                            .append(QUOTES).append(FIELD_CHUNKS).append(QUOTES).append(COLON).append(chunks).append(COMMA)
+                                                            .append(QUOTES).append(FIELD_UPSERTED).append(QUOTES).append(COLON).append(SQUARE_BRACKET_OPEN);
+        for (int i = 0 ; i < upsertedPkgs.size() ; i++) {
+            if (i > 0) { msgBuilder.append(COMMA); }
+            msgBuilder.append(upsertedPkgs.get(i).toString(OutputFormat.FULL_COMPRESSED, API_VERSION_V3));
+        }
+        msgBuilder.append(SQUARE_BRACKET_CLOSE).append(COMMA)
+                  .append(QUOTES).append(FIELD_UPSERTED_IDS).append(QUOTES).append(COLON);
+        appendStrings(msgBuilder, upsertedIds);
+        msgBuilder.append(COMMA)
+                  .append(QUOTES).append(FIELD_REMOVED_IDS).append(QUOTES).append(COLON);
+        appendStrings(msgBuilder, removedIds);
+        return msgBuilder.append(CURLY_BRACKET_CLOSE).toString();
+    }
+}
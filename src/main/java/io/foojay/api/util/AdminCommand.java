@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2021.
+ *
+ * This file is part of DiscoAPI.
+ *
+ *     DiscoAPI is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 2 of the License, or
+ *     (at your option) any later version.
+ *
+ *     DiscoAPI is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with DiscoAPI.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.foojay.api.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import java.security.InvalidKeyException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+
+/**
+ * An admin command (e.g. rollback or pin of a catalog generation) that is sent over mqtt.
+ * The message has the form command@generation@timestamp@signature where the signature is the
+ * HMAC-SHA256 of command@generation@timestamp keyed with the admin secret. Commands with a wrong
+ * signature or a timestamp that is older than the max age will be rejected.
+ */
+public class AdminCommand {
+    private static final Logger LOGGER    = LoggerFactory.getLogger(AdminCommand.class);
+    public  static final String ALGORITHM = "HmacSHA256";
+    public  static final String SEPARATOR = "@";
+    private final        String command;
+    private final        long   generation;
+    private final        long   timestamp;
+
+
+    private AdminCommand(final String command, final long generation, final long timestamp) {
+        this.command    = command;
+        this.generation = generation;
+        this.timestamp  = timestamp;
+    }
+
+
+    public String getCommand() { return command; }
+
+    public long getGeneration() { return generation; }
+
+    /**
+     * Returns the time in ms when the command was signed
+     * @return the time in ms when the command was signed
+     */
+    public long getTimestamp() { return timestamp; }
+
+    /**
+     * Returns the signed message for the given command
+     * @param command the command (e.g. Constants.MQTT_ROLLBACK_CATALOG_MSG)
+     * @param generation the catalog generation the command refers to
+     * @param timestamp the time in ms when the command was created
+     * @param secret the admin secret
+     * @return the signed message or null if the message could not be signed
+     */
+    public static String sign(final String command, final long generation, final long timestamp, final String secret) {
+        final String payload   = command + SEPARATOR + generation + SEPARATOR + timestamp;
+        final byte[] signature = createSignature(payload, secret);
+        return null == signature ? null : payload + SEPARATOR + HexFormat.of().formatHex(signature);
+    }
+
+    /**
+     * Returns the command of the given message if the signature is valid and the command is not older
+     * than the given max age, otherwise null
+     * @param msg the signed message (command@generation@timestamp@signature)
+     * @param secret the admin secret (commands are always rejected if there is no secret)
+     * @param now the current time in ms
+     * @param maxAgeMs the max age of a command in ms
+     * @return the command of the given message or null if the message is not valid
+     */
+    public static AdminCommand fromSigned(final String msg, final String secret, final long now, final long maxAgeMs) {
+        if (null == msg || null == secret || secret.isEmpty()) { return null; }
+        final int separator = msg.lastIndexOf(SEPARATOR);
+        if (separator < 0) { return null; }
+        final String payload = msg.substring(0, separator);
+        final String[] parts = payload.split(SEPARATOR);
+        if (parts.length != 3) { return null; }
+
+        final byte[] expected = createSignature(payload, secret);
+        if (null == expected || !MessageDigest.isEqual(HexFormat.of().formatHex(expected).getBytes(UTF_8), msg.substring(separator + 1).getBytes(UTF_8))) {
+            LOGGER.warn("Rejected admin command with invalid signature {}", payload);
+            return null;
+        }
+        try {
+            final long generation = Long.parseLong(parts[1]);
+            final long timestamp  = Long.parseLong(parts[2]);
+            if (now - timestamp > maxAgeMs || timestamp - now > maxAgeMs) {
+                LOGGER.warn("Rejected expired admin command {}", payload);
+                return null;
+            }
+            return new AdminCommand(parts[0], generation, timestamp);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static byte[] createSignature(final String payload, final String secret) {
+        if (null == secret || secret.isEmpty()) { return null; }
+        try {
+            final Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(new SecretKeySpec(secret.getBytes(UTF_8), ALGORITHM));
+            return mac.doFinal(payload.getBytes(UTF_8));
+        } catch (NoSuchAlgorithmException | InvalidKeyException e) {
+            LOGGER.error("Error signing admin command. {}", e.getMessage());
+            return null;
+        }
+    }
+}
@@ -22,6 +22,11 @@ package io.foojay.api.util;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.File;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
 
 public enum Config {
     INSTANCE;
@@ -41,6 +46,20 @@ public enum Config {
     public static final String FOOJAY_MQTT_USER            = "FOOJAY_MQTT_USER";
     public static final String FOOJAY_MQTT_PASSWORD        = "FOOJAY_MQTT_PASSWORD";
 
+    public static final String FOOJAY_DOWNLOADS_RETENTION  = "FOOJAY_DOWNLOADS_RETENTION_DAYS";
+    public static final String FOOJAY_EPHEMERAL_ID_SECRET  = "FOOJAY_EPHEMERAL_ID_SECRET";
+    public static final String FOOJAY_SYNC_DEBOUNCE_MS     = "FOOJAY_SYNC_DEBOUNCE_MS";
+    public static final String FOOJAY_SNAPSHOT_PATH        = "FOOJAY_SNAPSHOT_PATH";
+    public static final String FOOJAY_CATALOG_GENERATIONS  = "FOOJAY_CATALOG_GENERATIONS";
+    public static final String FOOJAY_CALENDAR_REFRESH_H   = "FOOJAY_CALENDAR_REFRESH_HOURS";
+    public static final String FOOJAY_HOST_LIMITS          = "FOOJAY_HOST_LIMITS";
+    public static final String FOOJAY_SCRAPE_THREADS       = "FOOJAY_SCRAPE_THREADS";
+    public static final String FOOJAY_SCRAPE_TIMEOUT_MIN   = "FOOJAY_SCRAPE_TIMEOUT_MINUTES";
+    public static final String FOOJAY_SCRAPE_ENABLED       = "FOOJAY_SCRAPE_ENABLED";
+    public static final String FOOJAY_FILE_SIZE_MAX_AGE    = "FOOJAY_FILE_SIZE_MAX_AGE_DAYS";
+    public static final String FOOJAY_GITHUB_TOKENS        = "FOOJAY_GITHUB_TOKENS";
+    public static final String FOOJAY_ADMIN_SECRET         = "FOOJAY_ADMIN_SECRET";
+
 
     public String getFoojayApiBaseUrl() {
         final String baseUrl = System.getenv(FOOJAY_API_BASE_URL);
@@ -166,5 +185,177 @@ public enum Config {
             return mqttPassword;
         }
     }
-}
 
+
+    public Integer getFoojayDownloadsRetentionDays() {
+        final String retentionString = System.getenv(FOOJAY_DOWNLOADS_RETENTION);
+        if (null == retentionString) {
+            LOGGER.warn("No environment variable {} found.", FOOJAY_DOWNLOADS_RETENTION);
+            return 90;
+        } else {
+            try {
+                Integer retention = Integer.valueOf(retentionString);
+                return retention > 0 ? retention : 90;
+            } catch (NumberFormatException e) {
+                LOGGER.warn("Environment variable {} contains wrong value.", FOOJAY_DOWNLOADS_RETENTION);
+                return 90;
+            }
+        }
+    }
+
+    public String getFoojayEphemeralIdSecret() {
+        final String secret = System.getenv(FOOJAY_EPHEMERAL_ID_SECRET);
+        if (null == secret || secret.isEmpty()) {
+            LOGGER.error("No environment variable {} found, ephemeral ids are not available.", FOOJAY_EPHEMERAL_ID_SECRET);
+            return null;
+        } else {
+            return secret;
+        }
+    }
+
+    public String getFoojayAdminSecret() {
+        final String secret = System.getenv(FOOJAY_ADMIN_SECRET);
+        if (null == secret || secret.isEmpty()) {
+            LOGGER.warn("No environment variable {} found, admin commands will be rejected.", FOOJAY_ADMIN_SECRET);
+            return null;
+        } else {
+            return secret;
+        }
+    }
+
+    public Long getFoojaySyncDebounceMs() {
+        final String debounceString = System.getenv(FOOJAY_SYNC_DEBOUNCE_MS);
+        if (null == debounceString) {
+            LOGGER.warn("No environment variable {} found.", FOOJAY_SYNC_DEBOUNCE_MS);
+            return 2_000L;
+        } else {
+            try {
+                Long debounce = Long.valueOf(debounceString);
+                return debounce >= 0 ? debounce : 2_000L;
+            } catch (NumberFormatException e) {
+                LOGGER.warn("Environment variable {} contains wrong value.", FOOJAY_SYNC_DEBOUNCE_MS);
+                return 2_000L;
+            }
+        }
+    }
+
+    public String getFoojaySnapshotPath() {
+        final String snapshotPath = System.getenv(FOOJAY_SNAPSHOT_PATH);
+        if (null == snapshotPath || snapshotPath.isEmpty()) {
+            LOGGER.warn("No environment variable {} found.", FOOJAY_SNAPSHOT_PATH);
+            return System.getProperty("java.io.tmpdir") + File.separator + "discoapi-" + getFoojayApiEnvironment() + ".snapshot";
+        } else {
+            return snapshotPath;
+        }
+    }
+
+    public Integer getFoojayCatalogGenerations() {
+        final String generationsString = System.getenv(FOOJAY_CATALOG_GENERATIONS);
+        if (null == generationsString) {
+            LOGGER.warn("No environment variable {} found.", FOOJAY_CATALOG_GENERATIONS);
+            return 5;
+        } else {
+            try {
+                Integer generations = Integer.valueOf(generationsString);
+                return generations > 0 ? generations : 5;
+            } catch (NumberFormatException e) {
+                LOGGER.warn("Environment variable {} contains wrong value.", FOOJAY_CATALOG_GENERATIONS);
+                return 5;
+            }
+        }
+    }
+
+    public Integer getFoojayCalendarRefreshHours() {
+        final String hoursString = System.getenv(FOOJAY_CALENDAR_REFRESH_H);
+        if (null == hoursString) {
+            LOGGER.warn("No environment variable {} found.", FOOJAY_CALENDAR_REFRESH_H);
+            return 6;
+        } else {
+            try {
+                Integer hours = Integer.valueOf(hoursString);
+                return hours > 0 ? hours : 6;
+            } catch (NumberFormatException e) {
+                LOGGER.warn("Environment variable {} contains wrong value.", FOOJAY_CALENDAR_REFRESH_H);
+                return 6;
+            }
+        }
+    }
+
+    public String getFoojayHostLimits() {
+        final String hostLimits = System.getenv(FOOJAY_HOST_LIMITS);
+        if (null == hostLimits) {
+            LOGGER.warn("No environment variable {} found.", FOOJAY_HOST_LIMITS);
+            return "";
+        } else {
+            return hostLimits;
+        }
+    }
+
+    public Integer getFoojayScrapeThreads() {
+        final String threadsString = System.getenv(FOOJAY_SCRAPE_THREADS);
+        if (null == threadsString) {
+            LOGGER.warn("No environment variable {} found.", FOOJAY_SCRAPE_THREADS);
+            return 16;
+        } else {
+            try {
+                Integer threads = Integer.valueOf(threadsString);
+                return threads > 0 ? threads : 16;
+            } catch (NumberFormatException e) {
+                LOGGER.warn("Environment variable {} contains wrong value.", FOOJAY_SCRAPE_THREADS);
+                return 16;
+            }
+        }
+    }
+
+    public Integer getFoojayScrapeTimeoutMinutes() {
+        final String timeoutString = System.getenv(FOOJAY_SCRAPE_TIMEOUT_MIN);
+        if (null == timeoutString) {
+            LOGGER.warn("No environment variable {} found.", FOOJAY_SCRAPE_TIMEOUT_MIN);
+            return 10;
+        } else {
+            try {
+                Integer timeout = Integer.valueOf(timeoutString);
+                return timeout > 0 ? timeout : 10;
+            } catch (NumberFormatException e) {
+                LOGGER.warn("Environment variable {} contains wrong value.", FOOJAY_SCRAPE_TIMEOUT_MIN);
+                return 10;
+            }
+        }
+    }
+
+    public Boolean getFoojayScrapeEnabled() {
+        final String enabledString = System.getenv(FOOJAY_SCRAPE_ENABLED);
+        if (null == enabledString) {
+            LOGGER.warn("No environment variable {} found.", FOOJAY_SCRAPE_ENABLED);
+            return false;
+        } else {
+            return Boolean.parseBoolean(enabledString);
+        }
+    }
+
+    public Integer getFoojayFileSizeMaxAgeDays() {
+        final String maxAgeString = System.getenv(FOOJAY_FILE_SIZE_MAX_AGE);
+        if (null == maxAgeString) {
+            LOGGER.warn("No environment variable {} found.", FOOJAY_FILE_SIZE_MAX_AGE);
+            return 30;
+        } else {
+            try {
+                Integer maxAge = Integer.valueOf(maxAgeString);
+                return maxAge > 0 ? maxAge : 30;
+            } catch (NumberFormatException e) {
+                LOGGER.warn("Environment variable {} contains wrong value.", FOOJAY_FILE_SIZE_MAX_AGE);
+                return 30;
+            }
+        }
+    }
+
+    public List<String> getFoojayGithubTokens() {
+        final String tokensString = System.getenv(FOOJAY_GITHUB_TOKENS);
+        if (null == tokensString) {
+            LOGGER.warn("No environment variable {} found.", FOOJAY_GITHUB_TOKENS);
+            return List.of();
+        } else {
+            return Arrays.stream(tokensString.split(",")).map(String::trim).filter(token -> !token.isEmpty()).distinct().collect(Collectors.toList());
+        }
+    }
+}
@@ -35,15 +35,14 @@ import io.foojay.api.pkg.Distro;
 import io.foojay.api.pkg.PkgField;
 import io.foojay.api.scopes.IDEScope;
 
-import java.io.StringReader;
-import java.net.http.HttpResponse;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Properties;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Pattern;
@@ -56,14 +55,26 @@ public class Constants {
     public static final String            PACKAGES_COLLECTION                    = "packages";
     public static final String            DOWNLOADS_COLLECTION                   = "downloads";
     public static final String            DOWNLOADS_USER_AGENT_COLLECTION        = "downloadsUserAgent";
+    public static final String            DOWNLOADS_USER_AGENT_BUCKET_COLLECTION = "downloadsUserAgentBuckets";
+    public static final int               DOWNLOADS_USER_AGENT_BUCKET_SIZE       = 1_000;
     public static final String            DOWNLOADS_PER_DAY_COLLECTION           = "downloadsPerDay";
     public static final String            DISTRO_UPDATES_COLLECTION              = "distroupdates";
     public static final String            EPHEMERAL_IDS_COLLECTION               = "ephemeralIds";
     public static final String            SHEDLOCK_COLLECTION                    = "shedLock";
+    public static final String            CATALOG_SNAPSHOT_BUCKET                = "catalogSnapshots";
+    public static final int               CATALOG_SNAPSHOTS_TO_KEEP              = 3;
     public static final String            STATE_COLLECTION                       = "state";
     public static final String            UPDATER_STATE_COLLECTION               = "updaterState";
     public static final String            SENTINEL_COLLECTION                    = "sentinel";
     public static final String            MAJOR_VERSIONS_COLLECTION              = "majorVersions";
+    public static final String            FILE_SIZES_COLLECTION                  = "fileSizes";
+    public static final String            DOWNLOADS_ROLLUP_HOURLY_COLLECTION     = "downloadsRollupHourly";
+    public static final String            DOWNLOADS_ROLLUP_DAILY_COLLECTION      = "downloadsRollupDaily";
+    public static final String            DOWNLOADS_ROLLUP_WEEKLY_COLLECTION     = "downloadsRollupWeekly";
+    public static final String            DOWNLOADS_ROLLUP_MONTHLY_COLLECTION    = "downloadsRollupMonthly";
+    public static final String            DOWNLOADS_ROLLUP_YEARLY_COLLECTION     = "downloadsRollupYearly";
+    public static final long              DOWNLOADS_ROLLUP_FLUSH_IN_SECONDS      = 5;
+    public static final long              DOWNLOADS_COMPACTION_IN_HOURS          = 24;
 
     public static final String            ENDPOINT_PACKAGES                      = "packages";
     public static final String            ENDPOINT_EPHEMERAL_IDS                 = "ephemeral_ids";
@@ -98,6 +109,7 @@ public class Constants {
     public static final String            MQTT_EPHEMERAL_ID_UPDATE_TOPIC         = String.join(MQTT_TOPIC_SEPARATOR, Config.INSTANCE.getFoojayApiEnvironment(), "discoupdater/update/ephemeral_id");
     public static final String            MQTT_LAST_WILL_TOPIC                   = MQTT_PRESENCE_TOPIC;
     public static final String            MQTT_UPDATER_STATE_TOPIC               = String.join(MQTT_TOPIC_SEPARATOR, Config.INSTANCE.getFoojayApiEnvironment(), "discoupdater/state");
+    public static final String            MQTT_PKG_DELTA_TOPIC                   = String.join(MQTT_TOPIC_SEPARATOR, Config.INSTANCE.getFoojayApiEnvironment(), "discoupdater/update/pkg_delta");
     public static final String            MQTT_API_STATE_TOPIC                   = String.join(MQTT_TOPIC_SEPARATOR, Config.INSTANCE.getFoojayApiEnvironment(), "discoapi/state");
     public static final String            MQTT_PKG_UPDATE_STARTED_MSG            = "pkg_update_started";
     public static final String            MQTT_PKG_UPDATE_FINISHED_MSG           = "pkg_update_finished";
@@ -107,17 +119,27 @@ public class Constants {
     public static final String            MQTT_UPDATER_ONLINE_MSG                = "{\"state\":\"ONLINE\",\"msg\":\"updater is connected\"}";
     public static final String            MQTT_UPDATER_OFFLINE_MSG               = "{\"state\":\"OFFLINE\",\"msg\":\"updater is not connected\"}";
     public static final String            MQTT_FORCE_PKG_UPDATE_MSG              = "force_pkg_update";
+    public static final String            MQTT_ROLLBACK_CATALOG_MSG              = "rollback_catalog";
+    public static final String            MQTT_PIN_CATALOG_MSG                   = "pin_catalog";
+    public static final String            MQTT_UNPIN_CATALOG_MSG                 = "unpin_catalog";
+    public static final long              ADMIN_COMMAND_MAX_AGE_IN_SECONDS       = 300;
     public static final String            MQTT_ONLINE_MSG                        = "1";
     public static final String            MQTT_OFFLINE_MSG                       = "0";
+    public static final int               MQTT_MAX_PAYLOAD_BYTES                 = 128_000;
+    public static final String            MQTT_GENERATION_SEPARATOR              = "@";
 
     public static final long              UPDATE_TIMEOUT_IN_MINUTES              = 20;
     public static final long              PRELOAD_TIMEOUT_IN_MINUTES             = 15;
     public static final long              UPLOAD_TIMEOUT_IN_MINUTES              = 10;
     public static final long              SYNCHRONIZING_TIMEOUT_IN_MINUTES       = 15;
+    public static final long              MQTT_CONNECT_TIMEOUT_IN_SECONDS        = 30;
+    public static final long              FINGERPRINT_INTERVAL_IN_MINUTES        = 5;
+    public static final long              FINGERPRINT_TTL_IN_MINUTES             = 3 * FINGERPRINT_INTERVAL_IN_MINUTES;
 
     public static final boolean           ALL_PKGS                               = false;
     public static final boolean           ONLY_NEW_PKGS                          = true;
 
+    public static final long              EPHEMERAL_ID_ROTATION_MINUTES          = 10;
     public static final long              SECONDS_PER_HOUR                       = 3_600;
     public static final long              SECONDS_PER_DAY                        = 86_400;
     public static final long              SECONDS_PER_WEEK                       = 604_800;
@@ -165,6 +187,10 @@ public class Constants {
     public static final String            FILE_ENDING_SHA256_TXT                 = "sha256.txt";
     public static final String            FILE_ENDING_SHA256_DMG_TXT             = "sha256.dmg.txt";
     public static final String            FILE_ENDING_ZIP                        = "zip";
+    public static final Pattern           SHA256_FILE_ENDING_PATTERN             = Pattern.compile("." + FILE_ENDING_SHA256);
+    public static final Pattern           SHA256_TXT_FILE_ENDING_PATTERN         = Pattern.compile("." + FILE_ENDING_SHA256_TXT);
+    public static final Pattern           SHA256_DMG_TXT_FILE_ENDING_PATTERN     = Pattern.compile("." + FILE_ENDING_SHA256_DMG_TXT);
+    public static final Pattern           MD5_FILE_ENDING_PATTERN                = Pattern.compile("." + FILE_ENDING_MD5);
 
     public static final String            RESULT                                 = "result";
     public static final String            MESSAGE                                = "message";
@@ -373,25 +399,16 @@ public class Constants {
     }};
 
     public static final String                  GA_RELEASE_DATES_PROPERTIES = "https://github.com/foojayio/ga_dates/raw/main/ga_dates.properties";
+    public static final String                  GA_RELEASE_DATES_RESOURCE   = "/io/foojay/api/ga_dates.properties";
     public static final Map<Integer, LocalDate> GA_RELEASE_DATES            = new ConcurrentHashMap<>();
     static {
-        try {
-            HttpResponse<String> response = Helper.get(GA_RELEASE_DATES_PROPERTIES);
-            if (null != response) {
-                Properties gaDates        = new Properties();
-                String     propertiesText = response.body();
-                if (!propertiesText.isEmpty()) {
-                    gaDates.load(new StringReader(propertiesText));
-                }
-                gaDates.keySet().forEach(key -> {
-                    String[]  dateString     = gaDates.get(key).toString().split("_");
-                    Integer   featureVersion = Integer.valueOf(key.toString().split("-")[0]);
-                    LocalDate releaseDate    = LocalDate.of(Integer.parseInt(dateString[2]), Integer.parseInt(dateString[1]), Integer.parseInt(dateString[0]));
-                    GA_RELEASE_DATES.put(featureVersion, releaseDate);
-                });
+        // Embedded last known dates, the dates from github will be loaded during the bootstrap (no network calls in here)
+        try (InputStream inputStream = Constants.class.getResourceAsStream(GA_RELEASE_DATES_RESOURCE)) {
+            if (null != inputStream) {
+                GA_RELEASE_DATES.putAll(Helper.parseGaReleaseDates(new String(inputStream.readAllBytes(), StandardCharsets.UTF_8)));
             }
         } catch (Exception e) {
-            System.out.println("Error reading ga_dates.properties file from github. " + e.getMessage());
+            System.out.println("Error reading embedded ga_dates.properties. " + e.getMessage());
         }
     }
 }
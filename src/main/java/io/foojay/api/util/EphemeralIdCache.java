@@ -22,58 +22,127 @@ package io.foojay.api.util;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import java.nio.charset.StandardCharsets;
+import java.security.InvalidKeyException;
+import java.security.NoSuchAlgorithmException;
 import java.time.Instant;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
-import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
 
 
+/**
+ * Ephemeral ids are a keyed hash of the rotation window and the package id (see Helper.createEphemeralId()).
+ * Every node can compute them locally, so this cache only holds the reverse mapping (ephemeral id -> package id)
+ * for the current and the previous window. The reverse map of a window is filled lazily on the first lookup
+ * that misses and ids of the previous window stay valid during rotation. A window is only filled again when
+ * the version of the packages changed, lookups of unknown ids are remembered until then.
+ */
 public class EphemeralIdCache<T extends String, U extends String> implements Cache<T, U> {
-    private static final Logger LOGGER = LoggerFactory.getLogger(EphemeralIdCache.class);
+    private static final Logger LOGGER     = LoggerFactory.getLogger(EphemeralIdCache.class);
+    private static final int    MAX_MISSES = 10_000;
+
+    private final    ConcurrentHashMap<Long, ConcurrentHashMap<T, U>> windows         = new ConcurrentHashMap<>(4, 0.9f, 1);
+    private final    ConcurrentHashMap<Long, Long>                    filledVersions  = new ConcurrentHashMap<>(4, 0.9f, 1);
+    private final    Set<T>                                           misses          = ConcurrentHashMap.newKeySet();
+    private final    Supplier<Collection<U>>                          pkgIdSupplier;
+    private final    LongSupplier                                     versionSupplier;
+    private final    Supplier<String>                                 secretSupplier;
+    private final    ThreadLocal<Mac>                                 mac             = ThreadLocal.withInitial(this::createMac);
+    private volatile String                                           secret;
+    private volatile long                                             missesWindow    = -1;
+    private volatile long                                             missesVersion   = -1;
+
+
+    public EphemeralIdCache() {
+        this(() -> List.of(), () -> 0);
+    }
+    /**
+     * @param pkgIdSupplier   supplies all package ids to fill the reverse map of a window
+     * @param versionSupplier supplies a number that changes whenever the package ids change
+     */
+    public EphemeralIdCache(final Supplier<Collection<U>> pkgIdSupplier, final LongSupplier versionSupplier) {
+        this(pkgIdSupplier, versionSupplier, Config.INSTANCE::getFoojayEphemeralIdSecret);
+    }
+    public EphemeralIdCache(final Supplier<Collection<U>> pkgIdSupplier, final LongSupplier versionSupplier, final Supplier<String> secretSupplier) {
+        this.pkgIdSupplier   = pkgIdSupplier;
+        this.versionSupplier = versionSupplier;
+        this.secretSupplier  = secretSupplier;
+    }
 
-    private final ConcurrentHashMap<T, U> ephemeralIdCache = new ConcurrentHashMap<>(16, 0.9f, 1);
 
     @Override public void add(final T ephemeralId, final U pkgId) {
         if (null == ephemeralId) { return; }
         if (null == pkgId) {
             LOGGER.debug("EphemeralId cannot be null -> removed key {}", ephemeralId);
-            ephemeralIdCache.remove(ephemeralId);
+            getWindow(currentWindow()).remove(ephemeralId);
         } else {
-            ephemeralIdCache.put(ephemeralId, pkgId);
+            getWindow(currentWindow()).put(ephemeralId, pkgId);
+            misses.remove(ephemeralId);
         }
     }
 
     @Override public U get(final T ephemeralId) {
-        if (null == ephemeralId || !ephemeralIdCache.containsKey(ephemeralId)) { return null; }
-        return ephemeralIdCache.get(ephemeralId);
+        if (null == ephemeralId) { return null; }
+        final long window = currentWindow();
+        U pkgId = probe(ephemeralId, window);
+        if (null != pkgId) { return pkgId; }
+
+        // Unknown ids will only be looked up again if the window or the packages changed
+        final long version = versionSupplier.getAsLong();
+        if (missesWindow != window || missesVersion != version || misses.size() > MAX_MISSES) {
+            misses.clear();
+            missesWindow  = window;
+            missesVersion = version;
+        } else if (misses.contains(ephemeralId)) {
+            return null;
+        }
+
+        // Fill the reverse maps of the current and previous window and probe again
+        fill(window, version);
+        fill(window - 1, version);
+        pkgId = probe(ephemeralId, window);
+        if (null == pkgId) { misses.add(ephemeralId); }
+        return pkgId;
     }
 
-    @Override public void remove(final T bundleInfoId) {
-        ephemeralIdCache.remove(bundleInfoId);
+    @Override public void remove(final T ephemeralId) {
+        windows.values().forEach(map -> map.remove(ephemeralId));
     }
-    @Override public void remove(final List<T> keysToRemove) { keysToRemove.forEach(key -> ephemeralIdCache.remove(key)); }
+    @Override public void remove(final List<T> keysToRemove) { keysToRemove.forEach(key -> remove(key)); }
 
-    @Override public void addAll(final Map<T,U> entries) { ephemeralIdCache.putAll(entries); }
+    @Override public void addAll(final Map<T,U> entries) {
+        getWindow(currentWindow()).putAll(entries);
+        misses.clear();
+    }
 
     @Override public void clear() {
-        ephemeralIdCache.clear();
+        windows.clear();
+        filledVersions.clear();
+        misses.clear();
         LOGGER.debug("EphemeralID cache cleared");
     }
 
-    @Override public synchronized long size() {
-        return ephemeralIdCache.size();
+    @Override public long size() {
+        return getWindow(currentWindow()).size();
     }
 
-    @Override public synchronized boolean isEmpty() { return ephemeralIdCache.isEmpty(); }
+    @Override public boolean isEmpty() { return getWindow(currentWindow()).isEmpty(); }
 
     public void setAll(final Map<T, U> entries) {
-        ephemeralIdCache.clear();
-        ephemeralIdCache.putAll(entries);
+        final long window = currentWindow();
+        windows.put(window, new ConcurrentHashMap<>(entries));
+        filledVersions.remove(window);
+        misses.clear();
         LOGGER.debug("EphemeralID cache cleared and set with new values");
     }
 
@@ -82,7 +151,10 @@ public class EphemeralIdCache<T extends String, U extends String> implements Cac
      * existing entries.
      * @param patch Map that contains existing and new entries
      */
-    public void synchronize(final Map<T, U> patch) { patch.forEach(ephemeralIdCache::putIfAbsent); }
+    public void synchronize(final Map<T, U> patch) {
+        patch.forEach(getWindow(currentWindow())::putIfAbsent);
+        misses.clear();
+    }
 
     /**
      * Updates the cache with the values from the given patch map including updates
@@ -92,33 +164,101 @@ public class EphemeralIdCache<T extends String, U extends String> implements Cac
      * @param removeIfNotInPatch
      */
     public void update(final Map<T, U> patch, final boolean removeIfNotInPatch) {
-            patch.forEach((key, value) -> ephemeralIdCache.merge(key, value, (v1, v2) -> v1.equals(v2) ? v1 : v2));
-            if (removeIfNotInPatch) {
-                if (ephemeralIdCache.size() > patch.size()) {
-                    Map<T, U> toRemoveFromTarget = new HashMap<>();
-                    ephemeralIdCache.entrySet().stream().filter(entry -> !patch.containsKey(entry.getKey())).forEach(entry -> toRemoveFromTarget.put(entry.getKey(), entry.getValue()));
-                    toRemoveFromTarget.keySet().forEach(key -> ephemeralIdCache.remove(key));
-                }
+        final ConcurrentHashMap<T, U> ephemeralIdCache = getWindow(currentWindow());
+        patch.forEach((key, value) -> ephemeralIdCache.merge(key, value, (v1, v2) -> v1.equals(v2) ? v1 : v2));
+        if (removeIfNotInPatch) {
+            if (ephemeralIdCache.size() > patch.size()) {
+                Map<T, U> toRemoveFromTarget = new HashMap<>();
+                ephemeralIdCache.entrySet().stream().filter(entry -> !patch.containsKey(entry.getKey())).forEach(entry -> toRemoveFromTarget.put(entry.getKey(), entry.getValue()));
+                toRemoveFromTarget.keySet().forEach(key -> ephemeralIdCache.remove(key));
             }
         }
+        misses.clear();
+    }
 
-    public boolean containsEphemeralId(final T ephemeralId) { return ephemeralIdCache.containsKey(ephemeralId); }
+    public boolean containsEphemeralId(final T ephemeralId) { return null != get(ephemeralId); }
 
+    /**
+     * Returns the ephemeral id of the given package id in the current rotation window
+     * @param pkgId the package id
+     * @return the ephemeral id of the given package id in the current rotation window
+     */
     public T getEphemeralIdForPkgId(final U pkgId) {
-        Optional<Entry<T, U>> optionalEntry = ephemeralIdCache.entrySet().stream().filter(entry -> entry.getValue().equals(pkgId)).findFirst();
+        final long window      = currentWindow();
+        final T    ephemeralId = createEphemeralId(window, pkgId);
+        getWindow(window).putIfAbsent(ephemeralId, pkgId);
+        return ephemeralId;
+    }
 
-        if (optionalEntry.isPresent()) {
-            return optionalEntry.get().getKey();
-        } else {
-            final T ephemeralId = (T) Helper.createEphemeralId(Instant.now().getEpochSecond(), pkgId);
-            add(ephemeralId, pkgId);
-            return ephemeralId;
-        }
+    /**
+     * Returns true if the given ephemeral id belongs to the given package id in the
+     * current or the previous rotation window.
+     * @param ephemeralId the ephemeral id to verify
+     * @param pkgId the package id
+     * @return true if the given ephemeral id belongs to the given package id
+     */
+    public boolean isValid(final T ephemeralId, final U pkgId) {
+        if (null == ephemeralId || null == pkgId) { return false; }
+        final long window = currentWindow();
+        return ephemeralId.equals(createEphemeralId(window, pkgId)) || ephemeralId.equals(createEphemeralId(window - 1, pkgId));
+    }
+
+    /**
+     * Drops the reverse maps of all windows that are older than the previous window
+     */
+    public void rotate() {
+        final long window = currentWindow();
+        windows.keySet().removeIf(w -> w < window - 1);
+        filledVersions.keySet().removeIf(w -> w < window - 1);
+    }
+
+    public Set<Entry<T,U>> getEntrySet() { return getWindow(currentWindow()).entrySet(); }
+
+    public Collection<T> getEphemeralIds() { return getWindow(currentWindow()).keySet(); }
+
+    public Collection<U> getPkgIds() { return getWindow(currentWindow()).values(); }
+
+    private U probe(final T ephemeralId, final long window) {
+        final ConcurrentHashMap<T, U> current = windows.get(window);
+        if (null != current && current.containsKey(ephemeralId)) { return current.get(ephemeralId); }
+        final ConcurrentHashMap<T, U> previous = windows.get(window - 1);
+        if (null != previous && previous.containsKey(ephemeralId)) { return previous.get(ephemeralId); }
+        return null;
+    }
+
+    private synchronized void fill(final long window, final long version) {
+        // Only refill if the packages changed since the last fill of this window
+        final Long filledVersion = filledVersions.get(window);
+        if (null != filledVersion && filledVersion == version) { return; }
+        final Collection<U>           pkgIds = pkgIdSupplier.get();
+        final ConcurrentHashMap<T, U> map    = getWindow(window);
+        pkgIds.forEach(pkgId -> map.putIfAbsent(createEphemeralId(window, pkgId), pkgId));
+        filledVersions.put(window, version);
+        LOGGER.debug("EphemeralID cache filled window {} with {} ids", window, pkgIds.size());
+    }
+
+    private ConcurrentHashMap<T, U> getWindow(final long window) {
+        return windows.computeIfAbsent(window, w -> new ConcurrentHashMap<>(16, 0.9f, 1));
     }
 
-    public Set<Entry<T,U>> getEntrySet() { return ephemeralIdCache.entrySet(); }
+    private T createEphemeralId(final long window, final U pkgId) {
+        return (T) Helper.createEphemeralId(window, pkgId, mac.get());
+    }
 
-    public Collection<T> getEphemeralIds() { return ephemeralIdCache.keySet(); }
+    private Mac createMac() {
+        if (null == secret) {
+            final String configuredSecret = secretSupplier.get();
+            if (null == configuredSecret || configuredSecret.isEmpty()) { throw new IllegalStateException("No secret for ephemeral ids configured (" + Config.FOOJAY_EPHEMERAL_ID_SECRET + ")"); }
+            secret = configuredSecret;
+        }
+        try {
+            final Mac mac = Mac.getInstance(Helper.EPHEMERAL_ID_ALGORITHM);
+            mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), Helper.EPHEMERAL_ID_ALGORITHM));
+            return mac;
+        } catch (NoSuchAlgorithmException | InvalidKeyException e) {
+            throw new IllegalStateException("Cannot create mac for ephemeral ids. " + e.getMessage(), e);
+        }
+    }
 
-    public Collection<U> getPkgIds() { return ephemeralIdCache.values(); }
+    private long currentWindow() { return Helper.getEphemeralIdWindow(Instant.now()); }
 }
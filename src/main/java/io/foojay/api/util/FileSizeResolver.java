@@ -0,0 +1,285 @@
+/*
+ * Copyright (c) 2021.
+ *
+ * This file is part of DiscoAPI.
+ *
+ *     DiscoAPI is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 2 of the License, or
+ *     (at your option) any later version.
+ *
+ *     DiscoAPI is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with DiscoAPI.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.foojay.api.util;
+
+import io.foojay.api.MongoDbManager;
+import io.foojay.api.pkg.Pkg;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpClient.Redirect;
+import java.net.http.HttpClient.Version;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+
+/**
+ * Resolves the file sizes of pkgs with asynchronous HEAD requests in batches instead of one blocking
+ * request per asset. Resolved sizes are stored (with ETag and Last-Modified) in mongodb, a known uri
+ * will only be requested again after FOOJAY_FILE_SIZE_MAX_AGE_DAYS and then with a conditional request.
+ * Scrapers call getSize(), inside of deferResolution() unknown sizes are left to resolve(), outside of
+ * it (e.g. a scraper that is called directly) the size is requested right away.
+ */
+public enum FileSizeResolver {
+    INSTANCE;
+
+    private static final Logger                 LOGGER                  = LoggerFactory.getLogger(FileSizeResolver.class);
+    private static final int                    MAX_CONCURRENT_REQUESTS = 32;
+    private static final long                   REQUEST_TIMEOUT_S       = 10;
+    private static final long                   BATCH_TIMEOUT_MIN       = 5;
+    private static final long                   LOAD_RETRY_MS           = 60_000;
+    private final        Map<String, FileSize>  registry                = new ConcurrentHashMap<>();
+    private final        Semaphore              inFlight                = new Semaphore(MAX_CONCURRENT_REQUESTS);
+    private final        ThreadLocal<Boolean>   deferred                = ThreadLocal.withInitial(() -> Boolean.FALSE);
+    private final        AtomicInteger          dispatcherCounter       = new AtomicInteger();
+    private final        ExecutorService        dispatchers             = Executors.newCachedThreadPool(runnable -> {
+        final Thread thread = new Thread(runnable, "file-size-dispatcher-" + dispatcherCounter.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    });
+    private volatile     boolean                loaded                  = false;
+    private volatile     long                   lastLoadAttempt         = 0;
+    private              HttpClient             httpClient;
+
+
+    /**
+     * Returns the size of the given uri. If the size is not known yet it will be requested, except when
+     * called inside of deferResolution(), then -1 will be returned and the size is left to resolve().
+     * @param uri the download uri
+     * @return the size or -1
+     */
+    public long getSize(final String uri) {
+        if (null == uri || uri.isEmpty()) { return -1; }
+        load();
+        final FileSize fileSize = registry.get(uri);
+        if (null != fileSize)  { return fileSize.size(); }
+        if (deferred.get())    { return -1; }
+        return Helper.getFileSize(uri);
+    }
+
+    /**
+     * Runs the given scrape with getSize() not requesting unknown sizes, the caller has to call resolve()
+     * with the returned pkgs afterwards.
+     * @param scrape the scrape to run on the current thread
+     * @return the result of the scrape
+     */
+    public <T> T deferResolution(final Supplier<T> scrape) {
+        final Boolean previous = deferred.get();
+        deferred.set(Boolean.TRUE);
+        try {
+            return scrape.get();
+        } finally {
+            deferred.set(previous);
+        }
+    }
+
+    /**
+     * Fills in the size of all pkgs without a size and revalidates the sizes of uris that have been
+     * checked more than FOOJAY_FILE_SIZE_MAX_AGE_DAYS ago (also if the scraper filled in the size
+     * from the registry). Each uri will be requested only once per batch,
+     * the requests are dispatched per host in parallel (limited per host by the HostLimiter) and the
+     * whole batch (including the time waiting for request slots) is limited to BATCH_TIMEOUT_MIN.
+     * @param pkgs the pkgs to fill in the size
+     * @return the number of resolved uris
+     */
+    public int resolve(final Collection<Pkg> pkgs) {
+        if (null == pkgs || pkgs.isEmpty()) { return 0; }
+        load();
+        final long                   now     = System.currentTimeMillis();
+        final long                   maxAge  = TimeUnit.DAYS.toMillis(Config.INSTANCE.getFoojayFileSizeMaxAgeDays());
+        final Map<String, List<Pkg>> pending = new HashMap<>();
+        for (Pkg pkg : pkgs) {
+            final String uri = pkg.getDirectDownloadUri();
+            if (null == uri || uri.isEmpty()) { continue; }
+            final FileSize known = registry.get(uri);
+            if (null != known && known.size() > 0) {
+                if (pkg.getSize() <= 0) { pkg.setSize(known.size()); }
+                if (now - known.checkedAt() < maxAge) { continue; }
+            } else if (pkg.getSize() > 0) {
+                continue;
+            }
+            pending.computeIfAbsent(uri, u -> new ArrayList<>()).add(pkg);
+        }
+        if (pending.isEmpty()) { return 0; }
+
+        final Map<String, CompletableFuture<FileSize>> requests = new HashMap<>();
+        final Map<String, List<String>>                perHost  = new HashMap<>();
+        pending.keySet().forEach(uri -> {
+            requests.put(uri, new CompletableFuture<>());
+            perHost.computeIfAbsent(String.valueOf(HostLimiter.getHost(uri)), host -> new ArrayList<>()).add(uri);
+        });
+        // A host that has to wait for its request slots only delays its own uris
+        final List<Future<?>> dispatches = new ArrayList<>();
+        perHost.values().forEach(uris -> dispatches.add(dispatchers.submit(() -> dispatch(uris, requests))));
+        try {
+            CompletableFuture.allOf(requests.values().toArray(new CompletableFuture[0])).get(BATCH_TIMEOUT_MIN, TimeUnit.MINUTES);
+        } catch (TimeoutException e) {
+            LOGGER.warn("Resolving {} file sizes took more than {} minutes", requests.size(), BATCH_TIMEOUT_MIN);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            LOGGER.debug("Error resolving file sizes. {}", e.getMessage());
+        } finally {
+            // Stop dispatching the remaining uris of this batch
+            dispatches.forEach(dispatch -> dispatch.cancel(true));
+        }
+
+        final List<FileSize> resolved = new ArrayList<>();
+        requests.forEach((uri, request) -> {
+            final FileSize fileSize = request.getNow(null);
+            if (null == fileSize) { return; }
+            registry.put(uri, fileSize);
+            resolved.add(fileSize);
+            pending.get(uri).forEach(pkg -> pkg.setSize(fileSize.size()));
+        });
+        if (!resolved.isEmpty()) { MongoDbManager.INSTANCE.upsertFileSizes(resolved); }
+        LOGGER.debug("Resolved {} of {} file sizes in {} ms", resolved.size(), requests.size(), System.currentTimeMillis() - now);
+        return resolved.size();
+    }
+
+    private void dispatch(final List<String> uris, final Map<String, CompletableFuture<FileSize>> requests) {
+        for (String uri : uris) {
+            final CompletableFuture<FileSize> request = requests.get(uri);
+            try {
+                head(uri, registry.get(uri)).whenComplete((fileSize, throwable) -> request.complete(fileSize));
+            } catch (InterruptedException e) {
+                // Batch timed out, the remaining uris will not be requested
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private CompletableFuture<FileSize> head(final String uri, final FileSize known) throws InterruptedException {
+        final HttpRequest request;
+        try {
+            final HttpRequest.Builder builder = HttpRequest.newBuilder()
+                                                           .method("HEAD", HttpRequest.BodyPublishers.noBody())
+                                                           .uri(URI.create(uri))
+                                                           .header("User-Agent", "DiscoAPI")
+                                                           .timeout(Duration.ofSeconds(REQUEST_TIMEOUT_S));
+            if (null != known && known.size() > 0) {
+                if (null != known.etag())         { builder.header("If-None-Match", known.etag()); }
+                if (null != known.lastModified()) { builder.header("If-Modified-Since", known.lastModified()); }
+            }
+            request = builder.build();
+        } catch (IllegalArgumentException e) {
+            LOGGER.debug("Invalid uri {}", uri);
+            return CompletableFuture.completedFuture(null);
+        }
+
+        inFlight.acquire();
+        final HostLimiter.Permit permit;
+        try {
+            permit = HostLimiter.INSTANCE.acquire(uri);
+        } catch (HostLimiter.HostBusyException e) {
+            inFlight.release();
+            LOGGER.debug("Skipped HEAD request {}. {}", uri, e.getMessage());
+            return CompletableFuture.completedFuture(null);
+        } catch (InterruptedException e) {
+            inFlight.release();
+            throw e;
+        }
+
+        final CompletableFuture<HttpResponse<Void>> response;
+        try {
+            response = getHttpClient().sendAsync(request, BodyHandlers.discarding());
+        } catch (RuntimeException e) {
+            permit.close();
+            inFlight.release();
+            LOGGER.debug("HEAD request {} failed. {}", uri, e.getMessage());
+            return CompletableFuture.completedFuture(null);
+        }
+        return response.handle((resp, throwable) -> {
+            permit.close();
+            inFlight.release();
+            if (null != throwable || null == resp) {
+                LOGGER.debug("HEAD request {} failed. {}", uri, null == throwable ? "" : throwable.getMessage());
+                return null;
+            }
+            final long checkedAt = System.currentTimeMillis();
+            if (304 == resp.statusCode() && null != known) {
+                return new FileSize(uri, known.size(), known.etag(), known.lastModified(), checkedAt);
+            }
+            if (200 != resp.statusCode()) { return null; }
+            final long size = resp.headers().firstValueAsLong("Content-Length").orElse(-1);
+            if (size <= 0) { return null; }
+            return new FileSize(uri, size, resp.headers().firstValue("ETag").orElse(null), resp.headers().firstValue("Last-Modified").orElse(null), checkedAt);
+        });
+    }
+
+    private synchronized HttpClient getHttpClient() {
+        if (null == httpClient) {
+            httpClient = HttpClient.newBuilder()
+                                   .connectTimeout(Duration.ofSeconds(20))
+                                   .version(Version.HTTP_2)
+                                   .followRedirects(Redirect.NORMAL)
+                                   .build();
+        }
+        return httpClient;
+    }
+
+    /**
+     * Adds the given file size to the registry without storing it in mongodb (used by the tests)
+     * @param fileSize the file size to add
+     */
+    void register(final FileSize fileSize) { registry.put(fileSize.uri(), fileSize); }
+
+    private void load() {
+        if (loaded) { return; }
+        synchronized (registry) {
+            if (loaded) { return; }
+            // Without mongodb the registry stays unloaded and will be loaded on a later call (at most once per LOAD_RETRY_MS)
+            final long now = System.currentTimeMillis();
+            if (now - lastLoadAttempt < LOAD_RETRY_MS) { return; }
+            lastLoadAttempt = now;
+            if (null == MongoDbManager.INSTANCE.getDatabase()) {
+                LOGGER.debug("MongoDB not available, file sizes not loaded");
+                return;
+            }
+            registry.putAll(MongoDbManager.INSTANCE.getFileSizes());
+            loaded = true;
+            LOGGER.debug("Loaded {} file sizes", registry.size());
+        }
+    }
+
+
+    public record FileSize(String uri, long size, String etag, String lastModified, long checkedAt) { }
+}
@@ -0,0 +1,235 @@
+/*
+ * Copyright (c) 2021.
+ *
+ * This file is part of DiscoAPI.
+ *
+ *     DiscoAPI is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 2 of the License, or
+ *     (at your option) any later version.
+ *
+ *     DiscoAPI is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with DiscoAPI.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.foojay.api.util;
+
+import eu.hansolo.jdktools.Architecture;
+import eu.hansolo.jdktools.ArchiveType;
+import eu.hansolo.jdktools.OperatingSystem;
+import eu.hansolo.jdktools.PackageType;
+import eu.hansolo.jdktools.ReleaseStatus;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+
+/**
+ * Classifies a filename (or uri) in one pass into architecture, operating system, archive type, package type
+ * and release status. All keys of the lookup maps in Constants are stored in one Aho-Corasick automaton, for
+ * each category the match with the lowest position in the lookup map wins. So the result is the same as the
+ * first entry of the LinkedHashMap that is contained in the text (or the text ends with for the suffix variants).
+ */
+public enum FilenameClassifier {
+    INSTANCE;
+
+    private static final int                         ARCHITECTURE     = 0;
+    private static final int                         OPERATING_SYSTEM = 1;
+    private static final int                         ARCHIVE_TYPE     = 2;
+    private static final int                         PACKAGE_TYPE     = 3;
+    private static final int                         RELEASE_STATUS   = 4;
+    private static final int                         CATEGORIES       = 5;
+    private static final int                         MAX_CACHE_SIZE   = 16_384;
+    private final        Object[][]                  values           = new Object[CATEGORIES][];
+    private final        Node                        root;
+    private final        Map<String, Classification> cache            = new ConcurrentHashMap<>();
+
+
+    FilenameClassifier() {
+        final List<LinkedHashMap<String, ?>> lookups = List.of(Constants.ARCHITECTURE_LOOKUP, Constants.OPERATING_SYSTEM_LOOKUP, Constants.ARCHIVE_TYPE_LOOKUP,
+                                                               Constants.PACKAGE_TYPE_LOOKUP, Constants.RELEASE_STATUS_LOOKUP);
+        final Builder builder = new Builder();
+        for (int category = 0 ; category < CATEGORIES ; category++) {
+            final List<Object> categoryValues = new ArrayList<>();
+            int index = 0;
+            for (Map.Entry<String, ?> entry : lookups.get(category).entrySet()) {
+                builder.add(entry.getKey(), category, index++);
+                categoryValues.add(entry.getValue());
+            }
+            values[category] = categoryValues.toArray();
+        }
+        root = builder.build();
+    }
+
+
+    /**
+     * Classifies the given text in one pass over all lookup keys
+     * @param text filename or uri
+     * @return the classification of the text
+     */
+    public Classification classify(final String text) {
+        if (null == text || text.isEmpty()) { return Classification.EMPTY; }
+        final Classification cached = cache.get(text);
+        if (null != cached) { return cached; }
+
+        final int[] contained = new int[CATEGORIES];
+        final int[] suffix    = new int[CATEGORIES];
+        Arrays.fill(contained, Integer.MAX_VALUE);
+        Arrays.fill(suffix, Integer.MAX_VALUE);
+
+        final int length = text.length();
+        Node      state  = root;
+        for (int i = 0 ; i < length ; i++) {
+            final char c = text.charAt(i);
+            Node next = state.next(c);
+            while (null == next && state != root) {
+                state = state.fail;
+                next  = state.next(c);
+            }
+            state = null == next ? root : next;
+            for (int[] match : state.matches) {
+                final int category = match[0];
+                final int index    = match[1];
+                if (index < contained[category]) { contained[category] = index; }
+                if (i == length - 1 && index < suffix[category]) { suffix[category] = index; }
+            }
+        }
+
+        final Classification classification = new Classification((Architecture)    value(ARCHITECTURE, contained),
+                                                                  (OperatingSystem) value(OPERATING_SYSTEM, contained),
+                                                                  (ArchiveType)     value(ARCHIVE_TYPE, contained),
+                                                                  (ArchiveType)     value(ARCHIVE_TYPE, suffix),
+                                                                  (PackageType)     value(PACKAGE_TYPE, contained),
+                                                                  (ReleaseStatus)   value(RELEASE_STATUS, contained),
+                                                                  (ReleaseStatus)   value(RELEASE_STATUS, suffix));
+        if (cache.size() > MAX_CACHE_SIZE) { cache.clear(); }
+        cache.put(text, classification);
+        return classification;
+    }
+
+    private Object value(final int category, final int[] indices) {
+        return Integer.MAX_VALUE == indices[category] ? null : values[category][indices[category]];
+    }
+
+
+    /**
+     * Result of a classification, each getter returns the given fallback if nothing was found
+     */
+    public record Classification(Architecture architecture, OperatingSystem operatingSystem, ArchiveType archiveTypeContained, ArchiveType archiveTypeSuffix,
+                                 PackageType packageType, ReleaseStatus releaseStatus, ReleaseStatus releaseStatusSuffix) {
+        public static final Classification EMPTY = new Classification(null, null, null, null, null, null, null);
+
+        public Architecture getArchitecture(final Architecture fallback) { return null == architecture ? fallback : architecture; }
+
+        public OperatingSystem getOperatingSystem(final OperatingSystem fallback) { return null == operatingSystem ? fallback : operatingSystem; }
+
+        /**
+         * Returns the archive type of the first key of ARCHIVE_TYPE_LOOKUP the text ends with
+         */
+        public ArchiveType getArchiveType(final ArchiveType fallback) { return null == archiveTypeSuffix ? fallback : archiveTypeSuffix; }
+
+        /**
+         * Returns the archive type of the first key of ARCHIVE_TYPE_LOOKUP the text contains
+         */
+        public ArchiveType getArchiveTypeContained(final ArchiveType fallback) { return null == archiveTypeContained ? fallback : archiveTypeContained; }
+
+        public PackageType getPackageType(final PackageType fallback) { return null == packageType ? fallback : packageType; }
+
+        public ReleaseStatus getReleaseStatus(final ReleaseStatus fallback) { return null == releaseStatus ? fallback : releaseStatus; }
+
+        /**
+         * Returns the release status of the first key of RELEASE_STATUS_LOOKUP the text ends with
+         */
+        public ReleaseStatus getReleaseStatusSuffix(final ReleaseStatus fallback) { return null == releaseStatusSuffix ? fallback : releaseStatusSuffix; }
+    }
+
+
+    private static class Node {
+        private char[]  labels   = new char[0];
+        private Node[]  children = new Node[0];
+        private int[][] matches  = new int[0][];
+        private Node    fail;
+
+
+        private Node next(final char c) {
+            for (int i = 0 ; i < labels.length ; i++) {
+                if (labels[i] == c) { return children[i]; }
+            }
+            return null;
+        }
+    }
+
+
+    private static class Builder {
+        private final Map<Node, TreeMap<Character, Node>> transitions = new LinkedHashMap<>();
+        private final Map<Node, List<int[]>>              outputs     = new LinkedHashMap<>();
+        private final Node                                root        = new Node();
+
+
+        private Builder() { transitions.put(root, new TreeMap<>()); }
+
+
+        private void add(final String key, final int category, final int index) {
+            Node node = root;
+            for (char c : key.toCharArray()) {
+                node = transitions.get(node).computeIfAbsent(c, character -> new Node());
+                transitions.putIfAbsent(node, new TreeMap<>());
+            }
+            outputs.computeIfAbsent(node, n -> new ArrayList<>()).add(new int[] { category, index });
+        }
+
+        private Node build() {
+            transitions.forEach((node, children) -> {
+                node.labels   = new char[children.size()];
+                node.children = new Node[children.size()];
+                int i = 0;
+                for (Map.Entry<Character, Node> entry : children.entrySet()) {
+                    node.labels[i]   = entry.getKey();
+                    node.children[i] = entry.getValue();
+                    i++;
+                }
+            });
+
+            // Breadth first: set the failure links and merge the matches of the failure node into each node
+            final Queue<Node> queue = new ArrayDeque<>();
+            root.fail    = root;
+            root.matches = toArray(outputs.get(root));
+            for (Node child : root.children) {
+                child.fail    = root;
+                child.matches = toArray(outputs.get(child));
+                queue.add(child);
+            }
+            while (!queue.isEmpty()) {
+                final Node node = queue.poll();
+                for (int i = 0 ; i < node.labels.length ; i++) {
+                    final char c     = node.labels[i];
+                    final Node child = node.children[i];
+                    Node fail = node.fail;
+                    while (null == fail.next(c) && fail != root) { fail = fail.fail; }
+                    final Node failTarget = fail.next(c);
+                    child.fail = null == failTarget || failTarget == child ? root : failTarget;
+
+                    final List<int[]> matches = new ArrayList<>(null == outputs.get(child) ? List.of() : outputs.get(child));
+                    matches.addAll(Arrays.asList(child.fail.matches));
+                    child.matches = matches.toArray(new int[0][]);
+                    queue.add(child);
+                }
+            }
+            return root;
+        }
+
+        private static int[][] toArray(final List<int[]> matches) { return null == matches ? new int[0][] : matches.toArray(new int[0][]); }
+    }
+}
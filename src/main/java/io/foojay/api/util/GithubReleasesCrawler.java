@@ -0,0 +1,369 @@
+/*
+ * Copyright (c) 2021.
+ *
+ * This file is part of DiscoAPI.
+ *
+ *     DiscoAPI is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 2 of the License, or
+ *     (at your option) any later version.
+ *
+ *     DiscoAPI is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with DiscoAPI.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.foojay.api.util;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+import io.foojay.api.MongoDbManager;
+import io.foojay.api.pkg.Pkg;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.http.HttpResponse;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+
+/**
+ * Fetches the releases of a github repository for the github based distributions. A full crawl fetches
+ * all pages (found in the Link header) in parallel. For each repository the latest published_at (or
+ * asset updated_at) is remembered, an incremental crawl (onlyNewPkgs) fetches the pages one by one and
+ * stops at the first page without a newer release. All pages are parsed while they are transferred and
+ * each release is handed to the mapper of the distribution as soon as it has been parsed, the mapper is
+ * always called on the crawling thread. The first page of an incremental crawl is requested with the
+ * ETag of the last complete crawl and the crawl stops if github answers with 304 (not modified).
+ * Repositories that are crawled by more than one distribution (e.g. GraalVM CE 11 and GraalVM Community)
+ * keep a high water mark per distribution, otherwise the crawl of one distribution would hide the new
+ * releases from the others. The high water mark of a repository only advances after a crawl in which all pages were fetched, inside
+ * of collectMarks() only after the caller confirmed with commitMarks() that the pkgs have been persisted.
+ * The marks are stored in mongodb.
+ */
+public enum GithubReleasesCrawler {
+    INSTANCE;
+
+    private static final Logger                               LOGGER            = LoggerFactory.getLogger(GithubReleasesCrawler.class);
+    private static final int                                  PER_PAGE          = 100;
+    private static final int                                  MAX_PAGES         = 100;
+    private static final long                                 LOAD_RETRY_MS     = 60_000;
+    private static final JsonElement                          PAGE_DONE         = new JsonPrimitive("page_done");
+    private static final JsonElement                          PAGE_FAILED       = new JsonPrimitive("page_failed");
+    private static final Pattern                              LAST_PAGE_PATTERN = Pattern.compile("[?&]page=(\\d+)[^>]*>;\\s*rel=\"last\"");
+    private static final PageSource                           GITHUB            = (pageUrl, etag, consumer) -> {
+        final Map<String, String> headers = new HashMap<>(getHeaders());
+        if (null != etag) { headers.put("If-None-Match", etag); }
+        final AtomicReference<HttpResponse<?>> response = new AtomicReference<>();
+        final int                              status   = Helper.getJsonArrayStreamed(pageUrl, headers, response::set, consumer);
+        if (304 == status) { return Page.NOT_MODIFIED; }
+        if (200 != status || null == response.get()) {
+            LOGGER.debug("Error fetching releases from {} ({})", pageUrl, status);
+            return null;
+        }
+        return new Page(response.get().headers().firstValue("ETag").orElse(null), getLastPage(response.get()));
+    };
+    private final        Map<String, Instant>                 highWaterMarks    = new ConcurrentHashMap<>();
+    private final        Map<String, String>                  etags             = new ConcurrentHashMap<>();
+    private final        ThreadLocal<List<HighWaterMark>>     collected         = new ThreadLocal<>();
+    private final        ExecutorService                      executor          = Executors.newCachedThreadPool(runnable -> {
+        final Thread thread = new Thread(runnable, "github-releases-crawler");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private volatile     boolean                              loaded            = false;
+    private volatile     long                                 lastLoadAttempt   = 0;
+
+
+    /**
+     * Returns the pkgs of all releases of the given github releases url (e.g. https://api.github.com/repos/adoptium/temurin17-binaries/releases)
+     * @param releasesUrl the github api url of the releases
+     * @param onlyNewPkgs if true only releases newer than the last crawl will be mapped
+     * @param mapper      maps an array of releases to pkgs, will be called for each release while the pages are parsed
+     * @return the pkgs of all (new) releases
+     */
+    public List<Pkg> crawl(final String releasesUrl, final boolean onlyNewPkgs, final Function<JsonArray, Collection<Pkg>> mapper) {
+        return crawl(releasesUrl, releasesUrl, onlyNewPkgs, mapper, GITHUB);
+    }
+
+    /**
+     * Returns the pkgs of all releases of a github releases url that is crawled by more than one distribution
+     * @param scope       the scope of the high water mark (e.g. the api string of the distribution)
+     * @param releasesUrl the github api url of the releases
+     * @param onlyNewPkgs if true only releases newer than the last crawl in this scope will be mapped
+     * @param mapper      maps an array of releases to pkgs, will be called for each release while the pages are parsed
+     * @return the pkgs of all (new) releases
+     */
+    public List<Pkg> crawl(final String scope, final String releasesUrl, final boolean onlyNewPkgs, final Function<JsonArray, Collection<Pkg>> mapper) {
+        return crawl(getKey(scope, releasesUrl), releasesUrl, onlyNewPkgs, mapper, GITHUB);
+    }
+
+    List<Pkg> crawl(final String releasesUrl, final boolean onlyNewPkgs, final Function<JsonArray, Collection<Pkg>> mapper, final PageSource source) {
+        return crawl(releasesUrl, releasesUrl, onlyNewPkgs, mapper, source);
+    }
+
+    List<Pkg> crawl(final String key, final String releasesUrl, final boolean onlyNewPkgs, final Function<JsonArray, Collection<Pkg>> mapper, final PageSource source) {
+        load();
+        final Instant  mark     = onlyNewPkgs ? highWaterMarks.get(key) : null;
+        final Releases releases = new Releases(mark, mapper);
+        boolean        complete = true;
+
+        final Page firstPage = source.stream(getPageUrl(releasesUrl, 1), null == mark ? null : etags.get(key), releases);
+        if (null == firstPage || Page.NOT_MODIFIED == firstPage) { return releases.pkgs; }
+
+        final int lastPage = Math.min(MAX_PAGES, firstPage.lastPage());
+        if (null == mark) {
+            // Full crawl, stream all other pages in parallel and map their releases on this thread
+            if (firstPage.lastPage() > MAX_PAGES) {
+                LOGGER.warn("{} has {} pages of releases, only the first {} have been crawled", releasesUrl, firstPage.lastPage(), MAX_PAGES);
+                complete = false;
+            }
+            final BlockingQueue<JsonElement> queue = new LinkedBlockingQueue<>(PER_PAGE);
+            final List<Future<?>>            pages = new ArrayList<>();
+            try {
+                for (int page = 2 ; page <= lastPage ; page++) {
+                    final String pageUrl = getPageUrl(releasesUrl, page);
+                    pages.add(executor.submit(() -> streamPage(source, pageUrl, queue)));
+                }
+                int pending = pages.size();
+                while (pending > 0) {
+                    final JsonElement release = queue.take();
+                    if (PAGE_DONE == release) {
+                        pending--;
+                    } else if (PAGE_FAILED == release) {
+                        pending--;
+                        complete = false;
+                    } else {
+                        releases.accept(release);
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                LOGGER.error("Interrupted while crawling {}", releasesUrl);
+                complete = false;
+            } finally {
+                pages.forEach(page -> page.cancel(true));
+            }
+        } else {
+            // Incremental crawl, stop at the first page that only contains known releases
+            int page = 1;
+            while (releases.newOnPage == PER_PAGE && page < lastPage) {
+                page++;
+                releases.newOnPage = 0;
+                if (null == source.stream(getPageUrl(releasesUrl, page), null, releases)) {
+                    complete = false;
+                    break;
+                }
+            }
+            if (complete && releases.newOnPage == PER_PAGE && firstPage.lastPage() > lastPage) {
+                LOGGER.warn("{} has more than {} pages of new releases, only the first {} have been crawled", releasesUrl, MAX_PAGES, MAX_PAGES);
+                complete = false;
+            }
+        }
+
+        if (!complete) {
+            LOGGER.warn("Crawl of {} was incomplete, the high water mark stays at {}", releasesUrl, mark);
+        } else if (null != releases.latest) {
+            final HighWaterMark highWaterMark = new HighWaterMark(key, releases.latest, firstPage.etag());
+            final List<HighWaterMark> marks   = collected.get();
+            if (null == marks) {
+                commitMarks(List.of(highWaterMark));
+            } else {
+                marks.add(highWaterMark);
+            }
+        }
+        return releases.pkgs;
+    }
+
+    /**
+     * Runs the given scrape on the current thread and collects the high water marks of its crawls in the
+     * given list instead of advancing them. The marks have to be committed with commitMarks() after the
+     * pkgs of the scrape have been persisted.
+     * @param marks  the list that will receive the marks of all complete crawls
+     * @param scrape the scrape to run
+     * @return the result of the scrape
+     */
+    public <T> T collectMarks(final List<HighWaterMark> marks, final Supplier<T> scrape) {
+        final List<HighWaterMark> previous = collected.get();
+        collected.set(marks);
+        try {
+            return scrape.get();
+        } finally {
+            if (null == previous) { collected.remove(); } else { collected.set(previous); }
+        }
+    }
+
+    /**
+     * Advances and stores the given high water marks, should be called after the pkgs of the crawls have been persisted
+     * @param marks the marks collected by collectMarks()
+     */
+    public void commitMarks(final Collection<HighWaterMark> marks) {
+        if (null == marks || marks.isEmpty()) { return; }
+        final Map<String, Instant> advanced = new HashMap<>();
+        for (HighWaterMark mark : marks) {
+            final Instant current = highWaterMarks.merge(mark.key(), mark.mark(), (oldMark, newMark) -> newMark.isAfter(oldMark) ? newMark : oldMark);
+            advanced.put(mark.key(), current);
+            if (null != mark.etag()) { etags.put(mark.key(), mark.etag()); }
+        }
+        MongoDbManager.INSTANCE.upsertGithubHighWaterMarks(advanced);
+    }
+
+    public Instant getHighWaterMark(final String key) { return highWaterMarks.get(key); }
+
+    private void load() {
+        if (loaded) { return; }
+        synchronized (highWaterMarks) {
+            if (loaded) { return; }
+            final long now = System.currentTimeMillis();
+            if (now - lastLoadAttempt < LOAD_RETRY_MS) { return; }
+            lastLoadAttempt = now;
+            if (null == MongoDbManager.INSTANCE.getDatabase()) {
+                LOGGER.debug("MongoDB not available, github high water marks not loaded");
+                return;
+            }
+            MongoDbManager.INSTANCE.getGithubHighWaterMarks().forEach((key, mark) -> highWaterMarks.merge(key, mark, (oldMark, newMark) -> newMark.isAfter(oldMark) ? newMark : oldMark));
+            loaded = true;
+            LOGGER.debug("Loaded {} github high water marks", highWaterMarks.size());
+        }
+    }
+
+    /**
+     * Streams the releases of the given page into the queue and adds PAGE_DONE (or PAGE_FAILED) at the end
+     */
+    private static void streamPage(final PageSource source, final String pageUrl, final BlockingQueue<JsonElement> queue) {
+        boolean fetched = false;
+        try {
+            fetched = null != source.stream(pageUrl, null, release -> {
+                try {
+                    queue.put(release);
+                } catch (InterruptedException e) {
+                    // The crawl has been abandoned, keep the flag to stop the parsing
+                    Thread.currentThread().interrupt();
+                }
+            });
+        } finally {
+            try {
+                queue.put(fetched ? PAGE_DONE : PAGE_FAILED);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static Map<String, String> getHeaders() {
+        return Map.of("accept", "application/vnd.github.v3+json", "authorization", GithubTokenPool.INSTANCE.next());
+    }
+
+    /**
+     * Returns the key of the high water mark of the given releases url in the given scope
+     */
+    static String getKey(final String scope, final String releasesUrl) {
+        return new StringBuilder().append(releasesUrl).append("#").append(scope).toString();
+    }
+
+    private static String getPageUrl(final String releasesUrl, final int page) {
+        final String url = releasesUrl.replaceAll("([?&])per_page=\\d+&?", "$1").replaceAll("[?&]$", "");
+        return new StringBuilder().append(url).append(url.contains("?") ? "&" : "?").append("per_page=").append(PER_PAGE).append("&page=").append(page).toString();
+    }
+
+    private static int getLastPage(final HttpResponse<?> response) {
+        final String link = response.headers().firstValue("Link").orElse("");
+        final Matcher matcher = LAST_PAGE_PATTERN.matcher(link);
+        return matcher.find() ? Integer.parseInt(matcher.group(1)) : 1;
+    }
+
+    /**
+     * Returns the latest of published_at of the release and updated_at of its assets
+     */
+    private static Instant getUpdated(final JsonElement release) {
+        if (!release.isJsonObject()) { return null; }
+        final JsonObject json    = release.getAsJsonObject();
+        Instant          updated = parseInstant(json, "published_at");
+        if (json.has("assets") && json.get("assets").isJsonArray()) {
+            for (JsonElement asset : json.getAsJsonArray("assets")) {
+                if (!asset.isJsonObject()) { continue; }
+                final Instant assetUpdated = parseInstant(asset.getAsJsonObject(), "updated_at");
+                if (null != assetUpdated && (null == updated || assetUpdated.isAfter(updated))) { updated = assetUpdated; }
+            }
+        }
+        return updated;
+    }
+
+    private static Instant parseInstant(final JsonObject json, final String field) {
+        if (!json.has(field) || json.get(field).isJsonNull()) { return null; }
+        try {
+            return Instant.parse(json.get(field).getAsString());
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+
+    public record HighWaterMark(String key, Instant mark, String etag) { }
+
+
+    record Page(String etag, int lastPage) {
+        static final Page NOT_MODIFIED = new Page(null, 0);
+    }
+
+
+    interface PageSource {
+        /**
+         * Streams the releases of the given page to the consumer while they are parsed
+         * @param etag if not null the page will be requested conditionally
+         * @return the page, Page.NOT_MODIFIED if the etag still matches or null if the page could not be fetched
+         */
+        Page stream(String pageUrl, String etag, Consumer<JsonElement> consumer);
+    }
+
+
+    /**
+     * Maps the releases that have been published (or got new assets) after the mark and keeps track of the latest one
+     */
+    private static class Releases implements Consumer<JsonElement> {
+        private final Instant                                 mark;
+        private final Function<JsonArray, Collection<Pkg>>    mapper;
+        private final List<Pkg>                               pkgs      = new ArrayList<>();
+        private       Instant                                 latest;
+        private       int                                     newOnPage = 0;
+
+        private Releases(final Instant mark, final Function<JsonArray, Collection<Pkg>> mapper) {
+            this.mark   = mark;
+            this.mapper = mapper;
+            this.latest = mark;
+        }
+
+        @Override public void accept(final JsonElement release) {
+            final Instant updated = getUpdated(release);
+            if (null != mark && null != updated && !updated.isAfter(mark)) { return; }
+            newOnPage++;
+            if (null != updated && (null == latest || updated.isAfter(latest))) { latest = updated; }
+            final JsonArray single = new JsonArray(1);
+            single.add(release);
+            pkgs.addAll(mapper.apply(single));
+        }
+    }
+}
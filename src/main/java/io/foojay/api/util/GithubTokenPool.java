@@ -19,20 +19,160 @@
 
 package io.foojay.api.util;
 
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.http.HttpHeaders;
 import java.util.List;
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Collectors;
+
+import static io.foojay.api.util.Constants.COLON;
+import static io.foojay.api.util.Constants.COMMA;
+import static io.foojay.api.util.Constants.CURLY_BRACKET_CLOSE;
+import static io.foojay.api.util.Constants.CURLY_BRACKET_OPEN;
+import static io.foojay.api.util.Constants.QUOTES;
+import static io.foojay.api.util.Constants.SQUARE_BRACKET_CLOSE;
+import static io.foojay.api.util.Constants.SQUARE_BRACKET_OPEN;
 
 
-public enum GithubTokenPool {
-    INSTANCE;
+/**
+ * Hands out the github token with the most remaining requests. The remaining requests and the reset
+ * time of each token are taken from the X-RateLimit headers of the github responses (see update()).
+ * If all tokens are exhausted, callers wait until the first token resets (max MAX_WAIT_MS).
+ * The tokens are read from the environment variable FOOJAY_GITHUB_TOKENS (comma separated).
+ */
+public class GithubTokenPool {
+    private static final Logger           LOGGER          = LoggerFactory.getLogger(GithubTokenPool.class);
+    private static final int              DEFAULT_LIMIT   = 5_000;
+    private static final long             MAX_WAIT_MS     = TimeUnit.MINUTES.toMillis(15);
+    private static final long             RATE_WINDOW_MS  = TimeUnit.HOURS.toMillis(1);
+    private static final String           AUTHORIZATION   = "authorization";
+    public  static final GithubTokenPool  INSTANCE        = new GithubTokenPool(Config.INSTANCE.getFoojayGithubTokens(), Metrics.globalRegistry, MAX_WAIT_MS);
+    private final        List<TokenState> tokens;
+    private final        long             maxWaitMs;
 
-    private static final CopyOnWriteArrayList<String> TOKEN_LIST = new CopyOnWriteArrayList<>(List.of());
-    private static       int                          counter    = 0;
 
+    GithubTokenPool(final List<String> tokens, final MeterRegistry registry, final long maxWaitMs) {
+        this.tokens    = tokens.stream().map(TokenState::new).collect(Collectors.toList());
+        this.maxWaitMs = maxWaitMs;
+        for (int i = 0 ; i < this.tokens.size() ; i++) {
+            final TokenState state = this.tokens.get(i);
+            Gauge.builder("discoapi.github.token.remaining", state.remaining, AtomicInteger::get).tag("token", Integer.toString(i)).register(registry);
+            Gauge.builder("discoapi.github.token.reset", state.resetAt, AtomicLong::get).tag("token", Integer.toString(i)).register(registry);
+        }
+    }
+
+
+    /**
+     * Returns the token with the most remaining requests and reserves one request of it. If all tokens
+     * are exhausted the calling thread will be parked until the first token resets.
+     * @return the token with the most remaining requests or an empty string if no tokens are configured
+     */
     public String next() {
-        final String token = TOKEN_LIST.get(counter);
-        counter++;
-        if (counter > TOKEN_LIST.size() - 1) { counter = 0; }
-        return token;
+        if (tokens.isEmpty()) { return ""; }
+        final long deadline = System.currentTimeMillis() + maxWaitMs;
+        while (true) {
+            final long now        = System.currentTimeMillis();
+            TokenState best       = null;
+            int        bestRemain = 0;
+            long       firstReset = Long.MAX_VALUE;
+            for (TokenState state : tokens) {
+                final int remaining = state.getRemaining(now);
+                if (remaining > bestRemain) {
+                    best       = state;
+                    bestRemain = remaining;
+                }
+                if (state.resetAt.get() > 0) { firstReset = Math.min(firstReset, state.resetAt.get()); }
+            }
+            if (null != best) {
+                // Reserve one request, if another thread was faster just select again
+                if (best.remaining.compareAndSet(bestRemain, bestRemain - 1)) {
+                    // Without a response from github yet, assume the quota resets after the rate limit window
+                    best.resetAt.compareAndSet(0, now + RATE_WINDOW_MS);
+                    return best.token;
+                }
+                continue;
+            }
+            if (now >= deadline) {
+                LOGGER.warn("All github tokens exhausted for more than {} ms", maxWaitMs);
+                return tokens.get(0).token;
+            }
+            final long waitMs = Math.max(100, Math.min(firstReset, deadline) - now);
+            LOGGER.debug("All github tokens exhausted, waiting {} ms for the next reset", waitMs);
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(waitMs));
+            if (Thread.currentThread().isInterrupted()) { return tokens.get(0).token; }
+        }
+    }
+
+    /**
+     * Updates the remaining requests and the reset time of the token that was used for a request
+     * with the X-RateLimit headers of the github response.
+     * @param requestHeaders  the headers of the request (containing the authorization header)
+     * @param responseHeaders the headers of the response
+     */
+    public void update(final Map<String, String> requestHeaders, final HttpHeaders responseHeaders) {
+        if (tokens.isEmpty() || null == requestHeaders || null == responseHeaders) { return; }
+        final String token = requestHeaders.entrySet().stream().filter(entry -> AUTHORIZATION.equalsIgnoreCase(entry.getKey())).map(Map.Entry::getValue).findFirst().orElse(null);
+        if (null == token) { return; }
+        final TokenState state = tokens.stream().filter(tokenState -> tokenState.token.equals(token)).findFirst().orElse(null);
+        if (null == state) { return; }
+        final long remaining = responseHeaders.firstValueAsLong("X-RateLimit-Remaining").orElse(-1);
+        final long reset     = responseHeaders.firstValueAsLong("X-RateLimit-Reset").orElse(-1);
+        final long limit     = responseHeaders.firstValueAsLong("X-RateLimit-Limit").orElse(-1);
+        if (limit > 0)      { state.limit = (int) limit; }
+        if (reset > 0)      { state.resetAt.set(TimeUnit.SECONDS.toMillis(reset)); }
+        if (remaining > -1) { state.remaining.set((int) remaining); }
+    }
+
+    public int size() { return tokens.size(); }
+
+    @Override public String toString() {
+        final long          now        = System.currentTimeMillis();
+        final StringBuilder msgBuilder = new StringBuilder().append(SQUARE_BRACKET_OPEN);
+        for (int i = 0 ; i < tokens.size() ; i++) {
+            final TokenState state = tokens.get(i);
+            if (i > 0) { msgBuilder.append(COMMA); }
+            msgBuilder.append(CURLY_BRACKET_OPEN)
+                      .append(QUOTES).append("token").append(QUOTES).append(COLON).append(i).append(COMMA)
+                      .append(QUOTES).append("remaining").append(QUOTES).append(COLON).append(state.getRemaining(now)).append(COMMA)
+                      .append(QUOTES).append("limit").append(QUOTES).append(COLON).append(state.limit).append(COMMA)
+                      .append(QUOTES).append("reset").append(QUOTES).append(COLON).append(TimeUnit.MILLISECONDS.toSeconds(state.resetAt.get()))
+                      .append(CURLY_BRACKET_CLOSE);
+        }
+        return msgBuilder.append(SQUARE_BRACKET_CLOSE).toString();
+    }
+
+
+    private static class TokenState {
+        private final    String        token;
+        private final    AtomicInteger remaining;
+        private final    AtomicLong    resetAt;
+        private volatile int           limit;
+
+
+        private TokenState(final String token) {
+            this.token     = token;
+            this.remaining = new AtomicInteger(DEFAULT_LIMIT);
+            this.resetAt   = new AtomicLong(0);
+            this.limit     = DEFAULT_LIMIT;
+        }
+
+
+        /**
+         * Returns the remaining requests, if the reset time has passed the quota will be refilled
+         */
+        private int getRemaining(final long now) {
+            final long reset = resetAt.get();
+            if (reset > 0 && now >= reset && resetAt.compareAndSet(reset, 0)) { remaining.set(limit); }
+            return remaining.get();
+        }
     }
 }
@@ -22,6 +22,10 @@ package io.foojay.api.util;
 import com.google.gson.Gson;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
 import eu.hansolo.jdktools.Architecture;
 import eu.hansolo.jdktools.ArchiveType;
 import eu.hansolo.jdktools.OperatingSystem;
@@ -52,10 +56,14 @@ import org.yaml.snakeyaml.LoaderOptions;
 import org.yaml.snakeyaml.Yaml;
 import org.yaml.snakeyaml.constructor.Constructor;
 
+import javax.crypto.Mac;
+
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.StringReader;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpClient.Redirect;
@@ -71,6 +79,7 @@ import java.security.NoSuchAlgorithmException;
 import java.text.CharacterIterator;
 import java.text.StringCharacterIterator;
 import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -80,12 +89,14 @@ import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.Optional;
 import java.util.OptionalInt;
+import java.util.Properties;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
+import java.util.regex.MatchResult;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
@@ -112,14 +123,7 @@ public class Helper {
     public  static final Pattern    HREF_SIG_FILE_PATTERN                  = Pattern.compile("href=\"([^\"]*(\\.sig))\"");
     public  static final Pattern    HREF_SHA256_FILE_PATTERN               = Pattern.compile("href=\"([^\"]*(\\.sha256sum.txt))\"");
     public  static final Pattern    HREF_DOWNLOAD_PATTERN                  = Pattern.compile("(\\>)(\\s|\\h?(jdk|jre|serverjre)-(([0-9]+\\.[0-9]+\\.[0-9]+_[a-z]+-[a-z0-9]+_)|([0-9]+u[0-9]+-[a-z]+-[a-z0-9]+(-vfp-hflt)?)).*[a-zA-Z]+)(\\<)");
-    private static final Matcher    FILE_URL_MATCHER                       = FILE_URL_PATTERN.matcher("");
-    private static final Matcher    CORRETTO_SIG_URI_MATCHER               = CORRETTO_SIG_URI_PATTERN.matcher("");
-    private static final Matcher    HREF_FILE_MATCHER                      = HREF_FILE_PATTERN.matcher("");
-    private static final Matcher    DOWNLOAD_LINK_MATCHER                  = DOWNLOAD_LINK_PATTERN.matcher("");
-    private static final Matcher    SIG_MATCHER                            = SIG_PATTERN.matcher("");
-    private static final Matcher    HREF_SIG_FILE_MATCHER                  = HREF_SIG_FILE_PATTERN.matcher("");
-    private static final Matcher    HREF_SHA256_FILE_MATCHER               = HREF_SHA256_FILE_PATTERN.matcher("");
-    private static final Matcher    HREF_DOWNLOAD_MATCHER                  = HREF_DOWNLOAD_PATTERN.matcher("");
+    public  static final String     EPHEMERAL_ID_ALGORITHM                 = "HmacSHA1";
     private static       HttpClient httpClient;
     private static       HttpClient httpClientAsync;
 
@@ -134,31 +138,62 @@ public class Helper {
         return ArchiveType.NONE;
     }
 
+    /**
+     * Removes all matches of the given precompiled pattern from the text.
+     * A new Matcher is created for each call which makes it safe to use from concurrent scrapers.
+     * @param pattern precompiled pattern
+     * @param text text to remove the matches from
+     * @return text without the matches
+     */
+    public static final String removeMatches(final Pattern pattern, final String text) {
+        return pattern.matcher(text).replaceAll("");
+    }
+
+    /**
+     * Returns all match results of the given precompiled pattern in the text, using a new Matcher for each call
+     * @param pattern precompiled pattern
+     * @param text text to search in
+     * @return list of match results
+     */
+    public static final List<MatchResult> getMatchResults(final Pattern pattern, final String text) {
+        return pattern.matcher(text).results().collect(Collectors.toList());
+    }
+
+    /**
+     * Returns true if the whole text matches the given precompiled pattern, using a new Matcher for each call
+     * @param pattern precompiled pattern
+     * @param text text to match
+     * @return true if the whole text matches the pattern
+     */
+    public static final boolean matches(final Pattern pattern, final String text) {
+        return pattern.matcher(text).matches();
+    }
+
     public static final Set<String> getFileUrlsFromString(final String text) {
         Set<String> urlsFound = new HashSet<>();
-        FILE_URL_MATCHER.reset(text);
-        while (FILE_URL_MATCHER.find()) {
-            // JDK / JRE -> FILE_URL_MATCHER.group(1)
-            // File URL  -> FILE_URL_MATCHER.group(3)
-            urlsFound.add(FILE_URL_MATCHER.group(3));
+        final Matcher matcher = FILE_URL_PATTERN.matcher(text);
+        while (matcher.find()) {
+            // JDK / JRE -> matcher.group(1)
+            // File URL  -> matcher.group(3)
+            urlsFound.add(matcher.group(3));
         }
         return urlsFound;
     }
 
     public static final Set<Pair<String,String>> getPackageTypeAndFileUrlFromString(final String text) {
         Set<Pair<String,String>> pairsFound = new HashSet<>();
-        FILE_URL_MATCHER.reset(text);
-        while (FILE_URL_MATCHER.find()) {
-            pairsFound.add(new Pair<>(FILE_URL_MATCHER.group(1), FILE_URL_MATCHER.group(3)));
+        final Matcher matcher = FILE_URL_PATTERN.matcher(text);
+        while (matcher.find()) {
+            pairsFound.add(new Pair<>(matcher.group(1), matcher.group(3)));
         }
         return pairsFound;
     }
 
     public static final Map<String,String> getCorrettoSignatureUris(final String text) {
         Map signatureUrisFound = new HashMap<>();
-        CORRETTO_SIG_URI_MATCHER.reset(text);
-        while(CORRETTO_SIG_URI_MATCHER.find()) {
-            String sigUri   = CORRETTO_SIG_URI_MATCHER.group(3);
+        final Matcher matcher = CORRETTO_SIG_URI_PATTERN.matcher(text);
+        while(matcher.find()) {
+            String sigUri   = matcher.group(3);
             String filename = (sigUri.substring(sigUri.lastIndexOf("/") + 1)).replaceAll("\\.sig|\\.SIG", "");
             signatureUrisFound.put(filename, sigUri);
         }
@@ -167,54 +202,54 @@ public class Helper {
 
     public static final Set<String> getFileHrefsFromString(final String text) {
         Set<String> hrefsFound = new HashSet<>();
-        HREF_FILE_MATCHER.reset(text);
-        while (HREF_FILE_MATCHER.find()) {
-            hrefsFound.add(HREF_FILE_MATCHER.group(1));
+        final Matcher matcher = HREF_FILE_PATTERN.matcher(text);
+        while (matcher.find()) {
+            hrefsFound.add(matcher.group(1));
         }
         return hrefsFound;
     }
 
     public static final Set<String> getDownloadLinkFromString(final String text) {
         Set<String> downloadLinksFound = new HashSet<>();
-        DOWNLOAD_LINK_MATCHER.reset(text);
-        while (DOWNLOAD_LINK_MATCHER.find()) {
-            downloadLinksFound.add(DOWNLOAD_LINK_MATCHER.group(1));
+        final Matcher matcher = DOWNLOAD_LINK_PATTERN.matcher(text);
+        while (matcher.find()) {
+            downloadLinksFound.add(matcher.group(1));
         }
         return downloadLinksFound;
     }
 
     public static final Set<String> getSigFromString(final String text) {
         Set<String> sigsFound = new HashSet<>();
-        SIG_MATCHER.reset(text);
-        while (SIG_MATCHER.find()) {
-            sigsFound.add(SIG_MATCHER.group(1));
+        final Matcher matcher = SIG_PATTERN.matcher(text);
+        while (matcher.find()) {
+            sigsFound.add(matcher.group(1));
         }
         return sigsFound;
     }
 
     public static final Set<String> getSigFileHrefsFromString(final String text) {
         Set<String> sigHrefsFound = new HashSet<>();
-        HREF_SIG_FILE_MATCHER.reset(text);
-        while (HREF_SIG_FILE_MATCHER.find()) {
-            sigHrefsFound.add(HREF_SIG_FILE_MATCHER.group(1).toLowerCase());
+        final Matcher matcher = HREF_SIG_FILE_PATTERN.matcher(text);
+        while (matcher.find()) {
+            sigHrefsFound.add(matcher.group(1).toLowerCase());
         }
         return sigHrefsFound;
     }
 
     public static final Set<String> getSha256FileHrefsFromString(final String text) {
         Set<String> sha256HrefsFound = new HashSet<>();
-        HREF_SHA256_FILE_MATCHER.reset(text);
-        while (HREF_SHA256_FILE_MATCHER.find()) {
-            sha256HrefsFound.add(HREF_SHA256_FILE_MATCHER.group(1).toLowerCase());
+        final Matcher matcher = HREF_SHA256_FILE_PATTERN.matcher(text);
+        while (matcher.find()) {
+            sha256HrefsFound.add(matcher.group(1).toLowerCase());
         }
         return sha256HrefsFound;
     }
 
     public static final Set<String> getDownloadHrefsFromString(final String text) {
         Set<String> hrefsFound = new HashSet<>();
-        HREF_DOWNLOAD_MATCHER.reset(text);
-        while (HREF_DOWNLOAD_MATCHER.find()) {
-            hrefsFound.add(HREF_DOWNLOAD_MATCHER.group(2).trim().replaceFirst("\\h", ""));
+        final Matcher matcher = HREF_DOWNLOAD_PATTERN.matcher(text);
+        while (matcher.find()) {
+            hrefsFound.add(matcher.group(2).trim().replaceFirst("\\h", ""));
         }
         return hrefsFound;
     }
@@ -231,66 +266,67 @@ public class Helper {
         return isSTS(majorVersion.getAsInt());
     }
     public static final boolean isSTS(final int featureVersion) {
-        if (featureVersion < 9) { return false; }
-        switch(featureVersion) {
-            case 9 :
-            case 10: return true;
-            default: return !isLTS(featureVersion);
-        }
+        return ReleaseCalendar.current().isSTS(featureVersion);
     }
 
     public static final boolean isMTS(final MajorVersion majorVersion) {
         return isMTS(majorVersion.getAsInt());
     }
     public static final boolean isMTS(final int featureVersion) {
-        if (featureVersion < 13 || featureVersion > 15) { return false; }
-        return (!isLTS(featureVersion)) && featureVersion % 2 != 0;
+        return ReleaseCalendar.current().isMTS(featureVersion);
     }
 
     public static final boolean isLTS(final MajorVersion majorVersion) {
         return isLTS(majorVersion.getAsInt());
     }
     public static final boolean isLTS(final int featureVersion) {
-        if (featureVersion < 1) { throw new IllegalArgumentException("Feature version number cannot be smaller than 1"); }
-        if (featureVersion <= 8) { return true; }
-        if (featureVersion < 11) { return false; }
-        if (featureVersion < 17) { return ((featureVersion - 11.0) / 6.0) % 1 == 0; }
-        return ((featureVersion - 17.0) / 4.0) % 1 == 0;
-    }
-
-    public static final OptionalInt getLatestGA() {
-        final LocalDate                           now      = LocalDate.now();
-        final Optional<Entry<Integer, LocalDate>> latestGA = Constants.GA_RELEASE_DATES.entrySet().stream().sorted(Map.Entry.comparingByValue(Comparator.reverseOrder())).filter(entry -> entry.getValue().isEqual(now) || entry.getValue().isBefore(now)).findFirst();
-        final OptionalInt                         opt;
-        if (latestGA.isPresent()) {
-            opt = OptionalInt.of(latestGA.get().getKey());
-        } else {
-            opt = OptionalInt.empty();
-        }
-        return opt;
+        return ReleaseCalendar.current().isLTS(featureVersion);
+    }
+
+    /**
+     * Parses the content of a ga_dates.properties file (e.g. 17-ga=14_09_2021)
+     * @param propertiesText content of the properties file
+     * @return map with the GA release date per feature version
+     */
+    public static final Map<Integer, LocalDate> parseGaReleaseDates(final String propertiesText) throws IOException {
+        final Map<Integer, LocalDate> gaReleaseDates = new HashMap<>();
+        if (null == propertiesText || propertiesText.isEmpty()) { return gaReleaseDates; }
+        final Properties gaDates = new Properties();
+        gaDates.load(new StringReader(propertiesText));
+        gaDates.keySet().forEach(key -> {
+            String[]  dateString     = gaDates.get(key).toString().split("_");
+            Integer   featureVersion = Integer.valueOf(key.toString().split("-")[0]);
+            LocalDate releaseDate    = LocalDate.of(Integer.parseInt(dateString[2]), Integer.parseInt(dateString[1]), Integer.parseInt(dateString[0]));
+            gaReleaseDates.put(featureVersion, releaseDate);
+        });
+        return gaReleaseDates;
     }
 
-    public static final OptionalInt getNextEA() {
-        final OptionalInt latestGA = getLatestGA();
-        final OptionalInt nextEA;
-        if (latestGA.isPresent()) {
-            nextEA = OptionalInt.of(latestGA.getAsInt() + 1);
-        } else {
-            nextEA = OptionalInt.empty();
+    /**
+     * Loads the GA release dates from github and updates Constants.GA_RELEASE_DATES.
+     * The embedded dates will be kept if github is not reachable.
+     * @return true if the dates have been loaded from github
+     */
+    public static final boolean updateGaReleaseDates() {
+        try {
+            final HttpResponse<String> response = get(Constants.GA_RELEASE_DATES_PROPERTIES);
+            if (null == response || null == response.body()) { return false; }
+            final Map<Integer, LocalDate> gaReleaseDates = parseGaReleaseDates(response.body());
+            if (gaReleaseDates.isEmpty()) { return false; }
+            Constants.GA_RELEASE_DATES.putAll(gaReleaseDates);
+            ReleaseCalendar.refresh();
+            return true;
+        } catch (Exception e) {
+            LOGGER.error("Error reading ga_dates.properties file from github. {}", e.getMessage());
+            return false;
         }
-        return nextEA;
     }
 
-    public static final OptionalInt getNextButOneEA() {
-        final OptionalInt nextEA = getNextEA();
-        final OptionalInt nextButOneEA;
-        if (nextEA.isPresent()) {
-            nextButOneEA = OptionalInt.of(nextEA.getAsInt() + 1);
-        } else {
-            nextButOneEA = OptionalInt.empty();
-        }
-        return nextButOneEA;
-    }
+    public static final OptionalInt getLatestGA() { return ReleaseCalendar.current().getLatestGA(); }
+
+    public static final OptionalInt getNextEA() { return ReleaseCalendar.current().getNextEA(); }
+
+    public static final OptionalInt getNextButOneEA() { return ReleaseCalendar.current().getNextButOneEA(); }
 
     public static final TermOfSupport getTermOfSupport(final VersionNumber versionNumber, final Distro distribution) {
         TermOfSupport termOfSupport = getTermOfSupport(versionNumber);
@@ -308,16 +344,7 @@ public class Helper {
         return getTermOfSupport(versionNumber.getFeature().getAsInt());
     }
     public static final TermOfSupport getTermOfSupport(final int featureVersion) {
-        if (featureVersion < 1) { throw new IllegalArgumentException("Feature version number cannot be smaller than 1"); }
-        if (isLTS(featureVersion)) {
-            return TermOfSupport.LTS;
-        } else if (isMTS(featureVersion)) {
-            return TermOfSupport.MTS;
-        } else if (isSTS(featureVersion)) {
-            return TermOfSupport.STS;
-        } else {
-            return TermOfSupport.NOT_FOUND;
-        }
+        return ReleaseCalendar.current().getTermOfSupport(featureVersion);
     }
 
     public static final void setTermOfSupport(final VersionNumber versionNumber, final Pkg pkg) {
@@ -338,12 +365,18 @@ public class Helper {
     }
 
     public static final String getTextFromUrl(final String uri) {
-        try (var stream = URI.create(uri).toURL().openStream()) {
-            return new String(stream.readAllBytes(), UTF_8);
-        } catch(IOException e) {
+        final HttpResponse<String> response;
+        try {
+            response = get(uri);
+        } catch (IllegalArgumentException e) {
             LOGGER.debug("Error reading text from uri {}", uri);
             return "";
         }
+        if (null == response || 200 != response.statusCode() || null == response.body()) {
+            LOGGER.debug("Error reading text from uri {}", uri);
+            return "";
+        }
+        return response.body();
     }
 
     public static final YamlScopes loadYamlScopes(final String uri) {
@@ -511,6 +544,27 @@ public class Helper {
         return getSHA1(number + id);
     }
 
+    /**
+     * Returns the ephemeral id for the given package id in the given rotation window using
+     * a mac that has already been initialized with the shared secret (not thread safe).
+     * @param window the rotation window (see getEphemeralIdWindow())
+     * @param id the package id
+     * @param mac the mac (EPHEMERAL_ID_ALGORITHM) initialized with the shared secret
+     * @return the ephemeral id for the given package id in the given rotation window
+     */
+    public static final String createEphemeralId(final long window, final String id, final Mac mac) {
+        return bytesToHex(mac.doFinal((window + id).getBytes(UTF_8)));
+    }
+
+    /**
+     * Returns the rotation window of ephemeral ids that contains the given instant
+     * @param instant the instant to return the window for
+     * @return the rotation window of ephemeral ids that contains the given instant
+     */
+    public static final long getEphemeralIdWindow(final Instant instant) {
+        return instant.getEpochSecond() / (Constants.EPHEMERAL_ID_ROTATION_MINUTES * 60L);
+    }
+
     public static final String trimPrefix(final String text, final String prefix) {
         return text.replaceFirst(prefix, "");
     }
@@ -550,57 +604,27 @@ public class Helper {
     }
 
     public static final OperatingSystem fetchOperatingSystem(final String text) {
-        return Constants.OPERATING_SYSTEM_LOOKUP.entrySet()
-                                                .stream()
-                                                .filter(entry -> text.contains(entry.getKey()))
-                                                .findFirst()
-                                                .map(Entry::getValue)
-                                                .orElse(OperatingSystem.NOT_FOUND);
+        return FilenameClassifier.INSTANCE.classify(text).getOperatingSystem(OperatingSystem.NOT_FOUND);
     }
 
     public static final OperatingSystem fetchOperatingSystemByArchiveType(final String text) {
-        return Constants.OPERATING_SYSTEM_BY_ARCHIVE_TYPE_LOOKUP.entrySet()
-                                                                .stream()
-                                                                .filter(entry -> text.toLowerCase().equals(entry.getKey()))
-                                                                .findFirst()
-                                                                .map(Entry::getValue)
-                                                                .orElse(OperatingSystem.NOT_FOUND);
+        return Constants.OPERATING_SYSTEM_BY_ARCHIVE_TYPE_LOOKUP.getOrDefault(text.toLowerCase(), OperatingSystem.NOT_FOUND);
     }
 
     public static final Architecture fetchArchitecture(final String text) {
-        return Constants.ARCHITECTURE_LOOKUP.entrySet()
-                                            .stream()
-                                            .filter(entry -> text.contains(entry.getKey()))
-                                            .findFirst()
-                                            .map(Entry::getValue)
-                                            .orElse(Architecture.NOT_FOUND);
+        return FilenameClassifier.INSTANCE.classify(text).getArchitecture(Architecture.NOT_FOUND);
     }
 
     public static final ArchiveType fetchArchiveType(final String text) {
-        return Constants.ARCHIVE_TYPE_LOOKUP.entrySet()
-                                            .stream()
-                                            .filter(entry -> text.endsWith(entry.getKey()))
-                                            .findFirst()
-                                            .map(Entry::getValue)
-                                            .orElse(ArchiveType.NOT_FOUND);
+        return FilenameClassifier.INSTANCE.classify(text).getArchiveType(ArchiveType.NOT_FOUND);
     }
 
     public static final PackageType fetchPackageType(final String text) {
-        return Constants.PACKAGE_TYPE_LOOKUP.entrySet()
-                                            .stream()
-                                            .filter(entry -> text.contains(entry.getKey()))
-                                            .findFirst()
-                                            .map(Entry::getValue)
-                                            .orElse(PackageType.NOT_FOUND);
+        return FilenameClassifier.INSTANCE.classify(text).getPackageType(PackageType.NOT_FOUND);
     }
 
     public static final ReleaseStatus fetchReleaseStatus(final String text) {
-        return Constants.RELEASE_STATUS_LOOKUP.entrySet()
-                                              .stream()
-                                              .filter(entry -> text.contains(entry.getKey()))
-                                              .findFirst()
-                                              .map(Entry::getValue)
-                                              .orElse(ReleaseStatus.NOT_FOUND);
+        return FilenameClassifier.INSTANCE.classify(text).getReleaseStatus(ReleaseStatus.NOT_FOUND);
     }
 
     public static final boolean isUriValid(final String uri) {
@@ -858,14 +882,15 @@ public class Helper {
     }
 
     public static final void checkPkgsForTooEarlyGA(final List<Pkg> pkgs) {
-        final LocalDate now = LocalDate.now();
-        Constants.GA_RELEASE_DATES.entrySet()
-                                  .stream()
-                                  .filter(entry -> entry.getValue().isAfter(now))
-                                  .forEach(entry -> pkgs.stream()
-                                                        .filter(pkg -> pkg.getMajorVersion().getAsInt() == entry.getKey())
-                                                        .filter(pkg -> pkg.getReleaseStatus() == ReleaseStatus.GA)
-                                                        .forEach(pkg -> pkg.setReleaseStatus(ReleaseStatus.EA)));
+        final ReleaseCalendar calendar = ReleaseCalendar.current();
+        calendar.getGaReleaseDates()
+                .keySet()
+                .stream()
+                .filter(calendar::isGaInFuture)
+                .forEach(featureVersion -> pkgs.stream()
+                                               .filter(pkg -> pkg.getMajorVersion().getAsInt() == featureVersion)
+                                               .filter(pkg -> pkg.getReleaseStatus() == ReleaseStatus.GA)
+                                               .forEach(pkg -> pkg.setReleaseStatus(ReleaseStatus.EA)));
     }
 
     public static final Optional<Semver> getMaxVersionNumber(final BuildScope buildScope, final Integer jdkVersion, final boolean includeEa) {
@@ -890,21 +915,11 @@ public class Helper {
     }
 
     public static final Set<OperatingSystem> getSupportedOperatingSystems(final Distro distro) {
-        Set<OperatingSystem> supportedOperatingSystems = CacheManager.INSTANCE.pkgCache.getPkgs()
-                                                                                       .parallelStream()
-                                                                                       .filter(pkg -> distro == pkg.getDistribution().getDistro())
-                                                                                       .map(pkg -> pkg.getOperatingSystem())
-                                                                                       .collect(Collectors.toSet());
-        return supportedOperatingSystems;
+        return CacheManager.INSTANCE.distroCatalog.get().getStats(distro).getOperatingSystems();
     }
 
     public static final Set<Architecture> getSupportedArchitectures(final Distro distro) {
-        Set<Architecture> supportedArchitectures = CacheManager.INSTANCE.pkgCache.getPkgs()
-                                                                                 .parallelStream()
-                                                                                 .filter(pkg -> distro == pkg.getDistribution().getDistro())
-                                                                                 .map(pkg -> pkg.getArchitecture())
-                                                                                 .collect(Collectors.toSet());
-        return supportedArchitectures;
+        return CacheManager.INSTANCE.distroCatalog.get().getStats(distro).getArchitectures();
     }
 
 
@@ -935,6 +950,7 @@ public class Helper {
                 requestHeaders.add(value);
             }
         });
+        final HttpCache.CacheEntry cached = HttpCache.INSTANCE.addConditionalHeaders(uri, requestHeaders);
 
         final HttpRequest request = HttpRequest.newBuilder()
                                          .GET()
@@ -943,8 +959,10 @@ public class Helper {
                                          .timeout(Duration.ofSeconds(10))
                                          .build();
 
-        try {
+        try (HostLimiter.Permit permit = HostLimiter.INSTANCE.acquire(uri)) {
             HttpResponse<String> response = httpClient.send(request, BodyHandlers.ofString());
+            GithubTokenPool.INSTANCE.update(headers, response.headers());
+            response = HttpCache.INSTANCE.handle(uri, response, cached);
             if (response.statusCode() == 200) {
                 return response;
             } else {
@@ -959,6 +977,81 @@ public class Helper {
         }
     }
 
+    /**
+     * Requests the given uri and parses the returned json array element by element while it is
+     * transferred, instead of buffering the whole body in a String and parsing it afterwards.
+     * The response will not be cached by the HttpCache.
+     * @param uri      the uri that returns a json array
+     * @param headers  additional request headers
+     * @param consumer will be called for each element of the array
+     * @return the http status code of the response or -1 if the request failed
+     */
+    public static final int getJsonArrayStreamed(final String uri, final Map<String, String> headers, final Consumer<JsonElement> consumer) {
+        return getJsonArrayStreamed(uri, headers, response -> {}, consumer);
+    }
+    /**
+     * Same as getJsonArrayStreamed(uri, headers, consumer) but hands a successful response (status 200) to
+     * onResponse before its body is parsed, e.g. to read the headers. Parsing stops when the current thread
+     * is interrupted, in that case -1 will be returned and the interrupt flag stays set.
+     * @param uri        the uri that returns a json array
+     * @param headers    additional request headers
+     * @param onResponse will be called with the response before the body is parsed
+     * @param consumer   will be called for each element of the array
+     * @return the http status code of the response or -1 if the request failed
+     */
+    public static final int getJsonArrayStreamed(final String uri, final Map<String, String> headers, final Consumer<HttpResponse<?>> onResponse, final Consumer<JsonElement> consumer) {
+        if (null == httpClient) { httpClient = createHttpClient(); }
+
+        List<String> requestHeaders = new LinkedList<>();
+        requestHeaders.add("User-Agent");
+        requestHeaders.add("DiscoAPI");
+        headers.entrySet().forEach(entry -> {
+            final String name  = entry.getKey();
+            final String value = entry.getValue();
+            if (null != name && !name.isEmpty() && null != value && !value.isEmpty()) {
+                requestHeaders.add(name);
+                requestHeaders.add(value);
+            }
+        });
+
+        final HttpRequest request = HttpRequest.newBuilder()
+                                               .GET()
+                                               .uri(URI.create(uri))
+                                               .headers(requestHeaders.toArray(new String[0]))
+                                               .timeout(Duration.ofSeconds(10))
+                                               .build();
+
+        try (HostLimiter.Permit permit = HostLimiter.INSTANCE.acquire(uri)) {
+            final HttpResponse<InputStream> response = httpClient.send(request, BodyHandlers.ofInputStream());
+            GithubTokenPool.INSTANCE.update(headers, response.headers());
+            try (JsonReader reader = new JsonReader(new InputStreamReader(response.body(), UTF_8))) {
+                if (200 != response.statusCode()) {
+                    LOGGER.debug("Error executing get request {} (Status Code {})", uri, response.statusCode());
+                    return response.statusCode();
+                }
+                onResponse.accept(response);
+                if (JsonToken.BEGIN_ARRAY != reader.peek()) { return response.statusCode(); }
+                reader.beginArray();
+                while (reader.hasNext()) {
+                    if (Thread.currentThread().isInterrupted()) { throw new InterruptedException(); }
+                    consumer.accept(JsonParser.parseReader(reader));
+                }
+                reader.endArray();
+            }
+            return response.statusCode();
+        } catch (JsonParseException | IllegalStateException e) {
+            LOGGER.error("Error parsing json from {} : {}", uri, e.getMessage());
+            return -1;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            LOGGER.debug("Interrupted get request {}", uri);
+            return -1;
+        } catch (IOException e) {
+            LOGGER.error("Error executing get request {} : {}", uri, e.getMessage());
+            return -1;
+        }
+    }
+
     public static final CompletableFuture<HttpResponse<String>> getAsync(final String uri) {
         return getAsync(uri, new HashMap<>());
     }
@@ -976,6 +1069,7 @@ public class Helper {
                 requestHeaders.add(value);
             }
         });
+        final HttpCache.CacheEntry cached = HttpCache.INSTANCE.addConditionalHeaders(uri, requestHeaders);
 
         final HttpRequest request = HttpRequest.newBuilder()
                                                .GET()
@@ -984,7 +1078,10 @@ public class Helper {
                                                .timeout(Duration.ofSeconds(10))
                                                .build();
 
-        return httpClientAsync.sendAsync(request, BodyHandlers.ofString());
+        return httpClientAsync.sendAsync(request, BodyHandlers.ofString()).thenApply(response -> {
+            GithubTokenPool.INSTANCE.update(headers, response.headers());
+            return HttpCache.INSTANCE.handle(uri, response, cached);
+        });
     }
 
     public static final HttpResponse<String> httpHeadRequestSync(final String uri) {
@@ -993,9 +1090,10 @@ public class Helper {
         final HttpRequest request = HttpRequest.newBuilder()
                                                .method("HEAD", HttpRequest.BodyPublishers.noBody())
                                                .uri(URI.create(uri))
+                                               .timeout(Duration.ofSeconds(10))
                                                .build();
 
-        try {
+        try (HostLimiter.Permit permit = HostLimiter.INSTANCE.acquire(uri)) {
             HttpResponse<String> response = httpClient.send(request, BodyHandlers.ofString());
             if (response.statusCode() == 200) {
                 return response;
@@ -0,0 +1,184 @@
+/*
+ * Copyright (c) 2021.
+ *
+ * This file is part of DiscoAPI.
+ *
+ *     DiscoAPI is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 2 of the License, or
+ *     (at your option) any later version.
+ *
+ *     DiscoAPI is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with DiscoAPI.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.foojay.api.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+
+/**
+ * Limits the number of concurrent requests and the request rate per upstream host, so that
+ * scraping many distros in parallel does not overload (or get us banned by) a single vendor.
+ * The limits can be overridden with the environment variable FOOJAY_HOST_LIMITS
+ * (e.g. "api.github.com=4:5,cdn.azul.com=2:2" -> host=max concurrent requests:requests per second).
+ */
+public enum HostLimiter {
+    INSTANCE;
+
+    private static final Logger                    LOGGER               = LoggerFactory.getLogger(HostLimiter.class);
+    private static final long                      MAX_WAIT_MS          = 60_000;
+    private static final Limit                     DEFAULT_LIMIT        = new Limit(8, 20);
+    private static final Map<String, Limit>        DEFAULT_HOST_LIMITS  = Map.of("api.github.com",       new Limit(4, 5),
+                                                                                 "github.com",           new Limit(4, 5),
+                                                                                 "api.adoptium.net",     new Limit(4, 10),
+                                                                                 "api.adoptopenjdk.net", new Limit(2, 5),
+                                                                                 "cdn.azul.com",         new Limit(2, 5),
+                                                                                 "api.azul.com",         new Limit(2, 5),
+                                                                                 "api.bell-sw.com",      new Limit(2, 5),
+                                                                                 "download.java.net",    new Limit(2, 5),
+                                                                                 "jdk.java.net",         new Limit(2, 5));
+    private final        Map<String, Limit>        limits               = new ConcurrentHashMap<>();
+    private final        Map<String, HostState>    states               = new ConcurrentHashMap<>();
+    private volatile     boolean                   configured           = false;
+
+
+    /**
+     * Blocks until a request to the host of the given uri is allowed (max MAX_WAIT_MS).
+     * The returned permit has to be closed when the request is finished.
+     * @param uri the uri that will be requested
+     * @return permit that has to be closed after the request
+     * @throws HostBusyException if no request slot was free within MAX_WAIT_MS, the request must not be sent
+     * @throws InterruptedException if the thread was interrupted while waiting, no permit is held in this case
+     */
+    public Permit acquire(final String uri) throws HostBusyException, InterruptedException { return acquire(uri, MAX_WAIT_MS); }
+
+    Permit acquire(final String uri, final long maxWaitMs) throws HostBusyException, InterruptedException {
+        final String host = getHost(uri);
+        if (null == host) { return Permit.NONE; }
+        if (!configured) { configure(); }
+        final HostState state = states.computeIfAbsent(host, h -> new HostState(limits.getOrDefault(h, DEFAULT_LIMIT)));
+        if (!state.semaphore.tryAcquire(maxWaitMs, TimeUnit.MILLISECONDS)) {
+            throw new HostBusyException("Waited more than " + maxWaitMs + " ms for a request slot of host " + host);
+        }
+        try {
+            // Reserve the next free slot of the rate limit and wait for it
+            final long now  = System.nanoTime();
+            final long slot = state.nextSlot.getAndAccumulate(now, (next, n) -> Math.max(next, n) + state.intervalNanos);
+            final long wait = Math.max(slot, now) - now;
+            if (wait > 0) { TimeUnit.NANOSECONDS.sleep(wait); }
+        } catch (InterruptedException e) {
+            state.semaphore.release();
+            throw e;
+        }
+        return new Permit(state.semaphore);
+    }
+
+    /**
+     * Overrides the limit of the given host (e.g. in tests), requests in flight keep their old permits
+     * @param host  the host
+     * @param limit the new limit
+     */
+    void setLimit(final String host, final Limit limit) {
+        if (!configured) { configure(); }
+        limits.put(host, limit);
+        states.put(host, new HostState(limit));
+    }
+
+    private synchronized void configure() {
+        if (configured) { return; }
+        limits.putAll(DEFAULT_HOST_LIMITS);
+        limits.putAll(parseLimits(Config.INSTANCE.getFoojayHostLimits()));
+        configured = true;
+    }
+
+    public Map<String, Integer> getRequestsInFlight() {
+        final Map<String, Integer> inFlight = new ConcurrentHashMap<>();
+        states.forEach((host, state) -> inFlight.put(host, state.limit.maxConcurrent - state.semaphore.availablePermits()));
+        return inFlight;
+    }
+
+    public static String getHost(final String uri) {
+        if (null == uri || uri.isEmpty()) { return null; }
+        try {
+            return URI.create(uri).getHost();
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Parses limits in the format host=max concurrent requests:requests per second,...
+     * @param text the limits as text
+     * @return map with the limit per host (invalid entries will be skipped)
+     */
+    public static Map<String, Limit> parseLimits(final String text) {
+        final Map<String, Limit> parsed = new ConcurrentHashMap<>();
+        if (null == text || text.isBlank()) { return parsed; }
+        for (String entry : text.split(",")) {
+            final String[] hostAndLimit = entry.trim().split("=");
+            if (hostAndLimit.length != 2) { continue; }
+            final String[] values = hostAndLimit[1].split(":");
+            try {
+                final int maxConcurrent     = Integer.parseInt(values[0].trim());
+                final int requestsPerSecond = values.length > 1 ? Integer.parseInt(values[1].trim()) : DEFAULT_LIMIT.requestsPerSecond;
+                if (maxConcurrent > 0 && requestsPerSecond > 0) { parsed.put(hostAndLimit[0].trim(), new Limit(maxConcurrent, requestsPerSecond)); }
+            } catch (NumberFormatException e) {
+                LOGGER.warn("Skipped invalid host limit {}", entry);
+            }
+        }
+        return parsed;
+    }
+
+
+    public record Limit(int maxConcurrent, int requestsPerSecond) { }
+
+
+    public static class HostBusyException extends IOException {
+        public HostBusyException(final String message) { super(message); }
+    }
+
+
+    public static class Permit implements AutoCloseable {
+        private static final Permit    NONE = new Permit(null);
+        private        final Semaphore semaphore;
+
+
+        private Permit(final Semaphore semaphore) { this.semaphore = semaphore; }
+
+
+        @Override public void close() {
+            if (null != semaphore) { semaphore.release(); }
+        }
+    }
+
+
+    private static class HostState {
+        private final Limit      limit;
+        private final Semaphore  semaphore;
+        private final long       intervalNanos;
+        private final AtomicLong nextSlot;
+
+
+        private HostState(final Limit limit) {
+            this.limit         = limit;
+            this.semaphore     = new Semaphore(limit.maxConcurrent, true);
+            this.intervalNanos = TimeUnit.SECONDS.toNanos(1) / limit.requestsPerSecond;
+            this.nextSlot      = new AtomicLong(System.nanoTime());
+        }
+    }
+}
@@ -0,0 +1,211 @@
+/*
+ * Copyright (c) 2021.
+ *
+ * This file is part of DiscoAPI.
+ *
+ *     DiscoAPI is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 2 of the License, or
+ *     (at your option) any later version.
+ *
+ *     DiscoAPI is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with DiscoAPI.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.foojay.api.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.net.ssl.SSLSession;
+import java.net.URI;
+import java.net.http.HttpClient.Version;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+
+/**
+ * Remembers ETag and Last-Modified of the responses of Helper.get(). The next request to the same uri
+ * is sent as a conditional request, a 304 response is answered with the cached body. The cached bodies
+ * are limited to MAX_CACHE_BYTES in total (least recently used entries are evicted first).
+ * Scrapers can use isUnchanged() to skip parsing a page that did not change since they consumed it
+ * the last time (304 responses also don't count against the github rate limit).
+ */
+public enum HttpCache {
+    INSTANCE;
+
+    private static final Logger                  LOGGER          = LoggerFactory.getLogger(HttpCache.class);
+    private static final int                     MAX_ENTRIES     = 256;
+    private static final long                    MAX_CACHE_BYTES = 64 * 1024 * 1024;
+    private static final int                     MAX_BODY_LENGTH = 8 * 1024 * 1024;
+    private static final String                  IF_NONE_MATCH   = "If-None-Match";
+    private static final String                  IF_MOD_SINCE    = "If-Modified-Since";
+    private final        Map<String, CacheEntry> entries         = new LinkedHashMap<>(MAX_ENTRIES, 0.75f, true);
+    private final        Map<String, byte[]>     consumed        = new ConcurrentHashMap<>();
+    private              long                    cachedBytes     = 0;
+
+
+    /**
+     * Adds If-None-Match and If-Modified-Since to the given request headers if there is a cached
+     * response for the uri and the caller did not set them already
+     * @param uri            the uri that will be requested
+     * @param requestHeaders list of header names and values
+     * @return the cached entry the conditional headers are based on (has to be passed to handle()) or null
+     */
+    public CacheEntry addConditionalHeaders(final String uri, final List<String> requestHeaders) {
+        final CacheEntry entry = getEntry(uri);
+        if (null == entry) { return null; }
+        if (requestHeaders.stream().anyMatch(header -> IF_NONE_MATCH.equalsIgnoreCase(header) || IF_MOD_SINCE.equalsIgnoreCase(header))) { return null; }
+        if (null != entry.etag()) {
+            requestHeaders.add(IF_NONE_MATCH);
+            requestHeaders.add(entry.etag());
+        }
+        if (null != entry.lastModified()) {
+            requestHeaders.add(IF_MOD_SINCE);
+            requestHeaders.add(entry.lastModified());
+        }
+        return entry;
+    }
+
+    /**
+     * Handles the response of a (conditional) get request. A 304 response will be replaced by the
+     * cached response, a 200 response will be stored if it contains an ETag or Last-Modified header.
+     * @param uri      the requested uri
+     * @param response the response of the request
+     * @param entry    the entry returned by addConditionalHeaders() for this request (stays valid even if it was evicted meanwhile)
+     * @return the response or the cached response if the server answered with 304
+     */
+    public HttpResponse<String> handle(final String uri, final HttpResponse<String> response, final CacheEntry entry) {
+        if (null == response) { return null; }
+        if (304 == response.statusCode() && null != entry) {
+            LOGGER.debug("{} not modified", uri);
+            return new CachedResponse(response, entry);
+        }
+        if (200 != response.statusCode()) { return response; }
+
+        final String body         = null == response.body() ? "" : response.body();
+        final String etag         = response.headers().firstValue("ETag").orElse(null);
+        final String lastModified = response.headers().firstValue("Last-Modified").orElse(null);
+        // Without a validator a 304 can not happen, so the body does not have to be kept
+        if ((null == etag && null == lastModified) || body.length() > MAX_BODY_LENGTH) {
+            remove(uri);
+        } else {
+            put(uri, new CacheEntry(etag, lastModified, body, response.headers()));
+        }
+        return response;
+    }
+
+    /**
+     * Returns true if the given body of the uri is the same as the one the caller consumed the last time
+     * @param caller the caller (e.g. the name of the distribution)
+     * @param uri    the requested uri
+     * @param body   the body of the current response
+     * @return true if the body did not change since the caller called consumed() with it
+     */
+    public boolean isUnchanged(final String caller, final String uri, final String body) {
+        if (null == caller || null == uri || null == body) { return false; }
+        final byte[] digest = consumed.get(getConsumerKey(caller, uri));
+        return null != digest && Arrays.equals(digest, Helper.getSHA256Bytes(body.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * Remembers that the caller successfully processed the given body of the uri
+     * @param caller the caller (e.g. the name of the distribution)
+     * @param uri    the requested uri
+     * @param body   the body that was processed
+     */
+    public void consumed(final String caller, final String uri, final String body) {
+        if (null == caller || null == uri || null == body) { return; }
+        consumed.put(getConsumerKey(caller, uri), Helper.getSHA256Bytes(body.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    public long getCachedBytes() {
+        synchronized (entries) { return cachedBytes; }
+    }
+
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+            cachedBytes = 0;
+        }
+        consumed.clear();
+    }
+
+    private CacheEntry getEntry(final String uri) {
+        if (null == uri) { return null; }
+        synchronized (entries) { return entries.get(uri); }
+    }
+
+    private void put(final String uri, final CacheEntry entry) {
+        synchronized (entries) {
+            final CacheEntry previous = entries.put(uri, entry);
+            if (null != previous) { cachedBytes -= previous.getBytes(); }
+            cachedBytes += entry.getBytes();
+            // Evict the least recently used entries until the cache fits into its limits
+            final Iterator<CacheEntry> iterator = entries.values().iterator();
+            while ((cachedBytes > MAX_CACHE_BYTES || entries.size() > MAX_ENTRIES) && iterator.hasNext()) {
+                final CacheEntry eldest = iterator.next();
+                if (eldest == entry) { break; }
+                cachedBytes -= eldest.getBytes();
+                iterator.remove();
+            }
+        }
+    }
+
+    private void remove(final String uri) {
+        synchronized (entries) {
+            final CacheEntry previous = entries.remove(uri);
+            if (null != previous) { cachedBytes -= previous.getBytes(); }
+        }
+    }
+
+    private static String getConsumerKey(final String caller, final String uri) { return caller + " " + uri; }
+
+
+    public record CacheEntry(String etag, String lastModified, String body, HttpHeaders headers) {
+        private long getBytes() { return (long) body.length() * Character.BYTES; }
+    }
+
+
+    private static class CachedResponse implements HttpResponse<String> {
+        private final HttpResponse<String> notModified;
+        private final CacheEntry           entry;
+
+
+        private CachedResponse(final HttpResponse<String> notModified, final CacheEntry entry) {
+            this.notModified = notModified;
+            this.entry       = entry;
+        }
+
+
+        @Override public int statusCode() { return 200; }
+
+        @Override public HttpRequest request() { return notModified.request(); }
+
+        @Override public Optional<HttpResponse<String>> previousResponse() { return Optional.of(notModified); }
+
+        @Override public HttpHeaders headers() { return entry.headers(); }
+
+        @Override public String body() { return entry.body(); }
+
+        @Override public Optional<SSLSession> sslSession() { return notModified.sslSession(); }
+
+        @Override public URI uri() { return notModified.uri(); }
+
+        @Override public Version version() { return notModified.version(); }
+    }
+}
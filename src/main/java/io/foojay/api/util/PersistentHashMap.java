@@ -0,0 +1,274 @@
+/*
+ * Copyright (c) 2021.
+ *
+ * This file is part of DiscoAPI.
+ *
+ *     DiscoAPI is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 2 of the License, or
+ *     (at your option) any later version.
+ *
+ *     DiscoAPI is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with DiscoAPI.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.foojay.api.util;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.BiConsumer;
+
+
+/**
+ * Immutable hash array mapped trie. Every modification returns a new map that shares all
+ * untouched nodes with the previous one, so keeping several versions of a large map only costs
+ * the memory of the nodes on the paths that changed (roughly log32(n) nodes per changed entry).
+ * Values are compared by identity, putting the same instance again returns the same map.
+ * @param <K> key type
+ * @param <V> value type
+ */
+public final class PersistentHashMap<K, V> {
+    private static final int                     BITS  = 5;
+    private static final int                     MASK  = (1 << BITS) - 1;
+    private static final PersistentHashMap<?, ?> EMPTY = new PersistentHashMap<>(null, 0);
+    private final        Node                    root;
+    private final        int                     size;
+
+
+    private PersistentHashMap(final Node root, final int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+
+    @SuppressWarnings("unchecked")
+    public static <K, V> PersistentHashMap<K, V> empty() { return (PersistentHashMap<K, V>) EMPTY; }
+
+    public static <K, V> PersistentHashMap<K, V> of(final Map<K, V> map) {
+        PersistentHashMap<K, V> result = empty();
+        for (Map.Entry<K, V> entry : map.entrySet()) { result = result.put(entry.getKey(), entry.getValue()); }
+        return result;
+    }
+
+    public int size() { return size; }
+
+    public boolean isEmpty() { return 0 == size; }
+
+    @SuppressWarnings("unchecked")
+    public V get(final K key) {
+        if (null == root) { return null; }
+        return (V) root.get(key, hash(key), 0);
+    }
+
+    public boolean containsKey(final K key) { return null != get(key); }
+
+    public PersistentHashMap<K, V> put(final K key, final V value) {
+        Objects.requireNonNull(key);
+        Objects.requireNonNull(value);
+        final int[] added   = new int[1];
+        final Node  newRoot = null == root ? BitmapNode.EMPTY.put(key, value, hash(key), 0, added) : root.put(key, value, hash(key), 0, added);
+        return newRoot == root ? this : new PersistentHashMap<>(newRoot, size + added[0]);
+    }
+
+    public PersistentHashMap<K, V> remove(final K key) {
+        if (null == root) { return this; }
+        final Node newRoot = root.remove(key, hash(key), 0);
+        if (newRoot == root) { return this; }
+        return null == newRoot ? empty() : new PersistentHashMap<>(newRoot, size - 1);
+    }
+
+    @SuppressWarnings("unchecked")
+    public void forEach(final BiConsumer<? super K, ? super V> consumer) {
+        if (null != root) { root.forEach((BiConsumer<Object, Object>) consumer); }
+    }
+
+    public Map<K, V> toMap() {
+        final Map<K, V> map = new HashMap<>(size * 2);
+        forEach(map::put);
+        return map;
+    }
+
+    private static int hash(final Object key) {
+        final int h = key.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+
+    // ******************** Nodes *********************************************
+    private interface Node {
+        Object get(Object key, int hash, int shift);
+
+        Node put(Object key, Object value, int hash, int shift, int[] added);
+
+        /** Returns the same node if the key was not found and null if the node is empty afterwards */
+        Node remove(Object key, int hash, int shift);
+
+        void forEach(BiConsumer<Object, Object> consumer);
+    }
+
+    private record Entry(Object key, Object value, int hash) { }
+
+    /** Slots are either entries or sub nodes, only the slots of set bits in the bitmap are stored */
+    private static final class BitmapNode implements Node {
+        private static final BitmapNode EMPTY = new BitmapNode(0, new Object[0]);
+        private final        int        bitmap;
+        private final        Object[]   slots;
+
+        private BitmapNode(final int bitmap, final Object[] slots) {
+            this.bitmap = bitmap;
+            this.slots  = slots;
+        }
+
+        @Override public Object get(final Object key, final int hash, final int shift) {
+            final int bit = bit(hash, shift);
+            if (0 == (bitmap & bit)) { return null; }
+            final Object slot = slots[index(bit)];
+            if (slot instanceof Entry entry) { return entry.key().equals(key) ? entry.value() : null; }
+            return ((Node) slot).get(key, hash, shift + BITS);
+        }
+
+        @Override public Node put(final Object key, final Object value, final int hash, final int shift, final int[] added) {
+            final int bit   = bit(hash, shift);
+            final int index = index(bit);
+            if (0 == (bitmap & bit)) {
+                final Object[] newSlots = new Object[slots.length + 1];
+                System.arraycopy(slots, 0, newSlots, 0, index);
+                newSlots[index] = new Entry(key, value, hash);
+                System.arraycopy(slots, index, newSlots, index + 1, slots.length - index);
+                added[0] = 1;
+                return new BitmapNode(bitmap | bit, newSlots);
+            }
+            final Object slot = slots[index];
+            if (slot instanceof Entry entry) {
+                if (entry.key().equals(key)) {
+                    return entry.value() == value ? this : with(index, new Entry(key, value, hash));
+                }
+                added[0] = 1;
+                return with(index, merge(entry, new Entry(key, value, hash), shift + BITS));
+            }
+            final Node child    = (Node) slot;
+            final Node newChild = child.put(key, value, hash, shift + BITS, added);
+            return newChild == child ? this : with(index, newChild);
+        }
+
+        @Override public Node remove(final Object key, final int hash, final int shift) {
+            final int bit = bit(hash, shift);
+            if (0 == (bitmap & bit)) { return this; }
+            final int    index = index(bit);
+            final Object slot  = slots[index];
+            if (slot instanceof Entry entry) {
+                return entry.key().equals(key) ? without(bit, index) : this;
+            }
+            final Node child    = (Node) slot;
+            final Node newChild = child.remove(key, hash, shift + BITS);
+            if (newChild == child) { return this; }
+            if (null == newChild)  { return without(bit, index); }
+            // Pull single entries up again to keep the trie compact
+            final Entry single = singleEntry(newChild);
+            return with(index, null == single ? newChild : single);
+        }
+
+        @Override public void forEach(final BiConsumer<Object, Object> consumer) {
+            for (Object slot : slots) {
+                if (slot instanceof Entry entry) {
+                    consumer.accept(entry.key(), entry.value());
+                } else {
+                    ((Node) slot).forEach(consumer);
+                }
+            }
+        }
+
+        private static int bit(final int hash, final int shift) { return 1 << ((hash >>> shift) & MASK); }
+
+        private int index(final int bit) { return Integer.bitCount(bitmap & (bit - 1)); }
+
+        private BitmapNode with(final int index, final Object slot) {
+            final Object[] newSlots = slots.clone();
+            newSlots[index] = slot;
+            return new BitmapNode(bitmap, newSlots);
+        }
+
+        private BitmapNode without(final int bit, final int index) {
+            if (1 == slots.length) { return null; }
+            final Object[] newSlots = new Object[slots.length - 1];
+            System.arraycopy(slots, 0, newSlots, 0, index);
+            System.arraycopy(slots, index + 1, newSlots, index, slots.length - index - 1);
+            return new BitmapNode(bitmap & ~bit, newSlots);
+        }
+
+        private static Entry singleEntry(final Node node) {
+            if (node instanceof BitmapNode bitmapNode && 1 == bitmapNode.slots.length && bitmapNode.slots[0] instanceof Entry entry) { return entry; }
+            if (node instanceof CollisionNode collisionNode && 1 == collisionNode.entries.length) { return collisionNode.entries[0]; }
+            return null;
+        }
+
+        private static Node merge(final Entry entry1, final Entry entry2, final int shift) {
+            if (entry1.hash() == entry2.hash() || shift >= Integer.SIZE) { return new CollisionNode(entry1.hash(), new Entry[] { entry1, entry2 }); }
+            final int bit1 = bit(entry1.hash(), shift);
+            final int bit2 = bit(entry2.hash(), shift);
+            if (bit1 == bit2) { return new BitmapNode(bit1, new Object[] { merge(entry1, entry2, shift + BITS) }); }
+            return Integer.compareUnsigned(bit1, bit2) < 0 ? new BitmapNode(bit1 | bit2, new Object[] { entry1, entry2 }) : new BitmapNode(bit1 | bit2, new Object[] { entry2, entry1 });
+        }
+    }
+
+    /** Holds all entries with the same full hash */
+    private static final class CollisionNode implements Node {
+        private final int     hash;
+        private final Entry[] entries;
+
+        private CollisionNode(final int hash, final Entry[] entries) {
+            this.hash    = hash;
+            this.entries = entries;
+        }
+
+        @Override public Object get(final Object key, final int hash, final int shift) {
+            for (Entry entry : entries) {
+                if (entry.key().equals(key)) { return entry.value(); }
+            }
+            return null;
+        }
+
+        @Override public Node put(final Object key, final Object value, final int hash, final int shift, final int[] added) {
+            if (hash != this.hash) {
+                // Different hash ends up here if the trie ran out of hash bits before, wrap this node in a bitmap node
+                return new BitmapNode(BitmapNode.bit(this.hash, shift), new Object[] { this }).put(key, value, hash, shift, added);
+            }
+            for (int i = 0 ; i < entries.length ; i++) {
+                if (entries[i].key().equals(key)) {
+                    if (entries[i].value() == value) { return this; }
+                    final Entry[] newEntries = entries.clone();
+                    newEntries[i] = new Entry(key, value, hash);
+                    return new CollisionNode(hash, newEntries);
+                }
+            }
+            final Entry[] newEntries = Arrays.copyOf(entries, entries.length + 1);
+            newEntries[entries.length] = new Entry(key, value, hash);
+            added[0] = 1;
+            return new CollisionNode(hash, newEntries);
+        }
+
+        @Override public Node remove(final Object key, final int hash, final int shift) {
+            for (int i = 0 ; i < entries.length ; i++) {
+                if (entries[i].key().equals(key)) {
+                    if (1 == entries.length) { return null; }
+                    final Entry[] newEntries = new Entry[entries.length - 1];
+                    System.arraycopy(entries, 0, newEntries, 0, i);
+                    System.arraycopy(entries, i + 1, newEntries, i, entries.length - i - 1);
+                    return new CollisionNode(hash, newEntries);
+                }
+            }
+            return this;
+        }
+
+        @Override public void forEach(final BiConsumer<Object, Object> consumer) {
+            for (Entry entry : entries) { consumer.accept(entry.key(), entry.value()); }
+        }
+    }
+}
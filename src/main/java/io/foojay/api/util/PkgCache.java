@@ -25,61 +25,81 @@ import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 
+/**
+ * All mutations of the cache and of the artifact index happen under the monitor of the cache,
+ * so the index always matches the cache. Reads do not lock.
+ */
 public class PkgCache<T extends String, U extends Pkg> implements Cache<T, U> {
     private static final Logger LOGGER = LoggerFactory.getLogger(PkgCache.class);
 
-    private final ConcurrentHashMap<T, U> cache = new ConcurrentHashMap<>(16, 0.9f, 1);
+    private final    ConcurrentHashMap<T, U>            cache     = new ConcurrentHashMap<>(16, 0.9f, 1);
+    private final    AtomicLong                         version   = new AtomicLong(0);
+    private volatile ConcurrentHashMap<String, Integer> artifacts = new ConcurrentHashMap<>();
 
 
-    @Override public void add(final T key, final U pkg) {
+    @Override public synchronized void add(final T key, final U pkg) {
         if (null == key) { return; }
         if (null == pkg) {
             LOGGER.debug("Package cannot be null -> removed key {}", key);
-            cache.remove(key);
+            untrack(cache.remove(key));
         } else {
-            cache.put(key, pkg);
+            untrack(cache.put(key, pkg));
+            track(pkg);
         }
+        version.incrementAndGet();
     }
 
     @Override public U get(final T key) {
         return cache.get(key);
     }
 
-    @Override public void remove(final T key) {
-        cache.remove(key);
+    @Override public synchronized void remove(final T key) {
+        untrack(cache.remove(key));
+        version.incrementAndGet();
+    }
+    @Override public synchronized void remove(final List<T> keysToRemove) {
+        keysToRemove.forEach(key -> untrack(cache.remove(key)));
+        version.incrementAndGet();
     }
-    @Override public void remove(final List<T> keysToRemove) { keysToRemove.forEach(key -> cache.remove(key)); }
 
     @Override public synchronized void addAll(final Map<T,U> entries) {
-        cache.putAll(entries);
+        entries.forEach((key, pkg) -> {
+            untrack(cache.put(key, pkg));
+            track(pkg);
+        });
+        version.incrementAndGet();
     }
 
     @Override public synchronized void clear() {
         cache.clear();
+        artifacts = new ConcurrentHashMap<>();
+        version.incrementAndGet();
         LOGGER.debug("Package cache cleared");
     }
 
-    @Override public synchronized long size() {
+    @Override public long size() {
         return cache.size();
     }
 
-    @Override public synchronized boolean isEmpty() { return cache.isEmpty(); }
+    @Override public boolean isEmpty() { return cache.isEmpty(); }
 
     /**
      * Replaces all entries in the cache with the ones in the given patch
      * @param patch
      */
-    public void setAll(final Map<T,U> patch) {
+    public synchronized void setAll(final Map<T,U> patch) {
         cache.clear();
         cache.putAll(patch);
+        rebuildArtifacts();
+        version.incrementAndGet();
         LOGGER.debug("Package cache cleared and set with new data");
     }
 
@@ -88,7 +108,12 @@ public class PkgCache<T extends String, U extends Pkg> implements Cache<T, U> {
      * existing entries.
      * @param patch Map that contains existing and new entries
      */
-    public void synchronize(final Map<T, U> patch) { patch.forEach(cache::putIfAbsent); }
+    public synchronized void synchronize(final Map<T, U> patch) {
+        patch.forEach((key, pkg) -> {
+            if (null == cache.putIfAbsent(key, pkg)) { track(pkg); }
+        });
+        version.incrementAndGet();
+    }
 
     /**
      * Updates the cache with the values from the given patch map including updates
@@ -97,16 +122,16 @@ public class PkgCache<T extends String, U extends Pkg> implements Cache<T, U> {
      * @param patch
      * @param removeIfNotInPatch
      */
-    public void update(final Map<T, U> patch, final boolean removeIfNotInPatch) {
-            patch.forEach((key, value) -> cache.merge(key, value, (v1, v2) -> v1.equals(v2) ? v1 : v2));
-            if (removeIfNotInPatch) {
-                if (cache.size() > patch.size()) {
-                    Map<T, U> toRemoveFromTarget = new HashMap<>();
-                    cache.entrySet().stream().filter(entry -> !patch.containsKey(entry.getKey())).forEach(entry -> toRemoveFromTarget.put(entry.getKey(), entry.getValue()));
-                    toRemoveFromTarget.keySet().forEach(key -> cache.remove(key));
-                }
-            }
-        }
+    public synchronized void update(final Map<T, U> patch, final boolean removeIfNotInPatch) {
+        patch.forEach((key, pkg) -> {
+            final U existing = cache.get(key);
+            if (null != existing && existing.equals(pkg)) { return; }
+            untrack(cache.put(key, pkg));
+            track(pkg);
+        });
+        if (removeIfNotInPatch) { removeIfNotIn(patch); }
+        version.incrementAndGet();
+    }
 
     /**
      * Replaces all entries in the cache with values from the given patch. In addition
@@ -114,25 +139,43 @@ public class PkgCache<T extends String, U extends Pkg> implements Cache<T, U> {
      * @param patch
      * @param removeIfNotInPatch
      */
-    public void replace(final Map<T, U> patch, final boolean removeIfNotInPatch) {
-            patch.forEach((key, value) -> cache.replace(key, value));
-            if (removeIfNotInPatch) {
-                if (cache.size() > patch.size()) {
-                    Map<T, U> toRemoveFromTarget = new HashMap<>();
-                    cache.entrySet().stream().filter(entry -> !patch.containsKey(entry.getKey())).forEach(entry -> toRemoveFromTarget.put(entry.getKey(), entry.getValue()));
-                    toRemoveFromTarget.keySet().forEach(key -> cache.remove(key));
-                }
-            }
-        }
+    public synchronized void replace(final Map<T, U> patch, final boolean removeIfNotInPatch) {
+        patch.forEach((key, pkg) -> {
+            final U replaced = cache.replace(key, pkg);
+            if (null == replaced) { return; }
+            untrack(replaced);
+            track(pkg);
+        });
+        if (removeIfNotInPatch) { removeIfNotIn(patch); }
+        version.incrementAndGet();
+    }
 
     public boolean containsKey(final T key) { return cache.containsKey(key); }
 
+    /**
+     * Returns true if the cache contains a pkg with the given filename and direct download uri.
+     * Uses an index of all artifacts instead of scanning all pkgs.
+     * @param filename          the filename of the pkg
+     * @param directDownloadUri the direct download uri of the pkg
+     * @return true if the cache contains a pkg with the given filename and direct download uri
+     */
+    public boolean containsArtifact(final String filename, final String directDownloadUri) {
+        if (null == filename || null == directDownloadUri) { return false; }
+        return artifacts.containsKey(artifactKey(filename, directDownloadUri));
+    }
+
     public Set<Entry<T,U>> getEntrySet() { return cache.entrySet(); }
 
     public Collection<T> getKeys() { return cache.keySet(); }
 
     public Collection<U> getPkgs() { return new ArrayList<>(cache.values()); }
 
+    /**
+     * Returns a number that changes with every modification of the cache
+     * @return a number that changes with every modification of the cache
+     */
+    public long getVersion() { return version.get(); }
+
     /**
      * Returns a shallow copy of the cache
      * @return a shallow copy of the cache
@@ -151,5 +194,34 @@ public class PkgCache<T extends String, U extends Pkg> implements Cache<T, U> {
         }
         return deepCopy;
     }
-}
 
+    private void removeIfNotIn(final Map<T, U> patch) {
+        if (cache.size() <= patch.size()) { return; }
+        final List<T> toRemove = new ArrayList<>();
+        cache.keySet().stream().filter(key -> !patch.containsKey(key)).forEach(toRemove::add);
+        toRemove.forEach(key -> untrack(cache.remove(key)));
+    }
+
+    private void track(final U pkg) {
+        if (null == pkg) { return; }
+        artifacts.merge(artifactKey(pkg.getFilename(), pkg.getDirectDownloadUri()), 1, Integer::sum);
+    }
+
+    private void untrack(final U pkg) {
+        if (null == pkg) { return; }
+        artifacts.computeIfPresent(artifactKey(pkg.getFilename(), pkg.getDirectDownloadUri()), (key, count) -> count > 1 ? count - 1 : null);
+    }
+
+    /**
+     * Rebuilds the artifact index after the cache has been replaced and swaps it in at once
+     */
+    private void rebuildArtifacts() {
+        final ConcurrentHashMap<String, Integer> index = new ConcurrentHashMap<>(Math.max(16, cache.size() * 2));
+        cache.values().forEach(pkg -> index.merge(artifactKey(pkg.getFilename(), pkg.getDirectDownloadUri()), 1, Integer::sum));
+        artifacts = index;
+    }
+
+    private static String artifactKey(final String filename, final String directDownloadUri) {
+        return new StringBuilder().append(filename).append('|').append(directDownloadUri).toString();
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright (c) 2021.
+ *
+ * This file is part of DiscoAPI.
+ *
+ *     DiscoAPI is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 2 of the License, or
+ *     (at your option) any later version.
+ *
+ *     DiscoAPI is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with DiscoAPI.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.foojay.api.util;
+
+import eu.hansolo.jdktools.TermOfSupport;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Collections;
+import java.util.Map;
+import java.util.OptionalInt;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static io.foojay.api.util.Constants.COLON;
+import static io.foojay.api.util.Constants.COMMA;
+import static io.foojay.api.util.Constants.CURLY_BRACKET_CLOSE;
+import static io.foojay.api.util.Constants.CURLY_BRACKET_OPEN;
+import static io.foojay.api.util.Constants.QUOTES;
+
+
+/**
+ * Immutable view on the GA release dates for one day. Latest GA, next EA, next but one EA and the
+ * term of support of all known feature versions are computed once when the calendar is created.
+ * The current calendar is rebuilt when the GA release dates change (see refresh()) and on the first
+ * read after midnight, all reads are lock free.
+ */
+public final class ReleaseCalendar {
+    private static final int                              MIN_PRECOMPUTED = 64;
+    private static final AtomicReference<ReleaseCalendar> CURRENT         = new AtomicReference<>(create());
+    private        final LocalDate                        today;
+    private        final long                             validUntil;
+    private        final Map<Integer, LocalDate>          gaReleaseDates;
+    private        final OptionalInt                      latestGA;
+    private        final OptionalInt                      nextEA;
+    private        final OptionalInt                      nextButOneEA;
+    private        final TermOfSupport[]                  termsOfSupport;
+
+
+    private ReleaseCalendar(final Map<Integer, LocalDate> gaReleaseDates, final LocalDate today) {
+        this.today          = today;
+        this.validUntil     = today.plusDays(1).atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        this.gaReleaseDates = Collections.unmodifiableMap(new TreeMap<>(gaReleaseDates));
+
+        int latest = -1;
+        LocalDate latestDate = LocalDate.MIN;
+        for (Map.Entry<Integer, LocalDate> entry : this.gaReleaseDates.entrySet()) {
+            if (entry.getValue().isAfter(today) || entry.getValue().isBefore(latestDate)) { continue; }
+            latest     = entry.getKey();
+            latestDate = entry.getValue();
+        }
+        this.latestGA     = latest > 0 ? OptionalInt.of(latest)     : OptionalInt.empty();
+        this.nextEA       = latest > 0 ? OptionalInt.of(latest + 1) : OptionalInt.empty();
+        this.nextButOneEA = latest > 0 ? OptionalInt.of(latest + 2) : OptionalInt.empty();
+
+        final int maxFeatureVersion = this.gaReleaseDates.keySet().stream().mapToInt(Integer::intValue).max().orElse(0);
+        this.termsOfSupport = new TermOfSupport[Math.max(MIN_PRECOMPUTED, maxFeatureVersion + 10) + 1];
+        for (int featureVersion = 1 ; featureVersion < termsOfSupport.length ; featureVersion++) {
+            termsOfSupport[featureVersion] = classify(featureVersion);
+        }
+    }
+
+
+    /**
+     * Returns the calendar of today, a new calendar will be created on the first call after midnight
+     * @return the calendar of today
+     */
+    public static ReleaseCalendar current() {
+        final ReleaseCalendar calendar = CURRENT.get();
+        if (System.currentTimeMillis() < calendar.validUntil) { return calendar; }
+        return refresh();
+    }
+
+    /**
+     * Rebuilds the current calendar from Constants.GA_RELEASE_DATES
+     * @return the new calendar
+     */
+    public static ReleaseCalendar refresh() {
+        final ReleaseCalendar calendar = create();
+        CURRENT.set(calendar);
+        return calendar;
+    }
+
+    public static ReleaseCalendar of(final Map<Integer, LocalDate> gaReleaseDates, final LocalDate today) {
+        return new ReleaseCalendar(null == gaReleaseDates ? Map.of() : gaReleaseDates, today);
+    }
+
+    private static ReleaseCalendar create() { return of(Constants.GA_RELEASE_DATES, LocalDate.now()); }
+
+
+    public LocalDate getToday() { return today; }
+
+    public Map<Integer, LocalDate> getGaReleaseDates() { return gaReleaseDates; }
+
+    public OptionalInt getLatestGA() { return latestGA; }
+
+    public OptionalInt getNextEA() { return nextEA; }
+
+    public OptionalInt getNextButOneEA() { return nextButOneEA; }
+
+    /**
+     * Returns true if the GA release date of the given feature version is in the future
+     * @param featureVersion the feature version
+     * @return true if the given feature version has a GA release date after today
+     */
+    public boolean isGaInFuture(final int featureVersion) {
+        final LocalDate releaseDate = gaReleaseDates.get(featureVersion);
+        return null != releaseDate && releaseDate.isAfter(today);
+    }
+
+    public TermOfSupport getTermOfSupport(final int featureVersion) {
+        if (featureVersion < 1) { throw new IllegalArgumentException("Feature version number cannot be smaller than 1"); }
+        return featureVersion < termsOfSupport.length ? termsOfSupport[featureVersion] : classify(featureVersion);
+    }
+
+    public boolean isLTS(final int featureVersion) { return TermOfSupport.LTS == getTermOfSupport(featureVersion); }
+
+    public boolean isMTS(final int featureVersion) { return featureVersion >= 1 && TermOfSupport.MTS == getTermOfSupport(featureVersion); }
+
+    public boolean isSTS(final int featureVersion) { return featureVersion >= 9 && !isLTS(featureVersion); }
+
+    private static TermOfSupport classify(final int featureVersion) {
+        if (featureVersion <= 8)  { return TermOfSupport.LTS; }
+        if (featureVersion < 11)  { return TermOfSupport.STS; }
+        if (featureVersion < 17)  {
+            if ((featureVersion - 11) % 6 == 0) { return TermOfSupport.LTS; }
+            return featureVersion >= 13 && featureVersion <= 15 && featureVersion % 2 != 0 ? TermOfSupport.MTS : TermOfSupport.STS;
+        }
+        return (featureVersion - 17) % 4 == 0 ? TermOfSupport.LTS : TermOfSupport.STS;
+    }
+
+    @Override public String toString() {
+        return new StringBuilder().append(CURLY_BRACKET_OPEN)
+                                  .append(QUOTES).append("today").append(QUOTES).append(COLON).append(QUOTES).append(today).append(QUOTES).append(COMMA)
+                                  .append(QUOTES).append("latest_ga").append(QUOTES).append(COLON).append(latestGA.isPresent() ? latestGA.getAsInt() : -1).append(COMMA)
+                                  .append(QUOTES).append("next_ea").append(QUOTES).append(COLON).append(nextEA.isPresent() ? nextEA.getAsInt() : -1).append(COMMA)
+                                  .append(QUOTES).append("next_but_one_ea").append(QUOTES).append(COLON).append(nextButOneEA.isPresent() ? nextButOneEA.getAsInt() : -1)
+                                  .append(CURLY_BRACKET_CLOSE)
+                                  .toString();
+    }
+}
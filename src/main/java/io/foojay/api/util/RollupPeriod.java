@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2021.
+ *
+ * This file is part of DiscoAPI.
+ *
+ *     DiscoAPI is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 2 of the License, or
+ *     (at your option) any later version.
+ *
+ *     DiscoAPI is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with DiscoAPI.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.foojay.api.util;
+
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+
+
+public enum RollupPeriod {
+    HOURLY("hourly", Constants.DOWNLOADS_ROLLUP_HOURLY_COLLECTION),
+    DAILY("daily", Constants.DOWNLOADS_ROLLUP_DAILY_COLLECTION),
+    WEEKLY("weekly", Constants.DOWNLOADS_ROLLUP_WEEKLY_COLLECTION),
+    MONTHLY("monthly", Constants.DOWNLOADS_ROLLUP_MONTHLY_COLLECTION),
+    YEARLY("yearly", Constants.DOWNLOADS_ROLLUP_YEARLY_COLLECTION);
+
+    private final String apiString;
+    private final String collectionName;
+
+
+    RollupPeriod(final String apiString, final String collectionName) {
+        this.apiString      = apiString;
+        this.collectionName = collectionName;
+    }
+
+
+    public String getApiString() { return apiString; }
+
+    public String getCollectionName() { return collectionName; }
+
+    /**
+     * Returns the start of the bucket (UTC) that contains the given instant in epoch seconds
+     * @param instant the instant to find the bucket for
+     * @return the start of the bucket (UTC) that contains the given instant in epoch seconds
+     */
+    public long getBucketStart(final Instant instant) {
+        final ZonedDateTime utc = instant.atZone(ZoneOffset.UTC);
+        return switch (this) {
+            case HOURLY  -> utc.truncatedTo(ChronoUnit.HOURS).toEpochSecond();
+            case DAILY   -> utc.truncatedTo(ChronoUnit.DAYS).toEpochSecond();
+            case WEEKLY  -> utc.truncatedTo(ChronoUnit.DAYS).with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY)).toEpochSecond();
+            case MONTHLY -> utc.truncatedTo(ChronoUnit.DAYS).with(TemporalAdjusters.firstDayOfMonth()).toEpochSecond();
+            case YEARLY  -> utc.truncatedTo(ChronoUnit.DAYS).with(TemporalAdjusters.firstDayOfYear()).toEpochSecond();
+        };
+    }
+
+    public static RollupPeriod fromText(final String text) {
+        if (null == text) { return DAILY; }
+        switch (text.toLowerCase()) {
+            case "hourly" , "hour" , "h" -> { return HOURLY; }
+            case "weekly" , "week" , "w" -> { return WEEKLY; }
+            case "monthly", "month", "m" -> { return MONTHLY; }
+            case "yearly" , "year" , "y" -> { return YEARLY; }
+            default                      -> { return DAILY; }
+        }
+    }
+}
@@ -0,0 +1,204 @@
+/*
+ * Copyright (c) 2021.
+ *
+ * This file is part of DiscoAPI.
+ *
+ *     DiscoAPI is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 2 of the License, or
+ *     (at your option) any later version.
+ *
+ *     DiscoAPI is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with DiscoAPI.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.foojay.api;
+
+import eu.hansolo.jdktools.Architecture;
+import eu.hansolo.jdktools.ArchiveType;
+import eu.hansolo.jdktools.Bitness;
+import eu.hansolo.jdktools.FPU;
+import eu.hansolo.jdktools.HashAlgorithm;
+import eu.hansolo.jdktools.OperatingSystem;
+import eu.hansolo.jdktools.PackageType;
+import eu.hansolo.jdktools.ReleaseStatus;
+import eu.hansolo.jdktools.TermOfSupport;
+import eu.hansolo.jdktools.Verification;
+import eu.hansolo.jdktools.versioning.VersionNumber;
+import io.foojay.api.pkg.Distro;
+import io.foojay.api.pkg.MajorVersion;
+import io.foojay.api.pkg.Pkg;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+
+public class ScrapePipelineTest {
+
+    @Test
+    public void unchangedPkgsAreNotEnriched() throws Exception {
+        final Pkg            unchanged = pkg("unchanged", "a", 195_000_000L);
+        final Pkg            changed   = pkg("changed", "b", 195_000_000L);
+        final TestStages     stages    = new TestStages(Map.of(unchanged.getId(), unchanged, changed.getId(), changed));
+        final ScrapePipeline pipeline  = new ScrapePipeline(stages, new SimpleMeterRegistry(), 10, 4);
+        try {
+            final Pkg fetchedUnchanged = pkg("unchanged", "a", -1);
+            final Pkg fetchedChanged   = pkg("changed", "c", -1);
+            final Pkg fetchedNew       = pkg("new", "d", -1);
+            final int persisted        = pipeline.submit(Distro.ZULU, List.of(fetchedUnchanged, fetchedChanged, fetchedNew)).get(5, TimeUnit.SECONDS);
+
+            assert persisted == 2;
+            assert stages.enriched.equals(Set.of(fetchedChanged.getId(), fetchedNew.getId()));
+            assert stages.persisted.equals(Set.of(fetchedChanged.getId(), fetchedNew.getId()));
+            assert fetchedUnchanged.getSize() == 195_000_000L;
+            assert pipeline.getProcessedPkgs(ScrapePipeline.Stage.DIFF)   == 3;
+            assert pipeline.getProcessedPkgs(ScrapePipeline.Stage.ENRICH) == 2;
+        } finally {
+            pipeline.stop();
+        }
+    }
+
+    @Test
+    public void jobCompletesWhenAllBatchesArePersisted() throws Exception {
+        final TestStages     stages   = new TestStages(Map.of());
+        final ScrapePipeline pipeline = new ScrapePipeline(stages, new SimpleMeterRegistry(), 10, 4);
+        try {
+            final int persisted = pipeline.submit(Distro.ZULU, pkgs(35)).get(5, TimeUnit.SECONDS);
+            assert persisted == 35;
+            assert stages.persisted.size() == 35;
+            assert pipeline.getProcessedPkgs(ScrapePipeline.Stage.FETCH)   == 35;
+            assert pipeline.getProcessedPkgs(ScrapePipeline.Stage.PERSIST) == 35;
+            assert pipeline.submit(Distro.ZULU, List.of()).get(5, TimeUnit.SECONDS) == 0;
+        } finally {
+            pipeline.stop();
+        }
+    }
+
+    @Test
+    public void failedPersistFailsJob() throws Exception {
+        final TestStages     stages   = new TestStages(Map.of());
+        final ScrapePipeline pipeline = new ScrapePipeline(stages, new SimpleMeterRegistry(), 10, 4);
+        stages.persistResult = false;
+        try {
+            pipeline.submit(Distro.ZULU, pkgs(5)).get(5, TimeUnit.SECONDS);
+            assert false;
+        } catch (ExecutionException e) {
+            assert e.getCause() instanceof IllegalStateException;
+        } finally {
+            pipeline.stop();
+        }
+    }
+
+    @Test
+    public void fullQueuesBlockTheSubmitter() throws Exception {
+        final TestStages     stages   = new TestStages(Map.of());
+        final ScrapePipeline pipeline = new ScrapePipeline(stages, new SimpleMeterRegistry(), 1, 2);
+        stages.enrichGate = new CountDownLatch(1);
+        try {
+            final AtomicReference<CompletableFuture<Integer>> future    = new AtomicReference<>();
+            final Thread                                      submitter = new Thread(() -> future.set(pipeline.submit(Distro.ZULU, pkgs(100))));
+            submitter.start();
+
+            // The enrich stage is blocked, so the queues in front of it fill up and the submitter has to wait
+            final long deadline = System.currentTimeMillis() + 5_000;
+            while ((pipeline.getQueueDepth(ScrapePipeline.Stage.ENRICH) < 2 || pipeline.getQueueDepth(ScrapePipeline.Stage.DIFF) < 2) && System.currentTimeMillis() < deadline) { Thread.sleep(10); }
+            assert pipeline.getQueueDepth(ScrapePipeline.Stage.ENRICH) == 2;
+            assert pipeline.getQueueDepth(ScrapePipeline.Stage.DIFF)   == 2;
+            submitter.join(200);
+            assert submitter.isAlive();
+            assert pipeline.getProcessedPkgs(ScrapePipeline.Stage.DIFF) < 100;
+
+            stages.enrichGate.countDown();
+            submitter.join(5_000);
+            assert !submitter.isAlive();
+            assert future.get().get(5, TimeUnit.SECONDS) == 100;
+        } finally {
+            stages.enrichGate.countDown();
+            pipeline.stop();
+        }
+    }
+
+    @Test
+    public void stopFailsPendingJobs() throws Exception {
+        final TestStages     stages   = new TestStages(Map.of());
+        final ScrapePipeline pipeline = new ScrapePipeline(stages, new SimpleMeterRegistry(), 10, 4);
+        stages.enrichGate = new CountDownLatch(1);
+        try {
+            final CompletableFuture<Integer> future = pipeline.submit(Distro.ZULU, pkgs(5));
+            assert stages.enrichStarted.await(5, TimeUnit.SECONDS);
+            pipeline.stop();
+            assert future.isCompletedExceptionally();
+            try {
+                future.get(5, TimeUnit.SECONDS);
+                assert false;
+            } catch (CancellationException e) {
+                // expected
+            }
+            assert stages.persisted.isEmpty();
+        } finally {
+            stages.enrichGate.countDown();
+            pipeline.stop();
+        }
+    }
+
+
+    private static List<Pkg> pkgs(final int count) {
+        final List<Pkg> pkgs = new ArrayList<>();
+        for (int i = 0 ; i < count ; i++) { pkgs.add(pkg("pkg" + i, "checksum", -1)); }
+        return pkgs;
+    }
+
+    private static Pkg pkg(final String name, final String checksum, final long size) {
+        final String filename = "zulu17.44.15-ca-jdk17.0.8-linux_x64-" + name + ".tar.gz";
+        return new Pkg(Distro.ZULU.get(), VersionNumber.fromText("17.0.8+7"), new MajorVersion(17), Architecture.X64, Bitness.BIT_64, FPU.UNKNOWN, OperatingSystem.LINUX, PackageType.JDK,
+                       ReleaseStatus.GA, ArchiveType.TAR_GZ, TermOfSupport.LTS, false, true, filename, "https://cdn.azul.com/zulu/bin/" + filename, "https://www.azul.com/downloads/", "", "", checksum,
+                       HashAlgorithm.SHA256, Boolean.TRUE, Verification.UNKNOWN, "", Verification.UNKNOWN, "", 1_690_000_000L, true, size, List.of());
+    }
+
+
+    private static class TestStages implements ScrapePipeline.Stages {
+        private final    Map<String, Pkg> existing;
+        private final    Set<String>      enriched      = ConcurrentHashMap.newKeySet();
+        private final    Set<String>      persisted     = ConcurrentHashMap.newKeySet();
+        private final    CountDownLatch   enrichStarted = new CountDownLatch(1);
+        private volatile CountDownLatch   enrichGate    = new CountDownLatch(0);
+        private volatile boolean          persistResult = true;
+
+        private TestStages(final Map<String, Pkg> existing) { this.existing = existing; }
+
+        @Override public Pkg getExisting(final String id) { return existing.get(id); }
+
+        @Override public void enrich(final List<Pkg> pkgs) {
+            enrichStarted.countDown();
+            try {
+                enrichGate.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            enriched.addAll(pkgs.stream().map(Pkg::getId).collect(Collectors.toList()));
+        }
+
+        @Override public boolean persist(final List<Pkg> pkgs) {
+            if (persistResult) { persisted.addAll(pkgs.stream().map(Pkg::getId).collect(Collectors.toList())); }
+            return persistResult;
+        }
+    }
+}
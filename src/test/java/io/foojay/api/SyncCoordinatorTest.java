@@ -0,0 +1,76 @@
+/*
+ * Copyright (c) 2021.
+ *
+ * This file is part of DiscoAPI.
+ *
+ *     DiscoAPI is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 2 of the License, or
+ *     (at your option) any later version.
+ *
+ *     DiscoAPI is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with DiscoAPI.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.foojay.api;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+public class SyncCoordinatorTest {
+
+    @Test
+    public void burstOfTriggersIsCoalesced() throws Exception {
+        final AtomicInteger   runs            = new AtomicInteger(0);
+        final AtomicInteger   concurrentRuns  = new AtomicInteger(0);
+        final AtomicInteger   maxConcurrent   = new AtomicInteger(0);
+        final CountDownLatch  firstRunStarted = new CountDownLatch(1);
+        final SyncCoordinator coordinator     = new SyncCoordinator("test-sync", 0, () -> {
+            maxConcurrent.accumulateAndGet(concurrentRuns.incrementAndGet(), Math::max);
+            firstRunStarted.countDown();
+            try { Thread.sleep(100); } catch (InterruptedException e) { Thread.currentThread().interrupt(); }
+            runs.incrementAndGet();
+            concurrentRuns.decrementAndGet();
+        });
+
+        final CompletableFuture<Void> first = coordinator.trigger();
+        assert firstRunStarted.await(5, TimeUnit.SECONDS);
+
+        // All triggers during the first run must end up in exactly one follow-up run
+        final List<CompletableFuture<Void>> followUps = new ArrayList<>();
+        for (int i = 0 ; i < 10 ; i++) { followUps.add(coordinator.trigger()); }
+
+        first.get(5, TimeUnit.SECONDS);
+        for (CompletableFuture<Void> followUp : followUps) { followUp.get(5, TimeUnit.SECONDS); }
+
+        assert runs.get() == 2;
+        assert maxConcurrent.get() == 1;
+        assert coordinator.triggersReceived.get() == 11;
+        assert coordinator.syncsExecuted.get() == 2;
+    }
+
+    @Test
+    public void triggersWithinDebounceJoinOneRun() throws Exception {
+        final AtomicInteger   runs        = new AtomicInteger(0);
+        final SyncCoordinator coordinator = new SyncCoordinator("test-debounce", 200, runs::incrementAndGet);
+
+        final CompletableFuture<Void> first  = coordinator.trigger();
+        final CompletableFuture<Void> second = coordinator.trigger();
+        assert first == second;
+
+        second.get(5, TimeUnit.SECONDS);
+        assert runs.get() == 1;
+    }
+}
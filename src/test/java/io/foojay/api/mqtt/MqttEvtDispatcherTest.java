@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) 2021.
+ *
+ * This file is part of DiscoAPI.
+ *
+ *     DiscoAPI is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 2 of the License, or
+ *     (at your option) any later version.
+ *
+ *     DiscoAPI is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with DiscoAPI.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.foojay.api.mqtt;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+
+public class MqttEvtDispatcherTest {
+    private static final String CRITICAL = "test/discoupdater/update/pkg_delta";
+    private static final String STATE    = "test/discoapi/state";
+
+
+    @Test
+    public void eventsAreHandledInOrder() throws Exception {
+        final MqttEvtDispatcher dispatcher = new MqttEvtDispatcher("test-order", Set.of(CRITICAL), new SimpleMeterRegistry(), 1_000);
+        final List<String>      handled    = new CopyOnWriteArrayList<>();
+        final CountDownLatch    done       = new CountDownLatch(100);
+        dispatcher.addObserver(evt -> {
+            handled.add(evt.getMsg());
+            done.countDown();
+        });
+
+        IntStream.range(0, 100).forEach(i -> dispatcher.dispatch(new MqttEvt(0 == i % 2 ? CRITICAL : STATE, Integer.toString(i))));
+        assert done.await(5, TimeUnit.SECONDS);
+        assert handled.equals(IntStream.range(0, 100).mapToObj(Integer::toString).collect(Collectors.toList()));
+    }
+
+    @Test
+    public void otherEventsAreDroppedWhenFull() throws Exception {
+        final SimpleMeterRegistry registry   = new SimpleMeterRegistry();
+        final MqttEvtDispatcher   dispatcher = new MqttEvtDispatcher("test-drop", Set.of(CRITICAL), registry, 2);
+        final List<String>        handled    = new CopyOnWriteArrayList<>();
+        final CountDownLatch      started    = new CountDownLatch(1);
+        final CountDownLatch      gate       = new CountDownLatch(1);
+        final CountDownLatch      done       = new CountDownLatch(3);
+        dispatcher.addObserver(evt -> {
+            started.countDown();
+            try { gate.await(); } catch (InterruptedException e) { Thread.currentThread().interrupt(); }
+            handled.add(evt.getMsg());
+            done.countDown();
+        });
+
+        // The worker is busy with the first event and the queue holds the next two
+        dispatcher.dispatch(new MqttEvt(STATE, "0"));
+        assert started.await(5, TimeUnit.SECONDS);
+        dispatcher.dispatch(new MqttEvt(STATE, "1"));
+        dispatcher.dispatch(new MqttEvt(CRITICAL, "2"));
+        dispatcher.dispatch(new MqttEvt(STATE, "3"));
+        assert dispatcher.eventsDropped.get() == 1;
+        assert registry.get("discoapi.mqtt.events.dropped").functionCounter().count() == 1;
+
+        gate.countDown();
+        assert done.await(5, TimeUnit.SECONDS);
+        assert handled.equals(List.of("0", "1", "2"));
+    }
+
+    @Test
+    public void criticalEventsWaitForRoomWhenFull() throws Exception {
+        final MqttEvtDispatcher dispatcher = new MqttEvtDispatcher("test-block", Set.of(CRITICAL), new SimpleMeterRegistry(), 1);
+        final List<String>      handled    = new CopyOnWriteArrayList<>();
+        final CountDownLatch    started    = new CountDownLatch(1);
+        final CountDownLatch    gate       = new CountDownLatch(1);
+        final CountDownLatch    done       = new CountDownLatch(3);
+        dispatcher.addObserver(evt -> {
+            started.countDown();
+            try { gate.await(); } catch (InterruptedException e) { Thread.currentThread().interrupt(); }
+            handled.add(evt.getMsg());
+            done.countDown();
+        });
+
+        dispatcher.dispatch(new MqttEvt(CRITICAL, "0"));
+        assert started.await(5, TimeUnit.SECONDS);
+        dispatcher.dispatch(new MqttEvt(CRITICAL, "1"));
+        final CompletableFuture<Void> blocked = CompletableFuture.runAsync(() -> dispatcher.dispatch(new MqttEvt(CRITICAL, "2")));
+        Thread.sleep(200);
+        assert !blocked.isDone();
+
+        gate.countDown();
+        blocked.get(5, TimeUnit.SECONDS);
+        assert done.await(5, TimeUnit.SECONDS);
+        assert handled.equals(List.of("0", "1", "2"));
+        assert dispatcher.eventsDropped.get() == 0;
+    }
+}
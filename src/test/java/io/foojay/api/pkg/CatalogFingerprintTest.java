@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2021.
+ *
+ * This file is part of DiscoAPI.
+ *
+ *     DiscoAPI is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 2 of the License, or
+ *     (at your option) any later version.
+ *
+ *     DiscoAPI is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with DiscoAPI.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.foojay.api.pkg;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+
+public class CatalogFingerprintTest {
+
+    @Test
+    public void fingerprintIsOrderIndependent() {
+        final List<Pkg> pkgs     = List.of(createPkg(Distro.ZULU, "zulu-17.tar.gz"), createPkg(Distro.ZULU, "zulu-11.tar.gz"), createPkg(Distro.TEMURIN, "temurin-17.tar.gz"));
+        final List<Pkg> reversed = new ArrayList<>(pkgs);
+        Collections.reverse(reversed);
+
+        final CatalogFingerprint fingerprint1 = CatalogFingerprint.of("node1", 1, pkgs);
+        final CatalogFingerprint fingerprint2 = CatalogFingerprint.of("node2", 1, reversed);
+        assert fingerprint1.getFingerprint().equals(fingerprint2.getFingerprint());
+        assert fingerprint1.getDistroFingerprints().equals(fingerprint2.getDistroFingerprints());
+        assert fingerprint1.getDivergingDistros(fingerprint2).isEmpty();
+    }
+
+    @Test
+    public void divergingDistrosAreDetected() {
+        final Pkg zulu    = createPkg(Distro.ZULU, "zulu-17.tar.gz");
+        final Pkg temurin = createPkg(Distro.TEMURIN, "temurin-17.tar.gz");
+
+        final CatalogFingerprint own  = CatalogFingerprint.of("node1", 1, List.of(zulu, temurin));
+        final CatalogFingerprint peer = CatalogFingerprint.of("node2", 1, List.of(zulu, temurin, createPkg(Distro.TEMURIN, "temurin-11.tar.gz")));
+        assert !own.getFingerprint().equals(peer.getFingerprint());
+        assert own.getDivergingDistros(peer).equals(List.of(Distro.TEMURIN));
+    }
+
+    @Test
+    public void fingerprintSurvivesJsonRoundTrip() {
+        final CatalogFingerprint fingerprint = CatalogFingerprint.of("node1", 42, List.of(createPkg(Distro.ZULU, "zulu-17.tar.gz"), createPkg(Distro.TEMURIN, "temurin-17.tar.gz")));
+        final CatalogFingerprint parsed      = CatalogFingerprint.fromJson(fingerprint.toString());
+        assert null != parsed;
+        assert parsed.getNode().equals("node1");
+        assert parsed.getGeneration() == 42;
+        assert parsed.getSize() == 2;
+        assert parsed.equals(fingerprint);
+        assert parsed.getDistroFingerprints().equals(fingerprint.getDistroFingerprints());
+
+        assert null == CatalogFingerprint.fromJson("{\"type\":\"other\"}");
+        assert null == CatalogFingerprint.fromJson("pkg_update_finished");
+    }
+
+    @Test
+    public void fingerprintExpires() {
+        final CatalogFingerprint fingerprint = new CatalogFingerprint("node1", 1, 0, "0", Map.of(), 1_000);
+        assert !fingerprint.isOlderThan(500, 1_500);
+        assert fingerprint.isOlderThan(500, 1_501);
+    }
+
+
+    private static Pkg createPkg(final Distro distro, final String filename) {
+        final Pkg pkg = new Pkg();
+        pkg.setDistribution(distro.get());
+        pkg.setFileName(filename);
+        pkg.setDirectDownloadUri("https://example.com/" + filename);
+        return pkg;
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright (c) 2021.
+ *
+ * This file is part of DiscoAPI.
+ *
+ *     DiscoAPI is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 2 of the License, or
+ *     (at your option) any later version.
+ *
+ *     DiscoAPI is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with DiscoAPI.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.foojay.api.pkg;
+
+import eu.hansolo.jdktools.Architecture;
+import eu.hansolo.jdktools.ArchiveType;
+import eu.hansolo.jdktools.Bitness;
+import eu.hansolo.jdktools.FPU;
+import eu.hansolo.jdktools.HashAlgorithm;
+import eu.hansolo.jdktools.OperatingSystem;
+import eu.hansolo.jdktools.PackageType;
+import eu.hansolo.jdktools.ReleaseStatus;
+import eu.hansolo.jdktools.TermOfSupport;
+import eu.hansolo.jdktools.Verification;
+import eu.hansolo.jdktools.versioning.VersionNumber;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+
+public class CatalogSnapshotTest {
+
+    @Test
+    public void jsonSurvivesRoundTripThroughFile() throws Exception {
+        final Map<String, String> jsonV3   = Map.of("id1", "{\"id\":\"id1\"}", "id2", "{\"id\":\"id2\",\"name\":\"äöü\"}");
+        final CatalogSnapshot     snapshot = CatalogSnapshot.of(7, List.of(), Map.of(), jsonV3, Map.of("id1", "{}"));
+
+        final Path dir  = Files.createTempDirectory("snapshot");
+        final Path file = dir.resolve("catalog.snapshot");
+        snapshot.write(file);
+        snapshot.write(file);
+
+        final CatalogSnapshot read = CatalogSnapshot.read(file);
+        assert null != read;
+        assert read.getGeneration() == 7;
+        assert read.getPkgs().isEmpty();
+        assert read.getJsonV2().isEmpty();
+        assert read.getJsonV3().equals(jsonV3);
+        assert read.getJsonMinimizedV3().equals(Map.of("id1", "{}"));
+        try (var files = Files.list(dir)) { assert files.count() == 1; }
+    }
+
+    @Test
+    public void invalidDataReturnsNull() {
+        assert null == CatalogSnapshot.fromBuffer(ByteBuffer.wrap("no snapshot at all, just text".getBytes()));
+
+        final byte[] bytes     = CatalogSnapshot.of(1, List.of(), Map.of(), Map.of("id", "{}"), Map.of()).toBytes();
+        final byte[] truncated = new byte[bytes.length - 2];
+        System.arraycopy(bytes, 0, truncated, 0, truncated.length);
+        assert null == CatalogSnapshot.fromBuffer(ByteBuffer.wrap(truncated));
+    }
+
+    @Test
+    public void truncatedOrCorruptPayloadIsRejected() {
+        final byte[] bytes = CatalogSnapshot.of(1, List.of(createPkg()), Map.of(), Map.of(), Map.of()).toBytes();
+        assert null != CatalogSnapshot.fromBuffer(ByteBuffer.wrap(bytes));
+
+        // Cut at the end of a complete package record would still decode without the length in the header
+        final byte[] truncated = new byte[bytes.length - 3];
+        System.arraycopy(bytes, 0, truncated, 0, truncated.length);
+        assert null == CatalogSnapshot.fromBuffer(ByteBuffer.wrap(truncated));
+
+        final byte[] corrupt = bytes.clone();
+        corrupt[corrupt.length / 2] ^= 0x01;
+        assert null == CatalogSnapshot.fromBuffer(ByteBuffer.wrap(corrupt));
+    }
+
+    @Test
+    public void fullyPopulatedPkgSurvivesRoundTrip() {
+        final Pkg pkg = createPkg();
+        pkg.setHeadless(true);
+        pkg.setLatestBuildAvailable(true);
+
+        final CatalogSnapshot read = CatalogSnapshot.fromBuffer(ByteBuffer.wrap(CatalogSnapshot.of(3, List.of(pkg), Map.of(), Map.of(), Map.of()).toBytes()));
+        assert null != read;
+        assert read.getPkgs().size() == 1;
+
+        final Pkg readPkg = read.getPkgs().get(0);
+        assert readPkg.diff(pkg).isEmpty();
+        assert readPkg.getId().equals(pkg.getId());
+        assert readPkg.isHeadless();
+        assert readPkg.isLatestBuildAvailable();
+        assert readPkg.getFreeUseInProduction();
+        assert readPkg.isUrlValid();
+        assert readPkg.getTckTested()       == Verification.YES;
+        assert readPkg.getAqavitCertified() == Verification.NO;
+        assert readPkg.getSize()            == pkg.getSize();
+        assert readPkg.getValidatedAt()     == pkg.getValidatedAt();
+        assert readPkg.getFeatures().equals(pkg.getFeatures());
+    }
+
+    @Test
+    public void nullableValuesKeepTheirNullState() {
+        final Pkg pkg = createPkg();
+        pkg.setJavaFXBundled(null);
+        pkg.setDirectlyDownloadable(null);
+        pkg.setTckTested(null);
+        pkg.setAqavitCertified(null);
+
+        final CatalogSnapshot read = CatalogSnapshot.fromBuffer(ByteBuffer.wrap(CatalogSnapshot.of(3, List.of(pkg), Map.of(), Map.of(), Map.of()).toBytes()));
+        assert null != read;
+        final Pkg readPkg = read.getPkgs().get(0);
+        assert null == readPkg.isJavaFXBundled();
+        assert null == readPkg.isDirectlyDownloadable();
+        assert null == readPkg.getTckTested();
+        assert null == readPkg.getAqavitCertified();
+    }
+
+
+    private static Pkg createPkg() {
+        return new Pkg(Distro.ZULU.get(), VersionNumber.fromText("17.0.8+7"), new MajorVersion(17, TermOfSupport.LTS, true), Architecture.X64, Bitness.BIT_64, FPU.UNKNOWN, OperatingSystem.LINUX, PackageType.JDK,
+                       ReleaseStatus.GA, ArchiveType.TAR_GZ, TermOfSupport.LTS, true, true, "zulu17.44.15-ca-fx-jdk17.0.8-linux_x64.tar.gz",
+                       "https://cdn.azul.com/zulu/bin/zulu17.44.15-ca-fx-jdk17.0.8-linux_x64.tar.gz", "https://www.azul.com/downloads/", "https://cdn.azul.com/zulu/bin/zulu17.44.15-ca-fx-jdk17.0.8-linux_x64.tar.gz.sig",
+                       "https://cdn.azul.com/zulu/bin/zulu17.44.15-ca-fx-jdk17.0.8-linux_x64.tar.gz.sha256", "3f4a8b4c6c2a6d4d4c4e3b1c8f0a2b1c3d4e5f60718293a4b5c6d7e8f9012345", HashAlgorithm.SHA256, Boolean.TRUE,
+                       Verification.YES, "https://www.azul.com/tck", Verification.NO, "https://adoptium.net/aqavit", 1_690_000_000L, true, 195_000_000L, List.of(Feature.LOOM, Feature.PANAMA));
+    }
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2021.
+ *
+ * This file is part of DiscoAPI.
+ *
+ *     DiscoAPI is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 2 of the License, or
+ *     (at your option) any later version.
+ *
+ *     DiscoAPI is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with DiscoAPI.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.foojay.api.pkg;
+
+import eu.hansolo.jdktools.Architecture;
+import eu.hansolo.jdktools.ArchiveType;
+import eu.hansolo.jdktools.Bitness;
+import eu.hansolo.jdktools.FPU;
+import eu.hansolo.jdktools.HashAlgorithm;
+import eu.hansolo.jdktools.OperatingSystem;
+import eu.hansolo.jdktools.PackageType;
+import eu.hansolo.jdktools.ReleaseStatus;
+import eu.hansolo.jdktools.TermOfSupport;
+import eu.hansolo.jdktools.Verification;
+import eu.hansolo.jdktools.util.OutputFormat;
+import eu.hansolo.jdktools.versioning.VersionNumber;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+
+public class DistroCatalogTest {
+
+    @Test
+    public void statsAreComputedPerDistro() {
+        final DistroCatalog catalog = DistroCatalog.of(List.of(createPkg("17.0.8+7", OperatingSystem.LINUX, Architecture.X64), createPkg("17.0.7+7", OperatingSystem.WINDOWS, Architecture.X64),
+                                                               createPkg("17.0.8+7", OperatingSystem.MACOS, Architecture.AARCH64)));
+        final DistroCatalog.Stats stats = catalog.getStats(Distro.ZULU);
+        assert stats.getNumberOfPkgs() == 3;
+        assert stats.getVersions().size() == 2;
+        assert stats.getVersions().get(0).getVersionNumber().equals(VersionNumber.fromText("17.0.8+7"));
+        assert stats.getOperatingSystems().size() == 3;
+        assert stats.getArchitectures().size() == 2;
+        assert catalog.getStats(Distro.TEMURIN).getNumberOfPkgs() == 0;
+    }
+
+    @Test
+    public void jsonIsRenderedFromThisCatalog() {
+        // The catalog is not the current one of the CacheManager, the versions must come from the catalog itself
+        final DistroCatalog catalog = DistroCatalog.of(List.of(createPkg("17.0.8+7", OperatingSystem.LINUX, Architecture.X64)));
+        final String        json    = catalog.getJson(Distro.ZULU, OutputFormat.FULL_COMPRESSED, true, false, false, true);
+        assert json.contains("17.0.8");
+        assert !DistroCatalog.EMPTY.getJson(Distro.ZULU, OutputFormat.FULL_COMPRESSED, true, false, false, true).contains("17.0.8");
+    }
+
+    @Test
+    public void jsonIsCachedPerCatalog() {
+        final DistroCatalog catalog = DistroCatalog.of(List.of(createPkg("17.0.8+7", OperatingSystem.LINUX, Architecture.X64)));
+        final String        json    = catalog.getJson(List.of(Distro.ZULU, Distro.TEMURIN), OutputFormat.REDUCED_COMPRESSED, true, true, false, true);
+        assert json.startsWith("[") && json.endsWith("]");
+        assert json == catalog.getJson(List.of(Distro.ZULU, Distro.TEMURIN), OutputFormat.REDUCED_COMPRESSED, true, true, false, true);
+        assert json.contains(catalog.getJson(Distro.TEMURIN, OutputFormat.REDUCED_COMPRESSED, true, true, false, true));
+    }
+
+
+    private static Pkg createPkg(final String version, final OperatingSystem operatingSystem, final Architecture architecture) {
+        final String filename = "zulu-" + version + "-" + operatingSystem.getApiString() + "-" + architecture.getApiString() + ".tar.gz";
+        return new Pkg(Distro.ZULU.get(), VersionNumber.fromText(version), new MajorVersion(17, TermOfSupport.LTS, true), architecture, Bitness.BIT_64, FPU.UNKNOWN, operatingSystem, PackageType.JDK,
+                       ReleaseStatus.GA, ArchiveType.TAR_GZ, TermOfSupport.LTS, false, true, filename, "https://cdn.azul.com/zulu/bin/" + filename, "", "", "", "", HashAlgorithm.NONE, Boolean.TRUE,
+                       Verification.UNKNOWN, "", Verification.UNKNOWN, "", 0, true, 0, List.of());
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) 2021.
+ *
+ * This file is part of DiscoAPI.
+ *
+ *     DiscoAPI is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 2 of the License, or
+ *     (at your option) any later version.
+ *
+ *     DiscoAPI is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with DiscoAPI.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.foojay.api.pkg;
+
+import eu.hansolo.jdktools.Architecture;
+import eu.hansolo.jdktools.ArchiveType;
+import eu.hansolo.jdktools.Bitness;
+import eu.hansolo.jdktools.FPU;
+import eu.hansolo.jdktools.HashAlgorithm;
+import eu.hansolo.jdktools.OperatingSystem;
+import eu.hansolo.jdktools.PackageType;
+import eu.hansolo.jdktools.ReleaseStatus;
+import eu.hansolo.jdktools.TermOfSupport;
+import eu.hansolo.jdktools.Verification;
+import eu.hansolo.jdktools.versioning.VersionNumber;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+
+public class PkgDeltaTest {
+
+    @Test
+    public void removedIdsAreChunkedAndParsed() {
+        final List<String> removedIds = new ArrayList<>();
+        for (int i = 0 ; i < 100 ; i++) { removedIds.add("pkg" + i); }
+
+        final List<String> messages = PkgDelta.createMessages(42, List.of(), removedIds, 512);
+        assert messages.size() > 1;
+
+        final List<String> parsedIds = new ArrayList<>();
+        for (int i = 0 ; i < messages.size() ; i++) {
+            assert messages.get(i).getBytes().length <= 512;
+            final PkgDelta delta = PkgDelta.fromJson(messages.get(i));
+            assert null != delta;
+            assert delta.getGeneration() == 42;
+            assert delta.getChunk()      == i;
+            assert delta.getChunks()     == messages.size();
+            assert delta.isLastChunk()   == (i == messages.size() - 1);
+            parsedIds.addAll(delta.getRemovedIds());
+        }
+        assert parsedIds.equals(removedIds);
+    }
+
+    @Test
+    public void upsertedPkgSurvivesRoundTrip() {
+        final Pkg pkg = new Pkg(Distro.ZULU.get(), VersionNumber.fromText("17.0.8+7"), new MajorVersion(17), Architecture.X64, Bitness.BIT_64, FPU.UNKNOWN, OperatingSystem.LINUX, PackageType.JDK,
+                                ReleaseStatus.GA, ArchiveType.TAR_GZ, TermOfSupport.LTS, true, true, "zulu17.44.15-ca-fx-jdk17.0.8-linux_x64.tar.gz",
+                                "https://cdn.azul.com/zulu/bin/zulu17.44.15-ca-fx-jdk17.0.8-linux_x64.tar.gz", "https://www.azul.com/downloads/", "https://cdn.azul.com/zulu/bin/zulu17.44.15-ca-fx-jdk17.0.8-linux_x64.tar.gz.sig",
+                                "https://cdn.azul.com/zulu/bin/zulu17.44.15-ca-fx-jdk17.0.8-linux_x64.tar.gz.sha256", "3f4a8b4c6c2a6d4d4c4e3b1c8f0a2b1c3d4e5f60718293a4b5c6d7e8f9012345", HashAlgorithm.SHA256, Boolean.TRUE,
+                                Verification.YES, "https://www.azul.com/tck", Verification.NO, "https://adoptium.net/aqavit", 1_690_000_000L, true, 195_000_000L, List.of(Feature.LOOM, Feature.PANAMA));
+
+        final List<String> messages = PkgDelta.createMessages(7, List.of(pkg), List.of(), 128_000);
+        assert messages.size() == 1;
+
+        final PkgDelta delta = PkgDelta.fromJson(messages.get(0));
+        assert null != delta;
+        assert delta.getUpsertedPkgs().size() == 1;
+
+        final Pkg parsed = delta.getUpsertedPkgs().get(0);
+        assert parsed.getId().equals(pkg.getId());
+        assert parsed.diff(pkg).isEmpty();
+    }
+
+    @Test
+    public void invalidMessageReturnsNull() {
+        assert null == PkgDelta.fromJson("pkg_update_finished");
+        assert null == PkgDelta.fromJson("{\"chunk\":0}");
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright (c) 2021.
+ *
+ * This file is part of DiscoAPI.
+ *
+ *     DiscoAPI is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 2 of the License, or
+ *     (at your option) any later version.
+ *
+ *     DiscoAPI is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with DiscoAPI.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.foojay.api.util;
+
+import org.junit.jupiter.api.Test;
+
+
+public class AdminCommandTest {
+    private static final String SECRET  = "admin-secret";
+    private static final long   MAX_AGE = 300_000;
+
+    @Test
+    public void signedCommandIsAccepted() {
+        final String       msg     = AdminCommand.sign("rollback_catalog", 42, 1_000_000, SECRET);
+        final AdminCommand command = AdminCommand.fromSigned(msg, SECRET, 1_000_500, MAX_AGE);
+        assert null != command;
+        assert command.getCommand().equals("rollback_catalog");
+        assert command.getGeneration() == 42;
+        assert command.getTimestamp() == 1_000_000;
+    }
+
+    @Test
+    public void tamperedCommandIsRejected() {
+        final String msg = AdminCommand.sign("rollback_catalog", 42, 1_000_000, SECRET);
+        assert null == AdminCommand.fromSigned(msg.replace("@42@", "@41@"), SECRET, 1_000_500, MAX_AGE);
+        assert null == AdminCommand.fromSigned(msg.replace("rollback_catalog", "pin_catalog"), SECRET, 1_000_500, MAX_AGE);
+        assert null == AdminCommand.fromSigned(msg, "other-secret", 1_000_500, MAX_AGE);
+        assert null == AdminCommand.fromSigned("rollback_catalog@42", SECRET, 1_000_500, MAX_AGE);
+    }
+
+    @Test
+    public void commandsAreRejectedWithoutSecretOrWhenExpired() {
+        final String msg = AdminCommand.sign("unpin_catalog", -1, 1_000_000, SECRET);
+        assert null == AdminCommand.fromSigned(msg, null, 1_000_500, MAX_AGE);
+        assert null == AdminCommand.fromSigned(msg, "", 1_000_500, MAX_AGE);
+        assert null == AdminCommand.fromSigned(msg, SECRET, 1_000_000 + MAX_AGE + 1, MAX_AGE);
+        assert null != AdminCommand.fromSigned(msg, SECRET, 1_000_000 + MAX_AGE, MAX_AGE);
+        assert null == AdminCommand.sign("unpin_catalog", -1, 1_000_000, null);
+    }
+}
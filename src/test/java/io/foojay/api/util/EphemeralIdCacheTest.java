@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2021.
+ *
+ * This file is part of DiscoAPI.
+ *
+ *     DiscoAPI is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 2 of the License, or
+ *     (at your option) any later version.
+ *
+ *     DiscoAPI is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with DiscoAPI.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.foojay.api.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+
+public class EphemeralIdCacheTest {
+
+    @Test
+    public void idsCanBeResolvedByOtherNodes() {
+        final EphemeralIdCache<String, String> node1 = new EphemeralIdCache<>(() -> List.of("pkg1", "pkg2"), () -> 0, () -> "secret");
+        final EphemeralIdCache<String, String> node2 = new EphemeralIdCache<>(() -> List.of("pkg1", "pkg2"), () -> 0, () -> "secret");
+
+        final String ephemeralId = node1.getEphemeralIdForPkgId("pkg2");
+        assert "pkg2".equals(node2.get(ephemeralId));
+        assert node2.isValid(ephemeralId, "pkg2");
+        assert !node2.isValid(ephemeralId, "pkg1");
+        assert !new EphemeralIdCache<String, String>(() -> List.of("pkg2"), () -> 0, () -> "other").isValid(ephemeralId, "pkg2");
+    }
+
+    @Test
+    public void unknownIdsOnlyRefillAfterVersionChange() {
+        final AtomicInteger                    fills   = new AtomicInteger();
+        final AtomicLong                       version = new AtomicLong();
+        final EphemeralIdCache<String, String> cache   = new EphemeralIdCache<>(() -> { fills.incrementAndGet(); return List.of("pkg1"); }, version::get, () -> "secret");
+
+        assert null == cache.get("unknown");
+        final int fillsAfterFirstMiss = fills.get();
+        assert fillsAfterFirstMiss > 0;
+
+        assert null == cache.get("unknown");
+        assert null == cache.get("another unknown");
+        assert fills.get() == fillsAfterFirstMiss;
+
+        version.incrementAndGet();
+        assert null == cache.get("unknown");
+        assert fills.get() > fillsAfterFirstMiss;
+    }
+
+    @Test
+    public void missingSecretIsRejected() {
+        final EphemeralIdCache<String, String> cache = new EphemeralIdCache<>(() -> List.of("pkg1"), () -> 0, () -> null);
+        try {
+            cache.getEphemeralIdForPkgId("pkg1");
+            assert false;
+        } catch (IllegalStateException e) {
+            assert e.getMessage().contains(Config.FOOJAY_EPHEMERAL_ID_SECRET);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2021.
+ *
+ * This file is part of DiscoAPI.
+ *
+ *     DiscoAPI is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 2 of the License, or
+ *     (at your option) any later version.
+ *
+ *     DiscoAPI is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with DiscoAPI.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.foojay.api.util;
+
+import com.sun.net.httpserver.HttpServer;
+import io.foojay.api.pkg.Pkg;
+import io.foojay.api.util.FileSizeResolver.FileSize;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+
+public class FileSizeResolverTest {
+
+    @Test
+    public void unknownSizeIsDeferredInsideScrape() {
+        final long size = FileSizeResolver.INSTANCE.deferResolution(() -> FileSizeResolver.INSTANCE.getSize("https://unknown.invalid/jdk.zip"));
+        assert size == -1;
+    }
+
+    @Test
+    public void pkgsWithSizeAreNotRequested() {
+        final Pkg pkg = new Pkg();
+        pkg.setDirectDownloadUri("https://unknown.invalid/jdk-with-size.zip");
+        pkg.setSize(1024);
+        assert FileSizeResolver.INSTANCE.resolve(List.of(pkg)) == 0;
+        assert pkg.getSize() == 1024;
+    }
+
+    @Test
+    public void invalidUrisAreSkipped() {
+        final Pkg pkg = new Pkg();
+        pkg.setDirectDownloadUri("https://in valid/jdk.zip");
+        pkg.setSize(-1);
+        assert FileSizeResolver.INSTANCE.resolve(List.of(pkg)) == 0;
+        assert pkg.getSize() == -1;
+    }
+
+    @Test
+    public void staleSizeIsRevalidated() throws IOException {
+        final AtomicInteger           requests    = new AtomicInteger();
+        final AtomicReference<String> ifNoneMatch = new AtomicReference<>();
+        final HttpServer              server      = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/jdk-stale.zip", exchange -> {
+            requests.incrementAndGet();
+            ifNoneMatch.set(exchange.getRequestHeaders().getFirst("If-None-Match"));
+            exchange.sendResponseHeaders(304, -1);
+            exchange.close();
+        });
+        server.start();
+        try {
+            final String uri = "http://127.0.0.1:" + server.getAddress().getPort() + "/jdk-stale.zip";
+            FileSizeResolver.INSTANCE.register(new FileSize(uri, 1024, "\"v1\"", null, 0));
+
+            // The scraper already filled in the size from the registry
+            final Pkg pkg = new Pkg();
+            pkg.setDirectDownloadUri(uri);
+            pkg.setSize(1024);
+            assert FileSizeResolver.INSTANCE.resolve(List.of(pkg)) == 1;
+            assert requests.get() == 1;
+            assert "\"v1\"".equals(ifNoneMatch.get());
+            assert pkg.getSize() == 1024;
+
+            // Revalidated sizes are fresh again
+            assert FileSizeResolver.INSTANCE.resolve(List.of(pkg)) == 0;
+            assert requests.get() == 1;
+        } finally {
+            server.stop(0);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2021.
+ *
+ * This file is part of DiscoAPI.
+ *
+ *     DiscoAPI is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 2 of the License, or
+ *     (at your option) any later version.
+ *
+ *     DiscoAPI is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with DiscoAPI.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.foojay.api.util;
+
+import eu.hansolo.jdktools.Architecture;
+import eu.hansolo.jdktools.ArchiveType;
+import eu.hansolo.jdktools.OperatingSystem;
+import eu.hansolo.jdktools.PackageType;
+import eu.hansolo.jdktools.ReleaseStatus;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map.Entry;
+
+
+public class FilenameClassifierTest {
+    private static final List<String> FILENAMES = List.of("OpenJDK11U-jre_x86-32_windows_hotspot_11.0.8_10.msi",
+                                                          "OpenJDK17U-jdk_aarch64_linux_hotspot_17.0.8_7.tar.gz",
+                                                          "OpenJDK8U-jdk_x64_alpine-linux_hotspot_8u382b05.tar.gz",
+                                                          "OpenJDK21U-jdk_ppc64le_linux_hotspot_ea_21-0-35.tar.gz",
+                                                          "amazon-corretto-8.232.09.1-macosx-x64.tar.gz",
+                                                          "amazon-corretto-8.222.10.3-windows-x86-jre.zip",
+                                                          "java-1.8.0-amazon-corretto-devel-1.8.0_232.b09-1.aarch64.rpm",
+                                                          "java-1.8.0-amazon-corretto-jdk_8.232.09-1_arm64.deb",
+                                                          "bellsoft-jre11.0.8+10-windows-i586.zip",
+                                                          "bellsoft-jdk17.0.8.1+1-linux-riscv64-musl-lite.apk",
+                                                          "zulu8.44.0.9-ca-jdk8.0.242-win_i686.zip",
+                                                          "zulu17.44.15-ca-fx-crac-jdk17.0.8-linux_aarch64.tar.gz",
+                                                          "zulu11.66.15-ca-jre11.0.20-macosx_aarch64.dmg",
+                                                          "sapmachine-jdk-17.0.8_linux-ppc64le_bin.tar.gz",
+                                                          "microsoft-jdk-21.0.0-windows-aarch64.msi",
+                                                          "graalvm-community-jdk-21.0.0_macos-x64_bin.tar.gz",
+                                                          "ibm-semeru-open-jdk_s390x_linux_11.0.20_8_openj9-0.40.0.tar.gz",
+                                                          "Alibaba_Dragonwell_Extended_17.0.8.0.8+7_x64_linux.tar.gz",
+                                                          "jbrsdk_jcef-17.0.8.1-osx-aarch64-b1000.32.tar.gz",
+                                                          "TencentKona-11.0.20.b1-jdk_solaris_sparcv9.tar.gz",
+                                                          "bisheng-jdk-17.0.8-linux-aarch64.tar.gz",
+                                                          "openjdk-22-ea+12_linux-x64_bin.tar.gz",
+                                                          "jdk-8u381-solaris-sparcv9.tar.Z",
+                                                          "readme.txt",
+                                                          "");
+
+
+    @Test
+    public void classifyLikeLinearScan() {
+        for (String filename : FILENAMES) {
+            final FilenameClassifier.Classification classification = FilenameClassifier.INSTANCE.classify(filename);
+            assert contains(Constants.ARCHITECTURE_LOOKUP, filename, Architecture.NONE) == classification.getArchitecture(Architecture.NONE) : filename;
+            assert contains(Constants.OPERATING_SYSTEM_LOOKUP, filename, OperatingSystem.NONE) == classification.getOperatingSystem(OperatingSystem.NONE) : filename;
+            assert endsWith(Constants.ARCHIVE_TYPE_LOOKUP, filename, ArchiveType.NONE) == classification.getArchiveType(ArchiveType.NONE) : filename;
+            assert contains(Constants.ARCHIVE_TYPE_LOOKUP, filename, ArchiveType.NONE) == classification.getArchiveTypeContained(ArchiveType.NONE) : filename;
+            assert contains(Constants.PACKAGE_TYPE_LOOKUP, filename, PackageType.NONE) == classification.getPackageType(PackageType.NONE) : filename;
+            assert contains(Constants.RELEASE_STATUS_LOOKUP, filename, ReleaseStatus.NONE) == classification.getReleaseStatus(ReleaseStatus.NONE) : filename;
+            assert endsWith(Constants.RELEASE_STATUS_LOOKUP, filename, ReleaseStatus.NONE) == classification.getReleaseStatusSuffix(ReleaseStatus.NONE) : filename;
+        }
+    }
+
+    @Test
+    public void classifyNull() {
+        assert Architecture.NOT_FOUND == FilenameClassifier.INSTANCE.classify(null).getArchitecture(Architecture.NOT_FOUND);
+    }
+
+
+    private static <T> T contains(final LinkedHashMap<String, T> lookup, final String text, final T fallback) {
+        return lookup.entrySet().stream().filter(entry -> text.contains(entry.getKey())).findFirst().map(Entry::getValue).orElse(fallback);
+    }
+
+    private static <T> T endsWith(final LinkedHashMap<String, T> lookup, final String text, final T fallback) {
+        return lookup.entrySet().stream().filter(entry -> text.endsWith(entry.getKey())).findFirst().map(Entry::getValue).orElse(fallback);
+    }
+}
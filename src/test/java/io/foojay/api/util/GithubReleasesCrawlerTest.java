@@ -0,0 +1,176 @@
+/*
+ * Copyright (c) 2021.
+ *
+ * This file is part of DiscoAPI.
+ *
+ *     DiscoAPI is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 2 of the License, or
+ *     (at your option) any later version.
+ *
+ *     DiscoAPI is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with DiscoAPI.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.foojay.api.util;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import io.foojay.api.pkg.Pkg;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+
+public class GithubReleasesCrawlerTest {
+
+    @Test
+    public void failedPageDoesNotAdvanceMark() {
+        final String      url    = "https://api.github.com/repos/test/failed/releases";
+        final Source      source = new Source(3, Map.of(1, releases(100, 1000), 3, releases(10, 800)));
+        final List<Pkg>   pkgs   = GithubReleasesCrawler.INSTANCE.crawl(url, false, new Mapper(), source);
+        assert pkgs.isEmpty();
+        assert null == GithubReleasesCrawler.INSTANCE.getHighWaterMark(url);
+
+        final Source complete = new Source(3, Map.of(1, releases(100, 1000), 2, releases(100, 900), 3, releases(10, 800)));
+        GithubReleasesCrawler.INSTANCE.crawl(url, false, new Mapper(), complete);
+        assert Instant.ofEpochSecond(1000).equals(GithubReleasesCrawler.INSTANCE.getHighWaterMark(url));
+    }
+
+    @Test
+    public void collectedMarksAdvanceOnlyOnCommit() {
+        final String                                    url    = "https://api.github.com/repos/test/collected/releases";
+        final Source                                    source = new Source(1, Map.of(1, releases(5, 500)));
+        final List<GithubReleasesCrawler.HighWaterMark> marks  = new ArrayList<>();
+        GithubReleasesCrawler.INSTANCE.collectMarks(marks, () -> GithubReleasesCrawler.INSTANCE.crawl(url, false, new Mapper(), source));
+        assert null == GithubReleasesCrawler.INSTANCE.getHighWaterMark(url);
+        assert marks.size() == 1;
+
+        GithubReleasesCrawler.INSTANCE.commitMarks(marks);
+        assert Instant.ofEpochSecond(500).equals(GithubReleasesCrawler.INSTANCE.getHighWaterMark(url));
+    }
+
+    @Test
+    public void incrementalCrawlStopsAtKnownReleases() {
+        final String url = "https://api.github.com/repos/test/incremental/releases";
+        GithubReleasesCrawler.INSTANCE.crawl(url, false, new Mapper(), new Source(1, Map.of(1, releases(100, 1000))));
+        assert Instant.ofEpochSecond(1000).equals(GithubReleasesCrawler.INSTANCE.getHighWaterMark(url));
+
+        final Source source = new Source(5, Map.of(1, releases(100, 1200), 2, releases(100, 1100), 3, releases(100, 1000), 4, releases(100, 900)));
+        final Mapper mapper = new Mapper();
+        GithubReleasesCrawler.INSTANCE.crawl(url, true, mapper, source);
+        assert mapper.releases.get() == 200;
+        assert !source.requested.containsKey(4);
+        assert Instant.ofEpochSecond(1200).equals(GithubReleasesCrawler.INSTANCE.getHighWaterMark(url));
+    }
+
+    @Test
+    public void releasesAreMappedOneByOne() {
+        final String url    = "https://api.github.com/repos/test/streamed/releases";
+        final Source source = new Source(3, Map.of(1, releases(100, 1000), 2, releases(100, 900), 3, releases(10, 800)));
+        final Mapper mapper = new Mapper();
+        GithubReleasesCrawler.INSTANCE.crawl(url, false, mapper, source);
+        assert mapper.releases.get() == 210;
+        assert mapper.calls.get() == 210;
+        assert Instant.ofEpochSecond(1000).equals(GithubReleasesCrawler.INSTANCE.getHighWaterMark(url));
+    }
+
+    @Test
+    public void notModifiedFirstPageStopsIncrementalCrawl() {
+        final String url    = "https://api.github.com/repos/test/notmodified/releases";
+        final Source source = new Source(2, Map.of(1, releases(100, 1000), 2, releases(50, 900)));
+        GithubReleasesCrawler.INSTANCE.crawl(url, false, new Mapper(), source);
+        assert Instant.ofEpochSecond(1000).equals(GithubReleasesCrawler.INSTANCE.getHighWaterMark(url));
+
+        source.requested.clear();
+        final Mapper mapper = new Mapper();
+        GithubReleasesCrawler.INSTANCE.crawl(url, true, mapper, source);
+        assert mapper.calls.get() == 0;
+        assert source.requested.keySet().equals(Set.of(1));
+        assert source.notModified.get() == 1;
+    }
+
+    @Test
+    public void scopesHaveTheirOwnMarks() {
+        final String url       = "https://api.github.com/repos/test/shared/releases";
+        final String community = GithubReleasesCrawler.getKey("graalvm_community", url);
+        final String ce        = GithubReleasesCrawler.getKey("graalvm_ce17", url);
+        GithubReleasesCrawler.INSTANCE.crawl(community, url, false, new Mapper(), new Source(1, Map.of(1, releases(10, 1000))));
+        assert Instant.ofEpochSecond(1000).equals(GithubReleasesCrawler.INSTANCE.getHighWaterMark(community));
+        assert null == GithubReleasesCrawler.INSTANCE.getHighWaterMark(ce);
+
+        final Mapper mapper = new Mapper();
+        GithubReleasesCrawler.INSTANCE.crawl(ce, url, true, mapper, new Source(1, Map.of(1, releases(10, 1000))));
+        assert mapper.releases.get() == 10;
+        assert Instant.ofEpochSecond(1000).equals(GithubReleasesCrawler.INSTANCE.getHighWaterMark(ce));
+    }
+
+
+    /**
+     * Returns the given number of releases, the newest one published at the given epoch second
+     */
+    private static JsonArray releases(final int count, final long newest) {
+        final JsonArray releases = new JsonArray();
+        for (int i = 0 ; i < count ; i++) {
+            final JsonObject release = new JsonObject();
+            release.addProperty("published_at", Instant.ofEpochSecond(newest - i).toString());
+            release.add("assets", new JsonArray());
+            releases.add(release);
+        }
+        return releases;
+    }
+
+
+    private static class Mapper implements Function<JsonArray, Collection<Pkg>> {
+        private final AtomicInteger releases = new AtomicInteger();
+        private final AtomicInteger calls    = new AtomicInteger();
+
+        @Override public Collection<Pkg> apply(final JsonArray jsonArray) {
+            releases.addAndGet(jsonArray.size());
+            calls.incrementAndGet();
+            return List.of();
+        }
+    }
+
+
+    private static class Source implements GithubReleasesCrawler.PageSource {
+        private static final AtomicInteger           VERSION     = new AtomicInteger();
+        private        final String                  etag        = "\"v" + VERSION.incrementAndGet() + "\"";
+        private        final int                     lastPage;
+        private        final Map<Integer, JsonArray> pages;
+        private        final Map<Integer, Boolean>   requested   = new ConcurrentHashMap<>();
+        private        final AtomicInteger           notModified = new AtomicInteger();
+
+        private Source(final int lastPage, final Map<Integer, JsonArray> pages) {
+            this.lastPage = lastPage;
+            this.pages    = pages;
+        }
+
+        @Override public GithubReleasesCrawler.Page stream(final String pageUrl, final String etag, final Consumer<JsonElement> consumer) {
+            final int page = Integer.parseInt(pageUrl.substring(pageUrl.lastIndexOf("page=") + 5));
+            requested.put(page, Boolean.TRUE);
+            if (this.etag.equals(etag)) {
+                notModified.incrementAndGet();
+                return GithubReleasesCrawler.Page.NOT_MODIFIED;
+            }
+            if (!pages.containsKey(page)) { return null; }
+            pages.get(page).forEach(consumer);
+            return new GithubReleasesCrawler.Page(this.etag, lastPage);
+        }
+    }
+}
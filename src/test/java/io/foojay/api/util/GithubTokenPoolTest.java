@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2021.
+ *
+ * This file is part of DiscoAPI.
+ *
+ *     DiscoAPI is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 2 of the License, or
+ *     (at your option) any later version.
+ *
+ *     DiscoAPI is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with DiscoAPI.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.foojay.api.util;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.net.http.HttpHeaders;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+
+public class GithubTokenPoolTest {
+
+    @Test
+    public void tokenWithMostRemainingRequestsIsChosen() {
+        final GithubTokenPool pool  = new GithubTokenPool(List.of("a", "b", "c"), new SimpleMeterRegistry(), 1_000);
+        final long            reset = Instant.now().plusSeconds(3_600).getEpochSecond();
+        pool.update(Map.of("authorization", "a"), headers(10, reset));
+        pool.update(Map.of("authorization", "b"), headers(12, reset));
+        pool.update(Map.of("authorization", "c"), headers(5, reset));
+
+        assert "b".equals(pool.next());
+        assert "b".equals(pool.next());
+        // b has 10 remaining now like a, on a tie the first token is taken
+        assert "a".equals(pool.next());
+    }
+
+    @Test
+    public void quotaIsRefilledAfterReset() {
+        final GithubTokenPool pool = new GithubTokenPool(List.of("a", "b"), new SimpleMeterRegistry(), 1_000);
+        pool.update(Map.of("authorization", "a"), headers(0, Instant.now().minusSeconds(1).getEpochSecond()));
+        pool.update(Map.of("authorization", "b"), headers(3, Instant.now().plusSeconds(3_600).getEpochSecond()));
+
+        // The reset of a has passed, so it has the full limit again
+        assert "a".equals(pool.next());
+        assert pool.toString().contains("\"remaining\":4999");
+    }
+
+    @Test
+    public void exhaustedPoolParksUntilReset() throws Exception {
+        final GithubTokenPool pool  = new GithubTokenPool(List.of("a"), new SimpleMeterRegistry(), TimeUnit.SECONDS.toMillis(30));
+        final long            reset = Instant.now().plusSeconds(2).getEpochSecond();
+        pool.update(Map.of("authorization", "a"), headers(0, reset));
+
+        final CompletableFuture<String> token = CompletableFuture.supplyAsync(pool::next);
+        Thread.sleep(200);
+        assert !token.isDone();
+
+        assert "a".equals(token.get(10, TimeUnit.SECONDS));
+        assert System.currentTimeMillis() >= TimeUnit.SECONDS.toMillis(reset);
+    }
+
+    @Test
+    public void exhaustedPoolGivesUpAfterMaxWait() {
+        final GithubTokenPool pool  = new GithubTokenPool(List.of("a", "b"), new SimpleMeterRegistry(), 200);
+        final long            reset = Instant.now().plusSeconds(3_600).getEpochSecond();
+        pool.update(Map.of("authorization", "a"), headers(0, reset));
+        pool.update(Map.of("authorization", "b"), headers(0, reset));
+
+        final long start = System.currentTimeMillis();
+        assert "a".equals(pool.next());
+        assert System.currentTimeMillis() - start >= 200;
+    }
+
+    @Test
+    public void emptyPoolReturnsEmptyToken() {
+        assert new GithubTokenPool(List.of(), new SimpleMeterRegistry(), 1_000).next().isEmpty();
+    }
+
+
+    private static HttpHeaders headers(final int remaining, final long reset) {
+        return HttpHeaders.of(Map.of("X-RateLimit-Remaining", List.of(Integer.toString(remaining)),
+                                     "X-RateLimit-Reset", List.of(Long.toString(reset)),
+                                     "X-RateLimit-Limit", List.of("5000")), (name, value) -> true);
+    }
+}
@@ -19,13 +19,24 @@
 
 package io.foojay.api.util;
 
+import com.google.gson.JsonElement;
+import com.sun.net.httpserver.HttpServer;
 import eu.hansolo.jdktools.PackageType;
+import eu.hansolo.jdktools.TermOfSupport;
 import org.junit.jupiter.api.Test;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
 
 
 public class HelperTest {
@@ -170,4 +181,56 @@ public class HelperTest {
         final String numberString3 = "text";
         assert !Helper.isPositiveInteger(numberString3);
     }
+
+    @Test
+    public void releaseCalendar() {
+        final ReleaseCalendar calendar = ReleaseCalendar.of(Map.of(20, LocalDate.of(2023, 3, 21), 21, LocalDate.of(2023, 9, 19), 22, LocalDate.of(2024, 3, 19)), LocalDate.of(2023, 12, 1));
+        assert calendar.getLatestGA().getAsInt()     == 21;
+        assert calendar.getNextEA().getAsInt()       == 22;
+        assert calendar.getNextButOneEA().getAsInt() == 23;
+        assert calendar.isGaInFuture(22);
+        assert !calendar.isGaInFuture(21);
+        assert calendar.getTermOfSupport(11) == TermOfSupport.LTS;
+        assert calendar.getTermOfSupport(13) == TermOfSupport.MTS;
+        assert calendar.getTermOfSupport(22) == TermOfSupport.STS;
+        assert calendar.getTermOfSupport(25) == TermOfSupport.LTS;
+        assert calendar.isSTS(13);
+    }
+
+    @Test
+    public void jsonArrayIsStreamedElementByElement() throws IOException {
+        final HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/releases", exchange -> {
+            final byte[] body = "[{\"id\":1},{\"id\":2},{\"id\":3}]".getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("ETag", "\"v1\"");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) { out.write(body); }
+        });
+        server.start();
+        try {
+            final List<JsonElement>                elements = new ArrayList<>();
+            final AtomicReference<HttpResponse<?>> response = new AtomicReference<>();
+            final int status = Helper.getJsonArrayStreamed("http://127.0.0.1:" + server.getAddress().getPort() + "/releases", Map.of(), response::set, elements::add);
+            assert 200 == status;
+            assert 3 == elements.size();
+            assert 3 == elements.get(2).getAsJsonObject().get("id").getAsInt();
+            assert "\"v1\"".equals(response.get().headers().firstValue("ETag").orElse(null));
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    public void streamingKeepsInterruptFlag() {
+        Thread.currentThread().interrupt();
+        try {
+            final List<JsonElement> elements = new ArrayList<>();
+            final int               status   = Helper.getJsonArrayStreamed("http://127.0.0.1:1/releases", Map.of(), elements::add);
+            assert -1 == status;
+            assert elements.isEmpty();
+            assert Thread.currentThread().isInterrupted();
+        } finally {
+            Thread.interrupted();
+        }
+    }
 }
@@ -0,0 +1,81 @@
+/*
+ * Copyright (c) 2021.
+ *
+ * This file is part of DiscoAPI.
+ *
+ *     DiscoAPI is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 2 of the License, or
+ *     (at your option) any later version.
+ *
+ *     DiscoAPI is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with DiscoAPI.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.foojay.api.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+
+
+public class HostLimiterTest {
+
+    @Test
+    public void busyHostIsNotRequested() throws Exception {
+        HostLimiter.INSTANCE.setLimit("busy.test", new HostLimiter.Limit(1, 1000));
+        try (HostLimiter.Permit permit = HostLimiter.INSTANCE.acquire("https://busy.test/a", 100)) {
+            boolean busy = false;
+            try {
+                HostLimiter.INSTANCE.acquire("https://busy.test/b", 50);
+            } catch (HostLimiter.HostBusyException e) {
+                busy = true;
+            }
+            assert busy;
+            assert HostLimiter.INSTANCE.getRequestsInFlight().get("busy.test") == 1;
+        }
+        assert HostLimiter.INSTANCE.getRequestsInFlight().get("busy.test") == 0;
+    }
+
+    @Test
+    public void interruptReleasesPermit() throws Exception {
+        // One request per second, the second request has to wait for its rate slot
+        HostLimiter.INSTANCE.setLimit("slow.test", new HostLimiter.Limit(2, 1));
+        HostLimiter.INSTANCE.acquire("https://slow.test/a", 100).close();
+
+        final CountDownLatch             waiting = new CountDownLatch(1);
+        final AtomicReference<Exception> error   = new AtomicReference<>();
+        final Thread thread = new Thread(() -> {
+            waiting.countDown();
+            try {
+                HostLimiter.INSTANCE.acquire("https://slow.test/b", 100);
+            } catch (Exception e) {
+                error.set(e);
+            }
+        });
+        thread.start();
+        waiting.await();
+        Thread.sleep(100);
+        thread.interrupt();
+        thread.join(5_000);
+
+        assert error.get() instanceof InterruptedException;
+        final Map<String, Integer> inFlight = HostLimiter.INSTANCE.getRequestsInFlight();
+        assert inFlight.get("slow.test") == 0;
+    }
+
+    @Test
+    public void parseLimitsSkipsInvalidEntries() {
+        final Map<String, HostLimiter.Limit> limits = HostLimiter.parseLimits("api.github.com=4:5, cdn.azul.com=2, broken, x.com=a:1, y.com=0:1");
+        assert limits.size() == 2;
+        assert limits.get("api.github.com").equals(new HostLimiter.Limit(4, 5));
+        assert limits.get("cdn.azul.com").maxConcurrent() == 2;
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2021.
+ *
+ * This file is part of DiscoAPI.
+ *
+ *     DiscoAPI is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 2 of the License, or
+ *     (at your option) any later version.
+ *
+ *     DiscoAPI is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with DiscoAPI.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.foojay.api.util;
+
+import org.junit.jupiter.api.Test;
+
+import javax.net.ssl.SSLSession;
+import java.net.URI;
+import java.net.http.HttpClient.Version;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+
+public class HttpCacheTest {
+    private static final String URI_1 = "https://example.org/releases";
+
+    @Test
+    public void notModifiedIsAnsweredFromEntryEvenIfEvicted() {
+        HttpCache.INSTANCE.clear();
+        HttpCache.INSTANCE.handle(URI_1, new Response(200, "[1,2,3]", Map.of("ETag", List.of("\"v1\""))), null);
+
+        final List<String>         headers = new ArrayList<>();
+        final HttpCache.CacheEntry entry   = HttpCache.INSTANCE.addConditionalHeaders(URI_1, headers);
+        assert null != entry;
+        assert headers.equals(List.of("If-None-Match", "\"v1\""));
+
+        HttpCache.INSTANCE.clear();
+        final HttpResponse<String> response = HttpCache.INSTANCE.handle(URI_1, new Response(304, "", Map.of()), entry);
+        assert response.statusCode() == 200;
+        assert response.body().equals("[1,2,3]");
+    }
+
+    @Test
+    public void responsesWithoutValidatorAreNotCached() {
+        HttpCache.INSTANCE.clear();
+        HttpCache.INSTANCE.handle(URI_1, new Response(200, "[1,2,3]", Map.of()), null);
+        assert null == HttpCache.INSTANCE.addConditionalHeaders(URI_1, new ArrayList<>());
+        assert HttpCache.INSTANCE.getCachedBytes() == 0;
+    }
+
+    @Test
+    public void cacheIsBoundedByBytes() {
+        HttpCache.INSTANCE.clear();
+        final String body = "x".repeat(4 * 1024 * 1024);
+        for (int i = 0 ; i < 20 ; i++) {
+            HttpCache.INSTANCE.handle(URI_1 + "?page=" + i, new Response(200, body, Map.of("ETag", List.of("\"" + i + "\""))), null);
+        }
+        assert HttpCache.INSTANCE.getCachedBytes() <= 64 * 1024 * 1024;
+        assert null != HttpCache.INSTANCE.addConditionalHeaders(URI_1 + "?page=19", new ArrayList<>());
+        assert null == HttpCache.INSTANCE.addConditionalHeaders(URI_1 + "?page=0", new ArrayList<>());
+        HttpCache.INSTANCE.clear();
+    }
+
+    @Test
+    public void unchangedIsTrackedPerCaller() {
+        HttpCache.INSTANCE.clear();
+        assert !HttpCache.INSTANCE.isUnchanged("zulu", URI_1, "a");
+        HttpCache.INSTANCE.consumed("zulu", URI_1, "a");
+        assert HttpCache.INSTANCE.isUnchanged("zulu", URI_1, "a");
+        assert !HttpCache.INSTANCE.isUnchanged("zulu", URI_1, "b");
+        assert !HttpCache.INSTANCE.isUnchanged("microsoft", URI_1, "a");
+    }
+
+
+    private record Response(int statusCode, String body, Map<String, List<String>> headerMap) implements HttpResponse<String> {
+        @Override public HttpRequest request() { return HttpRequest.newBuilder(URI.create(URI_1)).build(); }
+
+        @Override public Optional<HttpResponse<String>> previousResponse() { return Optional.empty(); }
+
+        @Override public HttpHeaders headers() { return HttpHeaders.of(headerMap, (name, value) -> true); }
+
+        @Override public Optional<SSLSession> sslSession() { return Optional.empty(); }
+
+        @Override public URI uri() { return URI.create(URI_1); }
+
+        @Override public Version version() { return Version.HTTP_1_1; }
+    }
+}
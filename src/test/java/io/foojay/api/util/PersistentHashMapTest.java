@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2021.
+ *
+ * This file is part of DiscoAPI.
+ *
+ *     DiscoAPI is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 2 of the License, or
+ *     (at your option) any later version.
+ *
+ *     DiscoAPI is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with DiscoAPI.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.foojay.api.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+
+public class PersistentHashMapTest {
+
+    @Test
+    public void behavesLikeHashMap() {
+        final Random                       random    = new Random(42);
+        final Map<String, Integer>         reference = new HashMap<>();
+        PersistentHashMap<String, Integer> map       = PersistentHashMap.empty();
+        for (int i = 0 ; i < 20_000 ; i++) {
+            final String key = "pkg" + random.nextInt(5_000);
+            if (random.nextInt(3) == 0) {
+                reference.remove(key);
+                map = map.remove(key);
+            } else {
+                reference.put(key, i);
+                map = map.put(key, i);
+            }
+        }
+        assert map.size() == reference.size();
+        assert map.toMap().equals(reference);
+        for (String key : reference.keySet()) { assert map.get(key).equals(reference.get(key)); }
+    }
+
+    @Test
+    public void versionsAreIndependent() {
+        final Integer                            value = 1;
+        final PersistentHashMap<String, Integer> v1    = PersistentHashMap.<String, Integer>empty().put("a", value).put("b", 2);
+        final PersistentHashMap<String, Integer> v2    = v1.put("c", 3).remove("a");
+
+        assert v1.put("a", value) == v1;
+        assert v1.size() == 2 && v1.get("a") == 1 && null == v1.get("c");
+        assert v2.size() == 2 && null == v2.get("a") && v2.get("c") == 3;
+    }
+
+    @Test
+    public void handlesHashCollisions() {
+        // "Aa" and "BB" have the same hash code
+        PersistentHashMap<String, Integer> map = PersistentHashMap.<String, Integer>empty().put("Aa", 1).put("BB", 2).put("AaAa", 3).put("BBBB", 4);
+        assert map.size() == 4;
+        assert map.get("Aa") == 1 && map.get("BB") == 2 && map.get("AaAa") == 3 && map.get("BBBB") == 4;
+        map = map.remove("Aa");
+        assert map.size() == 3 && null == map.get("Aa") && map.get("BB") == 2;
+        map = map.remove("BB").remove("AaAa").remove("BBBB");
+        assert map.isEmpty();
+    }
+}
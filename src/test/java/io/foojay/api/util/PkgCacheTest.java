@@ -0,0 +1,132 @@
+/*
+ * Copyright (c) 2021.
+ *
+ * This file is part of DiscoAPI.
+ *
+ *     DiscoAPI is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 2 of the License, or
+ *     (at your option) any later version.
+ *
+ *     DiscoAPI is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with DiscoAPI.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package io.foojay.api.util;
+
+import io.foojay.api.pkg.Distro;
+import io.foojay.api.pkg.Pkg;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+
+public class PkgCacheTest {
+
+    @Test
+    public void containsArtifactAfterAddAndRemove() {
+        final PkgCache<String, Pkg> cache = new PkgCache<>();
+        final Pkg                   pkg   = createPkg("jdk-17.tar.gz");
+        assert !cache.containsArtifact(pkg.getFilename(), pkg.getDirectDownloadUri());
+
+        cache.add("id", pkg);
+        assert cache.containsArtifact(pkg.getFilename(), pkg.getDirectDownloadUri());
+
+        cache.remove("id");
+        assert !cache.containsArtifact(pkg.getFilename(), pkg.getDirectDownloadUri());
+    }
+
+    @Test
+    public void containsArtifactAfterReplace() {
+        final PkgCache<String, Pkg> cache    = new PkgCache<>();
+        final Pkg                   oldPkg   = createPkg("jdk-17.tar.gz");
+        final Pkg                   newPkg   = createPkg("jdk-17.0.1.tar.gz");
+        final Pkg                   otherPkg = createPkg("jdk-11.tar.gz");
+        cache.setAll(Map.of("id", oldPkg, "other", otherPkg));
+
+        cache.replace(Map.of("id", newPkg), true);
+        assert !cache.containsArtifact(oldPkg.getFilename(), oldPkg.getDirectDownloadUri());
+        assert cache.containsArtifact(newPkg.getFilename(), newPkg.getDirectDownloadUri());
+        assert !cache.containsArtifact(otherPkg.getFilename(), otherPkg.getDirectDownloadUri());
+        assert cache.size() == 1;
+
+        // Replace does not add pkgs that are not in the cache
+        final Pkg unknownPkg = createPkg("jdk-8.tar.gz");
+        cache.replace(Map.of("unknown", unknownPkg), false);
+        assert !cache.containsArtifact(unknownPkg.getFilename(), unknownPkg.getDirectDownloadUri());
+    }
+
+    @Test
+    public void containsArtifactAfterUpdateAndSynchronize() {
+        final PkgCache<String, Pkg> cache  = new PkgCache<>();
+        final Pkg                   oldPkg = createPkg("jdk-17.tar.gz");
+        final Pkg                   newPkg = createPkg("jdk-17.0.1.tar.gz");
+        cache.add("id", oldPkg);
+
+        cache.synchronize(Map.of("id", newPkg));
+        assert cache.containsArtifact(oldPkg.getFilename(), oldPkg.getDirectDownloadUri());
+        assert !cache.containsArtifact(newPkg.getFilename(), newPkg.getDirectDownloadUri());
+
+        cache.update(Map.of("id", newPkg), false);
+        assert !cache.containsArtifact(oldPkg.getFilename(), oldPkg.getDirectDownloadUri());
+        assert cache.containsArtifact(newPkg.getFilename(), newPkg.getDirectDownloadUri());
+    }
+
+    @Test
+    public void sharedArtifactStaysUntilLastPkgIsRemoved() {
+        final PkgCache<String, Pkg> cache = new PkgCache<>();
+        final Pkg                   pkg   = createPkg("jdk-17.tar.gz");
+        cache.add("id1", pkg);
+        cache.add("id2", createPkg("jdk-17.tar.gz"));
+
+        cache.remove("id1");
+        assert cache.containsArtifact(pkg.getFilename(), pkg.getDirectDownloadUri());
+        cache.remove(List.of("id2"));
+        assert !cache.containsArtifact(pkg.getFilename(), pkg.getDirectDownloadUri());
+    }
+
+    @Test
+    public void indexMatchesCacheAfterConcurrentAdds() throws Exception {
+        final PkgCache<String, Pkg> cache    = new PkgCache<>();
+        final ExecutorService       executor = Executors.newFixedThreadPool(4);
+        for (int i = 0 ; i < 1_000 ; i++) {
+            final int n = i;
+            executor.execute(() -> cache.add("id" + (n % 100), createPkg("jdk-" + n + ".tar.gz")));
+            if (n % 250 == 0) { executor.execute(() -> cache.setAll(Map.of())); }
+        }
+        executor.shutdown();
+        assert executor.awaitTermination(10, TimeUnit.SECONDS);
+
+        cache.getPkgs().forEach(pkg -> { assert cache.containsArtifact(pkg.getFilename(), pkg.getDirectDownloadUri()); });
+        for (int i = 0 ; i < 1_000 ; i++) {
+            final Pkg pkg = createPkg("jdk-" + i + ".tar.gz");
+            assert cache.containsArtifact(pkg.getFilename(), pkg.getDirectDownloadUri()) == cache.getPkgs().stream().anyMatch(p -> p.getFilename().equals(pkg.getFilename()));
+        }
+    }
+
+    @Test
+    public void versionChangesWithEveryModification() {
+        final PkgCache<String, Pkg> cache   = new PkgCache<>();
+        final long                  version = cache.getVersion();
+        cache.add("id", createPkg("jdk-17.tar.gz"));
+        assert cache.getVersion() > version;
+    }
+
+
+    private static Pkg createPkg(final String filename) {
+        final Pkg pkg = new Pkg();
+        pkg.setDistribution(Distro.ZULU.get());
+        pkg.setFileName(filename);
+        pkg.setDirectDownloadUri("https://cdn.azul.com/zulu/bin/" + filename);
+        return pkg;
+    }
+}